@@ -0,0 +1,53 @@
+package io.craigmiller160.orgbuilder.api.v1.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Base handler for the proxies that wrap connections
+ * and statements, which passes calls through to the
+ * wrapped object. The proxies are only ever equal to
+ * themselves.
+ */
+abstract class DelegatingHandler implements InvocationHandler {
+
+    private final Object target;
+
+    DelegatingHandler(Object target){
+        this.target = target;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch(method.getName()){
+            case "equals":
+                return args.length == 1 && proxy == args[0];
+            case "hashCode":
+                if(method.getParameterCount() == 0){
+                    return System.identityHashCode(proxy);
+                }
+                break;
+            case "toString":
+                if(method.getParameterCount() == 0){
+                    return target.toString();
+                }
+                break;
+            default:
+                break;
+        }
+        return invoke(method, args);
+    }
+
+    protected abstract Object invoke(Method method, Object[] args) throws Throwable;
+
+    protected Object delegate(Method method, Object[] args) throws Throwable {
+        try{
+            return method.invoke(target, args);
+        }
+        catch(InvocationTargetException ex){
+            throw ex.getCause();
+        }
+    }
+
+}
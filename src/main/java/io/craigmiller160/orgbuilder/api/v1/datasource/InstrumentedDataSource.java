@@ -0,0 +1,289 @@
+package io.craigmiller160.orgbuilder.api.v1.datasource;
+
+import io.craigmiller160.orgbuilder.api.v1.util.LatencyHistogram;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.apache.commons.dbcp2.ConnectionFactory;
+import org.apache.commons.dbcp2.PoolableConnection;
+import org.apache.commons.pool2.impl.DefaultPooledObjectInfo;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A connection pool that records how long each
+ * connection takes to borrow, and how many borrows
+ * time out, so that waiting on the pool can be told
+ * apart from waiting on the database.
+ *
+ * It can also size itself: when adaptive sizing is
+ * enabled, the wait times are checked at a fixed
+ * interval, and the maximum size of the pool is grown
+ * when borrows wait too long, or shrunk when they don't
+ * wait at all and the pool is mostly idle. The size
+ * always stays between the minimum and maximum pool size.
+ *
+ * Prepared statements are also metered. When statement
+ * pooling is enabled, each connection keeps a cache of its
+ * prepared statements, evicting the ones idle the longest
+ * when it is full, and the hit rate of that cache and the
+ * execution count and latency of each statement are recorded.
+ */
+public class InstrumentedDataSource extends BasicDataSource {
+
+    public static final int DEFAULT_MIN_POOL_SIZE = 4;
+    public static final int DEFAULT_MAX_POOL_SIZE = 32;
+    public static final long DEFAULT_ADJUST_INTERVAL_MILLIS = 10000;
+    public static final double DEFAULT_GROW_WAIT_MILLIS = 10;
+    public static final double DEFAULT_SHRINK_WAIT_MILLIS = 1;
+    public static final int DEFAULT_RESIZE_STEP = 2;
+
+    /*
+     * The wait times of every borrow, and of the
+     * borrows since the pool size was last adjusted.
+     */
+    private final LatencyHistogram waitTimes = new LatencyHistogram();
+    private final LatencyHistogram intervalWaitTimes = new LatencyHistogram();
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+
+    private final StatementMetrics statementMetrics = new StatementMetrics();
+
+    /*
+     * The settings for adaptive sizing.
+     */
+    private boolean adaptiveSizing = false;
+    private int minPoolSize = DEFAULT_MIN_POOL_SIZE;
+    private int maxPoolSize = DEFAULT_MAX_POOL_SIZE;
+    private long adjustIntervalMillis = DEFAULT_ADJUST_INTERVAL_MILLIS;
+    private double growWaitMillis = DEFAULT_GROW_WAIT_MILLIS;
+    private double shrinkWaitMillis = DEFAULT_SHRINK_WAIT_MILLIS;
+    private int resizeStep = DEFAULT_RESIZE_STEP;
+
+    private ScheduledExecutorService sizer;
+
+    public boolean isAdaptiveSizing(){
+        return adaptiveSizing;
+    }
+
+    public void setAdaptiveSizing(boolean adaptiveSizing){
+        this.adaptiveSizing = adaptiveSizing;
+    }
+
+    public int getMinPoolSize(){
+        return minPoolSize;
+    }
+
+    public void setMinPoolSize(int minPoolSize){
+        this.minPoolSize = minPoolSize;
+    }
+
+    public int getMaxPoolSize(){
+        return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(int maxPoolSize){
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    public long getAdjustIntervalMillis(){
+        return adjustIntervalMillis;
+    }
+
+    public void setAdjustIntervalMillis(long adjustIntervalMillis){
+        this.adjustIntervalMillis = adjustIntervalMillis;
+    }
+
+    public double getGrowWaitMillis(){
+        return growWaitMillis;
+    }
+
+    /**
+     * Set the 95th percentile wait time, over an
+     * interval, above which the pool is grown.
+     *
+     * @param growWaitMillis the wait time in milliseconds.
+     */
+    public void setGrowWaitMillis(double growWaitMillis){
+        this.growWaitMillis = growWaitMillis;
+    }
+
+    public double getShrinkWaitMillis(){
+        return shrinkWaitMillis;
+    }
+
+    /**
+     * Set the 95th percentile wait time, over an
+     * interval, at or below which the pool may be shrunk.
+     *
+     * @param shrinkWaitMillis the wait time in milliseconds.
+     */
+    public void setShrinkWaitMillis(double shrinkWaitMillis){
+        this.shrinkWaitMillis = shrinkWaitMillis;
+    }
+
+    public int getResizeStep(){
+        return resizeStep;
+    }
+
+    public void setResizeStep(int resizeStep){
+        this.resizeStep = resizeStep;
+    }
+
+    /**
+     * Start adjusting the size of the pool, if
+     * adaptive sizing is enabled.
+     */
+    public synchronized void start(){
+        if(adaptiveSizing && sizer == null){
+            sizer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "pool-sizer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sizer.scheduleWithFixedDelay(this::adjustPoolSize,
+                    adjustIntervalMillis, adjustIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws SQLException {
+        if(sizer != null){
+            sizer.shutdownNow();
+            sizer = null;
+        }
+        super.close();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        // The first borrow also creates the pool, which isn't waiting on it
+        boolean record = getConnectionPool() != null;
+        long start = System.nanoTime();
+        try{
+            Connection connection = super.getConnection();
+            borrowCount.incrementAndGet();
+            return MeteredConnections.countPrepares(connection, statementMetrics);
+        }
+        catch(SQLException ex){
+            if(ex.getCause() instanceof NoSuchElementException){
+                timeoutCount.incrementAndGet();
+            }
+            throw ex;
+        }
+        finally{
+            if(record){
+                long elapsed = System.nanoTime() - start;
+                waitTimes.record(elapsed);
+                intervalWaitTimes.record(elapsed);
+            }
+        }
+    }
+
+    /**
+     * Create the factory for the physical connections
+     * of the pool. These are wrapped so that the statements
+     * prepared and executed on them are metered.
+     *
+     * @return the connection factory.
+     * @throws SQLException if the factory can't be created.
+     */
+    @Override
+    protected ConnectionFactory createConnectionFactory() throws SQLException {
+        final ConnectionFactory factory = super.createConnectionFactory();
+        return () -> MeteredConnections.meterPhysical(factory.createConnection(), statementMetrics);
+    }
+
+    /**
+     * Get the statistics of the statements prepared
+     * and executed with this pool.
+     *
+     * @return the statement metrics.
+     */
+    public StatementMetrics getStatementMetrics(){
+        return statementMetrics;
+    }
+
+    /**
+     * Grow or shrink the maximum size of the pool,
+     * based on the wait times since it was last adjusted.
+     * The pool grows if borrows waited longer than the
+     * grow threshold, or threads are still waiting. It
+     * shrinks if borrows waited no longer than the shrink
+     * threshold and at least a step's worth of connections
+     * aren't in use.
+     */
+    public synchronized void adjustPoolSize(){
+        double p95Wait = intervalWaitTimes.getPercentileMillis(0.95);
+        intervalWaitTimes.reset();
+
+        int current = getMaxTotal();
+        GenericObjectPool<PoolableConnection> pool = getConnectionPool();
+        int waiters = pool != null ? pool.getNumWaiters() : 0;
+
+        if((p95Wait > growWaitMillis || waiters > 0) && current < maxPoolSize){
+            resize(Math.min(maxPoolSize, current + resizeStep));
+        }
+        else if(p95Wait <= shrinkWaitMillis && current > minPoolSize &&
+                getNumActive() <= current - resizeStep){
+            resize(Math.max(minPoolSize, current - resizeStep));
+        }
+    }
+
+    /**
+     * Set the maximum size of the pool. The maximum number
+     * of idle connections follows it, so that connections
+     * above the new size are closed as they are returned.
+     *
+     * @param size the new maximum size.
+     */
+    private void resize(int size){
+        setMaxTotal(size);
+        setMaxIdle(size);
+    }
+
+    /**
+     * Get a snapshot of the statistics of this pool.
+     *
+     * @return the statistics of this pool.
+     */
+    public PoolStatistics getStatistics(){
+        long oldestAge = 0;
+        long totalAge = 0;
+        int connections = 0;
+        int waiters = 0;
+
+        GenericObjectPool<PoolableConnection> pool = getConnectionPool();
+        if(pool != null){
+            waiters = pool.getNumWaiters();
+            long now = System.currentTimeMillis();
+            Set<DefaultPooledObjectInfo> objects = pool.listAllObjects();
+            for(DefaultPooledObjectInfo info : objects){
+                long age = now - info.getCreateTime();
+                oldestAge = Math.max(oldestAge, age);
+                totalAge += age;
+                connections++;
+            }
+        }
+
+        return new PoolStatistics(getNumActive(), getNumIdle(), getMaxTotal(), waiters,
+                borrowCount.get(), timeoutCount.get(),
+                waitTimes.getMeanMillis(), waitTimes.getPercentileMillis(0.5),
+                waitTimes.getPercentileMillis(0.95), waitTimes.getPercentileMillis(0.99),
+                waitTimes.getMaxMillis(),
+                oldestAge, connections == 0 ? 0 : totalAge / connections);
+    }
+
+    @Override
+    public String toString(){
+        return getUrl() + ": " + getStatistics();
+    }
+
+}
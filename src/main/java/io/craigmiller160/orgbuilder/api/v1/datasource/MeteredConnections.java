@@ -0,0 +1,108 @@
+package io.craigmiller160.orgbuilder.api.v1.datasource;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Wraps connections and prepared statements in proxies
+ * that record StatementMetrics. Two layers are used with
+ * a statement cache: the connections the application
+ * borrows count every prepare, and the physical connections
+ * underneath the cache count only the prepares that reach
+ * the driver, and time every execution.
+ */
+final class MeteredConnections {
+
+    /**
+     * The names of the methods of a PreparedStatement
+     * that execute it.
+     */
+    private static final Set<String> EXECUTE_METHODS = new HashSet<>(Arrays.asList(
+            "execute", "executeQuery", "executeUpdate", "executeBatch",
+            "executeLargeUpdate", "executeLargeBatch"));
+
+    private MeteredConnections(){}
+
+    /**
+     * Wrap a connection borrowed from the pool, so
+     * that every prepare made with it is counted.
+     *
+     * @param connection the borrowed connection.
+     * @param metrics the metrics to record to.
+     * @return the wrapped connection.
+     */
+    static Connection countPrepares(final Connection connection, final StatementMetrics metrics){
+        return (Connection) Proxy.newProxyInstance(MeteredConnections.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new DelegatingHandler(connection) {
+                    @Override
+                    protected Object invoke(Method method, Object[] args) throws Throwable {
+                        if(isPrepare(method, args)){
+                            metrics.recordPrepare();
+                        }
+                        return delegate(method, args);
+                    }
+                });
+    }
+
+    /**
+     * Wrap a physical connection, as created by the
+     * driver, so that every statement it prepares is
+     * counted as a physical prepare and every execution
+     * of those statements is timed.
+     *
+     * @param connection the physical connection.
+     * @param metrics the metrics to record to.
+     * @return the wrapped connection.
+     */
+    static Connection meterPhysical(final Connection connection, final StatementMetrics metrics){
+        return (Connection) Proxy.newProxyInstance(MeteredConnections.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new DelegatingHandler(connection) {
+                    @Override
+                    protected Object invoke(Method method, Object[] args) throws Throwable {
+                        Object result = delegate(method, args);
+                        if(isPrepare(method, args)){
+                            metrics.recordPhysicalPrepare();
+                            StatementStatistics stats = metrics.getStatistics((String) args[0]);
+                            if(stats != null){
+                                return meterStatement((PreparedStatement) result, stats);
+                            }
+                        }
+                        return result;
+                    }
+                });
+    }
+
+    private static PreparedStatement meterStatement(final PreparedStatement statement, final StatementStatistics stats){
+        return (PreparedStatement) Proxy.newProxyInstance(MeteredConnections.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new DelegatingHandler(statement) {
+                    @Override
+                    protected Object invoke(Method method, Object[] args) throws Throwable {
+                        if(!EXECUTE_METHODS.contains(method.getName())){
+                            return delegate(method, args);
+                        }
+
+                        long start = System.nanoTime();
+                        try{
+                            return delegate(method, args);
+                        }
+                        finally{
+                            stats.record(System.nanoTime() - start);
+                        }
+                    }
+                });
+    }
+
+    private static boolean isPrepare(Method method, Object[] args){
+        return method.getName().equals("prepareStatement") &&
+                args != null && args.length > 0 && args[0] instanceof String;
+    }
+
+}
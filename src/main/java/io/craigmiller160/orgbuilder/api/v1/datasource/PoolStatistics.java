@@ -0,0 +1,122 @@
+package io.craigmiller160.orgbuilder.api.v1.datasource;
+
+/**
+ * A snapshot of the statistics of a connection
+ * pool, used to tell whether time is being lost
+ * waiting for connections or in the database itself.
+ */
+public class PoolStatistics {
+
+    private final int active;
+    private final int idle;
+    private final int maxTotal;
+    private final int waiters;
+    private final long borrowCount;
+    private final long timeoutCount;
+    private final double meanWaitMillis;
+    private final double p50WaitMillis;
+    private final double p95WaitMillis;
+    private final double p99WaitMillis;
+    private final double maxWaitMillis;
+    private final long oldestConnectionAgeMillis;
+    private final long meanConnectionAgeMillis;
+
+    /**
+     * Create a new snapshot.
+     *
+     * @param active the number of connections borrowed.
+     * @param idle the number of connections idle in the pool.
+     * @param maxTotal the current maximum size of the pool.
+     * @param waiters the number of threads waiting for a connection.
+     * @param borrowCount the number of connections borrowed.
+     * @param timeoutCount the number of borrows that timed out waiting.
+     * @param meanWaitMillis the mean time spent waiting to borrow.
+     * @param p50WaitMillis the median time spent waiting to borrow.
+     * @param p95WaitMillis the 95th percentile time spent waiting to borrow.
+     * @param p99WaitMillis the 99th percentile time spent waiting to borrow.
+     * @param maxWaitMillis the longest time spent waiting to borrow.
+     * @param oldestConnectionAgeMillis the age of the oldest connection in the pool.
+     * @param meanConnectionAgeMillis the mean age of the connections in the pool.
+     */
+    public PoolStatistics(int active, int idle, int maxTotal, int waiters,
+                          long borrowCount, long timeoutCount,
+                          double meanWaitMillis, double p50WaitMillis, double p95WaitMillis,
+                          double p99WaitMillis, double maxWaitMillis,
+                          long oldestConnectionAgeMillis, long meanConnectionAgeMillis){
+        this.active = active;
+        this.idle = idle;
+        this.maxTotal = maxTotal;
+        this.waiters = waiters;
+        this.borrowCount = borrowCount;
+        this.timeoutCount = timeoutCount;
+        this.meanWaitMillis = meanWaitMillis;
+        this.p50WaitMillis = p50WaitMillis;
+        this.p95WaitMillis = p95WaitMillis;
+        this.p99WaitMillis = p99WaitMillis;
+        this.maxWaitMillis = maxWaitMillis;
+        this.oldestConnectionAgeMillis = oldestConnectionAgeMillis;
+        this.meanConnectionAgeMillis = meanConnectionAgeMillis;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public int getWaiters() {
+        return waiters;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount;
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    public double getMeanWaitMillis() {
+        return meanWaitMillis;
+    }
+
+    public double getP50WaitMillis() {
+        return p50WaitMillis;
+    }
+
+    public double getP95WaitMillis() {
+        return p95WaitMillis;
+    }
+
+    public double getP99WaitMillis() {
+        return p99WaitMillis;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    public long getOldestConnectionAgeMillis() {
+        return oldestConnectionAgeMillis;
+    }
+
+    public long getMeanConnectionAgeMillis() {
+        return meanConnectionAgeMillis;
+    }
+
+    @Override
+    public String toString(){
+        return String.format("active=%d, idle=%d, maxTotal=%d, waiters=%d, borrows=%d, timeouts=%d, " +
+                        "waitMillis[mean=%.2f, p50=%.2f, p95=%.2f, p99=%.2f, max=%.2f], " +
+                        "connectionAgeMillis[oldest=%d, mean=%d]",
+                active, idle, maxTotal, waiters, borrowCount, timeoutCount,
+                meanWaitMillis, p50WaitMillis, p95WaitMillis, p99WaitMillis, maxWaitMillis,
+                oldestConnectionAgeMillis, meanConnectionAgeMillis);
+    }
+}
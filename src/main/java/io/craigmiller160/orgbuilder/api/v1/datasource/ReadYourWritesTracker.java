@@ -0,0 +1,134 @@
+package io.craigmiller160.orgbuilder.api.v1.datasource;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks when each client session last committed
+ * a write, so that its reads can be kept on the
+ * primary database until the write has had time to
+ * reach the replicas.
+ *
+ * The session a thread is working for is bound with
+ * bindSession(), typically by a filter at the start
+ * of each request, using the HTTP session ID or any
+ * other key that identifies the client. Threads with
+ * no session bound are tracked by their own thread,
+ * so a thread always reads its own writes.
+ */
+public class ReadYourWritesTracker {
+
+    public static final long DEFAULT_WINDOW_MILLIS = 5000;
+
+    /**
+     * The number of tracked sessions above which expired
+     * entries are purged, to keep the map from growing
+     * with sessions that never come back.
+     */
+    private static final int PURGE_THRESHOLD = 10000;
+
+    private static final ThreadLocal<String> SESSION_KEY = new ThreadLocal<>();
+
+    /**
+     * How long after a write the session's reads
+     * are sent to the primary. This should be longer
+     * than the usual replication lag.
+     */
+    private long windowMillis = DEFAULT_WINDOW_MILLIS;
+
+    /**
+     * The time of the last write of each session.
+     */
+    private final Map<String,Long> lastWrites = new ConcurrentHashMap<>();
+
+    public long getWindowMillis(){
+        return windowMillis;
+    }
+
+    public void setWindowMillis(long windowMillis){
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Bind the client session that the current
+     * thread is working for.
+     *
+     * @param sessionKey the key identifying the session.
+     */
+    public static void bindSession(String sessionKey){
+        SESSION_KEY.set(sessionKey);
+    }
+
+    /**
+     * Remove the client session bound to the
+     * current thread. This must be called when the
+     * thread is done working for the session.
+     */
+    public static void unbindSession(){
+        SESSION_KEY.remove();
+    }
+
+    /**
+     * Get the key of the session the current thread
+     * is working for, so that work handed to another
+     * thread can be bound to the same session. If no
+     * session is bound, this is the key of the thread.
+     *
+     * @return the key of the current session.
+     */
+    public static String getCurrentSession(){
+        return currentKey();
+    }
+
+    /**
+     * Record that the current session has just
+     * committed a write.
+     */
+    public void recordWrite(){
+        if(lastWrites.size() > PURGE_THRESHOLD){
+            purgeExpired();
+        }
+        lastWrites.put(currentKey(), System.currentTimeMillis());
+    }
+
+    /**
+     * Test if the current session has committed a
+     * write recently enough that it may not have
+     * reached the replicas yet.
+     *
+     * @return true if reads should go to the primary.
+     */
+    public boolean isWithinWindow(){
+        String key = currentKey();
+        Long lastWrite = lastWrites.get(key);
+        if(lastWrite == null){
+            return false;
+        }
+
+        if(System.currentTimeMillis() - lastWrite > windowMillis){
+            lastWrites.remove(key, lastWrite);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Get the number of sessions currently tracked.
+     *
+     * @return the number of sessions tracked.
+     */
+    public int getTrackedCount(){
+        return lastWrites.size();
+    }
+
+    private void purgeExpired(){
+        long cutoff = System.currentTimeMillis() - windowMillis;
+        lastWrites.values().removeIf(lastWrite -> lastWrite < cutoff);
+    }
+
+    private static String currentKey(){
+        String key = SESSION_KEY.get();
+        return key != null ? key : "thread:" + Thread.currentThread().getId();
+    }
+
+}
@@ -0,0 +1,142 @@
+package io.craigmiller160.orgbuilder.api.v1.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A DataSource that sends read-only transactions to
+ * the replica databases, and everything else to the
+ * primary. Reads are spread over the replicas in turn.
+ *
+ * After a session commits a read-write transaction
+ * that changed the database, its read-only transactions
+ * keep going to the primary for the window of the
+ * ReadYourWritesTracker, so it always sees its own writes
+ * even if the replicas are behind. A read-write transaction
+ * that only ran queries doesn't open the window, as there
+ * is nothing for the replicas to catch up on.
+ *
+ * The route is decided when a connection is taken,
+ * which must happen after the transaction has started.
+ * This DataSource should always be wrapped in a
+ * LazyConnectionDataSourceProxy, which holds off taking
+ * the connection until the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY_KEY = "primary";
+    private static final String REPLICA_KEY_PREFIX = "replica";
+
+    private DataSource primary;
+    private List<DataSource> replicas = Collections.emptyList();
+    private ReadYourWritesTracker tracker = new ReadYourWritesTracker();
+
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public DataSource getPrimary(){
+        return primary;
+    }
+
+    public void setPrimary(DataSource primary){
+        this.primary = primary;
+    }
+
+    public List<DataSource> getReplicas(){
+        return replicas;
+    }
+
+    public void setReplicas(List<DataSource> replicas){
+        this.replicas = replicas;
+    }
+
+    public ReadYourWritesTracker getTracker(){
+        return tracker;
+    }
+
+    public void setTracker(ReadYourWritesTracker tracker){
+        this.tracker = tracker;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if(primary == null){
+            throw new IllegalArgumentException("The primary DataSource is required");
+        }
+
+        Map<Object,Object> targets = new HashMap<>();
+        targets.put(PRIMARY_KEY, primary);
+        replicaKeys.clear();
+        for(int i = 0; i < replicas.size(); i++){
+            String key = REPLICA_KEY_PREFIX + i;
+            targets.put(key, replicas.get(i));
+            replicaKeys.add(key);
+        }
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        super.afterPropertiesSet();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return trackWrites(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return trackWrites(super.getConnection(username, password));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if(!TransactionSynchronizationManager.isCurrentTransactionReadOnly()){
+            return PRIMARY_KEY;
+        }
+
+        if(replicaKeys.isEmpty() || tracker.isWithinWindow()){
+            return PRIMARY_KEY;
+        }
+
+        int index = (nextReplica.getAndIncrement() & Integer.MAX_VALUE) % replicaKeys.size();
+        return replicaKeys.get(index);
+    }
+
+    /**
+     * Wrap the connection of a read-write transaction, so
+     * that a write is recorded for the current session once
+     * the transaction commits, if any statement run on the
+     * connection changed the database. Nothing is recorded
+     * if the transaction rolls back, or if there is no
+     * transaction.
+     */
+    private Connection trackWrites(Connection connection){
+        if(TransactionSynchronizationManager.isCurrentTransactionReadOnly() ||
+                !TransactionSynchronizationManager.isSynchronizationActive()){
+            return connection;
+        }
+
+        final AtomicBoolean written = new AtomicBoolean();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                if(written.get()){
+                    tracker.recordWrite();
+                }
+            }
+        });
+        return WriteDetectingConnections.detectWrites(connection, () -> written.set(true));
+    }
+}
@@ -0,0 +1,121 @@
+package io.craigmiller160.orgbuilder.api.v1.datasource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the statement statistics of a connection
+ * pool: how often a prepared statement was served from
+ * the statement cache, and how many times and how long
+ * each distinct SQL statement was executed.
+ *
+ * A prepare is counted every time the application asks
+ * for a prepared statement, and a physical prepare every
+ * time one actually has to be prepared by the driver.
+ * The difference between them are the cache hits.
+ */
+public class StatementMetrics {
+
+    /**
+     * The maximum number of distinct statements tracked.
+     * Statements first seen after this many are counted as
+     * untracked, so that SQL built with literal values
+     * can't grow the statistics without bound.
+     */
+    public static final int MAX_TRACKED_STATEMENTS = 1000;
+
+    private final Map<String,StatementStatistics> statements = new ConcurrentHashMap<>();
+    private final AtomicLong prepareCount = new AtomicLong();
+    private final AtomicLong physicalPrepareCount = new AtomicLong();
+    private final AtomicLong untrackedCount = new AtomicLong();
+
+    /**
+     * Record that the application asked for
+     * a prepared statement.
+     */
+    void recordPrepare(){
+        prepareCount.incrementAndGet();
+    }
+
+    /**
+     * Record that a statement had to be prepared
+     * by the driver, because it wasn't in the cache.
+     */
+    void recordPhysicalPrepare(){
+        physicalPrepareCount.incrementAndGet();
+    }
+
+    /**
+     * Get the statistics for a statement, creating
+     * them if this is the first time it has been seen.
+     *
+     * @param sql the SQL of the statement.
+     * @return the statistics, or null if too many statements are tracked.
+     */
+    StatementStatistics getStatistics(String sql){
+        StatementStatistics stats = statements.get(sql);
+        if(stats == null){
+            if(statements.size() >= MAX_TRACKED_STATEMENTS){
+                untrackedCount.incrementAndGet();
+                return null;
+            }
+            stats = statements.computeIfAbsent(sql, StatementStatistics::new);
+        }
+        return stats;
+    }
+
+    public long getPrepareCount(){
+        return prepareCount.get();
+    }
+
+    public long getPhysicalPrepareCount(){
+        return physicalPrepareCount.get();
+    }
+
+    /**
+     * Get the fraction of prepares that were served
+     * from the statement cache.
+     *
+     * @return the hit rate, or 0 if nothing has been prepared.
+     */
+    public double getHitRate(){
+        long prepares = prepareCount.get();
+        if(prepares == 0){
+            return 0;
+        }
+        long hits = Math.max(0, prepares - physicalPrepareCount.get());
+        return (double) hits / prepares;
+    }
+
+    /**
+     * Get the number of statements that weren't tracked
+     * because the limit of distinct statements was reached.
+     *
+     * @return the number of untracked statements.
+     */
+    public long getUntrackedCount(){
+        return untrackedCount.get();
+    }
+
+    /**
+     * Get the statistics of every statement tracked, with
+     * the ones that took the most total time first.
+     *
+     * @return the statistics of each statement.
+     */
+    public List<StatementStatistics> getStatementStatistics(){
+        List<StatementStatistics> results = new ArrayList<>(statements.values());
+        results.sort(Comparator.comparingDouble(StatementStatistics::getTotalMillis).reversed());
+        return results;
+    }
+
+    @Override
+    public String toString(){
+        return String.format("prepares=%d, physicalPrepares=%d, hitRate=%.2f, statements=%d, untracked=%d",
+                getPrepareCount(), getPhysicalPrepareCount(), getHitRate(), statements.size(), getUntrackedCount());
+    }
+}
@@ -0,0 +1,68 @@
+package io.craigmiller160.orgbuilder.api.v1.datasource;
+
+import io.craigmiller160.orgbuilder.api.v1.util.LatencyHistogram;
+
+/**
+ * The execution count and latency of a
+ * single SQL statement.
+ */
+public class StatementStatistics {
+
+    private final String sql;
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    /**
+     * Create statistics for a statement.
+     *
+     * @param sql the SQL of the statement.
+     */
+    public StatementStatistics(String sql){
+        this.sql = sql;
+    }
+
+    /**
+     * Record an execution of the statement.
+     *
+     * @param nanos how long the execution took, in nanoseconds.
+     */
+    void record(long nanos){
+        latency.record(nanos);
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public long getExecutionCount(){
+        return latency.getCount();
+    }
+
+    public double getMeanMillis(){
+        return latency.getMeanMillis();
+    }
+
+    public double getP95Millis(){
+        return latency.getPercentileMillis(0.95);
+    }
+
+    public double getMaxMillis(){
+        return latency.getMaxMillis();
+    }
+
+    /**
+     * Get the total time spent executing the
+     * statement, which is the best measure of
+     * which statements are the hottest.
+     *
+     * @return the total execution time in milliseconds.
+     */
+    public double getTotalMillis(){
+        return latency.getMeanMillis() * latency.getCount();
+    }
+
+    @Override
+    public String toString(){
+        return String.format("executions=%d, totalMillis=%.1f, meanMillis=%.2f, p95Millis=%.2f, maxMillis=%.2f: %s",
+                getExecutionCount(), getTotalMillis(), getMeanMillis(), getP95Millis(), getMaxMillis(), sql);
+    }
+}
@@ -0,0 +1,72 @@
+package io.craigmiller160.orgbuilder.api.v1.datasource;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Wraps connections, and the statements they create,
+ * in proxies that report when a statement that changes
+ * the database is executed, as opposed to a query.
+ */
+final class WriteDetectingConnections {
+
+    /**
+     * The names of the methods of a Statement that
+     * execute it and return an update count.
+     */
+    private static final Set<String> UPDATE_METHODS = new HashSet<>(Arrays.asList(
+            "executeUpdate", "executeBatch", "executeLargeUpdate", "executeLargeBatch"));
+
+    private WriteDetectingConnections(){}
+
+    /**
+     * Wrap a connection, so that a callback is run every
+     * time one of its statements executes an update. A
+     * statement run with execute() counts as an update
+     * unless it returns a result set.
+     *
+     * @param connection the connection.
+     * @param onWrite the callback.
+     * @return the wrapped connection.
+     */
+    static Connection detectWrites(final Connection connection, final Runnable onWrite){
+        return (Connection) Proxy.newProxyInstance(WriteDetectingConnections.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new DelegatingHandler(connection) {
+                    @Override
+                    protected Object invoke(Method method, Object[] args) throws Throwable {
+                        Object result = delegate(method, args);
+                        if(result instanceof Statement){
+                            return detectWrites((Statement) result, onWrite);
+                        }
+                        return result;
+                    }
+                });
+    }
+
+    private static Statement detectWrites(final Statement statement, final Runnable onWrite){
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class :
+                statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return (Statement) Proxy.newProxyInstance(WriteDetectingConnections.class.getClassLoader(),
+                new Class<?>[]{type},
+                new DelegatingHandler(statement) {
+                    @Override
+                    protected Object invoke(Method method, Object[] args) throws Throwable {
+                        Object result = delegate(method, args);
+                        if(UPDATE_METHODS.contains(method.getName()) ||
+                                (method.getName().equals("execute") && Boolean.FALSE.equals(result))){
+                            onWrite.run();
+                        }
+                        return result;
+                    }
+                });
+    }
+
+}
@@ -0,0 +1,7 @@
+/**
+ * This package contains the DataSources that sit
+ * between the persistence layer and the connection
+ * pools, deciding which database each transaction
+ * is sent to.
+ */
+package io.craigmiller160.orgbuilder.api.v1.datasource;
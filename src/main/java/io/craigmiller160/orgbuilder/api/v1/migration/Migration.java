@@ -0,0 +1,122 @@
+package io.craigmiller160.orgbuilder.api.v1.migration;
+
+import org.springframework.core.io.Resource;
+import org.springframework.util.FileCopyUtils;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * A single migration of the schema: a SQL script
+ * named V{version}__{description}.sql, such as
+ * V3__add_query_indexes.sql. Migrations are applied
+ * in order of their version, which must be unique.
+ *
+ * Once a migration has been applied it must not be
+ * changed, as its checksum is recorded and checked
+ * every time the migrations run. Further changes to
+ * the schema go in a new migration.
+ */
+public class Migration implements Comparable<Migration> {
+
+    private static final Pattern NAME_PATTERN = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    private final int version;
+    private final String description;
+    private final String script;
+    private final long checksum;
+
+    /**
+     * Create a migration.
+     *
+     * @param version the version of the migration.
+     * @param description the description of the migration.
+     * @param script the SQL script of the migration.
+     */
+    public Migration(int version, String description, String script){
+        this.version = version;
+        this.description = description;
+        this.script = script;
+        this.checksum = checksum(script);
+    }
+
+    /**
+     * Read a migration from a script.
+     *
+     * @param resource the script.
+     * @return the migration.
+     * @throws IllegalArgumentException if the script isn't named
+     *          like a migration.
+     * @throws IOException if the script can't be read.
+     */
+    public static Migration fromResource(Resource resource) throws IOException {
+        String name = resource.getFilename();
+        Matcher matcher = NAME_PATTERN.matcher(name != null ? name : "");
+        if(!matcher.matches()){
+            throw new IllegalArgumentException("Migration must be named V{version}__{description}.sql: " + name);
+        }
+
+        String script = FileCopyUtils.copyToString(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8));
+        return new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '), script);
+    }
+
+    /**
+     * Calculate the checksum of a script. Line endings
+     * are normalized first, so checking the script out
+     * on a different platform doesn't change it.
+     *
+     * @param script the script.
+     * @return the checksum.
+     */
+    private static long checksum(String script){
+        CRC32 crc = new CRC32();
+        crc.update(script.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    public int getVersion(){
+        return version;
+    }
+
+    public String getDescription(){
+        return description;
+    }
+
+    public String getScript(){
+        return script;
+    }
+
+    public long getChecksum(){
+        return checksum;
+    }
+
+    @Override
+    public int compareTo(Migration other){
+        return Integer.compare(version, other.version);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        Migration migration = (Migration) o;
+
+        return version == migration.version && checksum == migration.checksum;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * version + (int) (checksum ^ (checksum >>> 32));
+    }
+
+    @Override
+    public String toString(){
+        return "V" + version + " " + description;
+    }
+
+}
@@ -0,0 +1,271 @@
+package io.craigmiller160.orgbuilder.api.v1.migration;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Brings the schema up to date when the application
+ * starts, by applying each migration that hasn't been
+ * applied yet, in order of version.
+ *
+ * Applied migrations are recorded in the schema_version
+ * table, with the checksum of their script. If the script
+ * of an applied migration has since changed, or an applied
+ * migration is missing, the application fails to start
+ * rather than run against a schema it doesn't know.
+ *
+ * On MySQL, a named lock is held while migrating, so
+ * that several instances starting at once don't apply
+ * the same migration twice. MySQL commits each DDL
+ * statement as it runs, so a migration that fails part
+ * way through can't be rolled back, and must be fixed
+ * by hand before the application will start.
+ */
+public class SchemaMigrator implements InitializingBean {
+
+    public static final String DEFAULT_LOCATIONS = "classpath*:db/migration/V*__*.sql";
+    public static final String VERSION_TABLE = "schema_version";
+
+    private static final String LOCK_NAME = "orgbuilder_schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    private DataSource dataSource;
+    private boolean enabled = true;
+    private String locations = DEFAULT_LOCATIONS;
+
+    public DataSource getDataSource(){
+        return dataSource;
+    }
+
+    /**
+     * Set the DataSource to migrate. This must
+     * connect to the primary database.
+     *
+     * @param dataSource the DataSource.
+     */
+    public void setDataSource(DataSource dataSource){
+        this.dataSource = dataSource;
+    }
+
+    public boolean isEnabled(){
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled){
+        this.enabled = enabled;
+    }
+
+    public String getLocations(){
+        return locations;
+    }
+
+    /**
+     * Set the pattern matching the migration scripts.
+     *
+     * @param locations the resource pattern for the scripts.
+     */
+    public void setLocations(String locations){
+        this.locations = locations;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if(enabled){
+            migrate();
+        }
+    }
+
+    /**
+     * Apply every migration that hasn't been applied yet.
+     *
+     * @return the migrations applied.
+     * @throws IllegalStateException if an applied migration
+     *          has changed or is missing, or a migration fails.
+     * @throws SQLException if the database can't be accessed.
+     * @throws IOException if the scripts can't be read.
+     */
+    public List<Migration> migrate() throws SQLException, IOException {
+        List<Migration> migrations = loadMigrations();
+        try(Connection connection = dataSource.getConnection()){
+            //Each statement commits as it runs, as DDL does on MySQL anyway
+            connection.setAutoCommit(true);
+            boolean locked = lock(connection);
+            try{
+                createVersionTable(connection);
+                Map<Integer,Long> applied = getAppliedChecksums(connection);
+                validate(migrations, applied);
+
+                List<Migration> pending = new ArrayList<>();
+                for(Migration migration : migrations){
+                    if(!applied.containsKey(migration.getVersion())){
+                        apply(connection, migration);
+                        pending.add(migration);
+                    }
+                }
+                return pending;
+            }
+            finally{
+                if(locked){
+                    unlock(connection);
+                }
+            }
+        }
+    }
+
+    /**
+     * Load the migration scripts, sorted by version.
+     *
+     * @return the migrations.
+     * @throws IOException if the scripts can't be read.
+     * @throws IllegalStateException if two scripts have the same version.
+     */
+    public List<Migration> loadMigrations() throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources(locations);
+        List<Migration> migrations = new ArrayList<>();
+        for(Resource resource : resources){
+            migrations.add(Migration.fromResource(resource));
+        }
+        Collections.sort(migrations);
+
+        for(int i = 1; i < migrations.size(); i++){
+            if(migrations.get(i).getVersion() == migrations.get(i - 1).getVersion()){
+                throw new IllegalStateException("Two migrations have version " + migrations.get(i).getVersion());
+            }
+        }
+        return migrations;
+    }
+
+    /**
+     * Check that every applied migration is still
+     * present, with the same script it was applied with.
+     */
+    private void validate(List<Migration> migrations, Map<Integer,Long> applied){
+        Map<Integer,Migration> byVersion = new HashMap<>();
+        for(Migration migration : migrations){
+            byVersion.put(migration.getVersion(), migration);
+        }
+
+        for(Map.Entry<Integer,Long> entry : applied.entrySet()){
+            Migration migration = byVersion.get(entry.getKey());
+            if(migration == null){
+                throw new IllegalStateException("Migration V" + entry.getKey() +
+                        " has been applied to the database, but is missing from the application");
+            }
+            if(migration.getChecksum() != entry.getValue()){
+                throw new IllegalStateException("Migration " + migration +
+                        " has changed since it was applied to the database");
+            }
+        }
+    }
+
+    private void apply(Connection connection, Migration migration) throws SQLException {
+        List<String> statements = new ArrayList<>();
+        ScriptUtils.splitSqlScript(null, migration.getScript(), ScriptUtils.DEFAULT_STATEMENT_SEPARATOR,
+                ScriptUtils.DEFAULT_COMMENT_PREFIX, ScriptUtils.DEFAULT_BLOCK_COMMENT_START_DELIMITER,
+                ScriptUtils.DEFAULT_BLOCK_COMMENT_END_DELIMITER, statements);
+
+        long start = System.currentTimeMillis();
+        try(Statement statement = connection.createStatement()){
+            for(String sql : statements){
+                try{
+                    statement.execute(sql);
+                }
+                catch(SQLException ex){
+                    throw new IllegalStateException("Migration " + migration + " failed on: " + sql, ex);
+                }
+            }
+        }
+
+        try(PreparedStatement insert = connection.prepareStatement("insert into " + VERSION_TABLE +
+                " (version, description, checksum, installed_on, execution_millis) values (?, ?, ?, ?, ?)")){
+            insert.setInt(1, migration.getVersion());
+            insert.setString(2, migration.getDescription());
+            insert.setLong(3, migration.getChecksum());
+            insert.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+            insert.setLong(5, System.currentTimeMillis() - start);
+            insert.executeUpdate();
+        }
+    }
+
+    private void createVersionTable(Connection connection) throws SQLException {
+        try(Statement statement = connection.createStatement()){
+            statement.execute("create table if not exists " + VERSION_TABLE + "(" +
+                    "version int not null, " +
+                    "description varchar(200) not null, " +
+                    "checksum bigint not null, " +
+                    "installed_on timestamp not null, " +
+                    "execution_millis bigint not null, " +
+                    "primary key(version))");
+        }
+    }
+
+    /**
+     * Get the checksums of the migrations applied
+     * to the database, keyed by version.
+     *
+     * @param connection the connection to the database.
+     * @return the checksums of the applied migrations.
+     * @throws SQLException if the table can't be read.
+     */
+    private Map<Integer,Long> getAppliedChecksums(Connection connection) throws SQLException {
+        Map<Integer,Long> applied = new HashMap<>();
+        try(Statement statement = connection.createStatement();
+            ResultSet results = statement.executeQuery("select version, checksum from " + VERSION_TABLE)){
+            while(results.next()){
+                applied.put(results.getInt(1), results.getLong(2));
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Take the migration lock, if the database
+     * supports one.
+     *
+     * @return true if the lock was taken.
+     */
+    private boolean lock(Connection connection) throws SQLException {
+        if(!isMySQL(connection)){
+            return false;
+        }
+
+        try(PreparedStatement statement = connection.prepareStatement("select get_lock(?, ?)")){
+            statement.setString(1, LOCK_NAME);
+            statement.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try(ResultSet result = statement.executeQuery()){
+                if(!result.next() || result.getInt(1) != 1){
+                    throw new IllegalStateException("Timed out waiting for another instance to finish migrating");
+                }
+            }
+        }
+        return true;
+    }
+
+    private void unlock(Connection connection) throws SQLException {
+        try(PreparedStatement statement = connection.prepareStatement("select release_lock(?)")){
+            statement.setString(1, LOCK_NAME);
+            statement.executeQuery().close();
+        }
+    }
+
+    private boolean isMySQL(Connection connection) throws SQLException {
+        return connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+    }
+
+}
@@ -0,0 +1,6 @@
+/**
+ * This package contains the schema migrations, which
+ * bring the database up to the schema this version of
+ * the application expects when it starts.
+ */
+package io.craigmiller160.orgbuilder.api.v1.migration;
@@ -1,5 +1,6 @@
 package io.craigmiller160.orgbuilder.api.v1.model;
 
+import io.craigmiller160.orgbuilder.api.v1.model.util.IdGenerators;
 import io.craigmiller160.orgbuilder.api.v1.model.util.LocalDateTimeConverter;
 import io.craigmiller160.orgbuilder.api.v1.util.StringUtil;
 
@@ -11,6 +12,8 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.MappedSuperclass;
+import javax.persistence.TableGenerator;
+import javax.persistence.Version;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 
@@ -36,7 +39,13 @@ public class Address
      * with the keys in the database.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "address_id_generator")
+    @TableGenerator(name = "address_id_generator",
+            table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.SEGMENT_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = IdGenerators.ADDRESSES_SEQUENCE,
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     @Column(name="address_id")
     private Long addressId;
 
@@ -51,6 +60,20 @@ public class Address
     @Convert (converter=LocalDateTimeConverter.class)
     private LocalDateTime lastModified;
 
+    /**
+     * The version of this address, incremented by
+     * Hibernate each time it is updated. An update
+     * made with an older version than the one in the
+     * database fails, rather than overwriting the
+     * changes made since.
+     *
+     * This field should NOT be assigned manually, other
+     * than to carry the version the address was read with.
+     */
+    @Version
+    @Column (name="version")
+    private int version;
+
     /*
      * The fields for the values of the
      * address.
@@ -143,6 +166,24 @@ public class Address
         this.lastModified = lastModified;
     }
 
+    /**
+     * Get the version of this address.
+     *
+     * @return the version of this address.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Set the version of this address.
+     *
+     * @param version the version of this address.
+     */
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     /**
      * Get the type of address this is.
      *
@@ -1,5 +1,6 @@
 package io.craigmiller160.orgbuilder.api.v1.model;
 
+import io.craigmiller160.orgbuilder.api.v1.model.util.IdGenerators;
 import io.craigmiller160.orgbuilder.api.v1.model.util.LocalDateTimeConverter;
 import io.craigmiller160.orgbuilder.api.v1.util.StringUtil;
 
@@ -11,6 +12,8 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.MappedSuperclass;
+import javax.persistence.TableGenerator;
+import javax.persistence.Version;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 
@@ -34,7 +37,13 @@ public class Email
      * with the keys in the database.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "email_id_generator")
+    @TableGenerator(name = "email_id_generator",
+            table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.SEGMENT_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = IdGenerators.EMAILS_SEQUENCE,
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     @Column(name = "email_id")
     private Long emailId;
 
@@ -49,6 +58,20 @@ public class Email
     @Convert(converter = LocalDateTimeConverter.class)
     private LocalDateTime lastModified;
 
+    /**
+     * The version of this email, incremented by
+     * Hibernate each time it is updated. An update
+     * made with an older version than the one in the
+     * database fails, rather than overwriting the
+     * changes made since.
+     *
+     * This field should NOT be assigned manually, other
+     * than to carry the version the email was read with.
+     */
+    @Version
+    @Column (name="version")
+    private int version;
+
     /*
      * The fields for the values of the
      * email address.
@@ -59,6 +82,15 @@ public class Email
     @Column(name = "email_address")
     private String emailAddress;
 
+    /**
+     * The email address trimmed and lower cased,
+     * used to find people by email address. This is
+     * derived from the address by HibPersonRepo on
+     * every write, and shouldn't be assigned otherwise.
+     */
+    @Column(name = "email_key")
+    private String emailKey;
+
     /**
      * Create a new Email.
      */
@@ -115,6 +147,24 @@ public class Email
         this.lastModified = lastModified;
     }
 
+    /**
+     * Get the version of this email.
+     *
+     * @return the version of this email.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Set the version of this email.
+     *
+     * @param version the version of this email.
+     */
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     /**
      * Get the type of email address.
      *
@@ -151,6 +201,24 @@ public class Email
         this.emailAddress = emailAddress;
     }
 
+    /**
+     * Get the normalized email address.
+     *
+     * @return the normalized email address.
+     */
+    public String getEmailKey() {
+        return emailKey;
+    }
+
+    /**
+     * Set the normalized email address.
+     *
+     * @param emailKey the normalized email address.
+     */
+    public void setEmailKey(String emailKey) {
+        this.emailKey = emailKey;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -1,9 +1,16 @@
 package io.craigmiller160.orgbuilder.api.v1.model;
 
+import io.craigmiller160.orgbuilder.api.v1.model.util.CacheRegions;
+import io.craigmiller160.orgbuilder.api.v1.model.util.IdGenerators;
 import io.craigmiller160.orgbuilder.api.v1.model.util.LocalDateConverter;
 import io.craigmiller160.orgbuilder.api.v1.model.util.LocalDateTimeConverter;
 import io.craigmiller160.orgbuilder.api.v1.util.StringUtil;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Convert;
@@ -14,8 +21,11 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
+import javax.persistence.TableGenerator;
+import javax.persistence.Version;
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -28,10 +38,21 @@ import java.util.Set;
  * This is the base model of the people
  * section of the API.
  *
+ * People and their collections are kept in the
+ * second-level cache, as they are read far more
+ * often than they are written.
+ *
  * Created by Craig on 1/7/2016.
  */
 @Entity
-@Table(name = "people")
+@Table(name = "people",
+        indexes = {
+                @Index(name = "people_last_modified_idx", columnList = "last_modified, person_id"),
+                @Index(name = "people_last_name_key_idx", columnList = "last_name_key, first_name_key"),
+                @Index(name = "people_first_name_key_idx", columnList = "first_name_key")
+        })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.PEOPLE)
 public class Person
         implements Serializable{
 
@@ -43,24 +64,46 @@ public class Person
      *
      * This field should NOT be assigned manually,
      * it should only be given a value consistent
-     * with the keys in the database.
+     * with the keys in the database. IDs are leased
+     * in blocks from the shared sequence table, so they
+     * can be assigned without a round trip per insert.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "person_id_generator")
+    @TableGenerator(name = "person_id_generator",
+            table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.SEGMENT_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = IdGenerators.PEOPLE_SEQUENCE,
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     @Column(name = "person_id")
     private Long personId;
 
     /**
-     * A timestamp for when the person was last
-     * modified.
+     * A timestamp for when the person, or any of
+     * their children, was last modified.
      *
-     * This field should be assigned right before
-     * each persistence operation.
+     * This field is assigned by HibPersonRepo on
+     * every write, and is what the change feed reads.
      */
     @Column(name = "last_modified")
     @Convert(converter = LocalDateTimeConverter.class)
     private LocalDateTime lastModified;
 
+    /**
+     * The version of this person, incremented by
+     * Hibernate each time it is updated. An update
+     * made with an older version than the one in the
+     * database fails, rather than overwriting the
+     * changes made since.
+     *
+     * This field should NOT be assigned manually, other
+     * than to carry the version the person was read with.
+     */
+    @Version
+    @Column(name = "version")
+    private int version;
+
     /*
      * The fields for the values of the
      * person.
@@ -79,22 +122,45 @@ public class Person
     @Enumerated(EnumType.STRING)
     private Gender gender;
 
+    /*
+     * The phonetic keys of the first and last names,
+     * used to find people by how their names sound.
+     * These are derived from the names by HibPersonRepo
+     * on every write, and shouldn't be assigned otherwise.
+     */
+    @Column(name = "first_name_key")
+    private String firstNameKey;
+    @Column(name = "last_name_key")
+    private String lastNameKey;
+
     /*
      * Collection fields for the relationship
      * between this person and other entities
      * it "owns".
+     *
+     * These are loaded lazily, based on the fetch
+     * plan of each query. When a collection is loaded,
+     * it is loaded for every person in the same query
+     * result with a single subselect, rather than
+     * one select per person.
      */
-    @OneToMany (fetch = FetchType.EAGER,
+    @OneToMany (fetch = FetchType.LAZY,
             cascade = CascadeType.ALL,
             mappedBy = "owner")
+    @Fetch (FetchMode.SUBSELECT)
+    @Cache (usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.PERSON_ADDRESSES)
     private Set<PersonAddress> addresses = new HashSet<>();
-    @OneToMany (fetch = FetchType.EAGER,
+    @OneToMany (fetch = FetchType.LAZY,
             cascade = CascadeType.ALL,
             mappedBy = "owner")
+    @Fetch (FetchMode.SUBSELECT)
+    @Cache (usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.PERSON_PHONES)
     private Set<PersonPhone> phones = new HashSet<>();
-    @OneToMany (fetch = FetchType.EAGER,
+    @OneToMany (fetch = FetchType.LAZY,
             cascade = CascadeType.ALL,
             mappedBy = "owner")
+    @Fetch (FetchMode.SUBSELECT)
+    @Cache (usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.PERSON_EMAILS)
     private Set<PersonEmail> emails = new HashSet<>();
 
     /**
@@ -190,6 +256,24 @@ public class Person
         this.lastModified = lastModified;
     }
 
+    /**
+     * Get the version of this person.
+     *
+     * @return the version of this person.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Set the version of this person.
+     *
+     * @param version the version of this person.
+     */
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     /**
      * Get the person's prefix.
      *
@@ -262,6 +346,42 @@ public class Person
         this.lastName = lastName;
     }
 
+    /**
+     * Get the phonetic key of the person's first name.
+     *
+     * @return the phonetic key of the first name.
+     */
+    public String getFirstNameKey() {
+        return firstNameKey;
+    }
+
+    /**
+     * Set the phonetic key of the person's first name.
+     *
+     * @param firstNameKey the phonetic key of the first name.
+     */
+    public void setFirstNameKey(String firstNameKey) {
+        this.firstNameKey = firstNameKey;
+    }
+
+    /**
+     * Get the phonetic key of the person's last name.
+     *
+     * @return the phonetic key of the last name.
+     */
+    public String getLastNameKey() {
+        return lastNameKey;
+    }
+
+    /**
+     * Set the phonetic key of the person's last name.
+     *
+     * @param lastNameKey the phonetic key of the last name.
+     */
+    public void setLastNameKey(String lastNameKey) {
+        this.lastNameKey = lastNameKey;
+    }
+
     /**
      * Get the person's suffix (Jr/Sr/etc).
      *
@@ -1,6 +1,12 @@
 package io.craigmiller160.orgbuilder.api.v1.model;
 
+import io.craigmiller160.orgbuilder.api.v1.model.util.CacheRegions;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
@@ -15,7 +21,10 @@ import javax.persistence.Table;
  * Created by Craig on 1/9/2016.
  */
 @Entity
-@Table (name="people_addresses")
+@Table (name="people_addresses",
+        indexes = @Index(name="people_addresses_last_modified_idx", columnList="last_modified"))
+@Cacheable
+@Cache (usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.ADDRESSES)
 public class PersonAddress
         extends Address {
 
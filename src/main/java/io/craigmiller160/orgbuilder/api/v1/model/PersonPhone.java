@@ -1,6 +1,12 @@
 package io.craigmiller160.orgbuilder.api.v1.model;
 
+import io.craigmiller160.orgbuilder.api.v1.model.util.CacheRegions;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
@@ -15,7 +21,13 @@ import javax.persistence.Table;
  * Created by Craig on 1/9/2016.
  */
 @Entity
-@Table(name = "people_phones")
+@Table(name = "people_phones",
+        indexes = {
+                @Index(name = "people_phones_last_modified_idx", columnList = "last_modified"),
+                @Index(name = "people_phones_packed_number_idx", columnList = "packed_number")
+        })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.PHONES)
 public class PersonPhone
         extends Phone{
 
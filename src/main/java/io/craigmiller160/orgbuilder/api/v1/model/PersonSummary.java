@@ -0,0 +1,134 @@
+package io.craigmiller160.orgbuilder.api.v1.model;
+
+import io.craigmiller160.orgbuilder.api.v1.util.StringUtil;
+
+import java.io.Serializable;
+
+/**
+ * An immutable summary of a person, containing
+ * only the values needed to display them in a list
+ * or search results. Unlike Person, this is not an
+ * entity: it is read directly from the columns it
+ * needs, and is never managed by a session.
+ */
+public final class PersonSummary
+        implements Serializable{
+
+    private static final long serialVersionUID = 3190437251618373205L;
+
+    private final Long personId;
+    private final String firstName;
+    private final String middleName;
+    private final String lastName;
+    private final String primaryEmail;
+
+    /**
+     * Create a person summary.
+     *
+     * @param personId the person's unique ID.
+     * @param firstName the person's first name.
+     * @param middleName the person's middle name.
+     * @param lastName the person's last name.
+     * @param primaryEmail the person's primary email address, or null.
+     */
+    public PersonSummary(Long personId, String firstName, String middleName,
+                         String lastName, String primaryEmail){
+        this.personId = personId;
+        this.firstName = firstName;
+        this.middleName = middleName;
+        this.lastName = lastName;
+        this.primaryEmail = primaryEmail;
+    }
+
+    /**
+     * Get the unique identifier of this person.
+     *
+     * @return the unique ID of this person.
+     */
+    public Long getPersonId() {
+        return personId;
+    }
+
+    /**
+     * Get the person's first name.
+     *
+     * @return the person's first name.
+     */
+    public String getFirstName() {
+        return firstName;
+    }
+
+    /**
+     * Get the person's middle name.
+     *
+     * @return the person's middle name.
+     */
+    public String getMiddleName() {
+        return middleName;
+    }
+
+    /**
+     * Get the person's last name.
+     *
+     * @return the person's last name.
+     */
+    public String getLastName() {
+        return lastName;
+    }
+
+    /**
+     * Get the person's primary email address, which
+     * is the first email address added for them.
+     *
+     * @return the person's primary email address, or null.
+     */
+    public String getPrimaryEmail() {
+        return primaryEmail;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        PersonSummary that = (PersonSummary) o;
+
+        if (personId != null ? !personId.equals(that.personId) : that.personId != null) return false;
+        if (firstName != null ? !firstName.equals(that.firstName) : that.firstName != null) return false;
+        if (middleName != null ? !middleName.equals(that.middleName) : that.middleName != null) return false;
+        //noinspection SimplifiableIfStatement
+        if (lastName != null ? !lastName.equals(that.lastName) : that.lastName != null) return false;
+        return !(primaryEmail != null ? !primaryEmail.equals(that.primaryEmail) : that.primaryEmail != null);
+
+    }
+
+    @Override
+    public int hashCode() {
+        int result = personId != null ? personId.hashCode() : 0;
+        result = 31 * result + (firstName != null ? firstName.hashCode() : 0);
+        result = 31 * result + (middleName != null ? middleName.hashCode() : 0);
+        result = 31 * result + (lastName != null ? lastName.hashCode() : 0);
+        result = 31 * result + (primaryEmail != null ? primaryEmail.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString(){
+        StringBuilder builder = new StringBuilder();
+        if(StringUtil.ensureStringExists(firstName)){
+            builder.append(firstName);
+        }
+
+        if(StringUtil.ensureStringExists(middleName)){
+            builder = StringUtil.ensureEndsWithSpace(builder);
+            builder.append(middleName);
+        }
+
+        if(StringUtil.ensureStringExists(lastName)){
+            builder = StringUtil.ensureEndsWithSpace(builder);
+            builder.append(lastName);
+        }
+
+        return builder.toString();
+    }
+}
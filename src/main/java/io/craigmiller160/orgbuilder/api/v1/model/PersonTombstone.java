@@ -0,0 +1,116 @@
+package io.craigmiller160.orgbuilder.api.v1.model;
+
+import io.craigmiller160.orgbuilder.api.v1.model.util.LocalDateTimeConverter;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * A record that a person was deleted, kept so
+ * that the change feed can report the deletion to
+ * systems that synced the person before it happened.
+ *
+ * Person IDs are never reused, so there is at most
+ * one tombstone per ID.
+ */
+@Entity
+@Table(name = "people_tombstones",
+        indexes = @Index(name = "people_tombstones_deleted_idx", columnList = "deleted, person_id"))
+public class PersonTombstone
+        implements Serializable{
+
+    private static final long serialVersionUID = 2915617406324715372L;
+
+    /**
+     * The ID of the deleted person.
+     */
+    @Id
+    @Column(name = "person_id")
+    private Long personId;
+
+    /**
+     * A timestamp for when the person was deleted.
+     */
+    @Column(name = "deleted")
+    @Convert(converter = LocalDateTimeConverter.class)
+    private LocalDateTime deleted;
+
+    /**
+     * Create a new tombstone.
+     */
+    public PersonTombstone(){}
+
+    /**
+     * Create a new tombstone for a person.
+     *
+     * @param personId the ID of the deleted person.
+     * @param deleted when the person was deleted.
+     */
+    public PersonTombstone(Long personId, LocalDateTime deleted){
+        this.personId = personId;
+        this.deleted = deleted;
+    }
+
+    /**
+     * Get the ID of the deleted person.
+     *
+     * @return the ID of the deleted person.
+     */
+    public Long getPersonId() {
+        return personId;
+    }
+
+    /**
+     * Set the ID of the deleted person.
+     *
+     * @param personId the ID of the deleted person.
+     */
+    public void setPersonId(Long personId) {
+        this.personId = personId;
+    }
+
+    /**
+     * Get the timestamp of when the person was deleted.
+     *
+     * @return the deletion timestamp.
+     */
+    public LocalDateTime getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * Set the timestamp of when the person was deleted.
+     *
+     * @param deleted the deletion timestamp.
+     */
+    public void setDeleted(LocalDateTime deleted) {
+        this.deleted = deleted;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        PersonTombstone that = (PersonTombstone) o;
+
+        return personId != null ? personId.equals(that.personId) : that.personId == null;
+    }
+
+    @Override
+    public int hashCode() {
+        return personId != null ? personId.hashCode() : 0;
+    }
+
+    @Override
+    public String toString(){
+        return "PersonTombstone: " + personId + " deleted " + deleted;
+    }
+
+}
@@ -1,5 +1,6 @@
 package io.craigmiller160.orgbuilder.api.v1.model;
 
+import io.craigmiller160.orgbuilder.api.v1.model.util.IdGenerators;
 import io.craigmiller160.orgbuilder.api.v1.model.util.LocalDateTimeConverter;
 import io.craigmiller160.orgbuilder.api.v1.util.StringUtil;
 
@@ -11,6 +12,8 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.MappedSuperclass;
+import javax.persistence.TableGenerator;
+import javax.persistence.Version;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 
@@ -35,7 +38,13 @@ public class Phone
      * with the keys in the database.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "phone_id_generator")
+    @TableGenerator(name = "phone_id_generator",
+            table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.SEGMENT_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = IdGenerators.PHONES_SEQUENCE,
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     @Column(name = "phone_id")
     private Long phoneId;
 
@@ -50,6 +59,20 @@ public class Phone
     @Convert(converter = LocalDateTimeConverter.class)
     private LocalDateTime lastModified;
 
+    /**
+     * The version of this phone, incremented by
+     * Hibernate each time it is updated. An update
+     * made with an older version than the one in the
+     * database fails, rather than overwriting the
+     * changes made since.
+     *
+     * This field should NOT be assigned manually, other
+     * than to carry the version the phone was read with.
+     */
+    @Version
+    @Column (name="version")
+    private int version;
+
     /*
      * The fields for the values of the
      * address.
@@ -68,6 +91,16 @@ public class Phone
     private String lineNumber;
     private String extension;
 
+    /**
+     * The area code, prefix and line number packed
+     * into a single number, such as 5551234567, used
+     * to find people by phone number. This is derived
+     * from the parts of the number by HibPersonRepo on
+     * every write, and is null if they aren't all digits.
+     */
+    @Column(name = "packed_number")
+    private Long packedNumber;
+
     /**
      * Create a new Phone.
      */
@@ -146,6 +179,24 @@ public class Phone
         this.lastModified = lastModified;
     }
 
+    /**
+     * Get the version of this phone.
+     *
+     * @return the version of this phone.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Set the version of this phone.
+     *
+     * @param version the version of this phone.
+     */
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     /**
      * Get the type of phone number.
      *
@@ -236,6 +287,24 @@ public class Phone
         this.extension = extension;
     }
 
+    /**
+     * Get the phone number packed into a single number.
+     *
+     * @return the packed phone number.
+     */
+    public Long getPackedNumber() {
+        return packedNumber;
+    }
+
+    /**
+     * Set the phone number packed into a single number.
+     *
+     * @param packedNumber the packed phone number.
+     */
+    public void setPackedNumber(Long packedNumber) {
+        this.packedNumber = packedNumber;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -1,5 +1,9 @@
 package io.craigmiller160.orgbuilder.api.v1.model;
 
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
 /**
  * Enumeration of US States.
  *
@@ -87,18 +91,125 @@ public enum State {
 
     /**
      * Get the <tt>State</tt> enum from the
-     * provided <tt>String</tt> name.
+     * provided <tt>String</tt> name, ignoring case.
      *
      * @param name the name of the state.
-     * @return the <tt>State</tt> enum.
+     * @return the <tt>State</tt> enum, or null if there is none.
      */
     public static State getStateForName(String name){
-        for(State state : State.values()){
-            if(state.getName().equalsIgnoreCase(name)){
-                return state;
+        return name != null ? Lookup.NAMES.get(name.toUpperCase(Locale.ROOT)) : null;
+    }
+
+    /**
+     * Get the <tt>State</tt> enum from the
+     * provided two letter code, ignoring case.
+     *
+     * @param code the code of the state.
+     * @return the <tt>State</tt> enum, or null if there is none.
+     */
+    public static State getStateForCode(String code){
+        return code != null ? Lookup.CODES.get(code.toUpperCase(Locale.ROOT)) : null;
+    }
+
+    /**
+     * Find the <tt>State</tt> whose code or name is
+     * written in a range of characters, ignoring case and
+     * anything other than letters, so "ny", "N.Y." and
+     * "New  York" all find New York. Nothing is allocated,
+     * so this can be used on every line of a large import.
+     *
+     * @param text the text containing the code or name.
+     * @param start the index of the first character.
+     * @param end the index after the last character.
+     * @return the <tt>State</tt> enum, or null if there is none.
+     */
+    public static State find(CharSequence text, int start, int end){
+        int hash = 0;
+        int letters = 0;
+        for(int i = start; i < end; i++){
+            char c = text.charAt(i);
+            if(Character.isLetter(c)){
+                hash = 31 * hash + Character.toUpperCase(c);
+                letters++;
+            }
+        }
+        if(letters == 0){
+            return null;
+        }
+
+        int mask = Lookup.KEYS.length - 1;
+        for(int slot = Lookup.slot(hash, mask); Lookup.KEYS[slot] != null; slot = (slot + 1) & mask){
+            if(Lookup.matches(Lookup.KEYS[slot], text, start, end, letters)){
+                return Lookup.STATES[slot];
             }
         }
         return null;
     }
 
+    /**
+     * The tables used to look up states, built once.
+     * The codes and names, with everything other than
+     * letters removed, are also kept in an open addressing
+     * table, so find() can match a range of any text.
+     */
+    private static class Lookup {
+
+        private static final Map<String,State> NAMES = new HashMap<>();
+        private static final Map<String,State> CODES = new HashMap<>();
+        private static final String[] KEYS = new String[256];
+        private static final State[] STATES = new State[256];
+
+        static{
+            for(State state : State.values()){
+                NAMES.put(state.getName().toUpperCase(Locale.ROOT), state);
+                CODES.put(state.name(), state);
+                add(state.name(), state);
+                add(state.getName(), state);
+            }
+        }
+
+        private static void add(String codeOrName, State state){
+            StringBuilder key = new StringBuilder();
+            int hash = 0;
+            for(int i = 0; i < codeOrName.length(); i++){
+                char c = codeOrName.charAt(i);
+                if(Character.isLetter(c)){
+                    key.append(Character.toUpperCase(c));
+                    hash = 31 * hash + Character.toUpperCase(c);
+                }
+            }
+
+            int mask = KEYS.length - 1;
+            int slot = slot(hash, mask);
+            while(KEYS[slot] != null){
+                slot = (slot + 1) & mask;
+            }
+            KEYS[slot] = key.toString();
+            STATES[slot] = state;
+        }
+
+        private static int slot(int hash, int mask){
+            return (hash * 0x9E3779B9 >>> 16) & mask;
+        }
+
+        /**
+         * Test if the letters in a range of text
+         * are a key, ignoring case.
+         */
+        private static boolean matches(String key, CharSequence text, int start, int end, int letters){
+            if(key.length() != letters){
+                return false;
+            }
+
+            int k = 0;
+            for(int i = start; i < end; i++){
+                char c = text.charAt(i);
+                if(Character.isLetter(c) && Character.toUpperCase(c) != key.charAt(k++)){
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
 }
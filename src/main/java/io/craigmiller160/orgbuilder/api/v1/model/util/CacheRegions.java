@@ -0,0 +1,42 @@
+package io.craigmiller160.orgbuilder.api.v1.model.util;
+
+/**
+ * Constants for the names of the second-level
+ * cache regions used by the models of this application.
+ *
+ * Each entity and each of the collections owned by
+ * Person has its own region, so they can be sized
+ * separately. The size, time-to-live and eviction
+ * policy of each region are configured in ehcache.xml,
+ * under the same names.
+ *
+ * A region is renamed by changing both its
+ * constant here and its entry in ehcache.xml.
+ */
+public final class CacheRegions {
+
+    /*
+     * The regions holding each entity.
+     */
+    public static final String PEOPLE = "people";
+    public static final String ADDRESSES = "people_addresses";
+    public static final String PHONES = "people_phones";
+    public static final String EMAILS = "people_emails";
+
+    /*
+     * The regions holding the IDs of the
+     * children in each collection of a Person.
+     */
+    public static final String PERSON_ADDRESSES = "people.addresses";
+    public static final String PERSON_PHONES = "people.phones";
+    public static final String PERSON_EMAILS = "people.emails";
+
+    /**
+     * The region holding the IDs returned by
+     * cacheable queries.
+     */
+    public static final String QUERIES = "queries";
+
+    private CacheRegions(){}
+
+}
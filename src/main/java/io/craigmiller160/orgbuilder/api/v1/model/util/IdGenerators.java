@@ -0,0 +1,56 @@
+package io.craigmiller160.orgbuilder.api.v1.model.util;
+
+/**
+ * Constants for the table-based ID generators
+ * used by the models of this application.
+ *
+ * Instead of relying on auto-increment columns,
+ * which force an immediate insert for every new entity
+ * to find out its ID, each model leases blocks of IDs
+ * from a row in a shared sequence table. The block is
+ * reserved in its own transaction with a row lock, so
+ * several application nodes can lease blocks at the
+ * same time without ever handing out the same ID.
+ * IDs within a leased block are then assigned from
+ * memory, allowing inserts to be batched.
+ *
+ * The @TableGenerator annotation of each model is
+ * built from these constants, and the table and
+ * its rows are created by the V2 migration.
+ */
+public final class IdGenerators {
+
+    /**
+     * The name of the table that holds the next
+     * available ID for each sequence.
+     */
+    public static final String TABLE = "id_sequences";
+
+    /**
+     * The column holding the name of each sequence.
+     */
+    public static final String SEGMENT_COLUMN = "sequence_name";
+
+    /**
+     * The column holding the next available
+     * ID for each sequence.
+     */
+    public static final String VALUE_COLUMN = "next_val";
+
+    /**
+     * The number of IDs leased at a time. This
+     * should be kept in line with the JDBC batch size.
+     */
+    public static final int ALLOCATION_SIZE = 50;
+
+    /*
+     * The names of the sequences for each model.
+     */
+    public static final String PEOPLE_SEQUENCE = "people";
+    public static final String ADDRESSES_SEQUENCE = "addresses";
+    public static final String PHONES_SEQUENCE = "phones";
+    public static final String EMAILS_SEQUENCE = "emails";
+
+    private IdGenerators(){}
+
+}
@@ -0,0 +1,257 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import io.craigmiller160.orgbuilder.api.v1.datasource.InstrumentedDataSource;
+import io.craigmiller160.orgbuilder.api.v1.datasource.ReadYourWritesTracker;
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.GetByIdsQuery;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.Projection;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.Query;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.QueryField;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * An AsyncRepo for people, which runs each operation
+ * of HibPersonRepo on a dedicated pool of threads, in
+ * its own transaction. Reads run in read-only transactions,
+ * so they are sent to the replicas.
+ *
+ * The pool has as many threads as the primary connection
+ * pool can have connections, so the threads never queue for
+ * a connection the pool isn't allowed to open. With adaptive
+ * sizing, that is the most the pool can grow to, so threads
+ * that wait for a connection make it grow. Operations wait
+ * for a thread in a bounded queue. When the queue is full,
+ * new operations fail straight away with a
+ * RejectedExecutionException, rather than piling up.
+ *
+ * Each operation is run for the same read-your-writes
+ * session as the thread that started it, so reads
+ * started after a write has completed see the write.
+ */
+@Repository("asyncPersonRepo")
+public class AsyncPersonRepo implements AsyncRepo<Person>, InitializingBean, DisposableBean {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    @Autowired
+    private Repo<Person> repo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * The connection pool the threads are sized to.
+     */
+    @Autowired(required = false)
+    @Qualifier("primaryDataSource")
+    private InstrumentedDataSource dataSource;
+
+    /**
+     * The number of threads running operations. If this
+     * isn't set, it is the size of the connection pool.
+     */
+    @Value("${asyncPoolSize:0}")
+    private int poolSize = 0;
+
+    /**
+     * The number of operations that can wait for
+     * a thread before new ones are rejected.
+     */
+    @Value("${asyncQueueCapacity:" + DEFAULT_QUEUE_CAPACITY + "}")
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+    private ExecutorService executor;
+    private TransactionTemplate readTemplate;
+    private TransactionTemplate writeTemplate;
+
+    public Repo<Person> getRepo(){
+        return repo;
+    }
+
+    public void setRepo(Repo<Person> repo){
+        this.repo = repo;
+    }
+
+    public PlatformTransactionManager getTransactionManager(){
+        return transactionManager;
+    }
+
+    public void setTransactionManager(PlatformTransactionManager transactionManager){
+        this.transactionManager = transactionManager;
+    }
+
+    public InstrumentedDataSource getDataSource(){
+        return dataSource;
+    }
+
+    public void setDataSource(InstrumentedDataSource dataSource){
+        this.dataSource = dataSource;
+    }
+
+    public int getPoolSize(){
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize){
+        this.poolSize = poolSize;
+    }
+
+    public int getQueueCapacity(){
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity){
+        this.queueCapacity = queueCapacity;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if(poolSize <= 0){
+            if(dataSource == null){
+                throw new IllegalStateException("Either the pool size or the data source must be set");
+            }
+            poolSize = dataSource.isAdaptiveSizing() ? dataSource.getMaxPoolSize() : dataSource.getMaxTotal();
+        }
+
+        final AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "async-repo-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        readTemplate = new TransactionTemplate(transactionManager);
+        readTemplate.setReadOnly(true);
+        writeTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public CompletableFuture<Void> insert(Person entity) {
+        return write(target -> {
+            target.insert(entity);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> update(Person entity) {
+        return write(target -> {
+            target.update(entity);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(Person entity) {
+        return write(target -> {
+            target.delete(entity);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> insertAll(Collection<Person> entities) {
+        return write(target -> {
+            target.insertAll(entities);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> updateAll(Collection<Person> entities) {
+        return write(target -> {
+            target.updateAll(entities);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> deleteWhere(Query<Person> query) {
+        return write(target -> target.deleteWhere(query));
+    }
+
+    @Override
+    public CompletableFuture<Integer> updateWhere(Query<Person> query, Map<QueryField, Object> values) {
+        return write(target -> target.updateWhere(query, values));
+    }
+
+    @Override
+    public CompletableFuture<List<Person>> query(Query<Person> query) {
+        return read(target -> target.query(query));
+    }
+
+    @Override
+    public CompletableFuture<MultiGetResult<Person>> getByIds(GetByIdsQuery<Person> query) {
+        return read(target -> target.getByIds(query));
+    }
+
+    @Override
+    public <R> CompletableFuture<List<R>> project(Query<Person> query, Projection<R> projection) {
+        return read(target -> target.project(query, projection));
+    }
+
+    private <R> CompletableFuture<R> read(Function<Repo<Person>,R> operation){
+        return submit(readTemplate, operation);
+    }
+
+    private <R> CompletableFuture<R> write(Function<Repo<Person>,R> operation){
+        return submit(writeTemplate, operation);
+    }
+
+    /**
+     * Run an operation on the pool, in a transaction
+     * from the provided template, for the read-your-writes
+     * session of the calling thread.
+     *
+     * @param template the template for the transaction.
+     * @param operation the operation.
+     * @param <R> the type of result of the operation.
+     * @return a future for the result of the operation.
+     */
+    private <R> CompletableFuture<R> submit(TransactionTemplate template, Function<Repo<Person>,R> operation){
+        final String session = ReadYourWritesTracker.getCurrentSession();
+        try{
+            return CompletableFuture.supplyAsync(() -> {
+                ReadYourWritesTracker.bindSession(session);
+                try{
+                    return template.execute(status -> operation.apply(repo));
+                }
+                finally{
+                    ReadYourWritesTracker.unbindSession();
+                }
+            }, executor);
+        }
+        catch(RejectedExecutionException ex){
+            CompletableFuture<R> future = new CompletableFuture<>();
+            future.completeExceptionally(ex);
+            return future;
+        }
+    }
+}
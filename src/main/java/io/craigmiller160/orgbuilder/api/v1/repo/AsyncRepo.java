@@ -0,0 +1,74 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import io.craigmiller160.orgbuilder.api.v1.repo.query.GetByIdsQuery;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.Projection;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.Query;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.QueryField;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The asynchronous counterpart of Repo. Each
+ * method starts the operation in the background,
+ * in its own transaction, and returns straight away
+ * with a future for its result, so the calling thread
+ * isn't held for the database call.
+ *
+ * Several independent operations can be started at
+ * once and run in parallel, and their futures combined
+ * with allOf() or the methods of CompletableFuture.
+ *
+ * Entities returned are detached, as their transaction
+ * has ended by the time the future completes. Only the
+ * collections in the query's fetch plan can be used.
+ *
+ * @param <T> the type of entity.
+ */
+public interface AsyncRepo<T> {
+
+    CompletableFuture<Void> insert(T entity);
+
+    CompletableFuture<Void> update(T entity);
+
+    CompletableFuture<Void> delete(T entity);
+
+    CompletableFuture<Void> insertAll(Collection<T> entities);
+
+    CompletableFuture<Void> updateAll(Collection<T> entities);
+
+    CompletableFuture<Integer> deleteWhere(Query<T> query);
+
+    CompletableFuture<Integer> updateWhere(Query<T> query, Map<QueryField,Object> values);
+
+    CompletableFuture<List<T>> query(Query<T> query);
+
+    CompletableFuture<MultiGetResult<T>> getByIds(GetByIdsQuery<T> query);
+
+    <R> CompletableFuture<List<R>> project(Query<T> query, Projection<R> projection);
+
+    /**
+     * Combine several futures into one that completes
+     * with all of their results, in the same order, once
+     * they have all completed. If any of them fails, the
+     * combined future fails too.
+     *
+     * @param futures the futures to combine.
+     * @param <R> the type of result.
+     * @return a future for all of the results.
+     */
+    static <R> CompletableFuture<List<R>> allOf(List<CompletableFuture<R>> futures){
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]))
+                .thenApply(ignored -> {
+                    List<R> results = new ArrayList<>(futures.size());
+                    for(CompletableFuture<R> future : futures){
+                        results.add(future.join());
+                    }
+                    return results;
+                });
+    }
+
+}
@@ -0,0 +1,84 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+/**
+ * A snapshot of the statistics of a single
+ * second-level cache region, used to judge
+ * whether the region is sized correctly.
+ */
+public class CacheRegionStatistics {
+
+    private final String region;
+    private final long hitCount;
+    private final long missCount;
+    private final long putCount;
+    private final long evictionCount;
+    private final long elementCount;
+
+    /**
+     * Create a new snapshot.
+     *
+     * @param region the name of the region.
+     * @param hitCount the number of lookups that found an entry.
+     * @param missCount the number of lookups that found no entry.
+     * @param putCount the number of entries added to the region.
+     * @param evictionCount the number of entries evicted to stay within the region's size.
+     * @param elementCount the number of entries currently in the region.
+     */
+    public CacheRegionStatistics(String region, long hitCount, long missCount,
+                                 long putCount, long evictionCount, long elementCount){
+        this.region = region;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+        this.evictionCount = evictionCount;
+        this.elementCount = elementCount;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getPutCount() {
+        return putCount;
+    }
+
+    /**
+     * Get the number of entries evicted to keep the
+     * region within its maximum size. A high count
+     * relative to the put count means the region is
+     * too small for the working set.
+     *
+     * @return the number of evictions.
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getElementCount() {
+        return elementCount;
+    }
+
+    /**
+     * Get the fraction of lookups that found an entry.
+     *
+     * @return the hit ratio, or 0 if there were no lookups.
+     */
+    public double getHitRatio(){
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+    @Override
+    public String toString(){
+        return String.format("%s: hits=%d, misses=%d, puts=%d, evictions=%d, elements=%d, hitRatio=%.2f",
+                region, hitCount, missCount, putCount, evictionCount, elementCount, getHitRatio());
+    }
+}
@@ -0,0 +1,93 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Ehcache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reports the statistics of each second-level
+ * cache region. The hit, miss and put counts come
+ * from Hibernate's statistics, which must be enabled
+ * with the cacheStatistics property, and the eviction
+ * counts come from the underlying Ehcache regions.
+ */
+@Component("cacheStatistics")
+public class CacheStatistics {
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    public SessionFactory getSessionFactory(){
+        return sessionFactory;
+    }
+
+    public void setSessionFactory(SessionFactory sessionFactory){
+        this.sessionFactory = sessionFactory;
+    }
+
+    /**
+     * Get a snapshot of the statistics of every
+     * second-level cache region, sorted by name.
+     *
+     * @return the statistics of each region.
+     */
+    public List<CacheRegionStatistics> getRegionStatistics(){
+        Statistics statistics = sessionFactory.getStatistics();
+        String[] regions = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regions);
+
+        List<CacheRegionStatistics> results = new ArrayList<>(regions.length);
+        for(String region : regions){
+            SecondLevelCacheStatistics regionStats = statistics.getSecondLevelCacheStatistics(region);
+            if(regionStats == null){
+                continue;
+            }
+
+            results.add(new CacheRegionStatistics(region,
+                    regionStats.getHitCount(),
+                    regionStats.getMissCount(),
+                    regionStats.getPutCount(),
+                    getEvictionCount(region),
+                    regionStats.getElementCountInMemory()));
+        }
+        return results;
+    }
+
+    /**
+     * Reset the hit, miss and put counts of every region.
+     */
+    public void clear(){
+        sessionFactory.getStatistics().clear();
+        for(CacheManager cacheManager : CacheManager.ALL_CACHE_MANAGERS){
+            for(String name : cacheManager.getCacheNames()){
+                cacheManager.getEhcache(name).clearStatistics();
+            }
+        }
+    }
+
+    /**
+     * Get the number of evictions from the Ehcache
+     * region with the provided name.
+     *
+     * @param region the name of the region.
+     * @return the number of evictions, or 0 if the region can't be found.
+     */
+    private long getEvictionCount(String region){
+        for(CacheManager cacheManager : CacheManager.ALL_CACHE_MANAGERS){
+            Ehcache cache = cacheManager.getEhcache(region);
+            if(cache != null){
+                return cache.getStatistics().getEvictionCount();
+            }
+        }
+        return 0;
+    }
+
+}
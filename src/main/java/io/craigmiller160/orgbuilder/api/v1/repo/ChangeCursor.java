@@ -0,0 +1,119 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * A position in the change feed of people. Changes
+ * are ordered by their timestamp, then updates before
+ * deletions, then by person ID, and a cursor marks the
+ * last change a client has seen in that order. Reading
+ * from the cursor returns the changes that come after it.
+ *
+ * A cursor can be saved as a string with toString(), and
+ * read back with parse(), so clients can resume from where
+ * they left off at any later time.
+ */
+public class ChangeCursor {
+
+    /**
+     * The cursor before every change.
+     */
+    public static final ChangeCursor START = new ChangeCursor(null, false, 0);
+
+    private static final String SEPARATOR = "|";
+    private static final String UPDATE = "U";
+    private static final String DELETION = "D";
+
+    private final LocalDateTime time;
+    private final boolean deletion;
+    private final long personId;
+
+    /**
+     * Create a cursor positioned at a change.
+     *
+     * @param time the timestamp of the change.
+     * @param deletion true if the change is a deletion.
+     * @param personId the ID of the person changed.
+     */
+    public ChangeCursor(LocalDateTime time, boolean deletion, long personId){
+        this.time = time;
+        this.deletion = deletion;
+        this.personId = personId;
+    }
+
+    /**
+     * Read a cursor saved with toString().
+     *
+     * @param value the saved cursor.
+     * @return the cursor.
+     * @throws IllegalArgumentException if the value isn't a valid cursor.
+     */
+    public static ChangeCursor parse(String value){
+        if(value == null || value.isEmpty()){
+            return START;
+        }
+
+        String[] parts = value.split("\\" + SEPARATOR);
+        if(parts.length != 3 || !(UPDATE.equals(parts[1]) || DELETION.equals(parts[1]))){
+            throw new IllegalArgumentException("Invalid change cursor: " + value);
+        }
+
+        try{
+            return new ChangeCursor(LocalDateTime.parse(parts[0]), DELETION.equals(parts[1]), Long.parseLong(parts[2]));
+        }
+        catch(DateTimeParseException | NumberFormatException ex){
+            throw new IllegalArgumentException("Invalid change cursor: " + value, ex);
+        }
+    }
+
+    /**
+     * Get the timestamp of the change.
+     *
+     * @return the timestamp, or null for the start of the feed.
+     */
+    public LocalDateTime getTime(){
+        return time;
+    }
+
+    public boolean isDeletion(){
+        return deletion;
+    }
+
+    public long getPersonId(){
+        return personId;
+    }
+
+    public boolean isStart(){
+        return time == null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ChangeCursor that = (ChangeCursor) o;
+
+        if (deletion != that.deletion) return false;
+        if (personId != that.personId) return false;
+        return time != null ? time.equals(that.time) : that.time == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = time != null ? time.hashCode() : 0;
+        result = 31 * result + (deletion ? 1 : 0);
+        result = 31 * result + (int) (personId ^ (personId >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString(){
+        if(time == null){
+            return "";
+        }
+        return time + SEPARATOR + (deletion ? DELETION : UPDATE) + SEPARATOR + personId;
+    }
+
+}
@@ -0,0 +1,77 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+
+import java.util.List;
+
+/**
+ * A page of the change feed of people: the people
+ * created or updated, and the IDs of the people deleted,
+ * after a cursor, along with the cursor to read the
+ * next page from.
+ *
+ * A person ID appears at most once in a page, as deleted
+ * people are gone from the people table. Applying the
+ * updates and then the deletions brings a copy up to date.
+ */
+public class ChangePage {
+
+    private final List<Person> updated;
+    private final List<Long> deletedIds;
+    private final ChangeCursor nextCursor;
+    private final boolean more;
+
+    public ChangePage(List<Person> updated, List<Long> deletedIds, ChangeCursor nextCursor, boolean more){
+        this.updated = updated;
+        this.deletedIds = deletedIds;
+        this.nextCursor = nextCursor;
+        this.more = more;
+    }
+
+    /**
+     * Get the people created or updated, in
+     * the order of the change feed.
+     *
+     * @return the updated people.
+     */
+    public List<Person> getUpdated(){
+        return updated;
+    }
+
+    /**
+     * Get the IDs of the people deleted, in
+     * the order of the change feed.
+     *
+     * @return the deleted person IDs.
+     */
+    public List<Long> getDeletedIds(){
+        return deletedIds;
+    }
+
+    /**
+     * Get the cursor to read the next page from. If
+     * the page is empty, this is the cursor it was read from.
+     *
+     * @return the next cursor.
+     */
+    public ChangeCursor getNextCursor(){
+        return nextCursor;
+    }
+
+    /**
+     * Test if there are more changes after this
+     * page that can be read straight away.
+     *
+     * @return true if there are more changes.
+     */
+    public boolean hasMore(){
+        return more;
+    }
+
+    @Override
+    public String toString(){
+        return "ChangePage: updated=" + updated.size() + ", deleted=" + deletedIds.size() +
+                ", next=" + nextCursor + ", more=" + more;
+    }
+
+}
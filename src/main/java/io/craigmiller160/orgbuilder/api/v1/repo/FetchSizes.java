@@ -0,0 +1,38 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+/**
+ * Chooses the JDBC fetch size of reads that scroll
+ * through large result sets, which depends on the
+ * database being read.
+ */
+public class FetchSizes {
+
+    /**
+     * The fetch size that tells the MySQL driver to stream
+     * rows one at a time. With any other fetch size, it reads
+     * the entire result set into memory. Other drivers reject
+     * it as an invalid fetch size.
+     */
+    public static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    /**
+     * Get the fetch size to scroll through a result set with.
+     *
+     * @param sessionFactory the SessionFactory of the database.
+     * @param fetchSize the fetch size configured for databases
+     *                  other than MySQL.
+     * @return the streaming fetch size if the database is MySQL,
+     *          otherwise the configured fetch size.
+     */
+    public static int forScrolling(SessionFactory sessionFactory, int fetchSize){
+        if(((SessionFactoryImplementor) sessionFactory).getDialect() instanceof MySQLDialect){
+            return MYSQL_STREAMING_FETCH_SIZE;
+        }
+        return fetchSize;
+    }
+
+}
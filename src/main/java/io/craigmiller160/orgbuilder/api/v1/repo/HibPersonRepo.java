@@ -1,12 +1,53 @@
 package io.craigmiller160.orgbuilder.api.v1.repo;
 
 import io.craigmiller160.orgbuilder.api.v1.model.Person;
+import io.craigmiller160.orgbuilder.api.v1.model.PersonAddress;
+import io.craigmiller160.orgbuilder.api.v1.model.PersonEmail;
+import io.craigmiller160.orgbuilder.api.v1.model.PersonPhone;
+import io.craigmiller160.orgbuilder.api.v1.model.PersonTombstone;
+import io.craigmiller160.orgbuilder.api.v1.model.util.CacheRegions;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.FetchPlan;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.GetByIdQuery;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.GetByIdsQuery;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.PersonField;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.Projection;
 import io.craigmiller160.orgbuilder.api.v1.repo.query.Query;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.QueryField;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.QueryPlan;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.QueryPlanCache;
+import io.craigmiller160.orgbuilder.api.v1.util.EmailAddresses;
+import io.craigmiller160.orgbuilder.api.v1.util.NameEncoder;
+import io.craigmiller160.orgbuilder.api.v1.util.PhoneNumbers;
+import org.hibernate.Cache;
+import org.hibernate.Hibernate;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StaleStateException;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.hibernate4.SessionFactoryUtils;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * TODO document this
@@ -16,9 +57,103 @@ import java.util.List;
 @Repository("hibPersonRepo")
 public class HibPersonRepo implements Repo<Person>{
 
+    /**
+     * The default number of entities to write
+     * before flushing and clearing the session.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 50;
+
+    /**
+     * The default JDBC fetch size for streaming reads
+     * from databases other than MySQL, which always
+     * streams rows one at a time. See FetchSizes.
+     */
+    public static final int DEFAULT_STREAM_FETCH_SIZE = 1000;
+
+    /**
+     * The maximum number of IDs in the IN-list of
+     * each set-based delete or update statement.
+     */
+    private static final int MAX_IN_LIST_SIZE = 1000;
+
+    /**
+     * The maximum number of IDs in the IN-list of
+     * each statement that loads entities by their IDs.
+     */
+    private static final int MAX_LOAD_IN_LIST_SIZE = 256;
+
+    /**
+     * The child entities owned by a Person, in the order
+     * they must be deleted before the Person itself.
+     */
+    private static final List<Class<?>> CHILD_ENTITIES = Arrays.<Class<?>>asList(
+            PersonAddress.class, PersonPhone.class, PersonEmail.class);
+
     @Autowired
     private SessionFactory sessionFactory;
 
+    /**
+     * The filter of existing person IDs, used to skip
+     * lookups of people that definitely don't exist.
+     * This is optional, and isn't used if not set.
+     */
+    @Autowired(required = false)
+    private PersonIdFilter idFilter;
+
+    /**
+     * The index of person names for type-ahead searches,
+     * which is told about every write. This is optional,
+     * and isn't maintained if not set.
+     */
+    @Autowired(required = false)
+    private PersonNameIndex nameIndex;
+
+    /**
+     * The index of the phonetic keys of person names,
+     * which is told about every write. This is optional,
+     * and isn't maintained if not set.
+     */
+    @Autowired(required = false)
+    private PersonPhoneticIndex phoneticIndex;
+
+    /**
+     * The index of phone numbers for reverse lookups,
+     * which is told about every write. This is optional,
+     * and isn't maintained if not set.
+     */
+    @Autowired(required = false)
+    private PersonPhoneIndex phoneIndex;
+
+    /**
+     * The index of normalized email addresses,
+     * which is told about every write. This is optional,
+     * and isn't maintained if not set.
+     */
+    @Autowired(required = false)
+    private PersonEmailIndex emailIndex;
+
+    /**
+     * The number of entities written by the bulk
+     * operations before the session is flushed
+     * and cleared. This should match the JDBC batch
+     * size configured for Hibernate.
+     */
+    @Value("${batchSize:" + DEFAULT_BATCH_SIZE + "}")
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * The JDBC fetch size used when scrolling over the
+     * results of a stream, unless the database is MySQL.
+     */
+    @Value("${streamFetchSize:" + DEFAULT_STREAM_FETCH_SIZE + "}")
+    private int streamFetchSize = DEFAULT_STREAM_FETCH_SIZE;
+
+    /**
+     * The cache of compiled plans, so each query
+     * shape is only compiled once.
+     */
+    private final QueryPlanCache planCache = new QueryPlanCache();
+
     public SessionFactory getSessionFactory(){
         return sessionFactory;
     }
@@ -27,24 +162,743 @@ public class HibPersonRepo implements Repo<Person>{
         this.sessionFactory = sessionFactory;
     }
 
+    public PersonIdFilter getIdFilter(){
+        return idFilter;
+    }
+
+    public void setIdFilter(PersonIdFilter idFilter){
+        this.idFilter = idFilter;
+    }
+
+    public PersonNameIndex getNameIndex(){
+        return nameIndex;
+    }
+
+    public void setNameIndex(PersonNameIndex nameIndex){
+        this.nameIndex = nameIndex;
+    }
+
+    public PersonPhoneticIndex getPhoneticIndex(){
+        return phoneticIndex;
+    }
+
+    public void setPhoneticIndex(PersonPhoneticIndex phoneticIndex){
+        this.phoneticIndex = phoneticIndex;
+    }
+
+    public PersonPhoneIndex getPhoneIndex(){
+        return phoneIndex;
+    }
+
+    public void setPhoneIndex(PersonPhoneIndex phoneIndex){
+        this.phoneIndex = phoneIndex;
+    }
+
+    public PersonEmailIndex getEmailIndex(){
+        return emailIndex;
+    }
+
+    public void setEmailIndex(PersonEmailIndex emailIndex){
+        this.emailIndex = emailIndex;
+    }
+
+    public int getBatchSize(){
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize){
+        this.batchSize = batchSize;
+    }
+
+    public int getStreamFetchSize(){
+        return streamFetchSize;
+    }
+
+    public void setStreamFetchSize(int streamFetchSize){
+        this.streamFetchSize = streamFetchSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The last modified timestamp of the person is
+     * assigned here, as it is on every write, so that
+     * the change feed sees it.
+     */
     @Override
     public void insert(Person entity) {
+        touch(entity, LocalDateTime.now());
         sessionFactory.getCurrentSession().save(entity);
+        addToIdFilter(entity);
+        addToIndexes(entity);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The last modified timestamp of the person is
+     * assigned here, even if only its children changed,
+     * so that the change feed sees it.
+     */
     @Override
     public void update(Person entity) {
+        touch(entity, LocalDateTime.now());
         sessionFactory.getCurrentSession().update(entity);
+        addToIndexes(entity);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * A tombstone is saved for the person,
+     * so the change feed can report the deletion.
+     */
     @Override
     public void delete(Person entity) {
-        sessionFactory.getCurrentSession().delete(entity);
+        Session session = sessionFactory.getCurrentSession();
+        session.delete(entity);
+        session.save(new PersonTombstone(entity.getPersonId(), LocalDateTime.now()));
+        if(idFilter != null){
+            idFilter.removed(1);
+        }
+        removeFromIndexes(Collections.singletonList(entity.getPersonId()));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The session is flushed and cleared after every
+     * batch of entities, to send each JDBC batch and keep
+     * the session from growing for the whole collection.
+     * Because of this, any other entities attached to the
+     * current session are detached by this operation.
+     */
+    @Override
+    public void insertAll(Collection<Person> entities) {
+        Session session = sessionFactory.getCurrentSession();
+        LocalDateTime now = LocalDateTime.now();
+        int count = 0;
+        for(Person entity : entities){
+            touch(entity, now);
+            session.save(entity);
+            addToIdFilter(entity);
+            addToIndexes(entity);
+            if(++count % batchSize == 0){
+                flushAndClear(session);
+            }
+        }
+        flushAndClear(session);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The session is flushed and cleared after every
+     * batch of entities, to send each JDBC batch and keep
+     * the session from growing for the whole collection.
+     * Because of this, any other entities attached to the
+     * current session are detached by this operation.
+     */
+    @Override
+    public void updateAll(Collection<Person> entities) {
+        Session session = sessionFactory.getCurrentSession();
+        LocalDateTime now = LocalDateTime.now();
+        int count = 0;
+        for(Person entity : entities){
+            touch(entity, now);
+            session.update(entity);
+            addToIndexes(entity);
+            if(++count % batchSize == 0){
+                flushAndClear(session);
+            }
+        }
+        flushAndClear(session);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The IDs of the matching people are selected first,
+     * and then the people and their children are deleted
+     * with bounded IN-lists of those IDs: first each child
+     * table, then the people table. MySQL doesn't allow a
+     * delete to use a subquery on the table it is deleting
+     * from, so the IDs can't be selected in the delete itself.
+     * A tombstone is inserted for each person before they
+     * are deleted, so the change feed can report the deletion.
+     *
+     * Any of the deleted people already in the current session
+     * are evicted from it. Second-level cache regions for the
+     * affected tables are invalidated by Hibernate as part of
+     * executing the set-based statements.
+     */
+    @Override
+    public int deleteWhere(Query<Person> query) {
+        Session session = sessionFactory.getCurrentSession();
+        List<Long> ids = queryIds(session, query);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        int deleted = 0;
+        for(int i = 0; i < ids.size(); i += MAX_IN_LIST_SIZE){
+            List<Long> chunk = ids.subList(i, Math.min(i + MAX_IN_LIST_SIZE, ids.size()));
+            session.createSQLQuery("insert into people_tombstones (person_id, deleted) " +
+                    "select p.person_id, :deleted from people p where p.person_id in (:ids)")
+                    .addSynchronizedEntityClass(PersonTombstone.class)
+                    .setParameter("deleted", now)
+                    .setParameterList("ids", chunk)
+                    .executeUpdate();
+            for(Class<?> child : CHILD_ENTITIES){
+                session.createQuery("delete from " + child.getSimpleName() + " c where c.owner.personId in (:ids)")
+                        .setParameterList("ids", chunk)
+                        .executeUpdate();
+            }
+            deleted += session.createQuery("delete from Person p where p.personId in (:ids)")
+                    .setParameterList("ids", chunk)
+                    .executeUpdate();
+        }
+
+        evictAll(session, ids);
+        if(idFilter != null){
+            idFilter.removed(deleted);
+        }
+        removeFromIndexes(ids);
+        return deleted;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The IDs of the matching people are selected first,
+     * and then the people are updated with bounded IN-lists
+     * of those IDs. The last modified timestamp of each
+     * person is updated as well, and their version is
+     * incremented, so copies of them read before this
+     * update can no longer be used to update them. The
+     * phonetic keys of the first and last names are derived
+     * from them, so they are updated with the names, and
+     * can't be updated themselves.
+     *
+     * Any of the updated people already in the current session
+     * are evicted from it, so they aren't used with stale values.
+     * Second-level cache regions for the affected tables are
+     * invalidated by Hibernate as part of executing the
+     * set-based statements.
+     */
+    @Override
+    public int updateWhere(Query<Person> query, Map<QueryField, Object> values) {
+        if(values.isEmpty()){
+            throw new IllegalArgumentException("At least one field must be assigned a value");
+        }
+
+        StringBuilder hql = new StringBuilder("update versioned Person p set p.lastModified = :lastModified");
+        Map<String,Object> params = new HashMap<>();
+        int index = 0;
+        for(Map.Entry<QueryField,Object> entry : values.entrySet()){
+            QueryField field = entry.getKey();
+            if(field.getChildEntity() != null){
+                throw new IllegalArgumentException("Only fields of Person can be updated, not " + field);
+            }
+
+            if(field == PersonField.FIRST_NAME_KEY || field == PersonField.LAST_NAME_KEY){
+                throw new IllegalArgumentException("Field " + field + " is derived from the name, and can't be updated");
+            }
+
+            if(entry.getValue() != null && !field.getValueType().isInstance(entry.getValue())){
+                throw new IllegalArgumentException("Field " + field + " requires values of type " +
+                        field.getValueType().getName());
+            }
+
+            String param = "v" + index++;
+            hql.append(", p.").append(field.getProperty()).append(" = :").append(param);
+            params.put(param, entry.getValue());
+
+            //Keep the phonetic keys in step with the names they are derived from
+            if(field == PersonField.FIRST_NAME || field == PersonField.LAST_NAME){
+                String keyParam = "v" + index++;
+                hql.append(", p.").append(field == PersonField.FIRST_NAME ? "firstNameKey" : "lastNameKey")
+                        .append(" = :").append(keyParam);
+                params.put(keyParam, NameEncoder.encode((String) entry.getValue()));
+            }
+        }
+        hql.append(" where p.personId in (:ids)");
+
+        Session session = sessionFactory.getCurrentSession();
+        List<Long> ids = queryIds(session, query);
+        LocalDateTime now = LocalDateTime.now();
+
+        int updated = 0;
+        for(int i = 0; i < ids.size(); i += MAX_IN_LIST_SIZE){
+            List<Long> chunk = ids.subList(i, Math.min(i + MAX_IN_LIST_SIZE, ids.size()));
+            org.hibernate.Query update = session.createQuery(hql.toString())
+                    .setParameter("lastModified", now)
+                    .setParameterList("ids", chunk);
+            for(Map.Entry<String,Object> param : params.entrySet()){
+                update.setParameter(param.getKey(), param.getValue());
+            }
+            updated += update.executeUpdate();
+        }
+
+        evictAll(session, ids);
+        if(nameIndex != null){
+            nameIndex.updated(ids, values);
+        }
+        if(phoneticIndex != null){
+            phoneticIndex.updated(ids, values);
+        }
+        return updated;
+    }
+
+    /**
+     * Get the IDs of all people that match a query.
+     *
+     * @param session the session to execute the query in.
+     * @param query the query to execute.
+     * @return the IDs of the matching people.
+     */
+    private List<Long> queryIds(Session session, Query<Person> query){
+        QueryPlan plan = planCache.getPlan(query);
+        org.hibernate.Query idQuery = session.createQuery(plan.getIdHql());
+        bindParameters(idQuery, plan, query.getParameters());
+
+        @SuppressWarnings("unchecked")
+        List<Long> ids = idQuery.list();
+        return ids;
+    }
+
+    /**
+     * Evict the people with the provided IDs from the
+     * session, if they are in it, without loading any
+     * that aren't. Their child entities are evicted
+     * along with them.
+     *
+     * @param session the session to evict the people from.
+     * @param ids the IDs of the people to evict.
+     */
+    private void evictAll(Session session, Collection<Long> ids){
+        SessionImplementor sessionImpl = (SessionImplementor) session;
+        EntityPersister persister = sessionImpl.getFactory().getEntityPersister(Person.class.getName());
+        for(Long id : ids){
+            EntityKey key = sessionImpl.generateEntityKey(id, persister);
+            Object entity = sessionImpl.getPersistenceContext().getEntity(key);
+            if(entity != null){
+                session.evict(entity);
+            }
+        }
+    }
+
+    /**
+     * Assign the last modified timestamp of a person
+     * who is about to be written, and of any of their
+     * loaded children that don't have one yet. The
+     * phonetic keys of the person's names, the packed
+     * numbers of their loaded phones, and the normalized
+     * addresses of their loaded emails, are derived here
+     * as well.
+     *
+     * @param person the person being written.
+     * @param now the timestamp to assign.
+     */
+    private void touch(Person person, LocalDateTime now){
+        person.setLastModified(now);
+        person.setFirstNameKey(NameEncoder.encode(person.getFirstName()));
+        person.setLastNameKey(NameEncoder.encode(person.getLastName()));
+        if(Hibernate.isInitialized(person.getAddresses())){
+            for(PersonAddress address : person.getAddresses()){
+                if(address.getLastModified() == null){
+                    address.setLastModified(now);
+                }
+            }
+        }
+
+        if(Hibernate.isInitialized(person.getPhones())){
+            for(PersonPhone phone : person.getPhones()){
+                if(phone.getLastModified() == null){
+                    phone.setLastModified(now);
+                }
+                long packed = PhoneNumbers.pack(phone.getAreaCode(), phone.getPrefix(), phone.getLineNumber());
+                phone.setPackedNumber(packed != PhoneNumbers.INVALID ? packed : null);
+            }
+        }
+
+        if(Hibernate.isInitialized(person.getEmails())){
+            for(PersonEmail email : person.getEmails()){
+                if(email.getLastModified() == null){
+                    email.setLastModified(now);
+                }
+                email.setEmailKey(EmailAddresses.normalize(email.getEmailAddress()));
+            }
+        }
+    }
+
+    /**
+     * Flush all pending statements in the session
+     * to the database, and then clear it so the
+     * entities written so far can be garbage collected.
+     *
+     * An update of an entity that was changed since it
+     * was read fails here, and is translated to the same
+     * exception the transaction manager throws for one that
+     * fails at commit.
+     *
+     * @param session the session to flush and clear.
+     * @throws OptimisticLockingFailureException if an entity
+     *          was changed since it was read.
+     */
+    private void flushAndClear(Session session){
+        try{
+            session.flush();
+        }
+        catch(StaleStateException ex){
+            throw SessionFactoryUtils.convertHibernateAccessException(ex);
+        }
+        session.clear();
+    }
+
+    /**
+     * Get the cache of compiled query plans.
+     *
+     * @return the cache of compiled query plans.
+     */
+    public QueryPlanCache getPlanCache(){
+        return planCache;
+    }
+
+    @Override
+    public List<Person> query(Query<Person> query) {
+        if(query instanceof GetByIdQuery){
+            return getById((GetByIdQuery<Person>) query);
+        }
+
+        QueryPlan plan = planCache.getPlan(query);
+        org.hibernate.Query hibQuery = sessionFactory.getCurrentSession()
+                .createQuery(plan.getHql());
+        bindParameters(hibQuery, plan, query.getParameters());
+        applyCaching(hibQuery, query);
+
+        @SuppressWarnings("unchecked")
+        List<Person> results = hibQuery.list();
+        applyFetchPlan(results, query.getFetchPlan());
+        return results;
+    }
+
+    /**
+     * Retrieve a single person by their ID. This looks the
+     * person up by their key, instead of running the query's
+     * HQL, so that they can be served from the second-level
+     * cache when they're in it. IDs the filter knows don't
+     * exist aren't looked up at all.
+     *
+     * @param query the query with the ID of the person.
+     * @return a list with the person, or an empty list.
+     */
+    private List<Person> getById(GetByIdQuery<Person> query){
+        if(query.getId() == null || !mightExist(query.getId())){
+            return new ArrayList<>();
+        }
+
+        Person person = (Person) sessionFactory.getCurrentSession().get(Person.class, query.getId());
+        if(person == null){
+            return new ArrayList<>();
+        }
+
+        List<Person> results = new ArrayList<>(1);
+        results.add(person);
+        applyFetchPlan(results, query.getFetchPlan());
+        return results;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Each distinct ID is only loaded once, and any repeated
+     * IDs are served from the entities already loaded. IDs the
+     * filter knows don't exist are reported missing straight
+     * away, people in the second-level cache are taken from
+     * there, and the rest are queried in IN-lists of at most
+     * 256 IDs. The collections in
+     * the fetch plan are loaded with one statement per child
+     * table for each IN-list, rather than per person.
+     */
+    @Override
+    public MultiGetResult<Person> getByIds(GetByIdsQuery<Person> query) {
+        QueryPlan plan = planCache.getPlan(query);
+        Session session = sessionFactory.getCurrentSession();
+
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(query.getIds()));
+        distinctIds.remove(null);
+
+        Map<Long,Person> identityMap = new HashMap<>();
+        List<Person> cached = new ArrayList<>();
+        List<Long> uncachedIds = new ArrayList<>();
+        Cache cache = sessionFactory.getCache();
+        for(Long id : distinctIds){
+            if(!mightExist(id)){
+                continue;
+            }
+
+            if(cache.containsEntity(Person.class, id)){
+                Person person = (Person) session.get(Person.class, id);
+                if(person != null){
+                    cached.add(person);
+                    identityMap.put(id, person);
+                    continue;
+                }
+            }
+            uncachedIds.add(id);
+        }
+        applyFetchPlan(cached, query.getFetchPlan());
+
+        for(int i = 0; i < uncachedIds.size(); i += MAX_LOAD_IN_LIST_SIZE){
+            List<Long> chunk = uncachedIds.subList(i, Math.min(i + MAX_LOAD_IN_LIST_SIZE, uncachedIds.size()));
+            @SuppressWarnings("unchecked")
+            List<Person> people = session.createQuery(plan.getHql())
+                    .setParameterList(GetByIdsQuery.IDS, padIds(chunk))
+                    .list();
+            applyFetchPlan(people, query.getFetchPlan());
+            for(Person person : people){
+                identityMap.put(person.getPersonId(), person);
+            }
+        }
+
+        List<Person> results = new ArrayList<>(query.getIds().size());
+        Set<Long> missingIds = new LinkedHashSet<>();
+        for(Long id : query.getIds()){
+            Person person = identityMap.get(id);
+            if(person != null){
+                results.add(person);
+            }
+            else if(id != null){
+                missingIds.add(id);
+            }
+        }
+        return new MultiGetResult<>(results, missingIds);
+    }
+
+    @Override
+    public <R> List<R> project(Query<Person> query, Projection<R> projection) {
+        QueryPlan plan = planCache.getPlan(query);
+        org.hibernate.Query hibQuery = sessionFactory.getCurrentSession()
+                .createQuery(plan.getProjectionHql(projection))
+                .setReadOnly(true);
+        bindParameters(hibQuery, plan, query.getParameters());
+        applyCaching(hibQuery, query);
+
+        List<?> rows = hibQuery.list();
+        List<R> results = new ArrayList<>(rows.size());
+        for(Object row : rows){
+            results.add(projection.mapRow(row instanceof Object[] ? (Object[]) row : new Object[]{row}));
+        }
+        return results;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The IDs of the matching people are scrolled with a
+     * streaming fetch size on a separate stateless session,
+     * which has its own connection. The people are loaded
+     * into the current session in chunks of batchSize as
+     * the stream is consumed, and each one is evicted from
+     * the session as soon as it has been consumed.
+     *
+     * Because the IDs are read on a separate connection,
+     * they won't include changes that the current
+     * transaction hasn't committed yet.
+     */
     @Override
-    public List<Object> query(Query query) {
-        //TODO figure this one out
-        return null;
+    public Stream<Person> stream(final Query<Person> query) {
+        final QueryPlan plan = planCache.getPlan(query);
+        final Session session = sessionFactory.getCurrentSession();
+        final StatelessSession idSession = sessionFactory.openStatelessSession();
+        try{
+            org.hibernate.Query idQuery = idSession.createQuery(plan.getIdHql())
+                    .setFetchSize(FetchSizes.forScrolling(sessionFactory, streamFetchSize))
+                    .setReadOnly(true);
+            bindParameters(idQuery, plan, query.getParameters());
+            final ScrollableResults ids = idQuery.scroll(ScrollMode.FORWARD_ONLY);
+
+            IdScrollSpliterator<Person> spliterator = new IdScrollSpliterator<>(ids, batchSize,
+                    chunkIds -> loadChunk(session, chunkIds, query.getFetchPlan()), session::evict);
+            return StreamSupport.stream(spliterator, false)
+                    .onClose(() -> {
+                        try{
+                            ids.close();
+                        }
+                        finally{
+                            idSession.close();
+                        }
+                    });
+        }
+        catch(RuntimeException ex){
+            idSession.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Load a chunk of people by their IDs into
+     * the provided session.
+     *
+     * @param session the session to load the people into.
+     * @param ids the IDs of the people to load.
+     * @param fetchPlan the fetch plan for the people.
+     * @return the loaded people, keyed by ID.
+     */
+    private Map<Long,Person> loadChunk(Session session, List<Long> ids, FetchPlan fetchPlan){
+        @SuppressWarnings("unchecked")
+        List<Person> people = session.createQuery("from Person p where p.personId in (:ids)")
+                .setParameterList("ids", padIds(ids))
+                .list();
+        applyFetchPlan(people, fetchPlan);
+
+        Map<Long,Person> result = new HashMap<>();
+        for(Person person : people){
+            result.put(person.getPersonId(), person);
+        }
+        return result;
+    }
+
+    /**
+     * Add the ID of a person who was just saved to the
+     * ID filter, if there is one.
+     *
+     * @param person the person who was saved.
+     */
+    private void addToIdFilter(Person person){
+        if(idFilter != null){
+            idFilter.add(person.getPersonId());
+        }
+    }
+
+    private void addToIndexes(Person person){
+        if(nameIndex != null){
+            nameIndex.saved(person);
+        }
+        if(phoneticIndex != null){
+            phoneticIndex.saved(person);
+        }
+        if(phoneIndex != null){
+            phoneIndex.saved(person);
+        }
+        if(emailIndex != null){
+            emailIndex.saved(person);
+        }
+    }
+
+    private void removeFromIndexes(List<Long> personIds){
+        if(nameIndex != null){
+            nameIndex.removed(personIds);
+        }
+        if(phoneticIndex != null){
+            phoneticIndex.removed(personIds);
+        }
+        if(phoneIndex != null){
+            phoneIndex.removed(personIds);
+        }
+        if(emailIndex != null){
+            emailIndex.removed(personIds);
+        }
+    }
+
+    /**
+     * Test if a person with the provided ID might exist,
+     * according to the ID filter. Without a filter, every
+     * person might exist.
+     *
+     * @param personId the ID of the person.
+     * @return false if the person definitely doesn't exist.
+     */
+    private boolean mightExist(Long personId){
+        return idFilter == null || idFilter.mightExist(personId);
+    }
+
+    /**
+     * Pad a list of IDs to the next power of two in
+     * length, by repeating the last ID. Hibernate compiles
+     * a separate plan for every distinct number of values
+     * in an IN-list, so padding keeps the number of plans
+     * small and lets them be re-used. The repeated IDs
+     * don't change the results.
+     *
+     * @param ids the IDs to pad.
+     * @return the padded IDs.
+     */
+    private List<Long> padIds(List<Long> ids){
+        int size = ids.size();
+        int paddedSize = Integer.highestOneBit(size);
+        if(paddedSize == size){
+            return ids;
+        }
+
+        paddedSize <<= 1;
+        List<Long> padded = new ArrayList<>(paddedSize);
+        padded.addAll(ids);
+        Long last = ids.get(size - 1);
+        while(padded.size() < paddedSize){
+            padded.add(last);
+        }
+        return padded;
+    }
+
+    /**
+     * Load the child collections included in the fetch
+     * plan for all of the provided people. Because the
+     * collections are subselect fetched, initializing a
+     * collection on the first person loads that collection
+     * for every person from the same query, so this costs
+     * one statement per child table rather than per person.
+     *
+     * @param people the people to load the collections of.
+     * @param fetchPlan the fetch plan.
+     */
+    private void applyFetchPlan(List<Person> people, FetchPlan fetchPlan){
+        for(Person person : people){
+            if(fetchPlan.includesAddresses()){
+                Hibernate.initialize(person.getAddresses());
+            }
+
+            if(fetchPlan.includesPhones()){
+                Hibernate.initialize(person.getPhones());
+            }
+
+            if(fetchPlan.includesEmails()){
+                Hibernate.initialize(person.getEmails());
+            }
+        }
+    }
+
+    /**
+     * Enable the query result cache for the HQL query,
+     * if the Query allows its results to be cached.
+     * Cached results are discarded whenever any of the
+     * tables they were read from are written.
+     *
+     * @param hibQuery the HQL query.
+     * @param query the Query being executed.
+     */
+    private void applyCaching(org.hibernate.Query hibQuery, Query<Person> query){
+        if(query.isCacheable()){
+            hibQuery.setCacheable(true)
+                    .setCacheRegion(CacheRegions.QUERIES);
+        }
+    }
+
+    /**
+     * Bind the parameters of a query to the
+     * Hibernate query created from its plan.
+     *
+     * @param hibQuery the Hibernate query.
+     * @param plan the plan the Hibernate query was created from.
+     * @param parameters the parameters to bind.
+     */
+    private void bindParameters(org.hibernate.Query hibQuery, QueryPlan plan, Map<String,Object> parameters){
+        for(Map.Entry<String,Object> param : parameters.entrySet()){
+            if(plan.isListParameter(param.getKey())){
+                hibQuery.setParameterList(param.getKey(), (Collection<?>) param.getValue());
+            }
+            else{
+                hibQuery.setParameter(param.getKey(), param.getValue());
+            }
+        }
     }
 }
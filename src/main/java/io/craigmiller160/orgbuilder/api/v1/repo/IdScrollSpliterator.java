@@ -0,0 +1,110 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import org.hibernate.ScrollableResults;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A Spliterator that walks a scrollable result set
+ * of entity IDs, loading the entities themselves in
+ * small chunks as it goes. Each entity is handed to a
+ * release callback as soon as it has been consumed,
+ * so that it can be evicted from the session. This
+ * keeps memory use bounded by the chunk size, no
+ * matter how many rows the IDs scroll over.
+ *
+ * The IDs are scrolled separately from the entities
+ * because a streaming result set holds its connection
+ * exclusively until it is closed, and the entities
+ * (and their child collections) need to be loaded
+ * with further statements while it is open.
+ *
+ * @param <T> the type of entity being streamed.
+ */
+class IdScrollSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+    private final ScrollableResults ids;
+    private final int chunkSize;
+    private final Function<List<Long>,Map<Long,T>> loader;
+    private final Consumer<T> release;
+
+    private Iterator<T> chunk;
+    private boolean exhausted = false;
+
+    /**
+     * Create a new spliterator.
+     *
+     * @param ids the scrollable results, where each row has
+     *            a single column holding an entity ID.
+     * @param chunkSize the number of entities to load at a time.
+     * @param loader a function to load the entities for a list of
+     *               IDs, returned in a map keyed by ID.
+     * @param release a callback for each entity after it has been consumed.
+     */
+    IdScrollSpliterator(ScrollableResults ids, int chunkSize,
+                        Function<List<Long>,Map<Long,T>> loader, Consumer<T> release){
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.ids = ids;
+        this.chunkSize = chunkSize;
+        this.loader = loader;
+        this.release = release;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        while(chunk == null || !chunk.hasNext()){
+            if(exhausted){
+                return false;
+            }
+            chunk = nextChunk();
+        }
+
+        T entity = chunk.next();
+        try{
+            action.accept(entity);
+        }
+        finally{
+            release.accept(entity);
+        }
+        return true;
+    }
+
+    /**
+     * Read the next chunk of IDs from the scrollable
+     * results and load their entities, keeping the
+     * order the IDs were read in. IDs that no longer
+     * have an entity are skipped.
+     *
+     * @return an iterator over the next chunk of entities.
+     */
+    private Iterator<T> nextChunk(){
+        List<Long> chunkIds = new ArrayList<>(chunkSize);
+        while(chunkIds.size() < chunkSize){
+            if(!ids.next()){
+                exhausted = true;
+                break;
+            }
+            chunkIds.add(((Number) ids.get(0)).longValue());
+        }
+
+        List<T> entities = new ArrayList<>(chunkIds.size());
+        if(!chunkIds.isEmpty()){
+            Map<Long,T> loaded = loader.apply(chunkIds);
+            for(Long id : chunkIds){
+                T entity = loaded.get(id);
+                if(entity != null){
+                    entities.add(entity);
+                }
+            }
+        }
+        return entities.iterator();
+    }
+
+}
@@ -0,0 +1,44 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Applies changes to the in-memory indexes of people
+ * only once the write they mirror has committed, so
+ * an index never shows a write that was rolled back.
+ *
+ * The indexes are built from the database when the
+ * application starts, and after that they only learn of
+ * the writes made through HibPersonRepo in this application
+ * instance. Writes by any other instance, or straight to
+ * the database, are missing from them until they are
+ * rebuilt. That is why every index is disabled unless its
+ * property is set, which should only be done when this is
+ * the only instance that writes to the database.
+ */
+class IndexSynchronization {
+
+    /**
+     * Run an action once the current transaction
+     * commits, or straight away if there is no
+     * transaction. The action isn't run at all if
+     * the transaction rolls back.
+     *
+     * @param action the action to run.
+     */
+    static void afterCommit(final Runnable action){
+        if(TransactionSynchronizationManager.isSynchronizationActive()){
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+        else{
+            action.run();
+        }
+    }
+
+}
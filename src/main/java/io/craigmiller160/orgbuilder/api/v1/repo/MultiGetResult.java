@@ -0,0 +1,53 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The result of retrieving several entities by
+ * their IDs at once. The entities that were found
+ * are in the order their IDs were requested, and
+ * the IDs that didn't match any entity are reported
+ * separately.
+ *
+ * @param <T> the type of entity retrieved.
+ */
+public class MultiGetResult<T> {
+
+    private final List<T> results;
+    private final Set<Long> missingIds;
+
+    /**
+     * Create a new result.
+     *
+     * @param results the entities found, in the order requested.
+     * @param missingIds the IDs that didn't match any entity.
+     */
+    public MultiGetResult(List<T> results, Set<Long> missingIds){
+        this.results = Collections.unmodifiableList(results);
+        this.missingIds = Collections.unmodifiableSet(missingIds);
+    }
+
+    /**
+     * Get the entities that were found, in the order
+     * their IDs were requested. If an ID was requested
+     * more than once, the same entity appears at each
+     * position it was requested in.
+     *
+     * @return the entities that were found.
+     */
+    public List<T> getResults() {
+        return results;
+    }
+
+    /**
+     * Get the IDs that didn't match any entity.
+     *
+     * @return the IDs that didn't match any entity.
+     */
+    public Set<Long> getMissingIds() {
+        return missingIds;
+    }
+
+}
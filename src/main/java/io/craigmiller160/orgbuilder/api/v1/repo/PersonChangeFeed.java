@@ -0,0 +1,206 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.FetchPlan;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.PersonByIdsQuery;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A feed of the changes to people, so that downstream
+ * systems can sync only what changed since they last
+ * read it, rather than reading every person again.
+ *
+ * A person is changed when it, or any of its addresses,
+ * phones or emails, is written through HibPersonRepo,
+ * which stamps the last modified timestamp of the person
+ * on every write. Deleted people are reported from their
+ * tombstones. Both are read with keyset queries on indexes
+ * of (timestamp, person ID), so each page costs the same
+ * however far into the feed it is.
+ *
+ * The feed only reaches up to a short lag behind the
+ * current time. A transaction stamps its timestamps before
+ * it commits, so without the lag, a cursor could move past
+ * a change that is about to be committed with an earlier
+ * timestamp, and that change would never be read. The lag
+ * must be longer than any write transaction, and longer
+ * than the replication delay if the feed is read from a
+ * replica. The timestamps come from the clock of the
+ * application node that wrote the change, not the
+ * database, so if several nodes write, the lag must also
+ * cover how far apart their clocks can be, or a node that
+ * is behind can commit a change behind a cursor that was
+ * moved by a node that is ahead.
+ *
+ * Must be called within a transaction.
+ */
+@Component("personChangeFeed")
+public class PersonChangeFeed {
+
+    public static final long DEFAULT_LAG_MILLIS = 5000;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    @Autowired
+    private Repo<Person> repo;
+
+    /**
+     * How far behind the current time the feed stops.
+     */
+    @Value("${changeFeedLagMillis:" + DEFAULT_LAG_MILLIS + "}")
+    private long lagMillis = DEFAULT_LAG_MILLIS;
+
+    public SessionFactory getSessionFactory(){
+        return sessionFactory;
+    }
+
+    public void setSessionFactory(SessionFactory sessionFactory){
+        this.sessionFactory = sessionFactory;
+    }
+
+    public Repo<Person> getRepo(){
+        return repo;
+    }
+
+    public void setRepo(Repo<Person> repo){
+        this.repo = repo;
+    }
+
+    public long getLagMillis(){
+        return lagMillis;
+    }
+
+    public void setLagMillis(long lagMillis){
+        this.lagMillis = lagMillis;
+    }
+
+    /**
+     * Get a page of the changes after a cursor.
+     *
+     * @param cursor the cursor to read after.
+     * @param limit the maximum number of changes in the page.
+     * @param fetchPlan the fetch plan for the updated people.
+     * @return the page of changes.
+     * @throws IllegalArgumentException if the limit is less than 1
+     *          or more than MAX_PAGE_SIZE.
+     */
+    public ChangePage getChanges(ChangeCursor cursor, int limit, FetchPlan fetchPlan){
+        if(limit < 1 || limit > MAX_PAGE_SIZE){
+            throw new IllegalArgumentException("The limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        Session session = sessionFactory.getCurrentSession();
+        LocalDateTime until = LocalDateTime.now().minusNanos(lagMillis * 1000000);
+        List<Object[]> updates = queryUpdates(session, cursor, until, limit + 1);
+        List<Object[]> deletions = queryDeletions(session, cursor, until, limit + 1);
+
+        //Merge the two in feed order, where updates come before deletions at the same time
+        List<Long> updatedIds = new ArrayList<>();
+        List<Long> deletedIds = new ArrayList<>();
+        ChangeCursor next = cursor;
+        int u = 0;
+        int d = 0;
+        while(updatedIds.size() + deletedIds.size() < limit && (u < updates.size() || d < deletions.size())){
+            boolean takeUpdate = d >= deletions.size() ||
+                    (u < updates.size() && !((LocalDateTime) updates.get(u)[0]).isAfter((LocalDateTime) deletions.get(d)[0]));
+            Object[] row = takeUpdate ? updates.get(u++) : deletions.get(d++);
+            Long personId = (Long) row[1];
+            if(takeUpdate){
+                updatedIds.add(personId);
+            }
+            else{
+                deletedIds.add(personId);
+            }
+            next = new ChangeCursor((LocalDateTime) row[0], !takeUpdate, personId);
+        }
+        boolean more = u < updates.size() || d < deletions.size();
+
+        List<Person> updated = updatedIds.isEmpty() ? new ArrayList<>() :
+                repo.getByIds(new PersonByIdsQuery(updatedIds, fetchPlan)).getResults();
+        return new ChangePage(updated, deletedIds, next, more);
+    }
+
+    /**
+     * Get the timestamp and ID of the people
+     * updated after the cursor, in feed order.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Object[]> queryUpdates(Session session, ChangeCursor cursor, LocalDateTime until, int limit){
+        StringBuilder hql = new StringBuilder("select p.lastModified, p.personId from Person p " +
+                "where p.lastModified <= :until");
+        if(!cursor.isStart()){
+            if(cursor.isDeletion()){
+                hql.append(" and p.lastModified > :time");
+            }
+            else{
+                hql.append(" and (p.lastModified > :time or (p.lastModified = :time and p.personId > :id))");
+            }
+        }
+        hql.append(" order by p.lastModified, p.personId");
+
+        return bindCursor(session.createQuery(hql.toString()), cursor, until)
+                .setMaxResults(limit)
+                .list();
+    }
+
+    /**
+     * Get the timestamp and ID of the people
+     * deleted after the cursor, in feed order.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Object[]> queryDeletions(Session session, ChangeCursor cursor, LocalDateTime until, int limit){
+        StringBuilder hql = new StringBuilder("select t.deleted, t.personId from PersonTombstone t " +
+                "where t.deleted <= :until");
+        if(!cursor.isStart()){
+            if(cursor.isDeletion()){
+                hql.append(" and (t.deleted > :time or (t.deleted = :time and t.personId > :id))");
+            }
+            else{
+                hql.append(" and t.deleted >= :time");
+            }
+        }
+        hql.append(" order by t.deleted, t.personId");
+
+        return bindCursor(session.createQuery(hql.toString()), cursor, until)
+                .setMaxResults(limit)
+                .list();
+    }
+
+    private org.hibernate.Query bindCursor(org.hibernate.Query query, ChangeCursor cursor, LocalDateTime until){
+        query.setParameter("until", until);
+        if(!cursor.isStart()){
+            query.setParameter("time", cursor.getTime());
+            if(query.getNamedParameters().length == 3){
+                query.setParameter("id", cursor.getPersonId());
+            }
+        }
+        return query;
+    }
+
+    /**
+     * Delete the tombstones of people deleted before
+     * a time. Clients with a cursor older than this can
+     * no longer be told about those deletions, so they
+     * must sync from the start again.
+     *
+     * @param before the time to delete tombstones before.
+     * @return the number of tombstones deleted.
+     */
+    public int pruneTombstones(LocalDateTime before){
+        return sessionFactory.getCurrentSession()
+                .createQuery("delete from PersonTombstone t where t.deleted < :before")
+                .setParameter("before", before)
+                .executeUpdate();
+    }
+
+}
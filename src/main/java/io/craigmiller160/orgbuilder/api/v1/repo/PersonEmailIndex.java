@@ -0,0 +1,397 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+import io.craigmiller160.orgbuilder.api.v1.model.PersonEmail;
+import io.craigmiller160.orgbuilder.api.v1.util.EmailAddresses;
+import io.craigmiller160.orgbuilder.api.v1.util.PrefixIndex;
+import org.hibernate.Hibernate;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-memory index from email addresses to the people
+ * who have them, which also keeps the number of people
+ * with an address in each email domain.
+ *
+ * Addresses are normalized by trimming and lower casing
+ * them, so an address matches however it was written.
+ * The normalized addresses are also stored in an indexed
+ * column of the emails table, so they can be used in a
+ * PersonQuery. The domain counts are changed along with
+ * the addresses, so reporting on them never has to read
+ * the emails table.
+ *
+ * @see IndexSynchronization
+ */
+@Component("personEmailIndex")
+public class PersonEmailIndex implements InitializingBean {
+
+    private static final long[] NO_OWNERS = new long[0];
+    private static final String[] NO_EMAILS = new String[0];
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    /**
+     * Whether the index is used at all. When disabled,
+     * nothing is indexed, every lookup is empty, and
+     * every domain has no people.
+     */
+    @Value("${emailIndexEnabled:false}")
+    private boolean enabled = false;
+
+    /**
+     * The JDBC fetch size used when reading
+     * the emails table.
+     */
+    @Value("${streamFetchSize:" + HibPersonRepo.DEFAULT_STREAM_FETCH_SIZE + "}")
+    private int fetchSize = HibPersonRepo.DEFAULT_STREAM_FETCH_SIZE;
+
+    /*
+     * The owners of each address, the addresses of each
+     * person, used to remove their old addresses when they
+     * change, and the number of people in each domain.
+     * Lookups hold the read lock, and changes hold the
+     * write lock as well as the lock of this object, which
+     * keeps them from running during a rebuild.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String,long[]> owners = new HashMap<>();
+    private Map<Long,String[]> emails = new HashMap<>();
+    private Map<String,Integer> domainCounts = new HashMap<>();
+
+    public SessionFactory getSessionFactory(){
+        return sessionFactory;
+    }
+
+    public void setSessionFactory(SessionFactory sessionFactory){
+        this.sessionFactory = sessionFactory;
+    }
+
+    public boolean isEnabled(){
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled){
+        this.enabled = enabled;
+    }
+
+    public int getFetchSize(){
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize){
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        rebuild();
+    }
+
+    /**
+     * Read every address in the emails table, and replace
+     * the owners and domain counts with what was read. Each
+     * address is normalized again rather than taken from the
+     * email_key column, which is empty for rows written before
+     * it existed. A person with the same address written
+     * several ways is counted once, in one domain.
+     */
+    public synchronized void rebuild(){
+        Map<Long,TreeSet<String>> found = new HashMap<>();
+        if(enabled){
+            StatelessSession session = sessionFactory.openStatelessSession();
+            try{
+                ScrollableResults rows = session.createQuery("select e.owner.personId, e.emailAddress from PersonEmail e")
+                        .setFetchSize(FetchSizes.forScrolling(sessionFactory, fetchSize))
+                        .setReadOnly(true)
+                        .scroll(ScrollMode.FORWARD_ONLY);
+                try{
+                    while(rows.next()){
+                        String emailKey = EmailAddresses.normalize((String) rows.get(1));
+                        if(emailKey != null){
+                            found.computeIfAbsent((Long) rows.get(0), id -> new TreeSet<>()).add(emailKey);
+                        }
+                    }
+                }
+                finally{
+                    rows.close();
+                }
+            }
+            finally{
+                session.close();
+            }
+        }
+
+        Map<String,long[]> nextOwners = new HashMap<>();
+        Map<Long,String[]> nextEmails = new HashMap<>();
+        Map<String,Integer> nextDomainCounts = new HashMap<>();
+        for(Map.Entry<Long,TreeSet<String>> entry : found.entrySet()){
+            String[] personEmails = entry.getValue().toArray(NO_EMAILS);
+            nextEmails.put(entry.getKey(), personEmails);
+            for(String email : personEmails){
+                nextOwners.merge(email, new long[]{entry.getKey()}, PrefixIndex::union);
+            }
+            for(String domain : domains(personEmails)){
+                nextDomainCounts.merge(domain, 1, Integer::sum);
+            }
+        }
+
+        lock.writeLock().lock();
+        try{
+            owners = nextOwners;
+            emails = nextEmails;
+            domainCounts = nextDomainCounts;
+        }
+        finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the people with an email address, ignoring
+     * case and any surrounding whitespace.
+     *
+     * @param emailAddress the email address.
+     * @return the IDs of the people with the address, in order.
+     */
+    public long[] lookup(String emailAddress){
+        String emailKey = EmailAddresses.normalize(emailAddress);
+        if(emailKey == null){
+            return NO_OWNERS;
+        }
+
+        lock.readLock().lock();
+        try{
+            long[] ids = owners.get(emailKey);
+            return ids != null ? ids.clone() : NO_OWNERS;
+        }
+        finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of people with at least one
+     * email address in a domain, ignoring case.
+     *
+     * @param domain the domain, such as example.com.
+     * @return the number of people in the domain.
+     */
+    public int getDomainCount(String domain){
+        String domainKey = EmailAddresses.normalize(domain);
+        if(domainKey == null){
+            return 0;
+        }
+
+        lock.readLock().lock();
+        try{
+            return domainCounts.getOrDefault(domainKey, 0);
+        }
+        finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the domains with the most people, and the number
+     * of people in each. Domains with the same number of
+     * people are ordered by name.
+     *
+     * @param limit the maximum number of domains to return.
+     * @return the domains and their counts, from most people to least.
+     */
+    public Map<String,Integer> getTopDomains(int limit){
+        Comparator<Map.Entry<String,Integer>> order = Map.Entry.<String,Integer>comparingByValue()
+                .reversed()
+                .thenComparing(Map.Entry.comparingByKey());
+        PriorityQueue<Map.Entry<String,Integer>> top = new PriorityQueue<>(order.reversed());
+        if(limit > 0){
+            lock.readLock().lock();
+            try{
+                for(Map.Entry<String,Integer> entry : domainCounts.entrySet()){
+                    top.add(entry);
+                    if(top.size() > limit){
+                        top.poll();
+                    }
+                }
+            }
+            finally{
+                lock.readLock().unlock();
+            }
+        }
+
+        List<Map.Entry<String,Integer>> sorted = new ArrayList<>(top);
+        sorted.sort(order);
+        Map<String,Integer> result = new LinkedHashMap<>();
+        for(Map.Entry<String,Integer> entry : sorted){
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Record that a person was saved. Their addresses
+     * replace the ones indexed for them, and they move
+     * between domain counts to match, once the write commits.
+     * A person whose emails weren't loaded can't have
+     * changed them, so they are skipped.
+     *
+     * @param person the person who was saved.
+     */
+    public void saved(final Person person){
+        if(!enabled || !Hibernate.isInitialized(person.getEmails())){
+            return;
+        }
+
+        IndexSynchronization.afterCommit(() -> {
+            if(person.getPersonId() != null){
+                TreeSet<String> personEmails = new TreeSet<>();
+                for(PersonEmail email : person.getEmails()){
+                    if(email.getEmailKey() != null){
+                        personEmails.add(email.getEmailKey());
+                    }
+                }
+                put(person.getPersonId(), personEmails.toArray(NO_EMAILS));
+            }
+        });
+    }
+
+    /**
+     * Record that people were deleted, so that none of
+     * their addresses lead to them, and they no longer
+     * count towards their domains, once the delete commits.
+     *
+     * @param personIds the IDs of the deleted people.
+     */
+    public void removed(final Collection<Long> personIds){
+        if(!enabled){
+            return;
+        }
+
+        IndexSynchronization.afterCommit(() -> {
+            for(Long personId : personIds){
+                put(personId, NO_EMAILS);
+            }
+        });
+    }
+
+    /**
+     * Replace the sorted addresses of a person, and
+     * move them between domains to match.
+     */
+    private synchronized void put(long personId, String[] personEmails){
+        lock.writeLock().lock();
+        try{
+            String[] old = personEmails.length > 0 ? emails.put(personId, personEmails) : emails.remove(personId);
+            if(old == null){
+                old = NO_EMAILS;
+            }
+
+            for(String email : old){
+                if(Arrays.binarySearch(personEmails, email) < 0){
+                    long[] remaining = PrefixIndex.without(owners.get(email), personId);
+                    if(remaining.length == 0){
+                        owners.remove(email);
+                    }
+                    else{
+                        owners.put(email, remaining);
+                    }
+                }
+            }
+            for(String email : personEmails){
+                if(Arrays.binarySearch(old, email) < 0){
+                    owners.merge(email, new long[]{personId}, PrefixIndex::union);
+                }
+            }
+
+            List<String> oldDomains = domains(old);
+            List<String> newDomains = domains(personEmails);
+            for(String domain : oldDomains){
+                if(!newDomains.contains(domain)){
+                    domainCounts.computeIfPresent(domain, (key, count) -> count > 1 ? count - 1 : null);
+                }
+            }
+            for(String domain : newDomains){
+                if(!oldDomains.contains(domain)){
+                    domainCounts.merge(domain, 1, Integer::sum);
+                }
+            }
+        }
+        finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the distinct domains of a person's addresses.
+     * A person rarely has more than a few addresses,
+     * so a list is the cheapest set.
+     */
+    private static List<String> domains(String[] personEmails){
+        List<String> domains = new ArrayList<>(personEmails.length);
+        for(String email : personEmails){
+            String domain = EmailAddresses.domainOf(email);
+            if(domain != null && !domains.contains(domain)){
+                domains.add(domain);
+            }
+        }
+        return domains;
+    }
+
+    /**
+     * Get the number of distinct email addresses in the index.
+     *
+     * @return the number of email addresses.
+     */
+    public int getEmailCount(){
+        lock.readLock().lock();
+        try{
+            return owners.size();
+        }
+        finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of distinct email domains in the index.
+     *
+     * @return the number of domains.
+     */
+    public int getDomainCount(){
+        lock.readLock().lock();
+        try{
+            return domainCounts.size();
+        }
+        finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String toString(){
+        return String.format("PersonEmailIndex: enabled=%b, emails=%d, domains=%d",
+                enabled, getEmailCount(), getDomainCount());
+    }
+
+}
@@ -0,0 +1,318 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import io.craigmiller160.orgbuilder.api.v1.util.LongBloomFilter;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A membership filter of the IDs of every person
+ * in the database, used to answer lookups for IDs
+ * that definitely don't exist without a query.
+ *
+ * The filter is built from the people table when
+ * the application starts, and every person inserted
+ * through HibPersonRepo is added to it as they are
+ * saved. It can return a false positive, in which case
+ * the lookup goes to the database as normal, but never
+ * a false negative.
+ *
+ * People can't be removed from the filter, so deleted
+ * IDs keep being answered as "might exist". This only
+ * costs a query, and the count of deletions since the
+ * last build is reported so the filter can be rebuilt
+ * when it has drifted too far.
+ *
+ * The filter only sees inserts made by this application
+ * instance. A person inserted by another instance is answered
+ * as definitely absent until the filter is rebuilt, so the
+ * filter is only correct when this is the only instance that
+ * writes to the database. It is disabled by default, and must
+ * only be enabled with the idFilterEnabled property for a
+ * single writer.
+ */
+@Component("personIdFilter")
+public class PersonIdFilter implements InitializingBean{
+
+    public static final long DEFAULT_EXPECTED_SIZE = 1000000;
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+    /**
+     * The number of the most recently added IDs kept
+     * aside, to be added to a filter that is being
+     * rebuilt. An insert that is still uncommitted while
+     * the table is read won't be found by the read, so
+     * it is taken from here instead.
+     */
+    private static final int RECENT_ID_COUNT = 10000;
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    /**
+     * Whether the filter is used at all. When disabled,
+     * every ID is answered as "might exist".
+     */
+    @Value("${idFilterEnabled:false}")
+    private boolean enabled = false;
+
+    /**
+     * The number of people the filter is sized for. If
+     * the table already holds more than this, the filter
+     * is sized for the table instead, with room to grow.
+     */
+    @Value("${idFilterExpectedSize:" + DEFAULT_EXPECTED_SIZE + "}")
+    private long expectedSize = DEFAULT_EXPECTED_SIZE;
+
+    /**
+     * The false positive rate the filter is
+     * sized for at its expected size.
+     */
+    @Value("${idFilterFalsePositiveRate:" + DEFAULT_FALSE_POSITIVE_RATE + "}")
+    private double falsePositiveRate = DEFAULT_FALSE_POSITIVE_RATE;
+
+    /**
+     * The JDBC fetch size used when reading
+     * the IDs from the people table.
+     */
+    @Value("${streamFetchSize:" + HibPersonRepo.DEFAULT_STREAM_FETCH_SIZE + "}")
+    private int fetchSize = HibPersonRepo.DEFAULT_STREAM_FETCH_SIZE;
+
+    /*
+     * The filter being used, and the filter being
+     * built to replace it, if any. The current filter
+     * is null until it has been built for the first time.
+     */
+    private volatile LongBloomFilter filter;
+    private volatile LongBloomFilter pending;
+
+    private final AtomicLongArray recentIds = new AtomicLongArray(RECENT_ID_COUNT);
+    private final AtomicLong recentCursor = new AtomicLong();
+
+    private final AtomicLong lookupCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong removedCount = new AtomicLong();
+
+    public SessionFactory getSessionFactory(){
+        return sessionFactory;
+    }
+
+    public void setSessionFactory(SessionFactory sessionFactory){
+        this.sessionFactory = sessionFactory;
+    }
+
+    public boolean isEnabled(){
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled){
+        this.enabled = enabled;
+    }
+
+    public long getExpectedSize(){
+        return expectedSize;
+    }
+
+    public void setExpectedSize(long expectedSize){
+        this.expectedSize = expectedSize;
+    }
+
+    public double getFalsePositiveRate(){
+        return falsePositiveRate;
+    }
+
+    public void setFalsePositiveRate(double falsePositiveRate){
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public int getFetchSize(){
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize){
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        rebuild();
+    }
+
+    /**
+     * Build a new filter from the IDs in the people
+     * table, and replace the current filter with it.
+     * Lookups keep using the current filter while the
+     * new one is built, and IDs added in the meantime
+     * go into both.
+     */
+    public synchronized void rebuild(){
+        if(!enabled){
+            filter = null;
+            return;
+        }
+
+        StatelessSession session = sessionFactory.openStatelessSession();
+        try{
+            long count = (Long) session.createQuery("select count(p) from Person p").uniqueResult();
+            LongBloomFilter next = new LongBloomFilter(Math.max(expectedSize, count + count / 2), falsePositiveRate);
+            pending = next;
+            long removedBefore = removedCount.get();
+
+            ScrollableResults ids = session.createQuery("select p.personId from Person p")
+                    .setFetchSize(FetchSizes.forScrolling(sessionFactory, fetchSize))
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            try{
+                while(ids.next()){
+                    next.put((Long) ids.get(0));
+                }
+            }
+            finally{
+                ids.close();
+            }
+
+            for(int i = 0; i < RECENT_ID_COUNT; i++){
+                long id = recentIds.get(i);
+                if(id != 0){
+                    next.put(id);
+                }
+            }
+
+            filter = next;
+            removedCount.addAndGet(-removedBefore);
+        }
+        finally{
+            pending = null;
+            session.close();
+        }
+    }
+
+    /**
+     * Add the ID of a newly saved person to the filter.
+     * This must be called as soon as the ID is assigned,
+     * before the person is committed, so that there is
+     * no window where the person exists but the filter
+     * says they don't.
+     *
+     * @param personId the ID of the person.
+     */
+    public void add(Long personId){
+        if(personId == null || !enabled){
+            return;
+        }
+
+        recentIds.set((int) (recentCursor.getAndIncrement() % RECENT_ID_COUNT), personId);
+        LongBloomFilter current = filter;
+        if(current != null){
+            current.put(personId);
+        }
+
+        LongBloomFilter next = pending;
+        if(next != null){
+            next.put(personId);
+        }
+    }
+
+    /**
+     * Record that people were deleted. Their IDs
+     * stay in the filter, so this is only counted
+     * to report how far the filter has drifted. It
+     * is counted when the transaction commits, or
+     * straight away if there is no transaction.
+     *
+     * @param count the number of people deleted.
+     */
+    public void removed(final int count){
+        IndexSynchronization.afterCommit(() -> removedCount.addAndGet(count));
+    }
+
+    /**
+     * Test if a person with the provided ID might exist.
+     *
+     * @param personId the ID of the person.
+     * @return false if the person definitely doesn't exist,
+     *          true if they might.
+     */
+    public boolean mightExist(Long personId){
+        LongBloomFilter current = filter;
+        if(current == null || personId == null){
+            return true;
+        }
+
+        lookupCount.incrementAndGet();
+        if(current.mightContain(personId)){
+            return true;
+        }
+
+        rejectedCount.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Get the number of lookups checked against the filter.
+     *
+     * @return the number of lookups.
+     */
+    public long getLookupCount(){
+        return lookupCount.get();
+    }
+
+    /**
+     * Get the number of lookups the filter answered
+     * as definitely absent, each of which saved a query.
+     *
+     * @return the number of rejected lookups.
+     */
+    public long getRejectedCount(){
+        return rejectedCount.get();
+    }
+
+    /**
+     * Get the number of people deleted since the
+     * filter was last built. Their IDs still pass
+     * the filter.
+     *
+     * @return the number of deletions since the last build.
+     */
+    public long getRemovedSinceBuild(){
+        return removedCount.get();
+    }
+
+    /**
+     * Get the memory used by the filter.
+     *
+     * @return the size of the filter in bytes, or 0 if it isn't built.
+     */
+    public long getSizeInBytes(){
+        LongBloomFilter current = filter;
+        return current != null ? current.getSizeInBytes() : 0;
+    }
+
+    /**
+     * Estimate the current false positive rate of the
+     * filter, based on how many IDs have been added to it.
+     *
+     * @return the estimated false positive rate, or 1 if it isn't built.
+     */
+    public double getEstimatedFalsePositiveRate(){
+        LongBloomFilter current = filter;
+        return current != null ? current.getEstimatedFalsePositiveRate() : 1;
+    }
+
+    @Override
+    public String toString(){
+        return String.format("PersonIdFilter: enabled=%b, bytes=%d, estimatedFalsePositiveRate=%.4f, " +
+                "lookups=%d, rejected=%d, removedSinceBuild=%d",
+                enabled, getSizeInBytes(), getEstimatedFalsePositiveRate(),
+                getLookupCount(), getRejectedCount(), getRemovedSinceBuild());
+    }
+
+}
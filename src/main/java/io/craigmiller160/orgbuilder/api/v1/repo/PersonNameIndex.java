@@ -0,0 +1,345 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.PersonField;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.QueryField;
+import io.craigmiller160.orgbuilder.api.v1.util.NameEncoder;
+import io.craigmiller160.orgbuilder.api.v1.util.PrefixIndex;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * An in-memory index of the first, middle and last
+ * names of every person, for type-ahead searches by
+ * name prefix without querying the database.
+ *
+ * Names are normalized before they are indexed or
+ * searched for: accents are removed, letters are lower
+ * cased, and names are split into words on anything that
+ * isn't a letter or digit, so "Mary-Jane O'Brien" is found
+ * by "mary", "jane", "o" and "brien". Names are split
+ * once, when they are indexed, and the words of each person
+ * are kept to remove them again when the person is renamed.
+ *
+ * @see IndexSynchronization
+ */
+@Component("personNameIndex")
+public class PersonNameIndex implements InitializingBean {
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final String[] NO_WORDS = new String[0];
+
+    /*
+     * The positions of the words of each name
+     * in the words kept for each person.
+     */
+    private static final int FIRST = 0;
+    private static final int MIDDLE = 1;
+    private static final int LAST = 2;
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    /**
+     * Whether the index is used at all. When disabled,
+     * nothing is indexed and every search is empty.
+     */
+    @Value("${nameIndexEnabled:false}")
+    private boolean enabled = false;
+
+    /**
+     * The JDBC fetch size used when reading
+     * the names from the people table.
+     */
+    @Value("${streamFetchSize:" + HibPersonRepo.DEFAULT_STREAM_FETCH_SIZE + "}")
+    private int fetchSize = HibPersonRepo.DEFAULT_STREAM_FETCH_SIZE;
+
+    /*
+     * The index of name words, and the words of each name
+     * of each person, needed to remove their old words
+     * when they are renamed. Both are replaced together
+     * when the index is rebuilt, and are only modified
+     * while holding the lock of this object.
+     */
+    private volatile PrefixIndex index = new PrefixIndex();
+    private volatile Map<Long,String[][]> words = new ConcurrentHashMap<>();
+
+    public SessionFactory getSessionFactory(){
+        return sessionFactory;
+    }
+
+    public void setSessionFactory(SessionFactory sessionFactory){
+        this.sessionFactory = sessionFactory;
+    }
+
+    public boolean isEnabled(){
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled){
+        this.enabled = enabled;
+    }
+
+    public int getFetchSize(){
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize){
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        rebuild();
+    }
+
+    /**
+     * Read the first, middle and last name of every person,
+     * split them into words, and replace the index with
+     * those words. Searches go to the old words until the
+     * new ones are all read, and renames wait for them.
+     */
+    public synchronized void rebuild(){
+        if(!enabled){
+            index = new PrefixIndex();
+            words = new ConcurrentHashMap<>();
+            return;
+        }
+
+        PrefixIndex nextIndex = new PrefixIndex();
+        Map<Long,String[][]> nextWords = new ConcurrentHashMap<>();
+        StatelessSession session = sessionFactory.openStatelessSession();
+        try{
+            ScrollableResults rows = session.createQuery(
+                    "select p.personId, p.firstName, p.middleName, p.lastName from Person p")
+                    .setFetchSize(FetchSizes.forScrolling(sessionFactory, fetchSize))
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            try{
+                while(rows.next()){
+                    String[][] personWords = {toWords((String) rows.get(1)),
+                            toWords((String) rows.get(2)), toWords((String) rows.get(3))};
+                    long personId = (Long) rows.get(0);
+                    nextWords.put(personId, personWords);
+                    addWords(nextIndex, personId, personWords);
+                }
+            }
+            finally{
+                rows.close();
+            }
+        }
+        finally{
+            session.close();
+        }
+
+        index = nextIndex;
+        words = nextWords;
+    }
+
+    /**
+     * Record that a person was saved. The words of their
+     * names are split now, and once the write commits they
+     * replace the person's old words, so a search for a
+     * name they no longer have stops finding them.
+     *
+     * @param person the person who was saved.
+     */
+    public void saved(final Person person){
+        if(!enabled){
+            return;
+        }
+
+        IndexSynchronization.afterCommit(() -> {
+            if(person.getPersonId() != null){
+                put(person.getPersonId(), new String[][]{toWords(person.getFirstName()),
+                        toWords(person.getMiddleName()), toWords(person.getLastName())});
+            }
+        });
+    }
+
+    /**
+     * Record that people were deleted. Once the delete
+     * commits, each of their name words stops leading to
+     * them, and a word that no one else has is dropped.
+     *
+     * @param personIds the IDs of the deleted people.
+     */
+    public void removed(final Collection<Long> personIds){
+        if(!enabled){
+            return;
+        }
+
+        IndexSynchronization.afterCommit(() -> {
+            synchronized(this){
+                for(Long personId : personIds){
+                    String[][] old = words.remove(personId);
+                    if(old != null){
+                        removeWords(index, personId, old);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Record that people were updated by a set-based
+     * update. Only updates of their names affect the index.
+     *
+     * @param personIds the IDs of the updated people.
+     * @param values the new values, keyed by field.
+     */
+    public void updated(final Collection<Long> personIds, Map<QueryField,Object> values){
+        if(!enabled || !(values.containsKey(PersonField.FIRST_NAME) ||
+                values.containsKey(PersonField.MIDDLE_NAME) || values.containsKey(PersonField.LAST_NAME))){
+            return;
+        }
+
+        final Map<Integer,String[]> renamed = new HashMap<>();
+        if(values.containsKey(PersonField.FIRST_NAME)){
+            renamed.put(FIRST, toWords((String) values.get(PersonField.FIRST_NAME)));
+        }
+        if(values.containsKey(PersonField.MIDDLE_NAME)){
+            renamed.put(MIDDLE, toWords((String) values.get(PersonField.MIDDLE_NAME)));
+        }
+        if(values.containsKey(PersonField.LAST_NAME)){
+            renamed.put(LAST, toWords((String) values.get(PersonField.LAST_NAME)));
+        }
+
+        IndexSynchronization.afterCommit(() -> {
+            synchronized(this){
+                for(Long personId : personIds){
+                    String[][] old = words.get(personId);
+                    String[][] personWords = old != null ? old.clone() : new String[][]{NO_WORDS, NO_WORDS, NO_WORDS};
+                    for(Map.Entry<Integer,String[]> entry : renamed.entrySet()){
+                        personWords[entry.getKey()] = entry.getValue();
+                    }
+                    put(personId, personWords);
+                }
+            }
+        });
+    }
+
+    /**
+     * Find the people with a name that starts with the
+     * search text. If the text has several words, every
+     * word must start one of the person's names.
+     *
+     * Matches of a single word are ordered by the name
+     * that matched, so a name equal to the text comes first.
+     * Matches of several words are ordered by ID. Load the
+     * people themselves with Repo.getByIds() if they are needed.
+     *
+     * @param text the text typed so far.
+     * @param limit the maximum number of people to find.
+     * @return the IDs of the matching people.
+     */
+    public long[] search(String text, int limit){
+        String[] searchWords = toWords(text);
+        if(searchWords.length == 0 || limit <= 0){
+            return new long[0];
+        }
+
+        PrefixIndex current = index;
+        if(searchWords.length == 1){
+            return current.search(searchWords[0], limit);
+        }
+
+        //Intersect the people with each word, starting with the word with the fewest
+        long[][] matches = new long[searchWords.length][];
+        for(int i = 0; i < searchWords.length; i++){
+            matches[i] = current.searchAll(searchWords[i]);
+            if(matches[i].length == 0){
+                return matches[i];
+            }
+        }
+        Arrays.sort(matches, Comparator.comparingInt(ids -> ids.length));
+
+        long[] found = matches[0];
+        for(int i = 1; i < matches.length && found.length > 0; i++){
+            found = PrefixIndex.intersect(found, matches[i]);
+        }
+        return found.length > limit ? Arrays.copyOf(found, limit) : found;
+    }
+
+    private synchronized void put(long personId, String[][] personWords){
+        String[][] old = words.put(personId, personWords);
+        if(old != null){
+            removeWords(index, personId, old);
+        }
+        addWords(index, personId, personWords);
+    }
+
+    private static void addWords(PrefixIndex index, long personId, String[][] personWords){
+        for(String[] nameWords : personWords){
+            for(String word : nameWords){
+                index.add(word, personId);
+            }
+        }
+    }
+
+    private static void removeWords(PrefixIndex index, long personId, String[][] personWords){
+        for(String[] nameWords : personWords){
+            for(String word : nameWords){
+                index.remove(word, personId);
+            }
+        }
+    }
+
+    /**
+     * Fold a name and split it into words.
+     *
+     * @param name the name.
+     * @return the words of the name, which is empty
+     *          if the name is null or has no words.
+     */
+    private static String[] toWords(String name){
+        List<String> nameWords = new ArrayList<>();
+        for(String word : WORD_SEPARATOR.split(NameEncoder.fold(name))){
+            if(!word.isEmpty()){
+                nameWords.add(word);
+            }
+        }
+        return nameWords.toArray(NO_WORDS);
+    }
+
+    /**
+     * Get the number of people in the index.
+     *
+     * @return the number of people.
+     */
+    public int getPersonCount(){
+        return words.size();
+    }
+
+    /**
+     * Get the number of distinct name words in the index.
+     *
+     * @return the number of words.
+     */
+    public int getWordCount(){
+        return index.getKeyCount();
+    }
+
+    @Override
+    public String toString(){
+        return String.format("PersonNameIndex: enabled=%b, people=%d, words=%d, postings=%d",
+                enabled, getPersonCount(), getWordCount(), index.getPostingCount());
+    }
+
+}
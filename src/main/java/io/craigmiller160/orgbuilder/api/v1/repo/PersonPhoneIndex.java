@@ -0,0 +1,342 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+import io.craigmiller160.orgbuilder.api.v1.model.PersonPhone;
+import io.craigmiller160.orgbuilder.api.v1.util.LongLongHashMap;
+import io.craigmiller160.orgbuilder.api.v1.util.PhoneNumbers;
+import io.craigmiller160.orgbuilder.api.v1.util.PrefixIndex;
+import org.hibernate.Hibernate;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-memory index from phone numbers to the people
+ * who have them, for reverse lookups such as finding the
+ * person behind a caller ID.
+ *
+ * Phone numbers are packed into a single long, and kept
+ * in a primitive hash map from number to person ID, so a
+ * lookup is a hash probe with no allocation or query. The
+ * rare numbers shared by several people, such as a family
+ * landline, are kept in a second map of all their owners.
+ * The packed numbers are also stored in an indexed column
+ * of the phones table, so they can be used in a PersonQuery.
+ *
+ * @see IndexSynchronization
+ */
+@Component("personPhoneIndex")
+public class PersonPhoneIndex implements InitializingBean {
+
+    /**
+     * The value in the map of owners for a
+     * number that has more than one owner.
+     */
+    private static final long SHARED = -2;
+
+    private static final long[] NONE = new long[0];
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    /**
+     * Whether the index is used at all. When disabled,
+     * nothing is indexed and every lookup is empty.
+     */
+    @Value("${phoneIndexEnabled:false}")
+    private boolean enabled = false;
+
+    /**
+     * The JDBC fetch size used when reading
+     * the phones table.
+     */
+    @Value("${streamFetchSize:" + HibPersonRepo.DEFAULT_STREAM_FETCH_SIZE + "}")
+    private int fetchSize = HibPersonRepo.DEFAULT_STREAM_FETCH_SIZE;
+
+    /*
+     * The owner of each number, the owners of each number
+     * with more than one, and the numbers of each person,
+     * used to remove their old numbers when they change.
+     * Lookups hold the read lock, and changes hold the
+     * write lock as well as the lock of this object, which
+     * keeps them from running during a rebuild.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private LongLongHashMap owners = new LongLongHashMap();
+    private Map<Long,long[]> sharedOwners = new HashMap<>();
+    private Map<Long,long[]> numbers = new HashMap<>();
+
+    public SessionFactory getSessionFactory(){
+        return sessionFactory;
+    }
+
+    public void setSessionFactory(SessionFactory sessionFactory){
+        this.sessionFactory = sessionFactory;
+    }
+
+    public boolean isEnabled(){
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled){
+        this.enabled = enabled;
+    }
+
+    public int getFetchSize(){
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize){
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        rebuild();
+    }
+
+    /**
+     * Read the area code, prefix and line number of every
+     * phone, and replace the index with what was read. The
+     * numbers are packed from those parts rather than read
+     * from the packed_number column, which is empty for rows
+     * written before it existed. Phones that don't make a
+     * valid 10 digit number are left out, and a number
+     * found under several people becomes a shared number.
+     */
+    public synchronized void rebuild(){
+        Map<Long,long[]> nextNumbers = new HashMap<>();
+        if(enabled){
+            StatelessSession session = sessionFactory.openStatelessSession();
+            try{
+                ScrollableResults rows = session.createQuery("select ph.owner.personId, ph.areaCode, " +
+                        "ph.prefix, ph.lineNumber from PersonPhone ph")
+                        .setFetchSize(FetchSizes.forScrolling(sessionFactory, fetchSize))
+                        .setReadOnly(true)
+                        .scroll(ScrollMode.FORWARD_ONLY);
+                try{
+                    while(rows.next()){
+                        long packed = PhoneNumbers.pack((String) rows.get(1), (String) rows.get(2), (String) rows.get(3));
+                        if(packed != PhoneNumbers.INVALID){
+                            nextNumbers.merge((Long) rows.get(0), new long[]{packed}, PrefixIndex::union);
+                        }
+                    }
+                }
+                finally{
+                    rows.close();
+                }
+            }
+            finally{
+                session.close();
+            }
+        }
+
+        LongLongHashMap nextOwners = new LongLongHashMap(nextNumbers.size());
+        Map<Long,long[]> nextSharedOwners = new HashMap<>();
+        for(Map.Entry<Long,long[]> entry : nextNumbers.entrySet()){
+            for(long number : entry.getValue()){
+                addOwner(nextOwners, nextSharedOwners, number, entry.getKey());
+            }
+        }
+
+        lock.writeLock().lock();
+        try{
+            owners = nextOwners;
+            sharedOwners = nextSharedOwners;
+            numbers = nextNumbers;
+        }
+        finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the people with a phone number, written in
+     * any format, such as a caller ID.
+     *
+     * @param number the phone number.
+     * @return the IDs of the people with the number, which
+     *          is empty if the number isn't 10 digits.
+     */
+    public long[] lookup(String number){
+        long packed = PhoneNumbers.parse(number);
+        return packed != PhoneNumbers.INVALID ? lookup(packed) : NONE;
+    }
+
+    /**
+     * Find the people with a packed phone number.
+     *
+     * @param packedNumber the packed phone number.
+     * @return the IDs of the people with the number, in order.
+     */
+    public long[] lookup(long packedNumber){
+        lock.readLock().lock();
+        try{
+            long owner = owners.get(packedNumber);
+            if(owner == LongLongHashMap.NO_VALUE){
+                return NONE;
+            }
+            else if(owner == SHARED){
+                return sharedOwners.get(packedNumber).clone();
+            }
+            return new long[]{owner};
+        }
+        finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Record that a person was saved. Once the write
+     * commits, the packed numbers of their phones replace
+     * the ones indexed for them, and a number they now share
+     * with someone else, or no longer share, moves between
+     * the single and shared owner maps. A person whose
+     * phones weren't loaded can't have changed them, so
+     * they are skipped.
+     *
+     * @param person the person who was saved.
+     */
+    public void saved(final Person person){
+        if(!enabled || !Hibernate.isInitialized(person.getPhones())){
+            return;
+        }
+
+        IndexSynchronization.afterCommit(() -> {
+            if(person.getPersonId() != null){
+                long[] personNumbers = NONE;
+                for(PersonPhone phone : person.getPhones()){
+                    if(phone.getPackedNumber() != null){
+                        personNumbers = PrefixIndex.union(personNumbers, new long[]{phone.getPackedNumber()});
+                    }
+                }
+                put(person.getPersonId(), personNumbers);
+            }
+        });
+    }
+
+    /**
+     * Record that people were deleted, so that once the
+     * delete commits their numbers no longer lead to them,
+     * and a number left with one owner is no longer shared.
+     *
+     * @param personIds the IDs of the deleted people.
+     */
+    public void removed(final Collection<Long> personIds){
+        if(!enabled){
+            return;
+        }
+
+        IndexSynchronization.afterCommit(() -> {
+            for(Long personId : personIds){
+                put(personId, NONE);
+            }
+        });
+    }
+
+    /**
+     * Replace the numbers of a person.
+     */
+    private synchronized void put(long personId, long[] personNumbers){
+        lock.writeLock().lock();
+        try{
+            long[] old = personNumbers.length > 0 ? numbers.put(personId, personNumbers) : numbers.remove(personId);
+            if(old == null){
+                old = NONE;
+            }
+
+            for(long number : old){
+                if(Arrays.binarySearch(personNumbers, number) < 0){
+                    removeOwner(number, personId);
+                }
+            }
+            for(long number : personNumbers){
+                if(Arrays.binarySearch(old, number) < 0){
+                    addOwner(owners, sharedOwners, number, personId);
+                }
+            }
+        }
+        finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void addOwner(LongLongHashMap owners, Map<Long,long[]> sharedOwners, long number, long personId){
+        long owner = owners.put(number, personId);
+        if(owner == SHARED){
+            owners.put(number, SHARED);
+            sharedOwners.merge(number, new long[]{personId}, PrefixIndex::union);
+        }
+        else if(owner != LongLongHashMap.NO_VALUE && owner != personId){
+            owners.put(number, SHARED);
+            sharedOwners.put(number, PrefixIndex.union(new long[]{owner}, new long[]{personId}));
+        }
+    }
+
+    private void removeOwner(long number, long personId){
+        long owner = owners.get(number);
+        if(owner == personId){
+            owners.remove(number);
+        }
+        else if(owner == SHARED){
+            long[] remaining = PrefixIndex.without(sharedOwners.get(number), personId);
+            if(remaining.length == 1){
+                sharedOwners.remove(number);
+                owners.put(number, remaining[0]);
+            }
+            else{
+                sharedOwners.put(number, remaining);
+            }
+        }
+    }
+
+    /**
+     * Get the number of distinct phone numbers in the index.
+     *
+     * @return the number of phone numbers.
+     */
+    public int getNumberCount(){
+        lock.readLock().lock();
+        try{
+            return owners.size();
+        }
+        finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of phone numbers that
+     * belong to more than one person.
+     *
+     * @return the number of shared phone numbers.
+     */
+    public int getSharedNumberCount(){
+        lock.readLock().lock();
+        try{
+            return sharedOwners.size();
+        }
+        finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String toString(){
+        return String.format("PersonPhoneIndex: enabled=%b, numbers=%d, sharedNumbers=%d",
+                enabled, getNumberCount(), getSharedNumberCount());
+    }
+
+}
@@ -0,0 +1,379 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.PersonField;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.QueryField;
+import io.craigmiller160.orgbuilder.api.v1.util.NameEncoder;
+import io.craigmiller160.orgbuilder.api.v1.util.PrefixIndex;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An in-memory index of the phonetic keys of the first
+ * and last names of every person, for finding people by
+ * how their names sound, such as "Mueller" for "Miller".
+ *
+ * A search looks up the people whose names have the same
+ * phonetic key as the names searched for, which is a short
+ * list, and ranks only those by the edit distance between
+ * their names and the names searched for. The keys are also
+ * stored in indexed columns of the people table, so they
+ * can be used in a PersonQuery as well.
+ *
+ * @see IndexSynchronization
+ */
+@Component("personPhoneticIndex")
+public class PersonPhoneticIndex implements InitializingBean {
+
+    /*
+     * The positions of the names in the
+     * array of names kept for each person.
+     */
+    private static final int FIRST = 0;
+    private static final int LAST = 1;
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    /**
+     * Whether the index is used at all. When disabled,
+     * nothing is indexed and every search is empty.
+     */
+    @Value("${phoneticIndexEnabled:false}")
+    private boolean enabled = false;
+
+    /**
+     * The JDBC fetch size used when reading
+     * the names from the people table.
+     */
+    @Value("${streamFetchSize:" + HibPersonRepo.DEFAULT_STREAM_FETCH_SIZE + "}")
+    private int fetchSize = HibPersonRepo.DEFAULT_STREAM_FETCH_SIZE;
+
+    /*
+     * The IDs of the people under each key of their first
+     * and last names, and the names of each person, used to
+     * rank matches and to remove their old keys when they
+     * are renamed. All three are replaced together when the
+     * index is rebuilt, and are only modified while holding
+     * the lock of this object.
+     */
+    private volatile PrefixIndex firstNameKeys = new PrefixIndex();
+    private volatile PrefixIndex lastNameKeys = new PrefixIndex();
+    private volatile Map<Long,String[]> names = new ConcurrentHashMap<>();
+
+    public SessionFactory getSessionFactory(){
+        return sessionFactory;
+    }
+
+    public void setSessionFactory(SessionFactory sessionFactory){
+        this.sessionFactory = sessionFactory;
+    }
+
+    public boolean isEnabled(){
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled){
+        this.enabled = enabled;
+    }
+
+    public int getFetchSize(){
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize){
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        rebuild();
+    }
+
+    /**
+     * Read the first and last name of every person, encode
+     * them, and replace the index with those keys. The keys
+     * are encoded here rather than read from the key columns,
+     * which are empty until DerivedKeyBackfill has been run
+     * on rows written before they existed, and would be wrong
+     * if the encoding changed. The names themselves are kept
+     * to rank the people found by their edit distance.
+     */
+    public synchronized void rebuild(){
+        if(!enabled){
+            firstNameKeys = new PrefixIndex();
+            lastNameKeys = new PrefixIndex();
+            names = new ConcurrentHashMap<>();
+            return;
+        }
+
+        PrefixIndex nextFirstNameKeys = new PrefixIndex();
+        PrefixIndex nextLastNameKeys = new PrefixIndex();
+        Map<Long,String[]> nextNames = new ConcurrentHashMap<>();
+        StatelessSession session = sessionFactory.openStatelessSession();
+        try{
+            ScrollableResults rows = session.createQuery("select p.personId, p.firstName, p.lastName from Person p")
+                    .setFetchSize(FetchSizes.forScrolling(sessionFactory, fetchSize))
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            try{
+                while(rows.next()){
+                    long personId = (Long) rows.get(0);
+                    String[] personNames = {(String) rows.get(1), (String) rows.get(2)};
+                    nextNames.put(personId, personNames);
+                    addKeys(nextFirstNameKeys, nextLastNameKeys, personId, personNames);
+                }
+            }
+            finally{
+                rows.close();
+            }
+        }
+        finally{
+            session.close();
+        }
+
+        firstNameKeys = nextFirstNameKeys;
+        lastNameKeys = nextLastNameKeys;
+        names = nextNames;
+    }
+
+    /**
+     * Record that a person was saved. Once the write
+     * commits, the keys of their first and last names
+     * replace their old keys, so they sound like their
+     * new names to a search.
+     *
+     * @param person the person who was saved.
+     */
+    public void saved(final Person person){
+        if(!enabled){
+            return;
+        }
+
+        IndexSynchronization.afterCommit(() -> {
+            if(person.getPersonId() != null){
+                put(person.getPersonId(), new String[]{person.getFirstName(), person.getLastName()});
+            }
+        });
+    }
+
+    /**
+     * Record that people were deleted. Once the delete
+     * commits, they are dropped from the people under
+     * the keys of their names, and are never ranked again.
+     *
+     * @param personIds the IDs of the deleted people.
+     */
+    public void removed(final Collection<Long> personIds){
+        if(!enabled){
+            return;
+        }
+
+        IndexSynchronization.afterCommit(() -> {
+            synchronized(this){
+                for(Long personId : personIds){
+                    String[] old = names.remove(personId);
+                    if(old != null){
+                        removeKeys(firstNameKeys, lastNameKeys, personId, old);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Record that people were updated by a set-based
+     * update. Only updates of their first or last names
+     * affect the index.
+     *
+     * @param personIds the IDs of the updated people.
+     * @param values the new values, keyed by field.
+     */
+    public void updated(final Collection<Long> personIds, Map<QueryField,Object> values){
+        final boolean firstRenamed = values.containsKey(PersonField.FIRST_NAME);
+        final boolean lastRenamed = values.containsKey(PersonField.LAST_NAME);
+        if(!enabled || !(firstRenamed || lastRenamed)){
+            return;
+        }
+
+        final String firstName = (String) values.get(PersonField.FIRST_NAME);
+        final String lastName = (String) values.get(PersonField.LAST_NAME);
+        IndexSynchronization.afterCommit(() -> {
+            synchronized(this){
+                for(Long personId : personIds){
+                    String[] old = names.get(personId);
+                    String[] personNames = old != null ? old.clone() : new String[2];
+                    if(firstRenamed){
+                        personNames[FIRST] = firstName;
+                    }
+                    if(lastRenamed){
+                        personNames[LAST] = lastName;
+                    }
+                    put(personId, personNames);
+                }
+            }
+        });
+    }
+
+    /**
+     * Find the people whose names sound like the names
+     * searched for, closest spelling first. Either name
+     * can be null to search by the other alone, and if
+     * both are given, both must sound alike.
+     *
+     * Load the people themselves with Repo.getByIds()
+     * if they are needed.
+     *
+     * @param firstName the first name to search for, or null.
+     * @param lastName the last name to search for, or null.
+     * @param limit the maximum number of people to find.
+     * @return the IDs of the closest matching people, ranked by
+     *          the edit distance between their names and the
+     *          names searched for, then by ID.
+     */
+    public long[] search(String firstName, String lastName, int limit){
+        long[] firstMatches = firstName != null ? find(firstNameKeys, firstName) : null;
+        long[] lastMatches = lastName != null ? find(lastNameKeys, lastName) : null;
+
+        long[] candidates;
+        if(firstMatches != null && lastMatches != null){
+            candidates = PrefixIndex.intersect(firstMatches, lastMatches);
+        }
+        else if(firstMatches != null || lastMatches != null){
+            candidates = firstMatches != null ? firstMatches : lastMatches;
+        }
+        else{
+            candidates = new long[0];
+        }
+
+        if(limit <= 0){
+            return new long[0];
+        }
+
+        //Rank by distance, then ID, by comparing the distances packed with the position of the candidate.
+        //Every candidate is ranked, but only the best are kept, in a heap with the worst of them on top
+        Map<Long,String[]> currentNames = names;
+        PriorityQueue<Long> best = new PriorityQueue<>(Math.min(limit, candidates.length) + 1, Collections.reverseOrder());
+        for(int i = 0; i < candidates.length; i++){
+            String[] personNames = currentNames.get(candidates[i]);
+            if(personNames != null){
+                int distance = 0;
+                if(firstName != null){
+                    distance += NameEncoder.editDistance(firstName, personNames[FIRST]);
+                }
+                if(lastName != null){
+                    distance += NameEncoder.editDistance(lastName, personNames[LAST]);
+                }
+                long rank = ((long) distance << 32) | i;
+                if(best.size() < limit){
+                    best.add(rank);
+                }
+                else if(rank < best.peek()){
+                    best.poll();
+                    best.add(rank);
+                }
+            }
+        }
+
+        long[] found = new long[best.size()];
+        for(int i = found.length - 1; i >= 0; i--){
+            found[i] = candidates[(int) (long) best.poll()];
+        }
+        return found;
+    }
+
+    /**
+     * Find the people with a name that has the same
+     * key, or alternate key, as a name.
+     *
+     * @return the IDs of the people, in order.
+     */
+    private static long[] find(PrefixIndex keys, String name){
+        String key = NameEncoder.encode(name);
+        if(key == null){
+            return new long[0];
+        }
+
+        long[] found = keys.get(key);
+        String alternate = NameEncoder.encodeAlternate(name);
+        if(!key.equals(alternate)){
+            found = PrefixIndex.union(found, keys.get(alternate));
+        }
+        return found;
+    }
+
+    private synchronized void put(long personId, String[] personNames){
+        String[] old = names.put(personId, personNames);
+        if(old != null){
+            removeKeys(firstNameKeys, lastNameKeys, personId, old);
+        }
+        addKeys(firstNameKeys, lastNameKeys, personId, personNames);
+    }
+
+    private static void addKeys(PrefixIndex firstNameKeys, PrefixIndex lastNameKeys,
+                                long personId, String[] personNames){
+        for(String key : keysOf(personNames[FIRST])){
+            firstNameKeys.add(key, personId);
+        }
+        for(String key : keysOf(personNames[LAST])){
+            lastNameKeys.add(key, personId);
+        }
+    }
+
+    private static void removeKeys(PrefixIndex firstNameKeys, PrefixIndex lastNameKeys,
+                                   long personId, String[] personNames){
+        for(String key : keysOf(personNames[FIRST])){
+            firstNameKeys.remove(key, personId);
+        }
+        for(String key : keysOf(personNames[LAST])){
+            lastNameKeys.remove(key, personId);
+        }
+    }
+
+    /**
+     * Get the key and alternate key of a name,
+     * without repeating them if they are the same.
+     */
+    private static List<String> keysOf(String name){
+        List<String> keys = new ArrayList<>(2);
+        String key = NameEncoder.encode(name);
+        if(key != null){
+            keys.add(key);
+            String alternate = NameEncoder.encodeAlternate(name);
+            if(!key.equals(alternate)){
+                keys.add(alternate);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Get the number of people in the index.
+     *
+     * @return the number of people.
+     */
+    public int getPersonCount(){
+        return names.size();
+    }
+
+    @Override
+    public String toString(){
+        return String.format("PersonPhoneticIndex: enabled=%b, people=%d, firstNameKeys=%d, lastNameKeys=%d",
+                enabled, getPersonCount(), firstNameKeys.getKeyCount(), lastNameKeys.getKeyCount());
+    }
+
+}
@@ -1,8 +1,14 @@
 package io.craigmiller160.orgbuilder.api.v1.repo;
 
+import io.craigmiller160.orgbuilder.api.v1.repo.query.GetByIdsQuery;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.Projection;
 import io.craigmiller160.orgbuilder.api.v1.repo.query.Query;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.QueryField;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * TODO document this
@@ -13,10 +19,109 @@ public interface Repo<T> {
 
     void insert(T entity);
 
+    /**
+     * Update an entity. The update is checked against
+     * the version the entity was read with, and fails if
+     * the entity has been changed since, either when the
+     * session is flushed or when the transaction commits.
+     *
+     * @param entity the entity to update.
+     */
     void update(T entity);
 
     void delete(T entity);
 
-    List<Object> query(Query query);
+    /**
+     * Insert all of the provided entities, grouping
+     * the statements into batches rather than sending
+     * them to the database one at a time.
+     *
+     * @param entities the entities to insert.
+     */
+    void insertAll(Collection<T> entities);
+
+    /**
+     * Update all of the provided entities, grouping
+     * the statements into batches rather than sending
+     * them to the database one at a time.
+     *
+     * @param entities the entities to update.
+     * @throws org.springframework.dao.OptimisticLockingFailureException
+     *          if any of the entities was changed since it was read.
+     */
+    void updateAll(Collection<T> entities);
+
+    /**
+     * Delete all entities that match the query,
+     * along with any child entities they own, using
+     * set-based statements rather than loading and
+     * deleting each entity individually.
+     *
+     * @param query the query matching the entities to delete.
+     * @return the number of entities deleted.
+     */
+    int deleteWhere(Query<T> query);
+
+    /**
+     * Update all entities that match the query,
+     * assigning new values to the provided fields
+     * with set-based statements rather than loading
+     * and updating each entity individually. Only
+     * fields of the entity itself can be assigned,
+     * not fields of its child entities.
+     *
+     * @param query the query matching the entities to update.
+     * @param values the new values, keyed by field.
+     * @return the number of entities updated.
+     * @throws IllegalArgumentException if a field isn't a field
+     *              of the entity, or a value is of the wrong type.
+     */
+    int updateWhere(Query<T> query, Map<QueryField,Object> values);
+
+    /**
+     * Execute a query and get all of the entities
+     * that match it.
+     *
+     * @param query the query to execute.
+     * @return the entities that match the query.
+     */
+    List<T> query(Query<T> query);
+
+    /**
+     * Retrieve several entities by their IDs at once.
+     * The entities are returned in the order their IDs
+     * were requested, and any IDs that don't match an
+     * entity are reported separately.
+     *
+     * @param query the query with the IDs to retrieve.
+     * @return the entities found and the IDs that were missing.
+     */
+    MultiGetResult<T> getByIds(GetByIdsQuery<T> query);
+
+    /**
+     * Execute a query and get the columns of the
+     * projection for every entity that matches it,
+     * mapped to row objects. The entities themselves
+     * are never loaded.
+     *
+     * @param query the query to execute.
+     * @param projection the projection of the columns to read.
+     * @param <R> the type of row object.
+     * @return the row objects for the entities that match the query.
+     */
+    <R> List<R> project(Query<T> query, Projection<R> projection);
+
+    /**
+     * Execute a query and stream the entities that
+     * match it, rather than loading them all at once.
+     * The stream holds open database resources, so
+     * it MUST be closed once it is no longer needed,
+     * and it must be consumed within the transaction
+     * it was opened in.
+     *
+     * @param query the query to execute.
+     * @return a stream of the entities that match the query.
+     */
+    Stream<T> stream(Query<T> query);
 
 }
@@ -0,0 +1,637 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A write-behind buffer for updates to people, for
+ * callers that update the same person many times in
+ * quick succession.
+ *
+ * When enabled, updates are held in memory, keyed by
+ * the ID of the person, and only the latest state of each
+ * person is kept. A background thread writes the buffered
+ * people with Repo.updateAll(), one transaction per batch,
+ * whenever a full batch is waiting or the flush interval
+ * has passed. Whatever is left is written when the
+ * application shuts down.
+ *
+ * The buffer is bounded. When it is full, an update for
+ * a person who isn't already buffered waits for space,
+ * and fails with a RejectedExecutionException if none
+ * frees up in time. An update for a person already
+ * buffered always succeeds, as it takes no extra space.
+ *
+ * Buffered updates aren't visible to reads until they
+ * are written, and are lost if the process dies before
+ * then, so this should only be used for updates that
+ * can tolerate both. When disabled, each update is
+ * written straight away in its own transaction.
+ *
+ * Each update returns a future that completes once it has
+ * been written. A buffered update of a person who was changed
+ * by someone else since it was read can't be written. Its
+ * future fails with an OptimisticLockingFailureException, and
+ * the rest of its batch is written. Callers that can't let an
+ * update be lost this way must check the future.
+ */
+@Component("writeBehindPersonBuffer")
+public class WriteBehindPersonBuffer implements InitializingBean, DisposableBean {
+
+    public static final int DEFAULT_CAPACITY = 10000;
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+    public static final long DEFAULT_OFFER_TIMEOUT_MILLIS = 5000;
+
+    @Autowired
+    private Repo<Person> repo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Whether updates are buffered at all.
+     */
+    @Value("${writeBehindEnabled:false}")
+    private boolean enabled = false;
+
+    /**
+     * The maximum number of people buffered at once,
+     * including the batch being written.
+     */
+    @Value("${writeBehindCapacity:" + DEFAULT_CAPACITY + "}")
+    private int capacity = DEFAULT_CAPACITY;
+
+    /**
+     * The number of people written in each transaction.
+     * A flush starts as soon as this many are buffered.
+     */
+    @Value("${batchSize:" + HibPersonRepo.DEFAULT_BATCH_SIZE + "}")
+    private int batchSize = HibPersonRepo.DEFAULT_BATCH_SIZE;
+
+    /**
+     * The longest an update waits in the buffer
+     * before it is written.
+     */
+    @Value("${writeBehindFlushIntervalMillis:" + DEFAULT_FLUSH_INTERVAL_MILLIS + "}")
+    private long flushIntervalMillis = DEFAULT_FLUSH_INTERVAL_MILLIS;
+
+    /**
+     * The longest an update waits for space
+     * in a full buffer before it is rejected.
+     */
+    @Value("${writeBehindOfferTimeoutMillis:" + DEFAULT_OFFER_TIMEOUT_MILLIS + "}")
+    private long offerTimeoutMillis = DEFAULT_OFFER_TIMEOUT_MILLIS;
+
+    /*
+     * The buffered updates, in the order they were first
+     * buffered, and the number of them taken from it
+     * that are being written. Both are guarded by the lock.
+     */
+    private final Map<Long,Pending> buffer = new LinkedHashMap<>();
+    private int inFlight = 0;
+    private boolean closed = false;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition batchReady = lock.newCondition();
+
+    /*
+     * Held while writing, so that batches are written one
+     * at a time and an older state of a person can never
+     * be committed after a newer one.
+     */
+    private final Object writeLock = new Object();
+
+    private final AtomicLong bufferedCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong failedBatchCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong conflictCount = new AtomicLong();
+    private volatile RuntimeException lastFailure;
+    private volatile OptimisticLockingFailureException lastConflict;
+
+    private TransactionTemplate writeTemplate;
+    private Thread flusher;
+
+    public Repo<Person> getRepo(){
+        return repo;
+    }
+
+    public void setRepo(Repo<Person> repo){
+        this.repo = repo;
+    }
+
+    public PlatformTransactionManager getTransactionManager(){
+        return transactionManager;
+    }
+
+    public void setTransactionManager(PlatformTransactionManager transactionManager){
+        this.transactionManager = transactionManager;
+    }
+
+    public boolean isEnabled(){
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled){
+        this.enabled = enabled;
+    }
+
+    public int getCapacity(){
+        return capacity;
+    }
+
+    public void setCapacity(int capacity){
+        this.capacity = capacity;
+    }
+
+    public int getBatchSize(){
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize){
+        this.batchSize = batchSize;
+    }
+
+    public long getFlushIntervalMillis(){
+        return flushIntervalMillis;
+    }
+
+    public void setFlushIntervalMillis(long flushIntervalMillis){
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    public long getOfferTimeoutMillis(){
+        return offerTimeoutMillis;
+    }
+
+    public void setOfferTimeoutMillis(long offerTimeoutMillis){
+        this.offerTimeoutMillis = offerTimeoutMillis;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        writeTemplate = new TransactionTemplate(transactionManager);
+        if(enabled){
+            flusher = new Thread(this::runFlusher, "write-behind-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+    }
+
+    /**
+     * Stop the background thread, and write
+     * everything still in the buffer.
+     */
+    @Override
+    public void destroy() throws Exception {
+        lock.lock();
+        try{
+            closed = true;
+            batchReady.signalAll();
+            notFull.signalAll();
+        }
+        finally{
+            lock.unlock();
+        }
+
+        if(flusher != null){
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+            flusher = null;
+        }
+
+        try{
+            flush();
+        }
+        catch(RuntimeException ex){
+            //Nothing will write what's left, so its callers are told now
+            lock.lock();
+            try{
+                for(Pending pending : buffer.values()){
+                    pending.future.completeExceptionally(ex);
+                }
+                buffer.clear();
+            }
+            finally{
+                lock.unlock();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Update a person. When the buffer is enabled, the
+     * update replaces any buffered update of the same person
+     * and is written later. Otherwise, it is written now.
+     *
+     * An update that replaces a buffered one shares its
+     * future, as only the latest state is written.
+     *
+     * @param person the person to update, who must have an ID.
+     * @return a future that completes once the update is written,
+     *          or fails with an OptimisticLockingFailureException
+     *          if the person was changed since it was read.
+     * @throws RejectedExecutionException if the buffer stays full
+     *          for longer than the offer timeout, or is closed.
+     * @throws InterruptedException if interrupted while waiting for space.
+     */
+    public CompletableFuture<Void> update(Person person) throws InterruptedException{
+        if(person.getPersonId() == null){
+            throw new IllegalArgumentException("Only people with an ID can be updated");
+        }
+
+        if(!enabled){
+            writeTemplate.execute(status -> {
+                repo.update(person);
+                return null;
+            });
+            return CompletableFuture.completedFuture(null);
+        }
+
+        lock.lock();
+        try{
+            if(closed){
+                throw new RejectedExecutionException("The write-behind buffer is closed");
+            }
+
+            Pending buffered = buffer.get(person.getPersonId());
+            if(buffered != null){
+                buffered.person = person;
+                coalescedCount.incrementAndGet();
+                return buffered.future;
+            }
+
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis);
+            while(buffer.size() + inFlight >= capacity){
+                if(remainingNanos <= 0 || closed){
+                    rejectedCount.incrementAndGet();
+                    throw new RejectedExecutionException("The write-behind buffer is full");
+                }
+                remainingNanos = notFull.awaitNanos(remainingNanos);
+            }
+
+            Pending pending = new Pending(person);
+            buffer.put(person.getPersonId(), pending);
+            bufferedCount.incrementAndGet();
+            if(buffer.size() >= batchSize){
+                batchReady.signal();
+            }
+            return pending.future;
+        }
+        finally{
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write everything in the buffer now, on the calling
+     * thread. A batch that fails is put back in the buffer
+     * and the failure is thrown.
+     */
+    public void flush(){
+        synchronized(writeLock){
+            while(writeBatch()){
+                //Keep writing until the buffer is empty
+            }
+        }
+    }
+
+    private void runFlusher(){
+        while(true){
+            lock.lock();
+            try{
+                if(!closed && buffer.size() < batchSize){
+                    batchReady.await(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                }
+                if(closed){
+                    return;
+                }
+            }
+            catch(InterruptedException ex){
+                return;
+            }
+            finally{
+                lock.unlock();
+            }
+
+            try{
+                flush();
+            }
+            catch(RuntimeException ex){
+                //The batch is back in the buffer, so it is retried on the next interval
+                waitBeforeRetry();
+            }
+        }
+    }
+
+    private void waitBeforeRetry(){
+        lock.lock();
+        try{
+            if(!closed){
+                batchReady.await(flushIntervalMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+        }
+        finally{
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take up to a batch of people from the buffer and
+     * write them in one transaction.
+     *
+     * @return true if a batch was written, false if the buffer was empty.
+     */
+    private boolean writeBatch(){
+        List<Pending> pendings = new ArrayList<>();
+        lock.lock();
+        try{
+            Iterator<Pending> it = buffer.values().iterator();
+            while(it.hasNext() && pendings.size() < batchSize){
+                pendings.add(it.next());
+                it.remove();
+            }
+            inFlight += pendings.size();
+        }
+        finally{
+            lock.unlock();
+        }
+
+        if(pendings.isEmpty()){
+            return false;
+        }
+
+        List<Person> batch = new ArrayList<>(pendings.size());
+        for(Pending pending : pendings){
+            batch.add(pending.person);
+        }
+
+        int[] versions = getVersions(batch);
+        boolean written = false;
+        try{
+            int count = batch.size();
+            try{
+                writeTemplate.execute(status -> {
+                    repo.updateAll(batch);
+                    return null;
+                });
+                for(Pending pending : pendings){
+                    pending.future.complete(null);
+                }
+            }
+            catch(OptimisticLockingFailureException ex){
+                setVersions(batch, versions);
+                count = writeEach(pendings);
+            }
+            written = true;
+            writtenCount.addAndGet(count);
+            batchCount.incrementAndGet();
+            return true;
+        }
+        catch(RuntimeException ex){
+            setVersions(batch, versions);
+            failedBatchCount.incrementAndGet();
+            lastFailure = ex;
+            throw ex;
+        }
+        finally{
+            lock.lock();
+            try{
+                inFlight -= pendings.size();
+                if(!written){
+                    requeue(pendings);
+                }
+                notFull.signalAll();
+            }
+            finally{
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Write each person of a batch in its own transaction,
+     * after the batch as a whole failed because some of them
+     * were changed since they were read. The updates of those
+     * people are dropped, as writing them again would fail the
+     * same way, and their futures fail with the conflict.
+     *
+     * @param batch the updates to write.
+     * @return the number of people written.
+     */
+    private int writeEach(List<Pending> batch){
+        int count = 0;
+        for(Pending pending : batch){
+            Person person = pending.person;
+            int version = person.getVersion();
+            try{
+                writeTemplate.execute(status -> {
+                    repo.update(person);
+                    return null;
+                });
+                pending.future.complete(null);
+                count++;
+            }
+            catch(OptimisticLockingFailureException ex){
+                person.setVersion(version);
+                conflictCount.incrementAndGet();
+                lastConflict = ex;
+                pending.future.completeExceptionally(ex);
+            }
+        }
+        return count;
+    }
+
+    /*
+     * Hibernate increments the version of each person as
+     * it is written, and doesn't undo this on a rollback,
+     * so the versions are kept to restore them if the
+     * transaction fails.
+     */
+    private static int[] getVersions(List<Person> batch){
+        int[] versions = new int[batch.size()];
+        for(int i = 0; i < versions.length; i++){
+            versions[i] = batch.get(i).getVersion();
+        }
+        return versions;
+    }
+
+    private static void setVersions(List<Person> batch, int[] versions){
+        for(int i = 0; i < versions.length; i++){
+            batch.get(i).setVersion(versions[i]);
+        }
+    }
+
+    /**
+     * Put a failed batch back at the front of the buffer,
+     * except for people updated again since it was taken,
+     * whose newer state replaces it. The futures of those
+     * replaced updates complete along with the newer ones.
+     * Must be called while holding the lock.
+     */
+    private void requeue(List<Pending> batch){
+        Map<Long,Pending> newer = new LinkedHashMap<>(buffer);
+        buffer.clear();
+        for(Pending pending : batch){
+            Pending replacement = newer.remove(pending.person.getPersonId());
+            if(replacement != null){
+                replacement.future.whenComplete((result, ex) -> {
+                    if(ex != null){
+                        pending.future.completeExceptionally(ex);
+                    }
+                    else{
+                        pending.future.complete(result);
+                    }
+                });
+                buffer.put(pending.person.getPersonId(), replacement);
+            }
+            else{
+                buffer.put(pending.person.getPersonId(), pending);
+            }
+        }
+        buffer.putAll(newer);
+    }
+
+    /**
+     * Get the number of people waiting in the buffer,
+     * not counting a batch being written.
+     *
+     * @return the number of buffered people.
+     */
+    public int getPendingCount(){
+        lock.lock();
+        try{
+            return buffer.size();
+        }
+        finally{
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the number of updates that replaced a
+     * buffered update of the same person, each of
+     * which saved a write.
+     *
+     * @return the number of coalesced updates.
+     */
+    public long getCoalescedCount(){
+        return coalescedCount.get();
+    }
+
+    /**
+     * Get the number of updates that took a new
+     * place in the buffer.
+     *
+     * @return the number of buffered updates.
+     */
+    public long getBufferedCount(){
+        return bufferedCount.get();
+    }
+
+    /**
+     * Get the number of people written by the buffer.
+     *
+     * @return the number of people written.
+     */
+    public long getWrittenCount(){
+        return writtenCount.get();
+    }
+
+    public long getBatchCount(){
+        return batchCount.get();
+    }
+
+    public long getFailedBatchCount(){
+        return failedBatchCount.get();
+    }
+
+    /**
+     * Get the number of updates rejected
+     * because the buffer was full.
+     *
+     * @return the number of rejected updates.
+     */
+    public long getRejectedCount(){
+        return rejectedCount.get();
+    }
+
+    /**
+     * Get the exception thrown by the last batch
+     * that failed to be written, if any.
+     *
+     * @return the last failure, or null if none.
+     */
+    public RuntimeException getLastFailure(){
+        return lastFailure;
+    }
+
+    /**
+     * Get the number of buffered updates that were
+     * dropped because the person had been changed by
+     * someone else since the update's copy was read.
+     *
+     * @return the number of conflicting updates.
+     */
+    public long getConflictCount(){
+        return conflictCount.get();
+    }
+
+    /**
+     * Get the exception thrown by the last buffered
+     * update that was dropped as a conflict, if any.
+     *
+     * @return the last conflict, or null if none.
+     */
+    public OptimisticLockingFailureException getLastConflict(){
+        return lastConflict;
+    }
+
+    /**
+     * A buffered update: the latest state of a person,
+     * and the future of everyone who updated them.
+     */
+    private static class Pending {
+
+        private Person person;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Pending(Person person){
+            this.person = person;
+        }
+    }
+
+    @Override
+    public String toString(){
+        return String.format("WriteBehindPersonBuffer: enabled=%b, pending=%d, buffered=%d, coalesced=%d, " +
+                "written=%d, batches=%d, failedBatches=%d, rejected=%d, conflicts=%d",
+                enabled, getPendingCount(), getBufferedCount(), getCoalescedCount(),
+                getWrittenCount(), getBatchCount(), getFailedBatchCount(), getRejectedCount(),
+                getConflictCount());
+    }
+
+}
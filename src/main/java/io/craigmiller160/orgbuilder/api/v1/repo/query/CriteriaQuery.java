@@ -0,0 +1,296 @@
+package io.craigmiller160.orgbuilder.api.v1.repo.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A Query built from a list of typed predicates
+ * and orderings. All predicates are combined with
+ * "and". Predicates on fields of the root entity are
+ * compared directly, while predicates on fields of a
+ * child entity are grouped into a single "exists"
+ * subquery per child entity, so that they must all
+ * match the same child, and so that matching several
+ * children doesn't produce duplicate results.
+ *
+ * The shape of a CriteriaQuery is made up of the
+ * fields and operators of its predicates and orderings,
+ * so queries that only differ by their values share
+ * a single compiled plan.
+ *
+ * @param <T> the type of entity this query returns.
+ */
+public abstract class CriteriaQuery<T> implements Query<T> {
+
+    /**
+     * The alias used for the root entity.
+     */
+    private static final String ROOT_ALIAS = "r";
+
+    /**
+     * The prefix used for the names of all parameters.
+     */
+    private static final String PARAM_PREFIX = "p";
+
+    private final Class<T> entityType;
+    private final String idProperty;
+    private final String ownerProperty;
+
+    private final List<Predicate> predicates = new ArrayList<>();
+    private final List<Ordering> orderings = new ArrayList<>();
+    private FetchPlan fetchPlan = FetchPlan.FULL;
+    private boolean cacheable = false;
+
+    /**
+     * Create a new query.
+     *
+     * @param entityType the type of the root entity.
+     * @param idProperty the name of the ID property of the root entity.
+     * @param ownerProperty the name of the property on child entities
+     *                      that references the root entity.
+     */
+    protected CriteriaQuery(Class<T> entityType, String idProperty, String ownerProperty){
+        this.entityType = entityType;
+        this.idProperty = idProperty;
+        this.ownerProperty = ownerProperty;
+    }
+
+    /**
+     * Add a predicate comparing a field against a value.
+     *
+     * @param field the field to compare.
+     * @param operator the comparison operator.
+     * @param value the value to compare against.
+     * @return this query.
+     * @throws IllegalArgumentException if the value is not valid
+     *              for the field and the operator.
+     */
+    public CriteriaQuery<T> where(QueryField field, Operator operator, Object value){
+        predicates.add(new Predicate(field, operator, value));
+        return this;
+    }
+
+    /**
+     * Add a predicate with an operator that doesn't
+     * require a value, such as IS_NULL.
+     *
+     * @param field the field to test.
+     * @param operator the operator.
+     * @return this query.
+     * @throws IllegalArgumentException if the operator requires a value.
+     */
+    public CriteriaQuery<T> where(QueryField field, Operator operator){
+        return where(field, operator, null);
+    }
+
+    /**
+     * Add an ordering of the results by the provided field.
+     * Only fields of the root entity can be used to
+     * order results.
+     *
+     * @param field the field to order by.
+     * @param ascending true for ascending order, false for descending.
+     * @return this query.
+     * @throws IllegalArgumentException if the field belongs to a child entity.
+     */
+    public CriteriaQuery<T> orderBy(QueryField field, boolean ascending){
+        if(field.getChildEntity() != null){
+            throw new IllegalArgumentException("Can only order by fields of the root entity, not " + field);
+        }
+        orderings.add(new Ordering(field, ascending));
+        return this;
+    }
+
+    /**
+     * Set the fetch plan for this query. The
+     * default is FetchPlan.FULL.
+     *
+     * @param fetchPlan the fetch plan.
+     * @return this query.
+     */
+    public CriteriaQuery<T> withFetchPlan(FetchPlan fetchPlan){
+        this.fetchPlan = fetchPlan;
+        return this;
+    }
+
+    @Override
+    public FetchPlan getFetchPlan() {
+        return fetchPlan;
+    }
+
+    /**
+     * Set whether the results of this query may be
+     * kept in the query result cache. This is worth
+     * enabling for queries that are repeated often with
+     * the same parameters. The default is false.
+     *
+     * Caching doesn't change the shape of the query.
+     *
+     * @param cacheable true if the results can be cached.
+     * @return this query.
+     */
+    public CriteriaQuery<T> withCaching(boolean cacheable){
+        this.cacheable = cacheable;
+        return this;
+    }
+
+    @Override
+    public boolean isCacheable() {
+        return cacheable;
+    }
+
+    /**
+     * Get the type of the root entity.
+     *
+     * @return the type of the root entity.
+     */
+    public Class<T> getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * Get all the predicates of this query.
+     *
+     * @return the predicates of this query.
+     */
+    public List<Predicate> getPredicates(){
+        return Collections.unmodifiableList(predicates);
+    }
+
+    @Override
+    public Map<String, Object> getParameters() {
+        Map<String,Object> params = new HashMap<>();
+        for(int i = 0; i < predicates.size(); i++){
+            Predicate predicate = predicates.get(i);
+            if(predicate.getOperator().requiresValue()){
+                params.put(PARAM_PREFIX + i, predicate.getOperator().toParameter(predicate.getValue()));
+            }
+        }
+        return params;
+    }
+
+    @Override
+    public String getShapeKey() {
+        StringBuilder builder = new StringBuilder(entityType.getName()).append("[");
+        for(Predicate predicate : predicates){
+            QueryField field = predicate.getField();
+            builder.append(field.getChildEntity() != null ? field.getChildEntity().getSimpleName() + "." : "")
+                    .append(field.getProperty())
+                    .append(":")
+                    .append(predicate.getOperator().name())
+                    .append(",");
+        }
+        builder.append("]");
+        for(Ordering ordering : orderings){
+            builder.append(ordering.field.getProperty())
+                    .append(ordering.ascending ? "+" : "-");
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public QueryPlan compile() {
+        StringBuilder body = new StringBuilder("from ")
+                .append(entityType.getSimpleName())
+                .append(" ")
+                .append(ROOT_ALIAS);
+        Set<String> listParams = new HashSet<>();
+
+        List<String> conditions = new ArrayList<>();
+        Map<Class<?>,List<String>> childConditions = new LinkedHashMap<>();
+        for(int i = 0; i < predicates.size(); i++){
+            Predicate predicate = predicates.get(i);
+            QueryField field = predicate.getField();
+            String param = PARAM_PREFIX + i;
+            if(predicate.getOperator().isListOperator()){
+                listParams.add(param);
+            }
+
+            if(field.getChildEntity() == null){
+                conditions.add(predicate.getOperator().toHql(ROOT_ALIAS + "." + field.getProperty(), param));
+            }
+            else{
+                List<String> childList = childConditions.get(field.getChildEntity());
+                if(childList == null){
+                    childList = new ArrayList<>();
+                    childConditions.put(field.getChildEntity(), childList);
+                }
+                childList.add(predicate.getOperator().toHql(
+                        childAlias(field.getChildEntity(), childConditions) + "." + field.getProperty(), param));
+            }
+        }
+
+        for(Map.Entry<Class<?>,List<String>> entry : childConditions.entrySet()){
+            String childAlias = childAlias(entry.getKey(), childConditions);
+            StringBuilder exists = new StringBuilder("exists (from ")
+                    .append(entry.getKey().getSimpleName())
+                    .append(" ")
+                    .append(childAlias)
+                    .append(" where ")
+                    .append(childAlias).append(".").append(ownerProperty)
+                    .append(" = ").append(ROOT_ALIAS);
+            for(String condition : entry.getValue()){
+                exists.append(" and ").append(condition);
+            }
+            exists.append(")");
+            conditions.add(exists.toString());
+        }
+
+        for(int i = 0; i < conditions.size(); i++){
+            body.append(i == 0 ? " where " : " and ").append(conditions.get(i));
+        }
+
+        for(int i = 0; i < orderings.size(); i++){
+            Ordering ordering = orderings.get(i);
+            body.append(i == 0 ? " order by " : ", ")
+                    .append(ROOT_ALIAS).append(".").append(ordering.field.getProperty())
+                    .append(ordering.ascending ? " asc" : " desc");
+        }
+
+        return new QueryPlan(ROOT_ALIAS, idProperty, body.toString(), listParams);
+    }
+
+    /**
+     * Get the alias for a child entity's subquery, based
+     * on the order the child entity first appeared in.
+     *
+     * @param childEntity the child entity.
+     * @param childConditions the conditions grouped by child entity.
+     * @return the alias for the child entity.
+     */
+    private static String childAlias(Class<?> childEntity, Map<Class<?>,List<String>> childConditions){
+        int index = 1;
+        for(Class<?> key : childConditions.keySet()){
+            if(key == childEntity){
+                break;
+            }
+            index++;
+        }
+        return "c" + index;
+    }
+
+    @Override
+    public String toString(){
+        return getShapeKey();
+    }
+
+    /**
+     * An ordering of the results of the query.
+     */
+    private static class Ordering {
+        private final QueryField field;
+        private final boolean ascending;
+
+        private Ordering(QueryField field, boolean ascending){
+            this.field = field;
+            this.ascending = ascending;
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+package io.craigmiller160.orgbuilder.api.v1.repo.query;
+
+/**
+ * The fetch plans that define which child
+ * collections of a Person are loaded along with
+ * it. Each Query carries a fetch plan, so callers
+ * only pay for the tables they actually need.
+ *
+ * Collections that are not part of the plan are
+ * left uninitialized, and are loaded lazily if they
+ * are accessed while the session is still open. Accessing
+ * them after the session is closed causes an error, so
+ * the plan should include every collection the caller
+ * intends to use.
+ */
+public enum FetchPlan {
+
+    /**
+     * Only the people row, with no child collections.
+     */
+    SUMMARY (false, false, false),
+
+    /**
+     * The people row with its phones and emails.
+     */
+    CONTACT (false, true, true),
+
+    /**
+     * The people row with all of its child collections.
+     */
+    FULL (true, true, true);
+
+    private final boolean addresses;
+    private final boolean phones;
+    private final boolean emails;
+
+    /**
+     * Private constructor builds a
+     * <tt>FetchPlan</tt> with the collections
+     * it includes.
+     *
+     * @param addresses true if addresses are loaded.
+     * @param phones true if phones are loaded.
+     * @param emails true if emails are loaded.
+     */
+    FetchPlan(boolean addresses, boolean phones, boolean emails){
+        this.addresses = addresses;
+        this.phones = phones;
+        this.emails = emails;
+    }
+
+    /**
+     * Test if this plan loads addresses.
+     *
+     * @return true if this plan loads addresses.
+     */
+    public boolean includesAddresses() {
+        return addresses;
+    }
+
+    /**
+     * Test if this plan loads phones.
+     *
+     * @return true if this plan loads phones.
+     */
+    public boolean includesPhones() {
+        return phones;
+    }
+
+    /**
+     * Test if this plan loads emails.
+     *
+     * @return true if this plan loads emails.
+     */
+    public boolean includesEmails() {
+        return emails;
+    }
+}
@@ -1,11 +1,13 @@
 package io.craigmiller160.orgbuilder.api.v1.repo.query;
 
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
- * TODO document this
+ * A Query that retrieves a single entity by
+ * its unique ID. Subclasses define which entity
+ * type and ID property the query is for.
  *
  * Created by craigmiller on 1/10/16.
  */
@@ -14,15 +16,73 @@ public abstract class GetByIdQuery<T> implements Query<T> {
     private static final String ID = "ID";
 
     private final Long id;
+    private final FetchPlan fetchPlan;
 
     public GetByIdQuery(Long id){
+        this(id, FetchPlan.FULL);
+    }
+
+    public GetByIdQuery(Long id, FetchPlan fetchPlan){
         this.id = id;
+        this.fetchPlan = fetchPlan;
+    }
+
+    /**
+     * Get the ID of the entity to retrieve.
+     *
+     * @return the ID of the entity.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public FetchPlan getFetchPlan() {
+        return fetchPlan;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Queries by ID are never cached as results, as
+     * the entities are looked up in the entity cache
+     * by their IDs directly.
+     */
+    @Override
+    public boolean isCacheable() {
+        return false;
     }
 
+    /**
+     * Get the type of entity this query retrieves.
+     *
+     * @return the type of entity.
+     */
+    protected abstract Class<T> getEntityType();
+
+    /**
+     * Get the name of the ID property of the entity.
+     *
+     * @return the name of the ID property.
+     */
+    protected abstract String getIdProperty();
+
     @Override
     public Map<String, Object> getParameters() {
         Map<String,Object> params = new HashMap<>();
         params.put(ID, id);
         return params;
     }
+
+    @Override
+    public String getShapeKey() {
+        return getClass().getName();
+    }
+
+    @Override
+    public QueryPlan compile() {
+        String body = "from " + getEntityType().getSimpleName() + " e where e." +
+                getIdProperty() + " = :" + ID;
+        return new QueryPlan("e", getIdProperty(), body, Collections.<String>emptySet());
+    }
 }
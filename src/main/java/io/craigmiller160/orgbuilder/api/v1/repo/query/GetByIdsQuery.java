@@ -0,0 +1,97 @@
+package io.craigmiller160.orgbuilder.api.v1.repo.query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Query that retrieves several entities by
+ * their unique IDs at once. Subclasses define which
+ * entity type and ID property the query is for.
+ *
+ * The IDs are kept in the order they were provided,
+ * including any duplicates, so that a Repo can return
+ * results in the order they were requested.
+ */
+public abstract class GetByIdsQuery<T> implements Query<T> {
+
+    /**
+     * The name of the parameter holding the IDs.
+     */
+    public static final String IDS = "IDS";
+
+    private final List<Long> ids;
+    private final FetchPlan fetchPlan;
+
+    public GetByIdsQuery(Collection<Long> ids){
+        this(ids, FetchPlan.FULL);
+    }
+
+    public GetByIdsQuery(Collection<Long> ids, FetchPlan fetchPlan){
+        this.ids = Collections.unmodifiableList(new ArrayList<>(ids));
+        this.fetchPlan = fetchPlan;
+    }
+
+    /**
+     * Get the IDs of the entities to retrieve, in
+     * the order they were requested.
+     *
+     * @return the IDs of the entities.
+     */
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    @Override
+    public FetchPlan getFetchPlan() {
+        return fetchPlan;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Queries by ID are never cached as results, as
+     * the entities are looked up in the entity cache
+     * by their IDs directly.
+     */
+    @Override
+    public boolean isCacheable() {
+        return false;
+    }
+
+    /**
+     * Get the type of entity this query retrieves.
+     *
+     * @return the type of entity.
+     */
+    protected abstract Class<T> getEntityType();
+
+    /**
+     * Get the name of the ID property of the entity.
+     *
+     * @return the name of the ID property.
+     */
+    protected abstract String getIdProperty();
+
+    @Override
+    public Map<String, Object> getParameters() {
+        Map<String,Object> params = new HashMap<>();
+        params.put(IDS, ids);
+        return params;
+    }
+
+    @Override
+    public String getShapeKey() {
+        return getClass().getName();
+    }
+
+    @Override
+    public QueryPlan compile() {
+        String body = "from " + getEntityType().getSimpleName() + " e where e." +
+                getIdProperty() + " in (:" + IDS + ")";
+        return new QueryPlan("e", getIdProperty(), body, Collections.singleton(IDS));
+    }
+}
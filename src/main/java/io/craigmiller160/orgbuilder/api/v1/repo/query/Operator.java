@@ -0,0 +1,133 @@
+package io.craigmiller160.orgbuilder.api.v1.repo.query;
+
+/**
+ * The comparison operators that can be used
+ * in the predicates of a CriteriaQuery.
+ */
+public enum Operator {
+
+    EQUALS ("="),
+    NOT_EQUALS ("<>"),
+    LESS_THAN ("<"),
+    LESS_THAN_OR_EQUAL ("<="),
+    GREATER_THAN (">"),
+    GREATER_THAN_OR_EQUAL (">="),
+    LIKE ("like"),
+    STARTS_WITH ("like"),
+    CONTAINS ("like"),
+    IN ("in"),
+    IS_NULL ("is null"),
+    IS_NOT_NULL ("is not null");
+
+    /**
+     * The character used to escape wildcards
+     * in the values of STARTS_WITH and CONTAINS.
+     */
+    private static final char ESCAPE_CHAR = '!';
+
+    /**
+     * The HQL operator.
+     */
+    private final String hql;
+
+    /**
+     * Private constructor builds an
+     * <tt>Operator</tt> with its HQL
+     * operator assigned to it.
+     *
+     * @param hql the HQL operator.
+     */
+    Operator(String hql){
+        this.hql = hql;
+    }
+
+    /**
+     * Test if this operator compares against a value.
+     *
+     * @return true if this operator requires a value.
+     */
+    public boolean requiresValue(){
+        return this != IS_NULL && this != IS_NOT_NULL;
+    }
+
+    /**
+     * Test if this operator compares against
+     * a collection of values.
+     *
+     * @return true if this operator requires a collection.
+     */
+    public boolean isListOperator(){
+        return this == IN;
+    }
+
+    /**
+     * Test if this operator only works on text values.
+     *
+     * @return true if this operator requires a String value.
+     */
+    public boolean isTextOperator(){
+        return this == LIKE || this == STARTS_WITH || this == CONTAINS;
+    }
+
+    /**
+     * Create the HQL expression for this operator.
+     *
+     * @param path the path of the property being compared.
+     * @param parameter the name of the parameter holding the value.
+     * @return the HQL expression.
+     */
+    public String toHql(String path, String parameter){
+        switch(this){
+            case IS_NULL:
+            case IS_NOT_NULL:
+                return path + " " + hql;
+            case IN:
+                return path + " in (:" + parameter + ")";
+            case STARTS_WITH:
+            case CONTAINS:
+                return path + " like :" + parameter + " escape '" + ESCAPE_CHAR + "'";
+            default:
+                return path + " " + hql + " :" + parameter;
+        }
+    }
+
+    /**
+     * Convert a value into the form it should be
+     * bound to the query as. For most operators
+     * the value is unchanged, but wildcard operators
+     * escape the value and add the wildcards.
+     *
+     * @param value the value to convert.
+     * @return the value to bind to the query.
+     */
+    public Object toParameter(Object value){
+        switch(this){
+            case STARTS_WITH:
+                return escapeWildcards((String) value) + "%";
+            case CONTAINS:
+                return "%" + escapeWildcards((String) value) + "%";
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * Escape any characters in the provided text
+     * that have a special meaning in a LIKE pattern.
+     *
+     * @param text the text to escape.
+     * @return the escaped text.
+     */
+    private static String escapeWildcards(String text){
+        StringBuilder builder = new StringBuilder(text.length() + 4);
+        for(int i = 0; i < text.length(); i++){
+            char c = text.charAt(i);
+            if(c == '%' || c == '_' || c == ESCAPE_CHAR){
+                builder.append(ESCAPE_CHAR);
+            }
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+}
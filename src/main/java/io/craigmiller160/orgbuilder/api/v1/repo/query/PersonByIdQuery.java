@@ -0,0 +1,39 @@
+package io.craigmiller160.orgbuilder.api.v1.repo.query;
+
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+
+/**
+ * A GetByIdQuery for retrieving a single Person.
+ */
+public class PersonByIdQuery extends GetByIdQuery<Person> {
+
+    /**
+     * Create a query for the person with the provided ID.
+     *
+     * @param personId the ID of the person.
+     */
+    public PersonByIdQuery(Long personId){
+        super(personId);
+    }
+
+    /**
+     * Create a query for the person with the provided
+     * ID, loading only the collections in the fetch plan.
+     *
+     * @param personId the ID of the person.
+     * @param fetchPlan the fetch plan.
+     */
+    public PersonByIdQuery(Long personId, FetchPlan fetchPlan){
+        super(personId, fetchPlan);
+    }
+
+    @Override
+    protected Class<Person> getEntityType() {
+        return Person.class;
+    }
+
+    @Override
+    protected String getIdProperty() {
+        return "personId";
+    }
+}
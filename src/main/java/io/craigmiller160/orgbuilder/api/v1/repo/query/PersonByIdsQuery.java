@@ -0,0 +1,41 @@
+package io.craigmiller160.orgbuilder.api.v1.repo.query;
+
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+
+import java.util.Collection;
+
+/**
+ * A GetByIdsQuery for retrieving several people at once.
+ */
+public class PersonByIdsQuery extends GetByIdsQuery<Person> {
+
+    /**
+     * Create a query for the people with the provided IDs.
+     *
+     * @param personIds the IDs of the people.
+     */
+    public PersonByIdsQuery(Collection<Long> personIds){
+        super(personIds);
+    }
+
+    /**
+     * Create a query for the people with the provided
+     * IDs, loading only the collections in the fetch plan.
+     *
+     * @param personIds the IDs of the people.
+     * @param fetchPlan the fetch plan.
+     */
+    public PersonByIdsQuery(Collection<Long> personIds, FetchPlan fetchPlan){
+        super(personIds, fetchPlan);
+    }
+
+    @Override
+    protected Class<Person> getEntityType() {
+        return Person.class;
+    }
+
+    @Override
+    protected String getIdProperty() {
+        return "personId";
+    }
+}
@@ -0,0 +1,72 @@
+package io.craigmiller160.orgbuilder.api.v1.repo.query;
+
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+import io.craigmiller160.orgbuilder.api.v1.model.PersonAddress;
+import io.craigmiller160.orgbuilder.api.v1.model.PersonEmail;
+import io.craigmiller160.orgbuilder.api.v1.model.PersonPhone;
+import io.craigmiller160.orgbuilder.api.v1.model.State;
+
+import java.time.LocalDate;
+
+/**
+ * The fields of a Person, and of the entities
+ * a Person owns, that can be used in a PersonQuery.
+ */
+public enum PersonField implements QueryField {
+
+    PREFIX ("prefix", null, String.class),
+    FIRST_NAME ("firstName", null, String.class),
+    MIDDLE_NAME ("middleName", null, String.class),
+    LAST_NAME ("lastName", null, String.class),
+    FIRST_NAME_KEY ("firstNameKey", null, String.class),
+    LAST_NAME_KEY ("lastNameKey", null, String.class),
+    SUFFIX ("suffix", null, String.class),
+    BIRTH_DATE ("birthDate", null, LocalDate.class),
+    GENDER ("gender", null, Person.Gender.class),
+
+    CITY ("city", PersonAddress.class, String.class),
+    STATE ("state", PersonAddress.class, State.class),
+    ZIP ("zip", PersonAddress.class, String.class),
+
+    EMAIL_ADDRESS ("emailAddress", PersonEmail.class, String.class),
+    EMAIL_KEY ("emailKey", PersonEmail.class, String.class),
+
+    PHONE_AREA_CODE ("areaCode", PersonPhone.class, String.class),
+    PHONE_PREFIX ("prefix", PersonPhone.class, String.class),
+    PHONE_LINE_NUMBER ("lineNumber", PersonPhone.class, String.class),
+    PHONE_NUMBER ("packedNumber", PersonPhone.class, Long.class);
+
+    private final String property;
+    private final Class<?> childEntity;
+    private final Class<?> valueType;
+
+    /**
+     * Private constructor builds a
+     * <tt>PersonField</tt> for a property.
+     *
+     * @param property the name of the property.
+     * @param childEntity the child entity the property belongs
+     *                    to, or null if it belongs to the Person.
+     * @param valueType the type of values the property holds.
+     */
+    PersonField(String property, Class<?> childEntity, Class<?> valueType){
+        this.property = property;
+        this.childEntity = childEntity;
+        this.valueType = valueType;
+    }
+
+    @Override
+    public String getProperty() {
+        return property;
+    }
+
+    @Override
+    public Class<?> getChildEntity() {
+        return childEntity;
+    }
+
+    @Override
+    public Class<?> getValueType() {
+        return valueType;
+    }
+}
@@ -0,0 +1,29 @@
+package io.craigmiller160.orgbuilder.api.v1.repo.query;
+
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+
+/**
+ * A CriteriaQuery for finding Person entities,
+ * using the fields defined in PersonField.
+ *
+ * For example, all people in California named
+ * Smith, ordered by first name:
+ *
+ * <pre>
+ * new PersonQuery()
+ *         .where(PersonField.LAST_NAME, Operator.EQUALS, "Smith")
+ *         .where(PersonField.STATE, Operator.EQUALS, State.CA)
+ *         .orderBy(PersonField.FIRST_NAME, true);
+ * </pre>
+ */
+public class PersonQuery extends CriteriaQuery<Person> {
+
+    /**
+     * Create a new query for people. With
+     * no predicates added, it matches all people.
+     */
+    public PersonQuery(){
+        super(Person.class, "personId", "owner");
+    }
+
+}
@@ -0,0 +1,38 @@
+package io.craigmiller160.orgbuilder.api.v1.repo.query;
+
+import io.craigmiller160.orgbuilder.api.v1.model.PersonSummary;
+
+/**
+ * Projects the results of a PersonQuery into
+ * PersonSummary objects. Only the ID and name columns
+ * of the people table are read, plus the address of
+ * each person's first email, read with a subquery.
+ */
+public class PersonSummaryProjection implements Projection<PersonSummary> {
+
+    @Override
+    public String getKey() {
+        return getClass().getName();
+    }
+
+    @Override
+    public String getSelectClause(String alias) {
+        return alias + ".personId, " +
+                alias + ".firstName, " +
+                alias + ".middleName, " +
+                alias + ".lastName, " +
+                "(select e.emailAddress from PersonEmail e where e.emailId = " +
+                "(select min(e2.emailId) from PersonEmail e2 where e2.owner.personId = " + alias + ".personId))";
+    }
+
+    @Override
+    public PersonSummary mapRow(Object[] row) {
+        return new PersonSummary(
+                (Long) row[0],
+                (String) row[1],
+                (String) row[2],
+                (String) row[3],
+                (String) row[4]
+        );
+    }
+}
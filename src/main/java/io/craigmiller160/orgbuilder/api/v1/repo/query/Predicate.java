@@ -0,0 +1,124 @@
+package io.craigmiller160.orgbuilder.api.v1.repo.query;
+
+import java.util.Collection;
+
+/**
+ * A single condition in a CriteriaQuery, comparing
+ * a field against a value with an operator. The value
+ * is validated against the field's type when the
+ * predicate is created, so type errors are caught
+ * when the query is built rather than when it is run.
+ */
+public class Predicate {
+
+    private final QueryField field;
+    private final Operator operator;
+    private final Object value;
+
+    /**
+     * Create a new predicate.
+     *
+     * @param field the field being compared.
+     * @param operator the comparison operator.
+     * @param value the value to compare against. Should be
+     *              null for operators that don't require a value.
+     * @throws IllegalArgumentException if the value is not valid
+     *              for the field and the operator.
+     */
+    public Predicate(QueryField field, Operator operator, Object value){
+        if(field == null || operator == null){
+            throw new IllegalArgumentException("Predicate requires a field and an operator");
+        }
+        validate(field, operator, value);
+        this.field = field;
+        this.operator = operator;
+        this.value = value;
+    }
+
+    /**
+     * Get the field being compared.
+     *
+     * @return the field being compared.
+     */
+    public QueryField getField() {
+        return field;
+    }
+
+    /**
+     * Get the comparison operator.
+     *
+     * @return the comparison operator.
+     */
+    public Operator getOperator() {
+        return operator;
+    }
+
+    /**
+     * Get the value being compared against.
+     *
+     * @return the value being compared against.
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * Validate that the value is appropriate for
+     * the field and operator.
+     *
+     * @param field the field being compared.
+     * @param operator the comparison operator.
+     * @param value the value to compare against.
+     * @throws IllegalArgumentException if the value is invalid.
+     */
+    private static void validate(QueryField field, Operator operator, Object value){
+        if(!operator.requiresValue()){
+            if(value != null){
+                throw new IllegalArgumentException(
+                        "Operator " + operator + " does not accept a value");
+            }
+            return;
+        }
+
+        if(value == null){
+            throw new IllegalArgumentException(
+                    "Operator " + operator + " requires a non-null value. Use IS_NULL instead.");
+        }
+
+        if(operator.isTextOperator() && field.getValueType() != String.class){
+            throw new IllegalArgumentException(
+                    "Operator " + operator + " can only be used on text fields, not " + field);
+        }
+
+        if(operator.isListOperator()){
+            if(!(value instanceof Collection) || ((Collection<?>) value).isEmpty()){
+                throw new IllegalArgumentException(
+                        "Operator " + operator + " requires a non-empty Collection of values");
+            }
+
+            for(Object element : (Collection<?>) value){
+                validateType(field, element);
+            }
+        }
+        else{
+            validateType(field, value);
+        }
+    }
+
+    /**
+     * Validate that a single value is of the
+     * field's type.
+     *
+     * @param field the field being compared.
+     * @param value the value to validate.
+     * @throws IllegalArgumentException if the value is of the wrong type.
+     */
+    private static void validateType(QueryField field, Object value){
+        if(!field.getValueType().isInstance(value)){
+            throw new IllegalArgumentException("Field " + field + " requires values of type " +
+                    field.getValueType().getName() + ", not " +
+                    (value != null ? value.getClass().getName() : "null"));
+        }
+    }
+
+}
@@ -0,0 +1,47 @@
+package io.craigmiller160.orgbuilder.api.v1.repo.query;
+
+/**
+ * Defines a projection of the results of a Query
+ * into lightweight row objects, rather than full
+ * entities. Only the columns in the projection's
+ * select clause are read, and the row objects are
+ * not managed by the persistence framework, so
+ * there is no persistence context overhead for them.
+ *
+ * A projection is combined with the compiled plan
+ * of a Query, so the query decides which rows are
+ * returned and the projection decides which columns.
+ *
+ * @param <R> the type of row object the projection creates.
+ */
+public interface Projection<R> {
+
+    /**
+     * Get a key that uniquely identifies this
+     * projection's select clause, used to cache
+     * the combined statement with each query plan.
+     *
+     * @return the key of this projection.
+     */
+    String getKey();
+
+    /**
+     * Create the select clause of this projection,
+     * without the "select" keyword.
+     *
+     * @param alias the alias of the root entity of the query.
+     * @return the select clause.
+     */
+    String getSelectClause(String alias);
+
+    /**
+     * Map a single result row to a row object. The
+     * values of the row are in the same order as the
+     * expressions of the select clause.
+     *
+     * @param row the values of the row.
+     * @return the row object.
+     */
+    R mapRow(Object[] row);
+
+}
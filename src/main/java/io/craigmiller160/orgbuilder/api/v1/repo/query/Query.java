@@ -1,6 +1,5 @@
 package io.craigmiller160.orgbuilder.api.v1.repo.query;
 
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -15,12 +14,62 @@ import java.util.Map;
  * any operation it may need to without
  * needing new methods added.
  *
+ * A query is split into two parts: its shape,
+ * which is the structure of the query independent
+ * of any values, and its parameters, which are
+ * the values bound to that structure. Queries with
+ * the same shape compile to the same QueryPlan,
+ * so a Repo only needs to compile each shape once
+ * and can re-use the plan for every call after that.
+ *
  * Created by craigmiller on 1/10/16.
  */
 public interface Query<T> {
 
+    /**
+     * Get the parameters to bind to the compiled
+     * plan of this query, keyed by parameter name.
+     *
+     * @return the parameters of this query.
+     */
     Map<String,Object> getParameters();
 
-    T execute();
+    /**
+     * Get a key that uniquely identifies the shape
+     * of this query. Two queries that return the same
+     * key MUST compile to identical plans, regardless
+     * of their parameter values.
+     *
+     * @return the shape key of this query.
+     */
+    String getShapeKey();
+
+    /**
+     * Compile this query into an executable plan.
+     * This should only be called when there is no
+     * cached plan for this query's shape.
+     *
+     * @return the compiled plan for this query.
+     */
+    QueryPlan compile();
+
+    /**
+     * Get the fetch plan, which defines which child
+     * collections are loaded with the results.
+     *
+     * @return the fetch plan of this query.
+     */
+    FetchPlan getFetchPlan();
+
+    /**
+     * Test if the results of this query may be
+     * kept in the query result cache. Only the IDs
+     * of the results are cached, keyed by the plan
+     * and the parameters of the query, and the entities
+     * themselves are resolved from the entity cache.
+     *
+     * @return true if the results of this query can be cached.
+     */
+    boolean isCacheable();
 
 }
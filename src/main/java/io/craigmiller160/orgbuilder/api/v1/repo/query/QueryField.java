@@ -0,0 +1,37 @@
+package io.craigmiller160.orgbuilder.api.v1.repo.query;
+
+/**
+ * A field that can be used in the predicates
+ * of a CriteriaQuery. A field is either a property
+ * of the root entity of the query, or a property
+ * of a child entity that the root entity owns.
+ */
+public interface QueryField {
+
+    /**
+     * Get the name of the mapped property
+     * this field represents.
+     *
+     * @return the name of the property.
+     */
+    String getProperty();
+
+    /**
+     * Get the child entity that this field's
+     * property belongs to. If the property belongs
+     * to the root entity, this returns null.
+     *
+     * @return the child entity type, or null.
+     */
+    Class<?> getChildEntity();
+
+    /**
+     * Get the type of values this field holds.
+     * Values used in predicates against this field
+     * must be instances of this type.
+     *
+     * @return the type of values this field holds.
+     */
+    Class<?> getValueType();
+
+}
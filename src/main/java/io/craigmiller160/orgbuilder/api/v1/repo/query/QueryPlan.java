@@ -0,0 +1,158 @@
+package io.craigmiller160.orgbuilder.api.v1.repo.query;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The compiled form of a Query. A plan is
+ * immutable and contains no parameter values,
+ * so a single instance can be safely shared
+ * between every query with the same shape.
+ *
+ * The plan is stored as the body of an HQL
+ * statement (everything from the "from" clause
+ * onwards), plus the alias of the root entity.
+ * This allows the same plan to be used to select
+ * full entities, only their IDs, or the columns
+ * of a Projection.
+ */
+public class QueryPlan {
+
+    /**
+     * The alias of the root entity in the HQL body.
+     */
+    private final String alias;
+
+    /**
+     * The name of the ID property of the root entity.
+     */
+    private final String idProperty;
+
+    /**
+     * The HQL body, starting at the "from" clause.
+     */
+    private final String body;
+
+    /**
+     * The names of all parameters in this plan that
+     * must be bound as collections of values.
+     */
+    private final Set<String> listParameters;
+
+    /*
+     * The full HQL statements, built once when the
+     * plan is created.
+     */
+    private final String hql;
+    private final String idHql;
+
+    /**
+     * The HQL statements for each projection used
+     * with this plan, keyed by projection key.
+     */
+    private final Map<String,String> projectionHql = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new plan.
+     *
+     * @param alias the alias of the root entity in the HQL body.
+     * @param idProperty the name of the ID property of the root entity.
+     * @param body the HQL body, starting at the "from" clause.
+     * @param listParameters the names of all parameters that must
+     *                       be bound as collections of values.
+     */
+    public QueryPlan(String alias, String idProperty, String body, Set<String> listParameters){
+        this.alias = alias;
+        this.idProperty = idProperty;
+        this.body = body;
+        this.listParameters = Collections.unmodifiableSet(new HashSet<>(listParameters));
+        this.hql = "select " + alias + " " + body;
+        this.idHql = "select " + alias + "." + idProperty + " " + body;
+    }
+
+    /**
+     * Get the alias of the root entity in the HQL body.
+     *
+     * @return the alias of the root entity.
+     */
+    public String getAlias() {
+        return alias;
+    }
+
+    /**
+     * Get the name of the ID property of the root entity.
+     *
+     * @return the name of the ID property.
+     */
+    public String getIdProperty() {
+        return idProperty;
+    }
+
+    /**
+     * Get the HQL body, starting at the "from" clause.
+     *
+     * @return the HQL body.
+     */
+    public String getBody() {
+        return body;
+    }
+
+    /**
+     * Get the HQL statement that selects the
+     * root entities matched by this plan.
+     *
+     * @return the HQL statement selecting entities.
+     */
+    public String getHql() {
+        return hql;
+    }
+
+    /**
+     * Get the HQL statement that selects only
+     * the IDs of the root entities matched
+     * by this plan.
+     *
+     * @return the HQL statement selecting IDs.
+     */
+    public String getIdHql() {
+        return idHql;
+    }
+
+    /**
+     * Get the HQL statement that selects the columns
+     * of the provided projection for the root entities
+     * matched by this plan. The statement is built the
+     * first time each projection is used with this plan,
+     * and re-used after that.
+     *
+     * @param projection the projection.
+     * @return the HQL statement selecting the projection.
+     */
+    public String getProjectionHql(Projection<?> projection){
+        String result = projectionHql.get(projection.getKey());
+        if(result == null){
+            result = "select " + projection.getSelectClause(alias) + " " + body;
+            projectionHql.put(projection.getKey(), result);
+        }
+        return result;
+    }
+
+    /**
+     * Test if the parameter with the provided
+     * name must be bound as a collection of values.
+     *
+     * @param name the name of the parameter.
+     * @return true if the parameter is a list parameter.
+     */
+    public boolean isListParameter(String name){
+        return listParameters.contains(name);
+    }
+
+    @Override
+    public String toString(){
+        return hql;
+    }
+}
@@ -0,0 +1,109 @@
+package io.craigmiller160.orgbuilder.api.v1.repo.query;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe cache of compiled QueryPlans,
+ * keyed by the shape of the Query that produced
+ * them. Because the application only uses a small,
+ * fixed set of query shapes, this cache simply stops
+ * accepting new plans once it is full, rather than
+ * evicting old ones. Queries that miss a full cache
+ * are still compiled, they just aren't stored.
+ */
+public class QueryPlanCache {
+
+    /**
+     * The default maximum number of plans to store.
+     */
+    public static final int DEFAULT_MAX_SIZE = 512;
+
+    private final int maxSize;
+    private final Map<String,QueryPlan> plans = new ConcurrentHashMap<>();
+
+    /*
+     * Counters for monitoring the effectiveness
+     * of the cache.
+     */
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Create a cache with the default maximum size.
+     */
+    public QueryPlanCache(){
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Create a cache with the provided maximum size.
+     *
+     * @param maxSize the maximum number of plans to store.
+     */
+    public QueryPlanCache(int maxSize){
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Get the plan for the provided query, compiling
+     * it if a plan for its shape isn't already cached.
+     *
+     * @param query the query to get the plan for.
+     * @return the compiled plan for the query.
+     */
+    public QueryPlan getPlan(Query<?> query){
+        String key = query.getShapeKey();
+        QueryPlan plan = plans.get(key);
+        if(plan != null){
+            hitCount.incrementAndGet();
+            return plan;
+        }
+
+        missCount.incrementAndGet();
+        plan = query.compile();
+        if(plans.size() < maxSize){
+            QueryPlan existing = plans.putIfAbsent(key, plan);
+            if(existing != null){
+                plan = existing;
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Get the number of plans currently cached.
+     *
+     * @return the number of plans cached.
+     */
+    public int size(){
+        return plans.size();
+    }
+
+    /**
+     * Get the number of lookups that found a cached plan.
+     *
+     * @return the number of cache hits.
+     */
+    public long getHitCount(){
+        return hitCount.get();
+    }
+
+    /**
+     * Get the number of lookups that had to compile a plan.
+     *
+     * @return the number of cache misses.
+     */
+    public long getMissCount(){
+        return missCount.get();
+    }
+
+    /**
+     * Remove all cached plans.
+     */
+    public void clear(){
+        plans.clear();
+    }
+
+}
@@ -0,0 +1,119 @@
+package io.craigmiller160.orgbuilder.api.v1.service;
+
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+import io.craigmiller160.orgbuilder.api.v1.util.NameEncoder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * The parts of a person compared when looking for
+ * duplicates, normalized so that differences in case,
+ * accents, punctuation and whitespace don't count.
+ *
+ * Records are built from a projection of the people
+ * table, rather than from loaded entities, so that every
+ * person can be held in memory at once.
+ */
+public class DedupeRecord {
+
+    private static final Pattern NON_DIGITS = Pattern.compile("[^0-9]+");
+
+    private final long personId;
+    private final String firstName;
+    private final String middleName;
+    private final String lastName;
+    private final LocalDate birthDate;
+    private final Person.Gender gender;
+    private List<String> emails = Collections.emptyList();
+    private List<String> phones = Collections.emptyList();
+
+    /**
+     * Create a record of a person. The names are
+     * reduced to their letters here, with NameEncoder.clean().
+     *
+     * @param personId the ID of the person.
+     * @param firstName the person's first name.
+     * @param middleName the person's middle name.
+     * @param lastName the person's last name.
+     * @param birthDate the person's birth date.
+     * @param gender the person's gender.
+     */
+    public DedupeRecord(long personId, String firstName, String middleName, String lastName,
+                        LocalDate birthDate, Person.Gender gender){
+        this.personId = personId;
+        this.firstName = NameEncoder.clean(firstName);
+        this.middleName = NameEncoder.clean(middleName);
+        this.lastName = NameEncoder.clean(lastName);
+        this.birthDate = birthDate;
+        this.gender = gender;
+    }
+
+    /**
+     * Add an email address of the person. It is
+     * lower cased and trimmed first.
+     *
+     * @param emailAddress the email address.
+     */
+    public void addEmail(String emailAddress){
+        if(emailAddress != null && !emailAddress.trim().isEmpty()){
+            if(emails.isEmpty()){
+                emails = new ArrayList<>(1);
+            }
+            emails.add(emailAddress.trim().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Add a phone number of the person. Only
+     * its digits are kept.
+     *
+     * @param number the phone number.
+     */
+    public void addPhone(String number){
+        String digits = number != null ? NON_DIGITS.matcher(number).replaceAll("") : "";
+        if(!digits.isEmpty()){
+            if(phones.isEmpty()){
+                phones = new ArrayList<>(1);
+            }
+            phones.add(digits);
+        }
+    }
+
+    public long getPersonId(){
+        return personId;
+    }
+
+    public String getFirstName(){
+        return firstName;
+    }
+
+    public String getMiddleName(){
+        return middleName;
+    }
+
+    public String getLastName(){
+        return lastName;
+    }
+
+    public LocalDate getBirthDate(){
+        return birthDate;
+    }
+
+    public Person.Gender getGender(){
+        return gender;
+    }
+
+    public List<String> getEmails(){
+        return emails;
+    }
+
+    public List<String> getPhones(){
+        return phones;
+    }
+
+}
@@ -0,0 +1,176 @@
+package io.craigmiller160.orgbuilder.api.v1.service;
+
+import io.craigmiller160.orgbuilder.api.v1.repo.HibPersonRepo;
+import io.craigmiller160.orgbuilder.api.v1.util.NameEncoder;
+import io.craigmiller160.orgbuilder.api.v1.util.PhoneNumbers;
+import org.hibernate.Query;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Gives existing rows the keys that HibPersonRepo derives
+ * from their other columns when it saves them: the phonetic
+ * keys of names and packed phone numbers. The keys can't be
+ * computed in SQL, so the migration that adds a key column
+ * leaves it empty, and this is run once after the upgrade
+ * to fill it in.
+ * Until then, queries on the key miss the older rows, but
+ * the in-memory indexes don't, as they compute the keys
+ * from the other columns as they read them.
+ *
+ * Rows are read in order of their IDs, one batch per
+ * transaction, so a run never holds many rows or locks at
+ * once, and can be stopped and run again at any time. A row
+ * is only updated if its version hasn't changed since it
+ * was read, so a concurrent write, which derives the keys
+ * itself, is never overwritten with keys of its old values.
+ */
+@Service("derivedKeyBackfill")
+public class DerivedKeyBackfill {
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    /**
+     * The number of rows read and
+     * updated in each transaction.
+     */
+    @Value("${batchSize:" + HibPersonRepo.DEFAULT_BATCH_SIZE + "}")
+    private int batchSize = HibPersonRepo.DEFAULT_BATCH_SIZE;
+
+    public SessionFactory getSessionFactory(){
+        return sessionFactory;
+    }
+
+    public void setSessionFactory(SessionFactory sessionFactory){
+        this.sessionFactory = sessionFactory;
+    }
+
+    public int getBatchSize(){
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize){
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Give every person the phonetic keys of their first
+     * and last names, if they don't already have them.
+     *
+     * @return the number of people whose keys were corrected.
+     */
+    public int backfillNameKeys(){
+        return backfill("select p.personId, p.version, p.firstName, p.lastName, p.firstNameKey, p.lastNameKey " +
+                        "from Person p where p.personId > :after order by p.personId",
+                "update Person p set p.firstNameKey = :firstNameKey, p.lastNameKey = :lastNameKey " +
+                        "where p.personId = :id and p.version = :version",
+                row -> {
+                    String firstNameKey = NameEncoder.encode((String) row[2]);
+                    String lastNameKey = NameEncoder.encode((String) row[3]);
+                    if(Objects.equals(firstNameKey, row[4]) && Objects.equals(lastNameKey, row[5])){
+                        return null;
+                    }
+
+                    Map<String,Object> keys = new HashMap<>();
+                    keys.put("firstNameKey", firstNameKey);
+                    keys.put("lastNameKey", lastNameKey);
+                    return keys;
+                });
+    }
+
+    /**
+     * Give every phone its packed number, if it doesn't
+     * already have it. Phones that aren't valid 10 digit
+     * numbers have no packed number.
+     *
+     * @return the number of phones whose packed number was corrected.
+     */
+    public int backfillPackedNumbers(){
+        return backfill("select ph.phoneId, ph.version, ph.areaCode, ph.prefix, ph.lineNumber, ph.packedNumber " +
+                        "from PersonPhone ph where ph.phoneId > :after order by ph.phoneId",
+                "update PersonPhone ph set ph.packedNumber = :packedNumber " +
+                        "where ph.phoneId = :id and ph.version = :version",
+                row -> {
+                    long packed = PhoneNumbers.pack((String) row[2], (String) row[3], (String) row[4]);
+                    Long packedNumber = packed != PhoneNumbers.INVALID ? packed : null;
+                    if(Objects.equals(packedNumber, row[5])){
+                        return null;
+                    }
+                    return Collections.singletonMap("packedNumber", packedNumber);
+                });
+    }
+
+    /**
+     * Read every row of an entity in batches, and store
+     * the correct keys of the rows whose keys are wrong,
+     * committing after each batch.
+     *
+     * @param selectHql the query for a batch of rows, which
+     *                  selects the ID and version of each row
+     *                  first, and those with IDs after the
+     *                  :after parameter, in order of ID.
+     * @param updateHql the update of the keys of a row, with
+     *                  :id and :version parameters.
+     * @param correctKeys computes the correct keys of a row, as
+     *                    the other parameters of the update, or
+     *                    returns null if its keys are correct.
+     * @return the number of rows whose keys were corrected.
+     */
+    private int backfill(String selectHql, String updateHql, Function<Object[],Map<String,Object>> correctKeys){
+        int corrected = 0;
+        Object after = 0L;
+        StatelessSession session = sessionFactory.openStatelessSession();
+        try{
+            List<?> rows;
+            do{
+                Transaction transaction = session.beginTransaction();
+                try{
+                    rows = session.createQuery(selectHql)
+                            .setParameter("after", after)
+                            .setMaxResults(batchSize)
+                            .list();
+                    for(Object result : rows){
+                        Object[] row = (Object[]) result;
+                        Map<String,Object> keys = correctKeys.apply(row);
+                        if(keys != null){
+                            Query update = session.createQuery(updateHql)
+                                    .setParameter("id", row[0])
+                                    .setParameter("version", row[1]);
+                            for(Map.Entry<String,Object> key : keys.entrySet()){
+                                update.setParameter(key.getKey(), key.getValue());
+                            }
+                            corrected += update.executeUpdate();
+                        }
+                    }
+                    transaction.commit();
+                }
+                catch(RuntimeException ex){
+                    transaction.rollback();
+                    throw ex;
+                }
+
+                if(!rows.isEmpty()){
+                    after = ((Object[]) rows.get(rows.size() - 1))[0];
+                }
+            }
+            while(rows.size() == batchSize);
+        }
+        finally{
+            session.close();
+        }
+        return corrected;
+    }
+
+}
@@ -0,0 +1,74 @@
+package io.craigmiller160.orgbuilder.api.v1.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A group of people who are likely all the same person.
+ *
+ * People are in the same cluster if a chain of likely
+ * duplicate pairs links them, so two people in a cluster
+ * may not have been scored against each other. The pairs
+ * that formed the cluster are kept with it, to show why.
+ */
+public class DuplicateCluster {
+
+    private final long[] personIds;
+    private final List<DuplicatePair> pairs;
+    private final double maxScore;
+    private final double minScore;
+
+    /**
+     * Create a cluster.
+     *
+     * @param personIds the IDs of the people in the cluster, in order.
+     * @param pairs the pairs of likely duplicates that formed the cluster.
+     */
+    public DuplicateCluster(long[] personIds, List<DuplicatePair> pairs){
+        this.personIds = personIds;
+        this.pairs = pairs;
+        double max = 0;
+        double min = 1;
+        for(DuplicatePair pair : pairs){
+            max = Math.max(max, pair.getScore());
+            min = Math.min(min, pair.getScore());
+        }
+        this.maxScore = max;
+        this.minScore = min;
+    }
+
+    public long[] getPersonIds(){
+        return personIds;
+    }
+
+    public List<DuplicatePair> getPairs(){
+        return pairs;
+    }
+
+    /**
+     * Get the score of the most likely pair
+     * of duplicates in the cluster.
+     *
+     * @return the highest score.
+     */
+    public double getMaxScore(){
+        return maxScore;
+    }
+
+    /**
+     * Get the score of the weakest link in the
+     * cluster, which is the one to check first.
+     *
+     * @return the lowest score.
+     */
+    public double getMinScore(){
+        return minScore;
+    }
+
+    @Override
+    public String toString(){
+        return String.format("DuplicateCluster: people=%s, maxScore=%.3f, minScore=%.3f",
+                Arrays.toString(personIds), maxScore, minScore);
+    }
+
+}
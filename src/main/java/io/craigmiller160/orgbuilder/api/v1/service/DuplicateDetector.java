@@ -0,0 +1,409 @@
+package io.craigmiller160.orgbuilder.api.v1.service;
+
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+import io.craigmiller160.orgbuilder.api.v1.repo.FetchSizes;
+import io.craigmiller160.orgbuilder.api.v1.repo.HibPersonRepo;
+import io.craigmiller160.orgbuilder.api.v1.util.NameEncoder;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Finds people who are likely to be duplicates of each
+ * other, such as the same person imported twice with
+ * different casing, whitespace or a missing middle name.
+ *
+ * Comparing every pair of people would take far too long
+ * on a large table, so people are first grouped into blocks
+ * that share a blocking key: their normalized last name and
+ * birth date, the phonetic key of their last name and birth
+ * date, their normalized first and last names, an email
+ * address or a phone number. Only people in the same block
+ * are scored against each other, and the blocks are scored
+ * in parallel. A block larger than the maximum block size is
+ * skipped, as a key shared by that many people says little
+ * about any two of them.
+ *
+ * Pairs that score at least the threshold are linked, and
+ * people linked by a chain of pairs form a cluster in the
+ * report.
+ */
+@Service("duplicateDetector")
+public class DuplicateDetector {
+
+    public static final double DEFAULT_THRESHOLD = 0.85;
+    public static final int DEFAULT_MAX_BLOCK_SIZE = 500;
+
+    /**
+     * The shortest phone number used as a blocking key.
+     * Shorter numbers are likely incomplete.
+     */
+    private static final int MIN_PHONE_DIGITS = 7;
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    /**
+     * The lowest score for a pair of people
+     * to be reported as likely duplicates.
+     */
+    @Value("${dedupeThreshold:" + DEFAULT_THRESHOLD + "}")
+    private double threshold = DEFAULT_THRESHOLD;
+
+    /**
+     * The largest block of people that is scored.
+     * The pairs scored in a block grows with the
+     * square of its size.
+     */
+    @Value("${dedupeMaxBlockSize:" + DEFAULT_MAX_BLOCK_SIZE + "}")
+    private int maxBlockSize = DEFAULT_MAX_BLOCK_SIZE;
+
+    /**
+     * The number of threads scoring blocks, or
+     * 0 to use one for each available processor.
+     */
+    @Value("${dedupeParallelism:0}")
+    private int parallelism = 0;
+
+    /**
+     * The JDBC fetch size used when reading
+     * the people and their contact details.
+     */
+    @Value("${streamFetchSize:" + HibPersonRepo.DEFAULT_STREAM_FETCH_SIZE + "}")
+    private int fetchSize = HibPersonRepo.DEFAULT_STREAM_FETCH_SIZE;
+
+    private final DuplicateScorer scorer = new DuplicateScorer();
+
+    public SessionFactory getSessionFactory(){
+        return sessionFactory;
+    }
+
+    public void setSessionFactory(SessionFactory sessionFactory){
+        this.sessionFactory = sessionFactory;
+    }
+
+    public double getThreshold(){
+        return threshold;
+    }
+
+    public void setThreshold(double threshold){
+        this.threshold = threshold;
+    }
+
+    public int getMaxBlockSize(){
+        return maxBlockSize;
+    }
+
+    public void setMaxBlockSize(int maxBlockSize){
+        this.maxBlockSize = maxBlockSize;
+    }
+
+    public int getParallelism(){
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism){
+        this.parallelism = parallelism;
+    }
+
+    public int getFetchSize(){
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize){
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Find the likely duplicates among every
+     * person in the people table.
+     *
+     * @return the report of likely duplicates.
+     */
+    public DuplicateReport findDuplicates(){
+        long start = System.currentTimeMillis();
+        List<DedupeRecord> records = loadRecords();
+        return findDuplicates(records, start);
+    }
+
+    /**
+     * Find the likely duplicates among a list of people.
+     *
+     * @param records the people to compare.
+     * @return the report of likely duplicates.
+     */
+    public DuplicateReport findDuplicates(List<DedupeRecord> records){
+        return findDuplicates(records, System.currentTimeMillis());
+    }
+
+    private DuplicateReport findDuplicates(final List<DedupeRecord> records, long start){
+        Map<String,List<Integer>> blocksByKey = new HashMap<>();
+        for(int i = 0; i < records.size(); i++){
+            for(String key : blockingKeys(records.get(i))){
+                blocksByKey.computeIfAbsent(key, k -> new ArrayList<>(2)).add(i);
+            }
+        }
+
+        final List<int[]> blocks = new ArrayList<>();
+        int skipped = 0;
+        for(List<Integer> block : blocksByKey.values()){
+            if(block.size() > maxBlockSize){
+                skipped++;
+            }
+            else if(block.size() > 1){
+                blocks.add(block.stream().mapToInt(Integer::intValue).toArray());
+            }
+        }
+        blocksByKey.clear();
+
+        //Score the largest blocks first, so a large block started last doesn't leave the other threads idle
+        blocks.sort(Comparator.comparingInt((int[] block) -> block.length).reversed());
+
+        final LongAdder comparisons = new LongAdder();
+        ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        List<Match> matches;
+        try{
+            matches = pool.submit(() -> blocks.parallelStream()
+                    .flatMap(block -> scoreBlock(records, block, comparisons).stream())
+                    .collect(Collectors.toList()))
+                    .get();
+        }
+        catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while finding duplicates", ex);
+        }
+        catch(ExecutionException ex){
+            if(ex.getCause() instanceof RuntimeException){
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException("Failed to find duplicates", ex.getCause());
+        }
+        finally{
+            pool.shutdown();
+        }
+
+        List<DuplicateCluster> clusters = cluster(records, matches);
+        return new DuplicateReport(clusters, records.size(), blocks.size(), skipped,
+                comparisons.sum(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Get the blocking keys of a person. Each kind of
+     * key has its own prefix, so keys of different
+     * kinds can't collide.
+     *
+     * @param record the person.
+     * @return the blocking keys.
+     */
+    static List<String> blockingKeys(DedupeRecord record){
+        List<String> keys = new ArrayList<>();
+        String lastName = record.getLastName();
+        if(!lastName.isEmpty()){
+            if(record.getBirthDate() != null){
+                keys.add("n|" + lastName + "|" + record.getBirthDate());
+                keys.add("s|" + NameEncoder.encode(lastName) + "|" + record.getBirthDate());
+            }
+            if(!record.getFirstName().isEmpty()){
+                keys.add("f|" + lastName + "|" + record.getFirstName());
+            }
+        }
+
+        for(String email : record.getEmails()){
+            keys.add("e|" + email);
+        }
+        for(String phone : record.getPhones()){
+            if(phone.length() >= MIN_PHONE_DIGITS){
+                keys.add("p|" + phone);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Score every pair of people in a block.
+     *
+     * @return the pairs that scored at least the threshold.
+     */
+    private List<Match> scoreBlock(List<DedupeRecord> records, int[] block, LongAdder comparisons){
+        List<Match> matches = new ArrayList<>(0);
+        for(int i = 0; i < block.length; i++){
+            DedupeRecord first = records.get(block[i]);
+            for(int j = i + 1; j < block.length; j++){
+                double score = scorer.score(first, records.get(block[j]));
+                if(score >= threshold){
+                    matches.add(new Match(Math.min(block[i], block[j]), Math.max(block[i], block[j]), score));
+                }
+            }
+        }
+        comparisons.add((long) block.length * (block.length - 1) / 2);
+        return matches;
+    }
+
+    /**
+     * Group the matched people into clusters, linking
+     * people connected by a chain of matches with a
+     * union-find over their positions in the list.
+     */
+    private static List<DuplicateCluster> cluster(List<DedupeRecord> records, List<Match> matches){
+        //The same pair can be matched in more than one block
+        Map<Long,Match> unique = new HashMap<>();
+        for(Match match : matches){
+            unique.putIfAbsent(((long) match.first << 32) | match.second, match);
+        }
+
+        int[] parent = new int[records.size()];
+        for(int i = 0; i < parent.length; i++){
+            parent[i] = i;
+        }
+        for(Match match : unique.values()){
+            int firstRoot = find(parent, match.first);
+            int secondRoot = find(parent, match.second);
+            if(firstRoot != secondRoot){
+                parent[Math.max(firstRoot, secondRoot)] = Math.min(firstRoot, secondRoot);
+            }
+        }
+
+        Map<Integer,List<DuplicatePair>> pairsByRoot = new HashMap<>();
+        for(Match match : unique.values()){
+            pairsByRoot.computeIfAbsent(find(parent, match.first), k -> new ArrayList<>())
+                    .add(new DuplicatePair(records.get(match.first).getPersonId(),
+                            records.get(match.second).getPersonId(), match.score));
+        }
+
+        List<DuplicateCluster> clusters = new ArrayList<>(pairsByRoot.size());
+        for(List<DuplicatePair> pairs : pairsByRoot.values()){
+            long[] personIds = pairs.stream()
+                    .flatMapToLong(pair -> Arrays.stream(new long[]{pair.getFirstPersonId(), pair.getSecondPersonId()}))
+                    .distinct()
+                    .sorted()
+                    .toArray();
+            pairs.sort(Comparator.comparingDouble(DuplicatePair::getScore).reversed());
+            clusters.add(new DuplicateCluster(personIds, Collections.unmodifiableList(pairs)));
+        }
+        clusters.sort(Comparator.comparingDouble(DuplicateCluster::getMaxScore).reversed()
+                .thenComparingLong(cluster -> cluster.getPersonIds()[0]));
+        return clusters;
+    }
+
+    private static int find(int[] parent, int index){
+        while(parent[index] != index){
+            //Point each node visited at its grandparent, to keep the paths short
+            parent[index] = parent[parent[index]];
+            index = parent[index];
+        }
+        return index;
+    }
+
+    /**
+     * Read every person, with their email addresses and
+     * phone numbers, into records. The contact details are
+     * read with their own queries rather than joined, so
+     * each row is only read once.
+     *
+     * @return the records, in order of person ID.
+     */
+    private List<DedupeRecord> loadRecords(){
+        List<DedupeRecord> records = new ArrayList<>();
+        StatelessSession session = sessionFactory.openStatelessSession();
+        try{
+            ScrollableResults rows = scroll(session, "select p.personId, p.firstName, p.middleName, p.lastName, " +
+                    "p.birthDate, p.gender from Person p order by p.personId");
+            try{
+                while(rows.next()){
+                    records.add(new DedupeRecord((Long) rows.get(0), (String) rows.get(1), (String) rows.get(2),
+                            (String) rows.get(3), (LocalDate) rows.get(4), (Person.Gender) rows.get(5)));
+                }
+            }
+            finally{
+                rows.close();
+            }
+
+            long[] personIds = new long[records.size()];
+            for(int i = 0; i < personIds.length; i++){
+                personIds[i] = records.get(i).getPersonId();
+            }
+
+            rows = scroll(session, "select e.owner.personId, e.emailAddress from PersonEmail e");
+            try{
+                while(rows.next()){
+                    int index = Arrays.binarySearch(personIds, (Long) rows.get(0));
+                    if(index >= 0){
+                        records.get(index).addEmail((String) rows.get(1));
+                    }
+                }
+            }
+            finally{
+                rows.close();
+            }
+
+            rows = scroll(session, "select ph.owner.personId, ph.areaCode, ph.prefix, ph.lineNumber from PersonPhone ph");
+            try{
+                while(rows.next()){
+                    int index = Arrays.binarySearch(personIds, (Long) rows.get(0));
+                    if(index >= 0){
+                        records.get(index).addPhone(join((String) rows.get(1), (String) rows.get(2), (String) rows.get(3)));
+                    }
+                }
+            }
+            finally{
+                rows.close();
+            }
+        }
+        finally{
+            session.close();
+        }
+        return records;
+    }
+
+    private ScrollableResults scroll(StatelessSession session, String hql){
+        return session.createQuery(hql)
+                .setFetchSize(FetchSizes.forScrolling(sessionFactory, fetchSize))
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY);
+    }
+
+    private static String join(String... parts){
+        StringBuilder builder = new StringBuilder();
+        for(String part : parts){
+            if(part != null){
+                builder.append(part);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * A pair of people, by their positions in the
+     * list of records, that scored at least the threshold.
+     */
+    private static class Match {
+
+        private final int first;
+        private final int second;
+        private final double score;
+
+        Match(int first, int second, double score){
+            this.first = first;
+            this.second = second;
+            this.score = score;
+        }
+    }
+
+}
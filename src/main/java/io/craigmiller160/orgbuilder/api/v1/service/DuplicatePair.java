@@ -0,0 +1,36 @@
+package io.craigmiller160.orgbuilder.api.v1.service;
+
+/**
+ * Two people found to be likely duplicates
+ * of each other, and their score.
+ */
+public class DuplicatePair {
+
+    private final long firstPersonId;
+    private final long secondPersonId;
+    private final double score;
+
+    public DuplicatePair(long firstPersonId, long secondPersonId, double score){
+        this.firstPersonId = firstPersonId;
+        this.secondPersonId = secondPersonId;
+        this.score = score;
+    }
+
+    public long getFirstPersonId(){
+        return firstPersonId;
+    }
+
+    public long getSecondPersonId(){
+        return secondPersonId;
+    }
+
+    public double getScore(){
+        return score;
+    }
+
+    @Override
+    public String toString(){
+        return String.format("%d~%d (%.3f)", firstPersonId, secondPersonId, score);
+    }
+
+}
@@ -0,0 +1,84 @@
+package io.craigmiller160.orgbuilder.api.v1.service;
+
+import java.util.List;
+
+/**
+ * The result of looking for duplicate people: the
+ * clusters of likely duplicates, most likely first,
+ * and a summary of the work done to find them.
+ */
+public class DuplicateReport {
+
+    private final List<DuplicateCluster> clusters;
+    private final int personCount;
+    private final int blockCount;
+    private final int skippedBlockCount;
+    private final long comparisonCount;
+    private final long elapsedMillis;
+
+    public DuplicateReport(List<DuplicateCluster> clusters, int personCount, int blockCount,
+                           int skippedBlockCount, long comparisonCount, long elapsedMillis){
+        this.clusters = clusters;
+        this.personCount = personCount;
+        this.blockCount = blockCount;
+        this.skippedBlockCount = skippedBlockCount;
+        this.comparisonCount = comparisonCount;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Get the clusters of likely duplicates, ordered
+     * by their highest score, highest first.
+     *
+     * @return the clusters.
+     */
+    public List<DuplicateCluster> getClusters(){
+        return clusters;
+    }
+
+    public int getPersonCount(){
+        return personCount;
+    }
+
+    /**
+     * Get the number of blocks of people that
+     * were compared with each other.
+     *
+     * @return the number of blocks compared.
+     */
+    public int getBlockCount(){
+        return blockCount;
+    }
+
+    /**
+     * Get the number of blocks that were too large to
+     * compare, such as everyone sharing an office phone
+     * number. Duplicates only found through these blocks
+     * are missed.
+     *
+     * @return the number of blocks skipped.
+     */
+    public int getSkippedBlockCount(){
+        return skippedBlockCount;
+    }
+
+    /**
+     * Get the number of pairs of people scored.
+     *
+     * @return the number of comparisons.
+     */
+    public long getComparisonCount(){
+        return comparisonCount;
+    }
+
+    public long getElapsedMillis(){
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString(){
+        return String.format("DuplicateReport: clusters=%d, people=%d, blocks=%d, skippedBlocks=%d, comparisons=%d, elapsedMillis=%d",
+                clusters.size(), personCount, blockCount, skippedBlockCount, comparisonCount, elapsedMillis);
+    }
+
+}
@@ -0,0 +1,119 @@
+package io.craigmiller160.orgbuilder.api.v1.service;
+
+import io.craigmiller160.orgbuilder.api.v1.util.NameEncoder;
+
+import java.util.List;
+
+/**
+ * Scores how likely two people are to be the same
+ * person, from 0 for nothing in common to 1 for an
+ * exact match of everything compared.
+ *
+ * The score is a weighted sum of the similarity of
+ * their names, birth dates, middle names and contact
+ * details. A name, birth date or contact details missing
+ * from one or both people count as half a match, neither
+ * for nor against them. A missing middle name counts as
+ * a full match, as many records leave it out, so a person
+ * imported without a middle name still matches the one
+ * with it exactly. People with different genders score
+ * half as much.
+ */
+public class DuplicateScorer {
+
+    private static final double LAST_NAME_WEIGHT = 0.3;
+    private static final double FIRST_NAME_WEIGHT = 0.25;
+    private static final double BIRTH_DATE_WEIGHT = 0.25;
+    private static final double MIDDLE_NAME_WEIGHT = 0.05;
+    private static final double CONTACT_WEIGHT = 0.15;
+
+    /**
+     * The similarity given to a value that is
+     * missing from one or both people.
+     */
+    private static final double UNKNOWN = 0.5;
+
+    /**
+     * Score a pair of people.
+     *
+     * @param first the first person.
+     * @param second the second person.
+     * @return the score, from 0 to 1.
+     */
+    public double score(DedupeRecord first, DedupeRecord second){
+        double score = LAST_NAME_WEIGHT * nameSimilarity(first.getLastName(), second.getLastName()) +
+                FIRST_NAME_WEIGHT * nameSimilarity(first.getFirstName(), second.getFirstName()) +
+                BIRTH_DATE_WEIGHT * birthDateSimilarity(first, second) +
+                MIDDLE_NAME_WEIGHT * middleNameSimilarity(first.getMiddleName(), second.getMiddleName()) +
+                CONTACT_WEIGHT * contactSimilarity(first, second);
+
+        if(first.getGender() != null && second.getGender() != null && first.getGender() != second.getGender()){
+            score /= 2;
+        }
+        return score;
+    }
+
+    /**
+     * Get the similarity of two normalized names: 1 minus
+     * their edit distance as a fraction of the longer name.
+     */
+    static double nameSimilarity(String first, String second){
+        if(first.isEmpty() || second.isEmpty()){
+            return UNKNOWN;
+        }
+        else if(first.equals(second)){
+            return 1;
+        }
+
+        int length = Math.max(first.length(), second.length());
+        return 1 - (double) NameEncoder.editDistance(first, second) / length;
+    }
+
+    /**
+     * Compare middle names, where an initial
+     * matches any name that starts with it, and
+     * a missing middle name matches any other.
+     */
+    static double middleNameSimilarity(String first, String second){
+        if(first.isEmpty() || second.isEmpty()){
+            return 1;
+        }
+
+        if(first.length() == 1 || second.length() == 1){
+            return first.charAt(0) == second.charAt(0) ? 1 : 0;
+        }
+        return nameSimilarity(first, second);
+    }
+
+    private static double birthDateSimilarity(DedupeRecord first, DedupeRecord second){
+        if(first.getBirthDate() == null || second.getBirthDate() == null){
+            return UNKNOWN;
+        }
+        return first.getBirthDate().equals(second.getBirthDate()) ? 1 : 0;
+    }
+
+    /**
+     * Compare contact details, where a single shared
+     * email address or phone number is a full match.
+     */
+    private static double contactSimilarity(DedupeRecord first, DedupeRecord second){
+        boolean firstHasContacts = !first.getEmails().isEmpty() || !first.getPhones().isEmpty();
+        boolean secondHasContacts = !second.getEmails().isEmpty() || !second.getPhones().isEmpty();
+        if(!firstHasContacts || !secondHasContacts){
+            return UNKNOWN;
+        }
+
+        return shareAny(first.getEmails(), second.getEmails()) ||
+                shareAny(first.getPhones(), second.getPhones()) ? 1 : 0;
+    }
+
+    private static boolean shareAny(List<String> first, List<String> second){
+        for(String value : first){
+            if(second.contains(value)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,6 @@
+/**
+ * This package contains the services, which carry
+ * out work over many people at once on top of the
+ * repositories, such as finding duplicate people.
+ */
+package io.craigmiller160.orgbuilder.api.v1.service;
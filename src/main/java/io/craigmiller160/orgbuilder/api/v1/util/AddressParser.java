@@ -0,0 +1,468 @@
+package io.craigmiller160.orgbuilder.api.v1.util;
+
+import io.craigmiller160.orgbuilder.api.v1.model.Address;
+import io.craigmiller160.orgbuilder.api.v1.model.State;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Parses free-form US addresses, such as
+ * "123 Main Street Apt 4B, Springfield, IL 62704",
+ * into the fields of an Address, normalizing them
+ * along the way.
+ *
+ * An address is read from the end: the zip code, then
+ * the state by code or name, then the city, and then
+ * the street, unit or PO box. Commas help separate the
+ * city from the street, but aren't required if the street
+ * ends with a suffix like "St" or a unit. Street suffixes
+ * are abbreviated, units and PO boxes keep only their
+ * number, and nine digit zip codes get a dash.
+ *
+ * A line is split into words by recording where each one
+ * starts and ends, in arrays kept by each thread, so the
+ * only objects created are the values of the Address. The
+ * parser has no state of its own, so any number of threads
+ * can use it at once, as parseAll() does for bulk imports.
+ */
+public class AddressParser {
+
+    /**
+     * The words that come before a unit number,
+     * such as "Apt" in "Apt 4B".
+     */
+    private static final String[] UNIT_DESIGNATORS = {
+            "APT", "APARTMENT", "UNIT", "STE", "SUITE", "RM", "ROOM", "FL", "FLOOR",
+            "BLDG", "BUILDING", "DEPT", "LOT", "SPC", "SPACE", "TRLR"
+    };
+
+    /**
+     * The common street suffixes, each
+     * followed by its abbreviation.
+     */
+    private static final String[] STREET_SUFFIXES = {
+            "ST", "St", "STREET", "St",
+            "AVE", "Ave", "AV", "Ave", "AVENUE", "Ave",
+            "RD", "Rd", "ROAD", "Rd",
+            "DR", "Dr", "DRIVE", "Dr",
+            "BLVD", "Blvd", "BOULEVARD", "Blvd",
+            "LN", "Ln", "LANE", "Ln",
+            "CT", "Ct", "COURT", "Ct",
+            "PL", "Pl", "PLACE", "Pl",
+            "TER", "Ter", "TERRACE", "Ter",
+            "CIR", "Cir", "CIRCLE", "Cir",
+            "WAY", "Way",
+            "PKWY", "Pkwy", "PARKWAY", "Pkwy",
+            "HWY", "Hwy", "HIGHWAY", "Hwy",
+            "TRL", "Trl", "TRAIL", "Trl",
+            "SQ", "Sq", "SQUARE", "Sq"
+    };
+
+    /**
+     * The longest state name, in words.
+     */
+    private static final int MAX_STATE_WORDS = 3;
+
+    private static final ThreadLocal<Tokens> TOKENS = ThreadLocal.withInitial(Tokens::new);
+
+    /**
+     * Parse an address.
+     *
+     * @param line the address.
+     * @return the parsed address, or null if the line is blank.
+     */
+    public static Address parse(CharSequence line){
+        return parse(line, Address::new);
+    }
+
+    /**
+     * Parse an address into a new instance of
+     * a type of address, such as PersonAddress.
+     * Any part of the address that isn't found
+     * is left null.
+     *
+     * @param line the address.
+     * @param factory creates the address to fill in.
+     * @param <T> the type of address.
+     * @return the parsed address, or null if the line is blank.
+     */
+    public static <T extends Address> T parse(CharSequence line, Supplier<T> factory){
+        if(line == null){
+            return null;
+        }
+
+        Tokens tokens = TOKENS.get();
+        tokens.split(line);
+        if(tokens.count == 0){
+            return null;
+        }
+
+        T address = factory.get();
+        int lo = 0;
+        int hi = tokens.count;
+
+        if(isZip(tokens, hi - 1)){
+            address.setZip(zip(tokens, hi - 1));
+            hi--;
+        }
+
+        for(int words = Math.min(MAX_STATE_WORDS, hi - lo); words > 0; words--){
+            State state = findState(tokens, hi - words, hi);
+            if(state != null){
+                address.setState(state);
+                hi -= words;
+                break;
+            }
+        }
+
+        if(lo < hi){
+            parseStreetAndCity(tokens, lo, hi, address);
+        }
+        return address;
+    }
+
+    /**
+     * Parse every line of a bulk import, spreading
+     * the lines across the common fork-join pool.
+     *
+     * @param lines the addresses.
+     * @param factory creates each address to fill in.
+     * @param <T> the type of address.
+     * @return the parsed addresses, in the same order as the
+     *          lines, with null for every blank line.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Address> List<T> parseAll(List<? extends CharSequence> lines, Supplier<T> factory){
+        CharSequence[] input = lines.toArray(new CharSequence[0]);
+        Object[] parsed = new Object[input.length];
+        IntStream.range(0, input.length)
+                .parallel()
+                .forEach(i -> parsed[i] = parse(input[i], factory));
+        return (List<T>) (List<?>) Arrays.asList(parsed);
+    }
+
+    /**
+     * Fill in the street, unit or PO box, and city from the
+     * words before the state. If there is a comma among them,
+     * the city is everything after the last one. If not, it is
+     * everything after the unit or street suffix, or the whole
+     * of them if they were followed by a comma and aren't a
+     * street at all.
+     */
+    private static void parseStreetAndCity(Tokens tokens, int lo, int hi, Address address){
+        int lastComma = -1;
+        for(int i = lo; i < hi - 1; i++){
+            if(tokens.commaAfter[i]){
+                lastComma = i;
+            }
+        }
+
+        if(lastComma >= 0){
+            address.setCity(tokens.join(lastComma + 1, hi, false));
+            hi = lastComma + 1;
+        }
+        else if(tokens.commaAfter[hi - 1] && !tokens.isNumber(lo) && poBoxEnd(tokens, lo, hi) < 0){
+            address.setCity(tokens.join(lo, hi, false));
+            return;
+        }
+
+        int boxEnd = poBoxEnd(tokens, lo, hi);
+        if(boxEnd >= 0){
+            address.setPoBox(tokens.join(boxEnd - 1, boxEnd, false, '#'));
+            if(lastComma < 0 && boxEnd < hi){
+                address.setCity(tokens.join(boxEnd, hi, false));
+            }
+            return;
+        }
+
+        int unit = findUnit(tokens, lo + 1, hi);
+        int streetEnd = unit >= 0 ? unit : hi;
+        if(unit >= 0){
+            int unitStart = tokens.startsWith(unit, '#') && tokens.length(unit) > 1 ? unit : unit + 1;
+            int unitEnd = lastComma >= 0 ? hi : Math.min(unitStart + 1, hi);
+            if(unitStart < unitEnd){
+                address.setUnit(tokens.join(unitStart, unitEnd, false, '#'));
+            }
+            if(lastComma < 0 && unitEnd < hi){
+                address.setCity(tokens.join(unitEnd, hi, false));
+            }
+        }
+        else if(lastComma < 0){
+            int suffix = findSuffix(tokens, lo + 2, hi);
+            if(suffix >= 0 && suffix + 1 < hi){
+                address.setCity(tokens.join(suffix + 1, hi, false));
+                streetEnd = suffix + 1;
+            }
+        }
+
+        if(lo < streetEnd){
+            address.setStreetAddress(tokens.join(lo, streetEnd, true));
+        }
+    }
+
+    /**
+     * Find the state whose code or name is the words from
+     * start to end, which must all be letters and can't be
+     * split by a comma.
+     */
+    private static State findState(Tokens tokens, int start, int end){
+        for(int i = start; i < end; i++){
+            if(!tokens.isWord(i) || (i < end - 1 && tokens.commaAfter[i])){
+                return null;
+            }
+        }
+        return State.find(tokens.line, tokens.start[start], tokens.end[end - 1]);
+    }
+
+    /**
+     * Test if a word is a zip code: five digits,
+     * nine digits, or five and four with a dash.
+     */
+    private static boolean isZip(Tokens tokens, int token){
+        int length = tokens.length(token);
+        if(length != 5 && length != 9 && length != 10){
+            return false;
+        }
+
+        for(int i = 0; i < length; i++){
+            char c = tokens.line.charAt(tokens.start[token] + i);
+            boolean valid = length == 10 && i == 5 ? c == '-' : c >= '0' && c <= '9';
+            if(!valid){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String zip(Tokens tokens, int token){
+        int start = tokens.start[token];
+        if(tokens.length(token) == 9){
+            StringBuilder zip = tokens.builder();
+            zip.append(tokens.line, start, start + 5).append('-').append(tokens.line, start + 5, start + 9);
+            return zip.toString();
+        }
+        return tokens.line.subSequence(start, tokens.end[token]).toString();
+    }
+
+    /**
+     * Find the end of a PO box at the start of the words,
+     * written as "PO Box 12", "Post Office Box 12" or "Box 12".
+     *
+     * @return the index after the box number, or -1 if there is no PO box.
+     */
+    private static int poBoxEnd(Tokens tokens, int lo, int hi){
+        int i = lo;
+        if(tokens.is(i, "PO")){
+            i++;
+        }
+        else if(tokens.is(i, "POST") && tokens.is(i + 1, "OFFICE")){
+            i += 2;
+        }
+        else if(tokens.is(i, "POBOX")){
+            return i + 1 < hi ? i + 2 : -1;
+        }
+
+        if(i + 1 < hi && tokens.is(i, "BOX")){
+            return i + 2;
+        }
+        return -1;
+    }
+
+    /**
+     * Find the first unit designator, or word starting
+     * with #, that is followed by a unit number.
+     */
+    private static int findUnit(Tokens tokens, int from, int hi){
+        for(int i = from; i < hi; i++){
+            if(tokens.startsWith(i, '#')){
+                if(tokens.length(i) > 1 || i + 1 < hi){
+                    return i;
+                }
+            }
+            else if(i + 1 < hi && tokens.indexOf(i, UNIT_DESIGNATORS, 1) >= 0){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int findSuffix(Tokens tokens, int from, int hi){
+        for(int i = from; i < hi; i++){
+            if(tokens.indexOf(i, STREET_SUFFIXES, 2) >= 0){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The words of the line being parsed, as the range of
+     * characters of each one, along with whether a comma
+     * follows it. Each thread reuses its own instance.
+     */
+    private static class Tokens {
+
+        private CharSequence line;
+        private int[] start = new int[16];
+        private int[] end = new int[16];
+        private boolean[] commaAfter = new boolean[16];
+        private int count;
+        private final StringBuilder builder = new StringBuilder();
+
+        /**
+         * Split a line into words at whitespace, commas
+         * and semicolons.
+         */
+        void split(CharSequence line){
+            this.line = line;
+            count = 0;
+            int wordStart = -1;
+            for(int i = 0; i <= line.length(); i++){
+                char c = i < line.length() ? line.charAt(i) : ' ';
+                boolean comma = c == ',' || c == ';';
+                if(comma || Character.isWhitespace(c)){
+                    if(wordStart >= 0){
+                        add(wordStart, i);
+                        wordStart = -1;
+                    }
+                    if(comma && count > 0){
+                        commaAfter[count - 1] = true;
+                    }
+                }
+                else if(wordStart < 0){
+                    wordStart = i;
+                }
+            }
+        }
+
+        private void add(int wordStart, int wordEnd){
+            if(count == start.length){
+                start = Arrays.copyOf(start, count * 2);
+                end = Arrays.copyOf(end, count * 2);
+                commaAfter = Arrays.copyOf(commaAfter, count * 2);
+            }
+            start[count] = wordStart;
+            end[count] = wordEnd;
+            commaAfter[count] = false;
+            count++;
+        }
+
+        int length(int token){
+            return end[token] - start[token];
+        }
+
+        boolean startsWith(int token, char c){
+            return line.charAt(start[token]) == c;
+        }
+
+        boolean isNumber(int token){
+            char c = line.charAt(start[token]);
+            return c >= '0' && c <= '9';
+        }
+
+        /**
+         * Test if a word has only letters
+         * and periods, and at least one letter.
+         */
+        boolean isWord(int token){
+            boolean letter = false;
+            for(int i = start[token]; i < end[token]; i++){
+                char c = line.charAt(i);
+                if(Character.isLetter(c)){
+                    letter = true;
+                }
+                else if(c != '.'){
+                    return false;
+                }
+            }
+            return letter;
+        }
+
+        /**
+         * Test if a word is an upper case keyword,
+         * ignoring case and periods, so "P.O." is "PO".
+         */
+        boolean is(int token, String keyword){
+            if(token >= count){
+                return false;
+            }
+
+            int k = 0;
+            for(int i = start[token]; i < end[token]; i++){
+                char c = line.charAt(i);
+                if(c != '.'){
+                    if(k == keyword.length() || Character.toUpperCase(c) != keyword.charAt(k++)){
+                        return false;
+                    }
+                }
+            }
+            return k == keyword.length();
+        }
+
+        /**
+         * Find the keyword a word is, in a table of
+         * keywords spaced a number of entries apart.
+         *
+         * @return the index of the keyword, or -1 if it isn't one.
+         */
+        int indexOf(int token, String[] keywords, int stride){
+            for(int i = 0; i < keywords.length; i += stride){
+                if(is(token, keywords[i])){
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        StringBuilder builder(){
+            builder.setLength(0);
+            return builder;
+        }
+
+        String join(int from, int to, boolean street){
+            return join(from, to, street, (char) 0);
+        }
+
+        /**
+         * Join a range of words with single spaces. For a
+         * street, the last suffix is abbreviated. A leading
+         * character to drop, such as the # of a unit number,
+         * is removed from the first word.
+         */
+        String join(int from, int to, boolean street, char drop){
+            int suffix = street ? lastSuffix(from, to) : -1;
+            StringBuilder joined = builder();
+            for(int i = from; i < to; i++){
+                if(i > from){
+                    joined.append(' ');
+                }
+
+                int wordStart = start[i];
+                if(i == from && drop != 0 && line.charAt(wordStart) == drop){
+                    wordStart++;
+                }
+
+                if(i == suffix){
+                    joined.append(STREET_SUFFIXES[indexOf(i, STREET_SUFFIXES, 2) + 1]);
+                }
+                else{
+                    joined.append(line, wordStart, end[i]);
+                }
+            }
+            return joined.length() > 0 ? joined.toString() : null;
+        }
+
+        private int lastSuffix(int from, int to){
+            for(int i = to - 1; i > from; i--){
+                if(indexOf(i, STREET_SUFFIXES, 2) >= 0){
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+package io.craigmiller160.orgbuilder.api.v1.util;
+
+import java.util.Locale;
+
+/**
+ * Methods for normalizing email addresses, so the
+ * same address written with different case or
+ * surrounding whitespace is stored and found as one.
+ */
+public class EmailAddresses {
+
+    /**
+     * Normalize an email address by trimming
+     * it and lower casing it.
+     *
+     * @param emailAddress the email address.
+     * @return the normalized address, or null if
+     *          the address is null or blank.
+     */
+    public static String normalize(String emailAddress){
+        if(emailAddress == null){
+            return null;
+        }
+
+        String trimmed = emailAddress.trim();
+        return trimmed.isEmpty() ? null : trimmed.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Get the domain of a normalized email address:
+     * everything after the last @.
+     *
+     * @param emailAddress the normalized email address.
+     * @return the domain, or null if the address has none.
+     */
+    public static String domainOf(String emailAddress){
+        int at = emailAddress != null ? emailAddress.lastIndexOf('@') : -1;
+        return at >= 0 && at < emailAddress.length() - 1 ? emailAddress.substring(at + 1) : null;
+    }
+
+}
@@ -0,0 +1,116 @@
+package io.craigmiller160.orgbuilder.api.v1.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of durations, used to find the
+ * percentiles of latencies that are recorded from
+ * many threads at once.
+ *
+ * Durations are counted in buckets that double in
+ * width, measured in microseconds, so recording is
+ * constant time and the memory used is fixed. The
+ * percentiles it reports are the upper bounds of
+ * the buckets they fall in, so they are accurate to
+ * within a factor of two.
+ */
+public class LatencyHistogram {
+
+    /**
+     * Enough buckets for durations of over a day.
+     */
+    private static final int BUCKET_COUNT = 40;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * Record a duration.
+     *
+     * @param nanos the duration in nanoseconds.
+     */
+    public void record(long nanos){
+        long micros = Math.max(0, nanos / 1000);
+        int bucket = Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(micros));
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        totalMicros.addAndGet(micros);
+
+        long max;
+        do{
+            max = maxMicros.get();
+        }
+        while(micros > max && !maxMicros.compareAndSet(max, micros));
+    }
+
+    /**
+     * Get the number of durations recorded.
+     *
+     * @return the number of durations.
+     */
+    public long getCount(){
+        return count.get();
+    }
+
+    /**
+     * Get the mean of the durations recorded.
+     *
+     * @return the mean duration in milliseconds, or 0 if there are none.
+     */
+    public double getMeanMillis(){
+        long current = count.get();
+        return current == 0 ? 0 : totalMicros.get() / 1000.0 / current;
+    }
+
+    /**
+     * Get the longest duration recorded.
+     *
+     * @return the longest duration in milliseconds.
+     */
+    public double getMaxMillis(){
+        return maxMicros.get() / 1000.0;
+    }
+
+    /**
+     * Get the duration that the provided fraction
+     * of the recorded durations are no longer than.
+     *
+     * @param fraction the fraction, from 0 to 1, such as 0.99
+     *                 for the 99th percentile.
+     * @return the duration in milliseconds, or 0 if there are none.
+     */
+    public double getPercentileMillis(double fraction){
+        long total = count.get();
+        if(total == 0){
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(total * fraction));
+        long seen = 0;
+        for(int i = 0; i < BUCKET_COUNT; i++){
+            seen += buckets.get(i);
+            if(seen >= target){
+                long upperMicros = i == 0 ? 0 : 1L << i;
+                return Math.min(upperMicros, maxMicros.get()) / 1000.0;
+            }
+        }
+        return getMaxMillis();
+    }
+
+    /**
+     * Clear every duration recorded so far. Durations
+     * recorded while this runs may be partly cleared.
+     */
+    public void reset(){
+        for(int i = 0; i < BUCKET_COUNT; i++){
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        totalMicros.set(0);
+        maxMicros.set(0);
+    }
+
+}
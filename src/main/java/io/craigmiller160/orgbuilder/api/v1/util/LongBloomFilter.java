@@ -0,0 +1,170 @@
+package io.craigmiller160.orgbuilder.api.v1.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Bloom filter of long values, used to test whether
+ * a value has definitely never been added. A test can
+ * return a false positive, at a rate determined by the
+ * number of bits and the number of values added, but
+ * never a false negative.
+ *
+ * The filter is sized from the number of values it
+ * is expected to hold and the false positive rate
+ * wanted at that size. It is safe to add values and
+ * test for them from several threads at once.
+ *
+ * Values can't be removed. Removing one would require
+ * clearing bits that may be shared with other values.
+ */
+public class LongBloomFilter {
+
+    private static final double LN2_SQUARED = Math.log(2) * Math.log(2);
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLong insertCount = new AtomicLong();
+
+    /**
+     * Create a filter sized to hold the expected number
+     * of values at the provided false positive rate.
+     *
+     * @param expectedSize the number of values the filter is expected to hold.
+     * @param falsePositiveRate the false positive rate wanted at the expected size,
+     *                          greater than 0 and less than 1.
+     * @throws IllegalArgumentException if either argument is out of range.
+     */
+    public LongBloomFilter(long expectedSize, double falsePositiveRate){
+        if(expectedSize <= 0){
+            throw new IllegalArgumentException("Expected size must be positive: " + expectedSize);
+        }
+
+        if(falsePositiveRate <= 0 || falsePositiveRate >= 1){
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+
+        long optimalBits = (long) Math.ceil(-expectedSize * Math.log(falsePositiveRate) / LN2_SQUARED);
+        int words = (int) Math.min(Integer.MAX_VALUE, (optimalBits + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedSize * Math.log(2)));
+    }
+
+    /**
+     * Add a value to the filter.
+     *
+     * @param value the value to add.
+     */
+    public void put(long value){
+        long hash1 = mix(value);
+        long hash2 = mix(hash1) | 1;
+        for(int i = 0; i < hashCount; i++){
+            long bit = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+            setBit(bit);
+        }
+        insertCount.incrementAndGet();
+    }
+
+    /**
+     * Test if a value might have been added to the filter.
+     *
+     * @param value the value to test.
+     * @return false if the value has definitely not been added,
+     *          true if it may have been.
+     */
+    public boolean mightContain(long value){
+        long hash1 = mix(value);
+        long hash2 = mix(hash1) | 1;
+        for(int i = 0; i < hashCount; i++){
+            long bit = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+            if((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the number of bits in the filter.
+     *
+     * @return the number of bits.
+     */
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    /**
+     * Get the number of bits set for each value.
+     *
+     * @return the number of hash functions.
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * Get the number of times a value was added to
+     * the filter. Values added more than once are
+     * counted each time.
+     *
+     * @return the number of values added.
+     */
+    public long getInsertCount(){
+        return insertCount.get();
+    }
+
+    /**
+     * Get the memory used by the bits of the filter.
+     *
+     * @return the size of the filter in bytes.
+     */
+    public long getSizeInBytes(){
+        return bitCount / 8;
+    }
+
+    /**
+     * Estimate the current false positive rate, based
+     * on the number of values added so far. This grows
+     * past the rate the filter was created with once
+     * more values than expected have been added.
+     *
+     * @return the estimated false positive rate.
+     */
+    public double getEstimatedFalsePositiveRate(){
+        double fractionUnset = Math.exp(-(double) hashCount * insertCount.get() / bitCount);
+        return Math.pow(1 - fractionUnset, hashCount);
+    }
+
+    private void setBit(long bit){
+        int index = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long word;
+        do{
+            word = bits.get(index);
+            if((word & mask) != 0){
+                return;
+            }
+        }
+        while(!bits.compareAndSet(index, word, word | mask));
+    }
+
+    /**
+     * Spread the bits of a value, so that sequential
+     * values like database IDs map to unrelated bits.
+     * This is the finalizer of the 64-bit MurmurHash3.
+     *
+     * @param value the value to mix.
+     * @return the mixed value.
+     */
+    private static long mix(long value){
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+}
@@ -0,0 +1,184 @@
+package io.craigmiller160.orgbuilder.api.v1.util;
+
+/**
+ * A hash map from long keys to long values, kept in
+ * arrays of primitives rather than as boxed entries.
+ * It uses open addressing with linear probing, so a
+ * lookup is usually a single read of adjacent slots,
+ * with no objects to follow and nothing to collect.
+ *
+ * This is not safe to use from several threads at once
+ * without locking, if any of them modify it.
+ */
+public class LongLongHashMap {
+
+    /**
+     * The value returned for a key
+     * that isn't in the map.
+     */
+    public static final long NO_VALUE = Long.MIN_VALUE;
+
+    private static final int MIN_CAPACITY = 16;
+    private static final double MAX_LOAD = 0.6;
+
+    private long[] keys;
+    private long[] values;
+    private boolean[] used;
+    private int size = 0;
+
+    /**
+     * Create an empty map.
+     */
+    public LongLongHashMap(){
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Create an empty map with room for a number
+     * of entries before it has to grow.
+     *
+     * @param expectedSize the number of entries expected.
+     */
+    public LongLongHashMap(int expectedSize){
+        int capacity = MIN_CAPACITY;
+        while(capacity * MAX_LOAD < expectedSize){
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Get the value of a key.
+     *
+     * @param key the key.
+     * @return the value, or NO_VALUE if the key isn't in the map.
+     */
+    public long get(long key){
+        int mask = keys.length - 1;
+        for(int slot = slot(key, mask); used[slot]; slot = (slot + 1) & mask){
+            if(keys[slot] == key){
+                return values[slot];
+            }
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * Test if a key is in the map.
+     *
+     * @param key the key.
+     * @return true if the key is in the map.
+     */
+    public boolean containsKey(long key){
+        int mask = keys.length - 1;
+        for(int slot = slot(key, mask); used[slot]; slot = (slot + 1) & mask){
+            if(keys[slot] == key){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Set the value of a key.
+     *
+     * @param key the key.
+     * @param value the value.
+     * @return the previous value, or NO_VALUE if the key wasn't in the map.
+     */
+    public long put(long key, long value){
+        if(size + 1 > keys.length * MAX_LOAD){
+            resize(keys.length * 2);
+        }
+
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while(used[slot]){
+            if(keys[slot] == key){
+                long previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        used[slot] = true;
+        size++;
+        return NO_VALUE;
+    }
+
+    /**
+     * Remove a key from the map.
+     *
+     * @param key the key.
+     * @return the value it had, or NO_VALUE if it wasn't in the map.
+     */
+    public long remove(long key){
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while(used[slot] && keys[slot] != key){
+            slot = (slot + 1) & mask;
+        }
+        if(!used[slot]){
+            return NO_VALUE;
+        }
+
+        long previous = values[slot];
+
+        //Shift later entries of the same run back into the gap, so lookups for them don't stop at it
+        int gap = slot;
+        for(int next = (gap + 1) & mask; used[next]; next = (next + 1) & mask){
+            int home = slot(keys[next], mask);
+            boolean canMove = gap <= next ? (home <= gap || home > next) : (home <= gap && home > next);
+            if(canMove){
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        used[gap] = false;
+        size--;
+        return previous;
+    }
+
+    /**
+     * Remove every entry from the map.
+     */
+    public void clear(){
+        allocate(MIN_CAPACITY);
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    private static int slot(long key, int mask){
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    private void allocate(int capacity){
+        keys = new long[capacity];
+        values = new long[capacity];
+        used = new boolean[capacity];
+        size = 0;
+    }
+
+    private void resize(int capacity){
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for(int i = 0; i < oldKeys.length; i++){
+            if(oldUsed[i]){
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+package io.craigmiller160.orgbuilder.api.v1.util;
+
+import org.apache.commons.codec.language.DoubleMetaphone;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Methods for matching names by how they sound, rather
+ * than how they are spelled.
+ *
+ * Names are encoded with Double Metaphone, which gives
+ * names that sound alike the same key, such as "Mueller"
+ * and "Miller", or "Catherine" and "Kathryn". Names with
+ * more than one likely pronunciation also have an
+ * alternate key. Candidates found by their keys can
+ * then be ranked by their edit distance from the name
+ * searched for, which is only practical on a shortlist.
+ */
+public class NameEncoder {
+
+    /**
+     * The maximum length of a phonetic key. This
+     * must fit the columns the keys are stored in.
+     */
+    public static final int MAX_KEY_LENGTH = 8;
+
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_LETTERS = Pattern.compile("[^\\p{L}]+");
+
+    private static final DoubleMetaphone ENCODER = new DoubleMetaphone();
+
+    static{
+        ENCODER.setMaxCodeLen(MAX_KEY_LENGTH);
+    }
+
+    /**
+     * Get the phonetic key of a name.
+     *
+     * @param name the name.
+     * @return the key, or null if the name has no letters.
+     */
+    public static String encode(String name){
+        String letters = clean(name);
+        return letters.isEmpty() ? null : ENCODER.doubleMetaphone(letters);
+    }
+
+    /**
+     * Get the alternate phonetic key of a name. This
+     * is the same as its key, unless the name has
+     * more than one likely pronunciation.
+     *
+     * @param name the name.
+     * @return the alternate key, or null if the name has no letters.
+     */
+    public static String encodeAlternate(String name){
+        String letters = clean(name);
+        return letters.isEmpty() ? null : ENCODER.doubleMetaphone(letters, true);
+    }
+
+    /**
+     * Get the edit distance between two names: the
+     * number of characters that must be inserted, deleted
+     * or replaced to turn one into the other. Case and
+     * accents are ignored.
+     *
+     * @param first the first name.
+     * @param second the second name.
+     * @return the edit distance.
+     */
+    public static int editDistance(String first, String second){
+        String a = fold(first);
+        String b = fold(second);
+        if(a.length() < b.length()){
+            String swap = a;
+            a = b;
+            b = swap;
+        }
+
+        //Only two rows of the table are needed, sized by the shorter name
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for(int j = 0; j <= b.length(); j++){
+            previous[j] = j;
+        }
+
+        for(int i = 1; i <= a.length(); i++){
+            current[0] = i;
+            char c = a.charAt(i - 1);
+            for(int j = 1; j <= b.length(); j++){
+                int replace = previous[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(replace, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * Remove the accents from a name and lower case it,
+     * so "Jos\u00e9" and "JOSE" are the same. Everything
+     * else about the name is kept, including punctuation.
+     *
+     * @param name the name.
+     * @return the folded name, which is empty if the name is null.
+     */
+    public static String fold(String name){
+        if(name == null){
+            return "";
+        }
+
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+        return ACCENTS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Reduce a name to its letters, without accents,
+     * which is all the encoder understands. It also makes
+     * "O'Brien ", "o brien" and "OBRIEN" the same name
+     * when names are compared as they are spelled.
+     *
+     * @param name the name.
+     * @return the letters of the name, in lower case, which
+     *          is empty if the name is null or has no letters.
+     */
+    public static String clean(String name){
+        return NON_LETTERS.matcher(fold(name)).replaceAll("");
+    }
+
+}
@@ -0,0 +1,109 @@
+package io.craigmiller160.orgbuilder.api.v1.util;
+
+/**
+ * Methods for packing 10 digit North American phone
+ * numbers into a single long, such as 5551234567 for
+ * (555) 123-4567, so they can be stored, indexed and
+ * compared as one number rather than three strings.
+ * Extensions aren't part of the packed number.
+ */
+public class PhoneNumbers {
+
+    /**
+     * The value returned for a phone
+     * number that can't be packed.
+     */
+    public static final long INVALID = -1;
+
+    private static final int DIGITS = 10;
+    private static final long COUNTRY_CODE_PLACE = 10000000000L;
+
+    /**
+     * Pack the parts of a phone number. Each part must
+     * have exactly the right number of digits, and nothing
+     * else: 3 for the area code and prefix, and 4 for the
+     * line number.
+     *
+     * @param areaCode the area code.
+     * @param prefix the prefix.
+     * @param lineNumber the line number.
+     * @return the packed number, or INVALID if a part
+     *          is missing or isn't all digits.
+     */
+    public static long pack(String areaCode, String prefix, String lineNumber){
+        long areaValue = digits(areaCode, 3);
+        long prefixValue = digits(prefix, 3);
+        long lineValue = digits(lineNumber, 4);
+        if(areaValue < 0 || prefixValue < 0 || lineValue < 0){
+            return INVALID;
+        }
+        return areaValue * 10000000L + prefixValue * 10000L + lineValue;
+    }
+
+    /**
+     * Pack a phone number written in any format, such as
+     * a caller ID. Everything but the digits is ignored,
+     * as is a leading country code of 1.
+     *
+     * @param number the phone number.
+     * @return the packed number, or INVALID if it doesn't
+     *          have 10 digits.
+     */
+    public static long parse(String number){
+        if(number == null){
+            return INVALID;
+        }
+
+        long packed = 0;
+        int count = 0;
+        for(int i = 0; i < number.length(); i++){
+            char c = number.charAt(i);
+            if(c >= '0' && c <= '9'){
+                if(++count > DIGITS + 1){
+                    return INVALID;
+                }
+                packed = packed * 10 + (c - '0');
+            }
+        }
+
+        if(count == DIGITS){
+            return packed;
+        }
+        else if(count == DIGITS + 1 && packed / COUNTRY_CODE_PLACE == 1){
+            return packed - COUNTRY_CODE_PLACE;
+        }
+        return INVALID;
+    }
+
+    /**
+     * Format a packed number as (555) 123-4567.
+     *
+     * @param packed the packed number.
+     * @return the formatted number.
+     */
+    public static String format(long packed){
+        return String.format("(%03d) %03d-%04d", packed / 10000000L, packed / 10000L % 1000, packed % 10000);
+    }
+
+    /**
+     * Get the value of a string of an exact number of digits.
+     *
+     * @return the value, or -1 if the string isn't that many digits.
+     */
+    private static long digits(String text, int length){
+        if(text == null || text.length() != length){
+            return -1;
+        }
+
+        long value = 0;
+        for(int i = 0; i < length; i++){
+            char c = text.charAt(i);
+            if(c < '0' || c > '9'){
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+}
@@ -0,0 +1,380 @@
+package io.craigmiller160.orgbuilder.api.v1.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An index from string keys to the long IDs that
+ * have them, which finds the IDs of every key that
+ * starts with a prefix.
+ *
+ * The keys are kept sorted, so the keys with a prefix
+ * are a contiguous range that is found with a single
+ * lookup, and each key's IDs are kept in a sorted array
+ * of primitives rather than a collection of boxed values.
+ * A search only touches the keys and IDs it returns.
+ *
+ * It is safe to search and modify the index from several
+ * threads at once. Searches can run in parallel, while
+ * each modification has the index to itself.
+ */
+public class PrefixIndex {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final NavigableMap<String,long[]> postings = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int postingCount = 0;
+
+    /**
+     * Add an ID under a key. Adding an ID that is
+     * already under the key has no effect.
+     *
+     * @param key the key.
+     * @param id the ID.
+     */
+    public void add(String key, long id){
+        lock.writeLock().lock();
+        try{
+            long[] ids = postings.get(key);
+            if(ids == null){
+                postings.put(key, new long[]{id});
+                postingCount++;
+                return;
+            }
+
+            int index = Arrays.binarySearch(ids, id);
+            if(index < 0){
+                int insertAt = -index - 1;
+                long[] added = new long[ids.length + 1];
+                System.arraycopy(ids, 0, added, 0, insertAt);
+                added[insertAt] = id;
+                System.arraycopy(ids, insertAt, added, insertAt + 1, ids.length - insertAt);
+                postings.put(key, added);
+                postingCount++;
+            }
+        }
+        finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove an ID from under a key. The key is
+     * removed once it has no IDs left.
+     *
+     * @param key the key.
+     * @param id the ID.
+     */
+    public void remove(String key, long id){
+        lock.writeLock().lock();
+        try{
+            long[] ids = postings.get(key);
+            if(ids == null){
+                return;
+            }
+
+            long[] remaining = without(ids, id);
+            if(remaining != ids){
+                if(remaining.length == 0){
+                    postings.remove(key);
+                }
+                else{
+                    postings.put(key, remaining);
+                }
+                postingCount--;
+            }
+        }
+        finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the IDs under exactly one key, in order.
+     *
+     * @param key the key.
+     * @return the IDs under the key, which may be empty.
+     */
+    public long[] get(String key){
+        lock.readLock().lock();
+        try{
+            long[] ids = postings.get(key);
+            return ids != null ? ids.clone() : EMPTY;
+        }
+        finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find the IDs under the keys that start with a
+     * prefix, in order of key and then ID, without
+     * repeating an ID that is under several of the keys.
+     * A key equal to the prefix comes first.
+     *
+     * @param prefix the prefix.
+     * @param limit the maximum number of IDs to return.
+     * @return the IDs found.
+     */
+    public long[] search(String prefix, int limit){
+        if(limit <= 0){
+            return EMPTY;
+        }
+
+        lock.readLock().lock();
+        try{
+            long[] found = new long[Math.min(limit, 16)];
+            IdSet seen = new IdSet();
+            int count = 0;
+            for(Map.Entry<String,long[]> entry : postings.tailMap(prefix, true).entrySet()){
+                if(!entry.getKey().startsWith(prefix)){
+                    break;
+                }
+
+                for(long id : entry.getValue()){
+                    if(seen.add(id)){
+                        if(count == found.length){
+                            found = Arrays.copyOf(found, (int) Math.min(limit, found.length * 2L));
+                        }
+                        found[count++] = id;
+                        if(count == limit){
+                            return found;
+                        }
+                    }
+                }
+            }
+            return Arrays.copyOf(found, count);
+        }
+        finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find every ID under the keys that start with a
+     * prefix, in order of ID, without repeating an ID
+     * that is under several of the keys.
+     *
+     * @param prefix the prefix.
+     * @return the IDs found.
+     */
+    public long[] searchAll(String prefix){
+        lock.readLock().lock();
+        try{
+            long[] found = EMPTY;
+            int count = 0;
+            int keyCount = 0;
+            for(Map.Entry<String,long[]> entry : postings.tailMap(prefix, true).entrySet()){
+                if(!entry.getKey().startsWith(prefix)){
+                    break;
+                }
+
+                long[] ids = entry.getValue();
+                if(count + ids.length > found.length){
+                    found = Arrays.copyOf(found, Math.max(count + ids.length, found.length * 2));
+                }
+                System.arraycopy(ids, 0, found, count, ids.length);
+                count += ids.length;
+                keyCount++;
+            }
+
+            //The IDs of a single key are already in order, and unique
+            if(keyCount > 1){
+                Arrays.sort(found, 0, count);
+                int unique = 0;
+                for(int i = 0; i < count; i++){
+                    if(unique == 0 || found[i] != found[unique - 1]){
+                        found[unique++] = found[i];
+                    }
+                }
+                count = unique;
+            }
+            return count == found.length ? found : Arrays.copyOf(found, count);
+        }
+        finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Merge two sorted arrays of IDs into one,
+     * without repeating IDs that are in both.
+     *
+     * @param a the first IDs, in order.
+     * @param b the second IDs, in order.
+     * @return the IDs in either array, in order.
+     */
+    public static long[] union(long[] a, long[] b){
+        long[] merged = new long[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while(i < a.length && j < b.length){
+            if(a[i] < b[j]){
+                merged[count++] = a[i++];
+            }
+            else if(a[i] > b[j]){
+                merged[count++] = b[j++];
+            }
+            else{
+                merged[count++] = a[i++];
+                j++;
+            }
+        }
+        while(i < a.length){
+            merged[count++] = a[i++];
+        }
+        while(j < b.length){
+            merged[count++] = b[j++];
+        }
+        return Arrays.copyOf(merged, count);
+    }
+
+    /**
+     * Remove an ID from a sorted array of IDs.
+     *
+     * @param ids the IDs, in order.
+     * @param id the ID to remove.
+     * @return the IDs without the ID, in order, or
+     *          the same array if it didn't have the ID.
+     */
+    public static long[] without(long[] ids, long id){
+        int index = Arrays.binarySearch(ids, id);
+        if(index < 0){
+            return ids;
+        }
+
+        long[] removed = new long[ids.length - 1];
+        System.arraycopy(ids, 0, removed, 0, index);
+        System.arraycopy(ids, index + 1, removed, index, ids.length - index - 1);
+        return removed;
+    }
+
+    /**
+     * Get the IDs that are in both of
+     * two sorted arrays of IDs.
+     *
+     * @param a the first IDs, in order.
+     * @param b the second IDs, in order.
+     * @return the IDs in both arrays, in order.
+     */
+    public static long[] intersect(long[] a, long[] b){
+        long[] common = new long[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while(i < a.length && j < b.length){
+            if(a[i] < b[j]){
+                i++;
+            }
+            else if(a[i] > b[j]){
+                j++;
+            }
+            else{
+                common[count++] = a[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(common, count);
+    }
+
+    /**
+     * Remove every key and ID from the index.
+     */
+    public void clear(){
+        lock.writeLock().lock();
+        try{
+            postings.clear();
+            postingCount = 0;
+        }
+        finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of distinct keys in the index.
+     *
+     * @return the number of keys.
+     */
+    public int getKeyCount(){
+        lock.readLock().lock();
+        try{
+            return postings.size();
+        }
+        finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of (key, ID) pairs in the index.
+     *
+     * @return the number of postings.
+     */
+    public int getPostingCount(){
+        lock.readLock().lock();
+        try{
+            return postingCount;
+        }
+        finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * A set of the IDs found by a search, so each ID
+     * is only returned once. It uses open addressing
+     * over an array of primitives, and grows as needed.
+     */
+    private static class IdSet {
+
+        private long[] ids = new long[32];
+        private boolean[] used = new boolean[32];
+        private int size = 0;
+
+        /**
+         * Add an ID to the set.
+         *
+         * @param id the ID.
+         * @return true if the ID wasn't in the set already.
+         */
+        boolean add(long id){
+            if((size + 1) * 2 > ids.length){
+                grow();
+            }
+
+            int mask = ids.length - 1;
+            int slot = (int) (id * 0x9E3779B97F4A7C15L >>> 32) & mask;
+            while(used[slot]){
+                if(ids[slot] == id){
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            ids[slot] = id;
+            used[slot] = true;
+            size++;
+            return true;
+        }
+
+        private void grow(){
+            long[] oldIds = ids;
+            boolean[] oldUsed = used;
+            ids = new long[oldIds.length * 2];
+            used = new boolean[oldIds.length * 2];
+            size = 0;
+            for(int i = 0; i < oldIds.length; i++){
+                if(oldUsed[i]){
+                    add(oldIds[i]);
+                }
+            }
+        }
+    }
+
+}
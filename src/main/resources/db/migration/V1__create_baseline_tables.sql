@@ -0,0 +1,55 @@
+/* The tables for people and their children, exactly as the original
+    schema.sql created them. Databases created with schema.sql already
+    have these tables, so they are left alone, and every database
+    continues from the same schema with V2 */
+
+create table if not exists people(
+  person_id bigint not null auto_increment,
+  last_modified timestamp not null,
+  prefix varchar(20),
+  first_name varchar(255),
+  middle_name varchar(255),
+  last_name varchar(255),
+  suffix varchar(20),
+  birth_date date default '1900-1-1',
+  gender varchar(20),
+  primary key(person_id)
+);
+
+create table if not exists people_addresses(
+  address_id bigint not null auto_increment,
+  last_modified timestamp not null,
+  person_id bigint not null,
+  address_type varchar(20),
+  street_address varchar(255),
+  po_box varchar(50),
+  unit varchar(20),
+  city varchar(255),
+  state char(2),
+  zip varchar(10),
+  primary key(address_id),
+  foreign key(person_id) references people(person_id)
+);
+
+create table if not exists people_emails(
+  email_id bigint not null auto_increment,
+  last_modified timestamp not null,
+  person_id bigint not null,
+  email_type varchar(20),
+  email_address varchar(255),
+  primary key(email_id),
+  foreign key(person_id) references people(person_id)
+);
+
+create table if not exists people_phones(
+  phone_id bigint not null auto_increment,
+  last_modified timestamp not null,
+  person_id bigint not null,
+  phone_type varchar(20),
+  area_code char(3),
+  prefix char(3),
+  line_number char(4),
+  extension varchar(10),
+  primary key(phone_id),
+  foreign key(person_id) references people(person_id)
+);
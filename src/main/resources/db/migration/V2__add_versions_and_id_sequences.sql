@@ -0,0 +1,51 @@
+/* IDs are leased in blocks from the id_sequences table rather than
+    generated by auto-increment columns, so the columns are dropped and
+    each sequence starts after the highest ID already in its table.
+    MySQL won't change a column a foreign key refers to while the
+    checks are on, so they are turned off for that */
+
+set foreign_key_checks = 0;
+
+alter table people modify person_id bigint not null;
+alter table people_addresses modify address_id bigint not null;
+alter table people_emails modify email_id bigint not null;
+alter table people_phones modify phone_id bigint not null;
+
+set foreign_key_checks = 1;
+
+create table id_sequences(
+  sequence_name varchar(50) not null,
+  next_val bigint not null,
+  primary key(sequence_name)
+);
+
+insert into id_sequences (sequence_name, next_val)
+select 'people', coalesce(max(person_id), 0) + 1 from people;
+insert into id_sequences (sequence_name, next_val)
+select 'addresses', coalesce(max(address_id), 0) + 1 from people_addresses;
+insert into id_sequences (sequence_name, next_val)
+select 'emails', coalesce(max(email_id), 0) + 1 from people_emails;
+insert into id_sequences (sequence_name, next_val)
+select 'phones', coalesce(max(phone_id), 0) + 1 from people_phones;
+
+/* Version columns for optimistic locking. Existing rows start at 0 */
+
+alter table people add column version int not null default 0;
+alter table people_addresses add column version int not null default 0;
+alter table people_emails add column version int not null default 0;
+alter table people_phones add column version int not null default 0;
+
+/* Tombstones of deleted people, and indexes on the last modified
+    timestamps, for the change feed */
+
+create table people_tombstones(
+  person_id bigint not null,
+  deleted timestamp not null,
+  primary key(person_id)
+);
+
+create index people_tombstones_deleted_idx on people_tombstones (deleted, person_id);
+create index people_last_modified_idx on people (last_modified, person_id);
+create index people_addresses_last_modified_idx on people_addresses (last_modified);
+create index people_emails_last_modified_idx on people_emails (last_modified);
+create index people_phones_last_modified_idx on people_phones (last_modified);
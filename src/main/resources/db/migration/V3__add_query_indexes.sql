@@ -0,0 +1,18 @@
+/* Indexes for the fields people are searched by. Names are searched
+    by last name, or last and first name together, and by prefix with
+    LIKE 'x%', which can use these indexes. The child tables already
+    have an index on person_id from their foreign keys, used to join
+    them to the people table */
+
+create index people_last_first_name_idx on people (last_name, first_name);
+create index people_first_name_idx on people (first_name);
+create index people_birth_date_idx on people (birth_date);
+
+create index people_addresses_state_zip_idx on people_addresses (state, zip);
+create index people_addresses_zip_idx on people_addresses (zip);
+create index people_addresses_city_idx on people_addresses (city);
+
+create index people_emails_address_idx on people_emails (email_address);
+
+create index people_phones_number_idx on people_phones (area_code, prefix, line_number);
+create index people_phones_line_number_idx on people_phones (line_number);
@@ -0,0 +1,10 @@
+/* Phonetic keys of first and last names, for finding people by how
+    their names sound. The keys can only be computed by the application,
+    so existing people are given them by running
+    DerivedKeyBackfill.backfillNameKeys() once after this migration */
+
+alter table people add column first_name_key varchar(8) null;
+alter table people add column last_name_key varchar(8) null;
+
+create index people_last_name_key_idx on people (last_name_key, first_name_key);
+create index people_first_name_key_idx on people (first_name_key);
@@ -0,0 +1,9 @@
+/* Phone numbers packed into a single number, for finding people by
+    phone number with one indexed lookup. The packed numbers can only be
+    computed by the application, so existing phones are given them by
+    running DerivedKeyBackfill.backfillPackedNumbers() once after this
+    migration */
+
+alter table people_phones add column packed_number bigint null;
+
+create index people_phones_packed_number_idx on people_phones (packed_number);
@@ -0,0 +1,9 @@
+/* Email addresses trimmed and lower cased, for finding people by
+    email address however it was written. New emails are given them
+    by the application, and existing emails are given them here */
+
+alter table people_emails add column email_key varchar(255) null;
+
+update people_emails set email_key = nullif(lower(trim(email_address)), '');
+
+create index people_emails_email_key_idx on people_emails (email_key);
@@ -1,7 +1,8 @@
 # noinspection SqlNoDataSourceInspectionForFile
 /* DDL for creating the database for this application */
 /* If developing this application on a new machine, execute all
-    of this SQL to ensure that your schema is correct*/
+    of this SQL once to create the database and its user. It drops
+    any existing database, so it must not be run to update a schema */
 
 /* Create database */
 drop database if exists orgbuilder;
@@ -31,61 +32,9 @@ delimiter ;
 call orgbuilder.drop_user;
 create user 'orgbuilder'@'localhost' identified by 'orgbuilder';
 
-/* Create People table */
-drop table if exists orgbuilder.people;
-create table orgbuilder.people(
-  person_id bigint not null auto_increment,
-  last_modified timestamp not null,
-  prefix varchar(20),
-  first_name varchar(255),
-  middle_name varchar(255),
-  last_name varchar(255),
-  suffix varchar(20),
-  birth_date date default '1900-1-1',
-  gender varchar(20),
-  primary key(person_id)
-);
+/* The application applies the schema migrations itself, so it needs to be able
+    to create and alter tables */
+grant all privileges on orgbuilder.* to 'orgbuilder'@'localhost';
 
-/* Create People_Addresses table */
-drop table if exists orgbuilder.people_addresses;
-create table orgbuilder.people_addresses(
-  address_id bigint not null auto_increment,
-  last_modified timestamp not null,
-  person_id bigint not null,
-  address_type varchar(20),
-  street_address varchar(255),
-  po_box varchar(50),
-  unit varchar(20),
-  city varchar(255),
-  state char(2),
-  zip varchar(10),
-  primary key(address_id),
-  foreign key(person_id) references orgbuilder.people(person_id)
-);
-
-/* Create People_Emails table */
-drop table if exists orgbuilder.people_emails;
-create table orgbuilder.people_emails(
-  email_id bigint not null auto_increment,
-  last_modified timestamp not null,
-  person_id bigint not null,
-  email_type varchar(20),
-  email_address varchar(255),
-  primary key(email_id),
-  foreign key(person_id) references orgbuilder.people(person_id)
-);
-
-/* Create People_Phones table */
-drop table if exists orgbuilder.people_phones;
-create table orgbuilder.people_phones(
-  phone_id bigint not null auto_increment,
-  last_modified timestamp not null,
-  person_id bigint not null,
-  phone_type varchar(20),
-  area_code char(3),
-  prefix char(3),
-  line_number char(4),
-  extension varchar(10),
-  primary key(phone_id),
-  foreign key(person_id) references orgbuilder.people(person_id)
-);
\ No newline at end of file
+/* The tables are created and kept up to date by the migrations in
+    db/migration, which the application applies when it starts */
\ No newline at end of file
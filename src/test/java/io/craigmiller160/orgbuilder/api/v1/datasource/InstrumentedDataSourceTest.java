@@ -0,0 +1,114 @@
+package io.craigmiller160.orgbuilder.api.v1.datasource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * JUnit test case for the InstrumentedDataSource,
+ * using a pool of an in-memory database.
+ */
+public class InstrumentedDataSourceTest {
+
+    private InstrumentedDataSource dataSource;
+
+    @Before
+    public void before(){
+        dataSource = new InstrumentedDataSource();
+        dataSource.setDriverClassName("org.h2.Driver");
+        dataSource.setUrl("jdbc:h2:mem:pool;DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        dataSource.setMaxTotal(1);
+        dataSource.setMaxIdle(1);
+        dataSource.setMaxWaitMillis(50);
+        dataSource.setMinPoolSize(1);
+        dataSource.setMaxPoolSize(3);
+        dataSource.setGrowWaitMillis(10);
+        dataSource.setShrinkWaitMillis(1);
+        dataSource.setResizeStep(2);
+    }
+
+    @After
+    public void after() throws Exception{
+        dataSource.close();
+    }
+
+    @Test
+    public void testBorrowStatistics() throws Exception{
+        try(Connection connection = dataSource.getConnection()){
+            assertTrue(connection.isValid(1));
+            PoolStatistics stats = dataSource.getStatistics();
+            assertEquals(1, stats.getActive());
+            assertEquals(1, stats.getBorrowCount());
+            assertEquals(0, stats.getTimeoutCount());
+        }
+
+        PoolStatistics stats = dataSource.getStatistics();
+        assertEquals(0, stats.getActive());
+        assertEquals(1, stats.getIdle());
+        assertTrue(stats.getOldestConnectionAgeMillis() >= 0);
+    }
+
+    @Test
+    public void testStatementCache() throws Exception{
+        dataSource.setPoolPreparedStatements(true);
+        dataSource.setMaxOpenPreparedStatements(10);
+
+        for(int i = 0; i < 3; i++){
+            try(Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement("select 1");
+                ResultSet results = statement.executeQuery()){
+                assertTrue(results.next());
+            }
+        }
+
+        StatementMetrics metrics = dataSource.getStatementMetrics();
+        assertEquals(3, metrics.getPrepareCount());
+        assertEquals(1, metrics.getPhysicalPrepareCount());
+        assertEquals(2.0 / 3, metrics.getHitRate(), 0.001);
+
+        StatementStatistics stats = metrics.getStatementStatistics().get(0);
+        assertEquals("select 1", stats.getSql());
+        assertEquals(3, stats.getExecutionCount());
+    }
+
+    @Test
+    public void testTimeoutAndAdaptiveSizing() throws Exception{
+        // Hold the only connection, so the next borrow waits
+        Connection held = dataSource.getConnection();
+        try{
+            try{
+                dataSource.getConnection();
+                fail("Borrow should have timed out");
+            }
+            catch(SQLException ex){
+                // Expected, as the only connection is in use
+            }
+
+            PoolStatistics stats = dataSource.getStatistics();
+            assertEquals(1, stats.getTimeoutCount());
+            assertTrue(stats.getMaxWaitMillis() >= 40);
+
+            dataSource.adjustPoolSize();
+            assertEquals(3, dataSource.getMaxTotal());
+        }
+        finally{
+            held.close();
+        }
+
+        // No waits in the next interval, and nothing in use
+        dataSource.adjustPoolSize();
+        assertEquals(1, dataSource.getMaxTotal());
+    }
+
+}
@@ -0,0 +1,119 @@
+package io.craigmiller160.orgbuilder.api.v1.datasource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * JUnit test case for the ReplicaRoutingDataSource,
+ * using two in-memory databases as the primary and
+ * the replica. Each database holds a single row naming
+ * itself, so a query shows where it was routed.
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private ReadYourWritesTracker tracker;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @Before
+    public void before(){
+        DataSource primary = createDatabase("primary");
+        DataSource replica = createDatabase("replica");
+
+        tracker = new ReadYourWritesTracker();
+        tracker.setWindowMillis(200);
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource();
+        routing.setPrimary(primary);
+        routing.setReplicas(Arrays.asList(replica));
+        routing.setTracker(tracker);
+        routing.afterPropertiesSet();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @After
+    public void after(){
+        ReadYourWritesTracker.unbindSession();
+    }
+
+    @Test
+    public void testReadOnlyGoesToReplica(){
+        assertEquals("replica", readOnly.execute(status -> whereAmI()));
+    }
+
+    @Test
+    public void testReadWriteGoesToPrimary(){
+        assertEquals("primary", readWrite.execute(status -> whereAmI()));
+    }
+
+    @Test
+    public void testReadYourWrites() throws Exception{
+        ReadYourWritesTracker.bindSession("session1");
+        readWrite.execute(status -> jdbcTemplate.update("update location set updated = true"));
+        assertEquals("primary", readOnly.execute(status -> whereAmI()));
+
+        ReadYourWritesTracker.bindSession("session2");
+        assertEquals("replica", readOnly.execute(status -> whereAmI()));
+
+        Thread.sleep(300);
+        ReadYourWritesTracker.bindSession("session1");
+        assertEquals("replica", readOnly.execute(status -> whereAmI()));
+    }
+
+    @Test
+    public void testRollbackIsNotAWrite(){
+        ReadYourWritesTracker.bindSession("session1");
+        readWrite.execute(status -> {
+            jdbcTemplate.update("update location set updated = true");
+            status.setRollbackOnly();
+            return null;
+        });
+        assertEquals("replica", readOnly.execute(status -> whereAmI()));
+    }
+
+    @Test
+    public void testQueryIsNotAWrite(){
+        ReadYourWritesTracker.bindSession("session1");
+        readWrite.execute(status -> whereAmI());
+        readWrite.execute(status -> jdbcTemplate.queryForList("select * from location for update"));
+        assertEquals("replica", readOnly.execute(status -> whereAmI()));
+
+        readWrite.execute(status -> {
+            jdbcTemplate.execute("update location set updated = true");
+            return null;
+        });
+        assertEquals("primary", readOnly.execute(status -> whereAmI()));
+    }
+
+    private String whereAmI(){
+        return jdbcTemplate.queryForObject("select name from location", String.class);
+    }
+
+    private static DataSource createDatabase(String name){
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("drop table if exists location");
+        template.execute("create table location (name varchar(20), updated boolean default false)");
+        template.update("insert into location (name) values (?)", name);
+        return dataSource;
+    }
+
+}
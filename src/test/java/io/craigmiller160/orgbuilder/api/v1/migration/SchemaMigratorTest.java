@@ -0,0 +1,164 @@
+package io.craigmiller160.orgbuilder.api.v1.migration;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * JUnit test case for the SchemaMigrator, applying
+ * the application's migrations to an embedded H2
+ * database in MySQL mode.
+ */
+public class SchemaMigratorTest {
+
+    private SingleConnectionDataSource dataSource;
+    private SchemaMigrator migrator;
+
+    @Before
+    public void before(){
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:migration;MODE=MySQL", "sa", "", true);
+        migrator = new SchemaMigrator();
+        migrator.setDataSource(dataSource);
+    }
+
+    @After
+    public void after() throws Exception{
+        try(Connection connection = dataSource.getConnection();
+            Statement statement = connection.createStatement()){
+            statement.execute("drop all objects");
+        }
+        dataSource.destroy();
+    }
+
+    @Test
+    public void testMigrateEmptyDatabase() throws Exception{
+        List<Migration> migrations = migrator.loadMigrations();
+        assertTrue(migrations.size() >= 2);
+        assertEquals(migrations, migrator.migrate());
+
+        assertEquals(migrations.size(), queryInt("select count(*) from schema_version"));
+        assertEquals(4, queryInt("select count(*) from id_sequences"));
+        Set<String> indexes = getIndexes("PEOPLE");
+        assertTrue(indexes.toString(), indexes.contains("PEOPLE_LAST_FIRST_NAME_IDX"));
+        assertTrue(indexes.toString(), indexes.contains("PEOPLE_BIRTH_DATE_IDX"));
+        assertTrue(getIndexes("PEOPLE_EMAILS").contains("PEOPLE_EMAILS_ADDRESS_IDX"));
+        assertTrue(getIndexes("PEOPLE_ADDRESSES").contains("PEOPLE_ADDRESSES_STATE_ZIP_IDX"));
+    }
+
+    @Test
+    public void testMigrateTwice() throws Exception{
+        migrator.migrate();
+        assertTrue(migrator.migrate().isEmpty());
+    }
+
+    @Test
+    public void testMigrateBaselineSchema() throws Exception{
+        //The tables as the original schema.sql created them, with people already in them
+        execute("create table people(person_id bigint not null auto_increment, last_modified timestamp not null, " +
+                "prefix varchar(20), first_name varchar(255), middle_name varchar(255), last_name varchar(255), " +
+                "suffix varchar(20), birth_date date default '1900-1-1', gender varchar(20), primary key(person_id))");
+        execute("create table people_addresses(address_id bigint not null auto_increment, last_modified timestamp not null, " +
+                "person_id bigint not null, address_type varchar(20), street_address varchar(255), po_box varchar(50), " +
+                "unit varchar(20), city varchar(255), state char(2), zip varchar(10), primary key(address_id), " +
+                "foreign key(person_id) references people(person_id))");
+        execute("create table people_emails(email_id bigint not null auto_increment, last_modified timestamp not null, " +
+                "person_id bigint not null, email_type varchar(20), email_address varchar(255), primary key(email_id), " +
+                "foreign key(person_id) references people(person_id))");
+        execute("create table people_phones(phone_id bigint not null auto_increment, last_modified timestamp not null, " +
+                "person_id bigint not null, phone_type varchar(20), area_code char(3), prefix char(3), line_number char(4), " +
+                "extension varchar(10), primary key(phone_id), foreign key(person_id) references people(person_id))");
+        execute("insert into people (last_modified, first_name, last_name) values (current_timestamp, 'Bob', 'Smith')");
+        execute("insert into people (person_id, last_modified, first_name, last_name) values (40, current_timestamp, 'Ann', 'Lee')");
+        execute("insert into people_emails (last_modified, person_id, email_address) values (current_timestamp, 40, 'Ann@Example.com')");
+        execute("insert into people_phones (phone_id, last_modified, person_id, area_code, prefix, line_number) " +
+                "values (7, current_timestamp, 1, '555', '123', '4567')");
+
+        assertEquals(migrator.loadMigrations(), migrator.migrate());
+
+        assertEquals(2, queryInt("select count(*) from people where version = 0"));
+        assertEquals(41, queryInt("select next_val from id_sequences where sequence_name = 'people'"));
+        assertEquals(1, queryInt("select next_val from id_sequences where sequence_name = 'addresses'"));
+        assertEquals(2, queryInt("select next_val from id_sequences where sequence_name = 'emails'"));
+        assertEquals(8, queryInt("select next_val from id_sequences where sequence_name = 'phones'"));
+        assertEquals(0, queryInt("select count(*) from people_tombstones"));
+        assertEquals(1, queryInt("select count(*) from people_emails where email_key = 'ann@example.com'"));
+        assertTrue(getIndexes("PEOPLE").contains("PEOPLE_LAST_MODIFIED_IDX"));
+
+        try{
+            execute("insert into people (last_modified, first_name) values (current_timestamp, 'Sam')");
+            fail("People should no longer get IDs from an auto-increment column");
+        }
+        catch(SQLException ex){
+            //Expected, the ID has to be leased from id_sequences
+        }
+    }
+
+    @Test
+    public void testChangedMigration() throws Exception{
+        migrator.migrate();
+        execute("update schema_version set checksum = checksum + 1 where version = 1");
+
+        try{
+            migrator.migrate();
+            fail("A changed migration should fail the migration");
+        }
+        catch(IllegalStateException ex){
+            assertTrue(ex.getMessage(), ex.getMessage().contains("V1"));
+        }
+    }
+
+    @Test
+    public void testMissingMigration() throws Exception{
+        migrator.migrate();
+        execute("insert into schema_version values (9999, 'unknown', 0, current_timestamp, 0)");
+
+        try{
+            migrator.migrate();
+            fail("A missing migration should fail the migration");
+        }
+        catch(IllegalStateException ex){
+            assertTrue(ex.getMessage(), ex.getMessage().contains("V9999"));
+        }
+    }
+
+    private void execute(String sql) throws Exception{
+        try(Connection connection = dataSource.getConnection();
+            Statement statement = connection.createStatement()){
+            statement.execute(sql);
+        }
+    }
+
+    private int queryInt(String sql) throws Exception{
+        try(Connection connection = dataSource.getConnection();
+            Statement statement = connection.createStatement();
+            ResultSet result = statement.executeQuery(sql)){
+            result.next();
+            return result.getInt(1);
+        }
+    }
+
+    private Set<String> getIndexes(String table) throws Exception{
+        Set<String> indexes = new HashSet<>();
+        try(Connection connection = dataSource.getConnection();
+            ResultSet results = connection.getMetaData().getIndexInfo(null, null, table, false, false)){
+            while(results.next()){
+                indexes.add(results.getString("INDEX_NAME"));
+            }
+        }
+        return indexes;
+    }
+
+}
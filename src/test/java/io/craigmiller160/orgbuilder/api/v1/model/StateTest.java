@@ -0,0 +1,43 @@
+package io.craigmiller160.orgbuilder.api.v1.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * JUnit test case for the State
+ * enum and its lookup methods.
+ */
+public class StateTest {
+
+    @Test
+    public void testGetStateForName(){
+        assertEquals(State.NY, State.getStateForName("new york"));
+        assertEquals(State.DC, State.getStateForName("District of Columbia"));
+        assertNull(State.getStateForName("NY"));
+        assertNull(State.getStateForName(null));
+    }
+
+    @Test
+    public void testGetStateForCode(){
+        assertEquals(State.IL, State.getStateForCode("il"));
+        assertNull(State.getStateForCode("Illinois"));
+        assertNull(State.getStateForCode(null));
+    }
+
+    @Test
+    public void testFind(){
+        for(State state : State.values()){
+            assertEquals(state, State.find(state.name(), 0, 2));
+            assertEquals(state, State.find(state.getName(), 0, state.getName().length()));
+        }
+
+        String text = "Albany, N.Y. 12207";
+        assertEquals(State.NY, State.find(text, 8, 12));
+        assertEquals(State.WV, State.find("  west   VIRGINIA ", 0, 18));
+        assertNull(State.find("York", 0, 4));
+        assertNull(State.find("12207", 0, 5));
+    }
+
+}
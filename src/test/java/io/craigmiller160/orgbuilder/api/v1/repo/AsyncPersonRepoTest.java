@@ -0,0 +1,174 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import io.craigmiller160.orgbuilder.api.v1.datasource.InstrumentedDataSource;
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.PersonByIdQuery;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * JUnit test case for the AsyncPersonRepo, using
+ * a stand-in Repo and transaction manager.
+ */
+public class AsyncPersonRepoTest {
+
+    private AsyncPersonRepo asyncRepo;
+
+    @After
+    public void after() throws Exception{
+        asyncRepo.destroy();
+    }
+
+    @Test
+    public void testFanOut() throws Exception{
+        asyncRepo = createRepo(4, 10, () -> {
+            sleep(200);
+            return Collections.singletonList(new Person("John", "Smith", null, null));
+        });
+
+        long start = System.nanoTime();
+        List<CompletableFuture<List<Person>>> futures = new ArrayList<>();
+        for(long id = 1; id <= 4; id++){
+            futures.add(asyncRepo.query(new PersonByIdQuery(id)));
+        }
+        List<List<Person>> results = AsyncRepo.allOf(futures).get(5, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(4, results.size());
+        assertTrue("Lookups should run in parallel, took " + elapsedMillis, elapsedMillis < 700);
+    }
+
+    @Test
+    public void testReadsAreReadOnly() throws Exception{
+        asyncRepo = createRepo(1, 10, () -> {
+            List<Person> results = new ArrayList<>();
+            if(TransactionSynchronizationManager.isCurrentTransactionReadOnly()){
+                results.add(new Person());
+            }
+            return results;
+        });
+
+        assertEquals(1, asyncRepo.query(new PersonByIdQuery(1L)).get().size());
+    }
+
+    @Test
+    public void testFailure() throws Exception{
+        asyncRepo = createRepo(1, 10, () -> {
+            throw new IllegalStateException("Database is down");
+        });
+
+        try{
+            asyncRepo.query(new PersonByIdQuery(1L)).get();
+            fail("The future should have failed");
+        }
+        catch(ExecutionException ex){
+            assertTrue(ex.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void testRejectedWhenQueueFull() throws Exception{
+        CountDownLatch release = new CountDownLatch(1);
+        asyncRepo = createRepo(1, 1, () -> {
+            try{
+                release.await(5, TimeUnit.SECONDS);
+            }
+            catch(InterruptedException ex){
+                Thread.currentThread().interrupt();
+            }
+            return Collections.emptyList();
+        });
+
+        CompletableFuture<List<Person>> running = asyncRepo.query(new PersonByIdQuery(1L));
+        sleep(100);
+        CompletableFuture<List<Person>> queued = asyncRepo.query(new PersonByIdQuery(2L));
+        CompletableFuture<List<Person>> rejected = asyncRepo.query(new PersonByIdQuery(3L));
+
+        assertTrue(rejected.isCompletedExceptionally());
+        try{
+            rejected.get();
+        }
+        catch(ExecutionException ex){
+            assertTrue(ex.getCause() instanceof RejectedExecutionException);
+        }
+
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        queued.get(5, TimeUnit.SECONDS);
+        assertFalse(queued.isCompletedExceptionally());
+    }
+
+    @Test
+    public void testPoolSizedToConnectionPool() throws Exception{
+        InstrumentedDataSource dataSource = new InstrumentedDataSource();
+        dataSource.setMaxTotal(6);
+        asyncRepo = createRepo(dataSource);
+        assertEquals(6, asyncRepo.getPoolSize());
+        asyncRepo.destroy();
+
+        //With adaptive sizing, the connection pool can grow to its maximum
+        dataSource.setAdaptiveSizing(true);
+        dataSource.setMaxPoolSize(20);
+        asyncRepo = createRepo(dataSource);
+        assertEquals(20, asyncRepo.getPoolSize());
+    }
+
+    private static AsyncPersonRepo createRepo(InstrumentedDataSource dataSource){
+        AsyncPersonRepo asyncRepo = new AsyncPersonRepo();
+        asyncRepo.setTransactionManager(new StubTransactionManager());
+        asyncRepo.setDataSource(dataSource);
+        asyncRepo.afterPropertiesSet();
+        return asyncRepo;
+    }
+
+    /**
+     * Create an AsyncPersonRepo around a Repo that
+     * answers every query with the provided supplier.
+     */
+    @SuppressWarnings("unchecked")
+    private static AsyncPersonRepo createRepo(int poolSize, int queueCapacity, Supplier<List<Person>> queryResult){
+        Repo<Person> repo = (Repo<Person>) Proxy.newProxyInstance(AsyncPersonRepoTest.class.getClassLoader(),
+                new Class<?>[]{Repo.class},
+                (proxy, method, args) -> {
+                    if(method.getName().equals("query")){
+                        return queryResult.get();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        AsyncPersonRepo asyncRepo = new AsyncPersonRepo();
+        asyncRepo.setRepo(repo);
+        asyncRepo.setTransactionManager(new StubTransactionManager());
+        asyncRepo.setPoolSize(poolSize);
+        asyncRepo.setQueueCapacity(queueCapacity);
+        asyncRepo.afterPropertiesSet();
+        return asyncRepo;
+    }
+
+    private static void sleep(long millis){
+        try{
+            Thread.sleep(millis);
+        }
+        catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * JUnit test case for saving and reading ChangeCursors.
+ */
+public class ChangeCursorTest {
+
+    @Test
+    public void testRoundTrip(){
+        ChangeCursor update = new ChangeCursor(LocalDateTime.of(2016, 1, 10, 12, 30, 15, 123000000), false, 42);
+        ChangeCursor parsed = ChangeCursor.parse(update.toString());
+        assertEquals(update, parsed);
+        assertFalse(parsed.isDeletion());
+
+        //Whole minutes are written without seconds
+        ChangeCursor deletion = new ChangeCursor(LocalDateTime.of(2016, 1, 10, 12, 30), true, 7);
+        assertEquals(deletion, ChangeCursor.parse(deletion.toString()));
+        assertTrue(ChangeCursor.parse(deletion.toString()).isDeletion());
+    }
+
+    @Test
+    public void testStart(){
+        assertTrue(ChangeCursor.parse(null).isStart());
+        assertTrue(ChangeCursor.parse("").isStart());
+        assertEquals("", ChangeCursor.START.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidKind(){
+        ChangeCursor.parse("2016-01-10T12:30|X|42");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidTime(){
+        ChangeCursor.parse("yesterday|U|42");
+    }
+
+}
@@ -0,0 +1,266 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.FetchPlan;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.Operator;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.PersonByIdsQuery;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.PersonField;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.PersonQuery;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.QueryField;
+import io.craigmiller160.orgbuilder.api.v1.testutil.H2TestDatabase;
+import io.craigmiller160.orgbuilder.api.v1.util.NameEncoder;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static io.craigmiller160.orgbuilder.api.v1.testutil.TestPeople.insertEmail;
+import static io.craigmiller160.orgbuilder.api.v1.testutil.TestPeople.insertPerson;
+import static io.craigmiller160.orgbuilder.api.v1.testutil.TestPeople.insertPhone;
+import static io.craigmiller160.orgbuilder.api.v1.testutil.TestPeople.person;
+import static io.craigmiller160.orgbuilder.api.v1.testutil.TestPeople.withPhones;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * JUnit test case for the set-based, multi-get, batch
+ * and streaming operations of HibPersonRepo, run
+ * against an H2 database.
+ */
+public class HibPersonRepoTest {
+
+    private H2TestDatabase database;
+    private HibPersonRepo repo;
+
+    @Before
+    public void before() throws Exception{
+        database = new H2TestDatabase();
+        repo = new HibPersonRepo();
+        repo.setSessionFactory(database.getSessionFactory());
+        repo.setBatchSize(H2TestDatabase.BATCH_SIZE);
+    }
+
+    @After
+    public void after(){
+        database.close();
+    }
+
+    @Test
+    public void testDeleteWhere(){
+        insertPerson(database.getJdbcTemplate(), 1, "John", "Smith");
+        insertPerson(database.getJdbcTemplate(), 2, "Jane", "Smith");
+        insertPerson(database.getJdbcTemplate(), 3, "Ann", "Lee");
+        insertPhone(database.getJdbcTemplate(), 1, 1, 5551234567L);
+        insertPhone(database.getJdbcTemplate(), 2, 3, 5559876543L);
+        insertEmail(database.getJdbcTemplate(), 1, 2, "jane@smith.com");
+
+        int deleted = database.inTransaction(status ->
+                repo.deleteWhere(new PersonQuery().where(PersonField.LAST_NAME, Operator.EQUALS, "Smith")));
+
+        assertEquals(2, deleted);
+        assertEquals(1, database.count("people"));
+        assertEquals(1, database.count("people_phones where person_id = 3"));
+        assertEquals(1, database.count("people_phones"));
+        assertEquals(0, database.count("people_emails"));
+        assertEquals(2, database.count("people_tombstones where person_id in (1, 2) and deleted is not null"));
+    }
+
+    @Test
+    public void testDeleteWhereManyChunks(){
+        List<Object[]> rows = new ArrayList<>();
+        for(long id = 1; id <= 2500; id++){
+            rows.add(new Object[]{id, "First" + id, "Smith"});
+        }
+        database.getJdbcTemplate().batchUpdate("insert into people (person_id, last_modified, first_name, last_name) " +
+                "values (?, current_timestamp, ?, ?)", rows);
+        insertPerson(database.getJdbcTemplate(), 2501, "Ann", "Lee");
+
+        int deleted = database.inTransaction(status ->
+                repo.deleteWhere(new PersonQuery().where(PersonField.LAST_NAME, Operator.EQUALS, "Smith")));
+
+        assertEquals(2500, deleted);
+        assertEquals(1, database.count("people"));
+        assertEquals(2500, database.count("people_tombstones"));
+        assertEquals(0, database.count("people_tombstones where person_id = 2501"));
+    }
+
+    @Test
+    public void testUpdateWhere(){
+        insertPerson(database.getJdbcTemplate(), 1, "John", "Smith");
+        insertPerson(database.getJdbcTemplate(), 2, "Ann", "Lee");
+
+        Map<QueryField,Object> values = Collections.singletonMap(PersonField.LAST_NAME, "Mueller");
+        int updated = database.inTransaction(status ->
+                repo.updateWhere(new PersonQuery().where(PersonField.LAST_NAME, Operator.EQUALS, "Smith"), values));
+
+        assertEquals(1, updated);
+        Map<String,Object> row = database.getJdbcTemplate().queryForMap("select * from people where person_id = 1");
+        assertEquals("Mueller", row.get("last_name"));
+        assertEquals(NameEncoder.encode("Mueller"), row.get("last_name_key"));
+        assertEquals(1, ((Number) row.get("version")).intValue());
+        assertEquals(1, database.count("people where person_id = 2 and last_name = 'Lee' and version = 0"));
+    }
+
+    @Test
+    public void testUpdateWhereChildField(){
+        insertPerson(database.getJdbcTemplate(), 1, "John", "Smith");
+
+        assertUpdateRejected(PersonField.CITY, "Denver");
+        assertUpdateRejected(PersonField.LAST_NAME_KEY, "SM0");
+        assertEquals(1, database.count("people where version = 0"));
+    }
+
+    private void assertUpdateRejected(QueryField field, Object value){
+        try{
+            database.inTransaction(status -> repo.updateWhere(new PersonQuery()
+                    .where(PersonField.LAST_NAME, Operator.EQUALS, "Smith"), Collections.singletonMap(field, value)));
+            fail("Updating " + field + " should be rejected");
+        }
+        catch(IllegalArgumentException ex){
+            //Expected
+        }
+    }
+
+    @Test
+    public void testGetByIds(){
+        for(long id = 1; id <= 300; id++){
+            insertPerson(database.getJdbcTemplate(), id, "First" + id, "Last" + id);
+        }
+
+        List<Long> ids = new ArrayList<>();
+        for(long id = 300; id >= 1; id--){
+            ids.add(id);
+        }
+        ids.add(1, 300L);
+        ids.add(null);
+        ids.add(999L);
+
+        MultiGetResult<Person> result = database.inTransaction(status ->
+                repo.getByIds(new PersonByIdsQuery(ids, FetchPlan.SUMMARY)));
+
+        assertEquals(301, result.getResults().size());
+        assertEquals(300L, (long) result.getResults().get(0).getPersonId());
+        assertEquals(300L, (long) result.getResults().get(1).getPersonId());
+        assertEquals(1L, (long) result.getResults().get(300).getPersonId());
+        assertEquals(new HashSet<>(Arrays.asList(999L)), result.getMissingIds());
+    }
+
+    @Test
+    public void testGetByIdsPadsInList(){
+        for(long id = 1; id <= 7; id++){
+            insertPerson(database.getJdbcTemplate(), id, "First" + id, "Last" + id);
+        }
+        Statistics statistics = database.getSessionFactory().getStatistics();
+        statistics.clear();
+
+        //3 and 4 IDs are both padded to 4, so they run the same statement
+        assertEquals(3, getByIds(1L, 2L, 3L).size());
+        assertEquals(4, getByIds(4L, 5L, 6L, 7L).size());
+        assertEquals(1, statistics.getQueries().length);
+    }
+
+    @Test
+    public void testGetByIdsFromCacheAndDatabase(){
+        insertPerson(database.getJdbcTemplate(), 1, "John", "Smith");
+        insertPerson(database.getJdbcTemplate(), 2, "Ann", "Lee");
+        insertPerson(database.getJdbcTemplate(), 3, "Bob", "Jones");
+        assertEquals(1, getByIds(2L).size());
+
+        Statistics statistics = database.getSessionFactory().getStatistics();
+        statistics.clear();
+        List<Person> people = getByIds(3L, 2L, 1L);
+
+        assertEquals(Arrays.asList(3L, 2L, 1L), people.stream().map(Person::getPersonId).collect(Collectors.toList()));
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+        assertEquals(2, statistics.getEntityLoadCount());
+    }
+
+    private List<Person> getByIds(Long... ids){
+        return database.inTransaction(status ->
+                repo.getByIds(new PersonByIdsQuery(Arrays.asList(ids), FetchPlan.SUMMARY)).getResults());
+    }
+
+    @Test
+    public void testInsertAll(){
+        List<Person> people = new ArrayList<>();
+        for(int i = 0; i < 120; i++){
+            people.add(withPhones(person(null, "First" + i, "Smith"), 5550000000L + i));
+        }
+
+        database.inTransaction(status -> {
+            repo.insertAll(people);
+            return null;
+        });
+
+        assertEquals(120, database.count("people where last_name_key = '" + NameEncoder.encode("Smith") + "'"));
+        assertEquals(120, database.count("people_phones where packed_number is not null"));
+        assertEquals(120, new HashSet<>(people.stream().map(Person::getPersonId).collect(Collectors.toList())).size());
+    }
+
+    @Test
+    public void testUpdateAllStale(){
+        insertPerson(database.getJdbcTemplate(), 1, "John", "Smith");
+        insertPerson(database.getJdbcTemplate(), 2, "Ann", "Lee");
+        List<Person> people = database.inTransaction(status ->
+                repo.query(new PersonQuery().where(PersonField.LAST_NAME, Operator.IN, Arrays.asList("Smith", "Lee"))));
+        database.getJdbcTemplate().update("update people set version = version + 1 where person_id = 2");
+
+        for(Person person : people){
+            person.setMiddleName("Q");
+        }
+        try{
+            database.inTransaction(status -> {
+                repo.updateAll(people);
+                return null;
+            });
+            fail("The stale person should fail the update");
+        }
+        catch(OptimisticLockingFailureException ex){
+            //Expected
+        }
+        assertEquals(0, database.count("people where middle_name is not null"));
+    }
+
+    @Test
+    public void testStreamClosesSession(){
+        for(long id = 1; id <= 120; id++){
+            insertPerson(database.getJdbcTemplate(), id, "First" + id, id % 2 == 0 ? "Smith" : "Lee");
+        }
+        int openSessions = openSessions();
+
+        List<Long> ids = database.inTransaction(status -> {
+            int inTransaction = openSessions();
+            try(Stream<Person> people = repo.stream(new PersonQuery().where(PersonField.LAST_NAME, Operator.EQUALS, "Smith"))){
+                assertEquals(inTransaction + 1, openSessions());
+                return people.map(Person::getPersonId).collect(Collectors.toList());
+            }
+            finally{
+                assertEquals(inTransaction, openSessions());
+            }
+        });
+
+        assertEquals(60, ids.size());
+        assertTrue(ids.stream().allMatch(id -> id % 2 == 0));
+        assertEquals(openSessions, openSessions());
+    }
+
+    /**
+     * Count the connections open to the database, which
+     * includes the one used to count them.
+     */
+    private int openSessions(){
+        return database.count("information_schema.sessions");
+    }
+
+}
@@ -0,0 +1,64 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * JUnit test case for the IndexSynchronization
+ * class, which every in-memory index relies on to
+ * apply its changes only once they have committed.
+ */
+public class IndexSynchronizationTest {
+
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(new StubTransactionManager());
+
+    @Test
+    public void testAfterCommit(){
+        AtomicInteger runs = new AtomicInteger();
+        transactionTemplate.execute(status -> {
+            IndexSynchronization.afterCommit(runs::incrementAndGet);
+            IndexSynchronization.afterCommit(runs::incrementAndGet);
+            assertEquals(0, runs.get());
+            return null;
+        });
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    public void testRolledBack(){
+        AtomicInteger runs = new AtomicInteger();
+        transactionTemplate.execute(status -> {
+            IndexSynchronization.afterCommit(runs::incrementAndGet);
+            status.setRollbackOnly();
+            return null;
+        });
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void testFailed(){
+        AtomicInteger runs = new AtomicInteger();
+        try{
+            transactionTemplate.execute(status -> {
+                IndexSynchronization.afterCommit(runs::incrementAndGet);
+                throw new IllegalStateException("Failed");
+            });
+        }
+        catch(IllegalStateException ex){
+            //Expected
+        }
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void testNoTransaction(){
+        AtomicInteger runs = new AtomicInteger();
+        IndexSynchronization.afterCommit(runs::incrementAndGet);
+        assertEquals(1, runs.get());
+    }
+
+}
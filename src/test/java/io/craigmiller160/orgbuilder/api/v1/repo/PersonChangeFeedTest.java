@@ -0,0 +1,204 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.FetchPlan;
+import io.craigmiller160.orgbuilder.api.v1.testutil.H2TestDatabase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static io.craigmiller160.orgbuilder.api.v1.testutil.TestPeople.insertPerson;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * JUnit test case for the PersonChangeFeed, run against
+ * people and tombstones written to an H2 database with
+ * known timestamps.
+ */
+public class PersonChangeFeedTest {
+
+    private static final LocalDateTime T1 = LocalDateTime.of(2020, 1, 1, 10, 0, 0);
+    private static final LocalDateTime T2 = T1.plusMinutes(1);
+    private static final LocalDateTime T3 = T1.plusMinutes(2);
+
+    private H2TestDatabase database;
+    private PersonChangeFeed feed;
+
+    @Before
+    public void before() throws Exception{
+        database = new H2TestDatabase();
+        HibPersonRepo repo = new HibPersonRepo();
+        repo.setSessionFactory(database.getSessionFactory());
+        feed = new PersonChangeFeed();
+        feed.setSessionFactory(database.getSessionFactory());
+        feed.setRepo(repo);
+    }
+
+    @After
+    public void after(){
+        database.close();
+    }
+
+    /**
+     * Updates 1@T1, 2@T2, 3@T2 and 6@T3, and deletions
+     * 4@T2 and 5@T3, so the feed order is 1, 2, 3, -4, 6, -5.
+     */
+    private void insertChanges(){
+        updated(1, T1);
+        updated(2, T2);
+        updated(3, T2);
+        updated(6, T3);
+        deleted(4, T2);
+        deleted(5, T3);
+    }
+
+    @Test
+    public void testPages(){
+        insertChanges();
+
+        ChangePage page = getChanges(ChangeCursor.START, 3);
+        assertEquals(Arrays.asList(1L, 2L, 3L), ids(page.getUpdated()));
+        assertEquals(0, page.getDeletedIds().size());
+        assertEquals(new ChangeCursor(T2, false, 3), page.getNextCursor());
+        assertTrue(page.hasMore());
+
+        //The deletion at T2 follows the updates at T2
+        page = getChanges(page.getNextCursor(), 2);
+        assertEquals(Arrays.asList(6L), ids(page.getUpdated()));
+        assertEquals(Arrays.asList(4L), page.getDeletedIds());
+        assertEquals(new ChangeCursor(T3, false, 6), page.getNextCursor());
+        assertTrue(page.hasMore());
+
+        page = getChanges(page.getNextCursor(), 2);
+        assertEquals(0, page.getUpdated().size());
+        assertEquals(Arrays.asList(5L), page.getDeletedIds());
+        assertEquals(new ChangeCursor(T3, true, 5), page.getNextCursor());
+        assertFalse(page.hasMore());
+
+        page = getChanges(page.getNextCursor(), 2);
+        assertEquals(0, page.getUpdated().size());
+        assertEquals(0, page.getDeletedIds().size());
+        assertEquals(new ChangeCursor(T3, true, 5), page.getNextCursor());
+        assertFalse(page.hasMore());
+    }
+
+    @Test
+    public void testMoreWhenLimitIsReached(){
+        insertChanges();
+
+        ChangePage page = getChanges(ChangeCursor.START, 6);
+        assertEquals(Arrays.asList(1L, 2L, 3L, 6L), ids(page.getUpdated()));
+        assertEquals(Arrays.asList(4L, 5L), page.getDeletedIds());
+        assertFalse(page.hasMore());
+
+        page = getChanges(ChangeCursor.START, 5);
+        assertEquals(Arrays.asList(4L), page.getDeletedIds());
+        assertTrue(page.hasMore());
+    }
+
+    @Test
+    public void testResumeFromUpdate(){
+        insertChanges();
+
+        //Everything after the update of 2 at T2, including the deletion at T2
+        ChangePage page = getChanges(new ChangeCursor(T2, false, 2), 10);
+        assertEquals(Arrays.asList(3L, 6L), ids(page.getUpdated()));
+        assertEquals(Arrays.asList(4L, 5L), page.getDeletedIds());
+    }
+
+    @Test
+    public void testResumeFromDeletion(){
+        insertChanges();
+        deleted(7, T2);
+
+        //Everything after the deletion of 4 at T2, so none of the updates at T2
+        ChangePage page = getChanges(new ChangeCursor(T2, true, 4), 10);
+        assertEquals(Arrays.asList(6L), ids(page.getUpdated()));
+        assertEquals(Arrays.asList(7L, 5L), page.getDeletedIds());
+    }
+
+    @Test
+    public void testLag(){
+        LocalDateTime recent = LocalDateTime.now().minusSeconds(30);
+        updated(1, T1);
+        updated(2, recent);
+        deleted(3, recent);
+
+        feed.setLagMillis(60000);
+        ChangePage page = getChanges(ChangeCursor.START, 10);
+        assertEquals(Arrays.asList(1L), ids(page.getUpdated()));
+        assertEquals(0, page.getDeletedIds().size());
+        assertFalse(page.hasMore());
+
+        feed.setLagMillis(10000);
+        page = getChanges(page.getNextCursor(), 10);
+        assertEquals(Arrays.asList(2L), ids(page.getUpdated()));
+        assertEquals(Arrays.asList(3L), page.getDeletedIds());
+    }
+
+    @Test
+    public void testCursorTimeKeepsFraction(){
+        //Only the fraction of a second tells these apart
+        LocalDateTime time = T1.plusNanos(250000000);
+        updated(1, T1);
+        updated(2, time);
+        deleted(3, time);
+
+        ChangePage page = getChanges(ChangeCursor.START, 1);
+        assertEquals(new ChangeCursor(T1, false, 1), page.getNextCursor());
+
+        page = getChanges(ChangeCursor.parse(page.getNextCursor().toString()), 1);
+        assertEquals(Arrays.asList(2L), ids(page.getUpdated()));
+        assertEquals(new ChangeCursor(time, false, 2), page.getNextCursor());
+
+        page = getChanges(ChangeCursor.parse(page.getNextCursor().toString()), 1);
+        assertEquals(Arrays.asList(3L), page.getDeletedIds());
+        assertFalse(page.hasMore());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLimitTooLarge(){
+        getChanges(ChangeCursor.START, PersonChangeFeed.MAX_PAGE_SIZE + 1);
+    }
+
+    @Test
+    public void testPruneTombstones(){
+        insertChanges();
+
+        int pruned = database.inTransaction(status -> feed.pruneTombstones(T3));
+        assertEquals(1, pruned);
+        assertEquals(1, database.count("people_tombstones where person_id = 5"));
+    }
+
+    private ChangePage getChanges(ChangeCursor cursor, int limit){
+        return database.inTransaction(status -> feed.getChanges(cursor, limit, FetchPlan.SUMMARY));
+    }
+
+    private void updated(long personId, LocalDateTime lastModified){
+        insertPerson(database.getJdbcTemplate(), personId, "First" + personId, "Last" + personId);
+        database.getJdbcTemplate().update("update people set last_modified = ? where person_id = ?",
+                Timestamp.valueOf(lastModified), personId);
+    }
+
+    private void deleted(long personId, LocalDateTime deleted){
+        database.getJdbcTemplate().update("insert into people_tombstones (person_id, deleted) values (?, ?)",
+                personId, Timestamp.valueOf(deleted));
+    }
+
+    private static List<Long> ids(List<Person> people){
+        List<Long> ids = new ArrayList<>();
+        for(Person person : people){
+            ids.add(person.getPersonId());
+        }
+        return ids;
+    }
+
+}
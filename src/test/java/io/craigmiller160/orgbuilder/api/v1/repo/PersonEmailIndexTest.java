@@ -0,0 +1,100 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+import io.craigmiller160.orgbuilder.api.v1.testutil.H2TestDatabase;
+import io.craigmiller160.orgbuilder.api.v1.testutil.TestPeople;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static io.craigmiller160.orgbuilder.api.v1.testutil.TestPeople.insertEmail;
+import static io.craigmiller160.orgbuilder.api.v1.testutil.TestPeople.insertPerson;
+import static io.craigmiller160.orgbuilder.api.v1.testutil.TestPeople.withEmails;
+
+/**
+ * JUnit test case for the PersonEmailIndex
+ * class and its methods.
+ */
+public class PersonEmailIndexTest {
+
+    private PersonEmailIndex index;
+
+    @Before
+    public void before(){
+        index = new PersonEmailIndex();
+        index.setEnabled(true);
+        index.saved(person(1L, "Bob@Example.com", "bob@work.org", "robert@example.com"));
+        index.saved(person(2L, "bob@example.com"));
+        index.saved(person(3L, "ann@work.org"));
+        index.saved(person(4L, "sam@example.com"));
+    }
+
+    @Test
+    public void testLookup(){
+        assertArrayEquals(new long[]{1, 2}, index.lookup(" BOB@example.COM"));
+        assertArrayEquals(new long[]{3}, index.lookup("ann@work.org"));
+        assertArrayEquals(new long[0], index.lookup("nobody@example.com"));
+        assertArrayEquals(new long[0], index.lookup(null));
+        assertEquals(5, index.getEmailCount());
+    }
+
+    @Test
+    public void testDomainCounts(){
+        assertEquals(3, index.getDomainCount("Example.com"));
+        assertEquals(2, index.getDomainCount("work.org"));
+        assertEquals(0, index.getDomainCount("other.net"));
+        assertEquals(2, index.getDomainCount());
+
+        Map<String,Integer> expected = new LinkedHashMap<>();
+        expected.put("example.com", 3);
+        expected.put("work.org", 2);
+        assertEquals(expected, index.getTopDomains(5));
+        assertEquals(Collections.singletonMap("example.com", 3), index.getTopDomains(1));
+        assertEquals(Collections.emptyMap(), index.getTopDomains(0));
+    }
+
+    @Test
+    public void testChangeEmails(){
+        index.saved(person(1L, "bob@other.net"));
+        assertArrayEquals(new long[]{2}, index.lookup("bob@example.com"));
+        assertArrayEquals(new long[0], index.lookup("bob@work.org"));
+        assertArrayEquals(new long[]{1}, index.lookup("bob@other.net"));
+        assertEquals(2, index.getDomainCount("example.com"));
+        assertEquals(1, index.getDomainCount("work.org"));
+        assertEquals(1, index.getDomainCount("other.net"));
+
+        index.removed(Collections.singletonList(3L));
+        assertArrayEquals(new long[0], index.lookup("ann@work.org"));
+        assertEquals(0, index.getDomainCount("work.org"));
+        assertEquals(2, index.getDomainCount());
+    }
+
+    @Test
+    public void testRebuildNormalizes() throws Exception{
+        try(H2TestDatabase database = new H2TestDatabase()){
+            insertPerson(database.getJdbcTemplate(), 7, "Ann", "Lee");
+            insertPerson(database.getJdbcTemplate(), 8, "Bob", "Lee");
+            insertEmail(database.getJdbcTemplate(), 1, 7, " Ann@Example.com");
+            insertEmail(database.getJdbcTemplate(), 2, 7, "ann@example.COM");
+            insertEmail(database.getJdbcTemplate(), 3, 8, "bob@WORK.org ");
+            index.setSessionFactory(database.getSessionFactory());
+            index.rebuild();
+
+            assertArrayEquals(new long[]{7}, index.lookup("ann@example.com"));
+            assertArrayEquals(new long[]{8}, index.lookup("Bob@Work.org"));
+            assertEquals(2, index.getEmailCount());
+            assertEquals(1, index.getDomainCount("example.com"));
+            assertEquals(1, index.getDomainCount("work.org"));
+        }
+    }
+
+    private static Person person(Long personId, String... emailAddresses){
+        return withEmails(TestPeople.person(personId, null, null), emailAddresses);
+    }
+
+}
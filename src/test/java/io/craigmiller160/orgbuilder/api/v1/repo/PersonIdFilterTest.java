@@ -0,0 +1,113 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import io.craigmiller160.orgbuilder.api.v1.testutil.H2TestDatabase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * JUnit test case for the PersonIdFilter, built
+ * from the people table of an H2 database.
+ */
+public class PersonIdFilterTest {
+
+    private H2TestDatabase database;
+    private PersonIdFilter filter;
+
+    @Before
+    public void before() throws Exception{
+        database = new H2TestDatabase();
+        insertPerson(1);
+        insertPerson(2);
+
+        filter = new PersonIdFilter();
+        filter.setSessionFactory(database.getSessionFactory());
+        filter.setExpectedSize(1000);
+        filter.setFetchSize(100);
+    }
+
+    @After
+    public void after(){
+        database.close();
+    }
+
+    @Test
+    public void testDisabledByDefault(){
+        filter.afterPropertiesSet();
+        assertFalse(filter.isEnabled());
+        assertTrue(filter.mightExist(3L));
+        assertEquals(0, filter.getSizeInBytes());
+    }
+
+    @Test
+    public void testMightExist(){
+        filter.setEnabled(true);
+        filter.afterPropertiesSet();
+
+        assertTrue(filter.mightExist(1L));
+        assertTrue(filter.mightExist(2L));
+        assertFalse(filter.mightExist(3L));
+        assertTrue(filter.mightExist(null));
+        assertEquals(3, filter.getLookupCount());
+        assertEquals(1, filter.getRejectedCount());
+    }
+
+    @Test
+    public void testAdd(){
+        filter.setEnabled(true);
+        filter.afterPropertiesSet();
+
+        filter.add(3L);
+        assertTrue(filter.mightExist(3L));
+        assertFalse(filter.mightExist(4L));
+    }
+
+    @Test
+    public void testRebuild(){
+        filter.setEnabled(true);
+        filter.afterPropertiesSet();
+
+        //Inserted by another instance, so the filter can't know until it is rebuilt
+        insertPerson(50);
+        assertFalse(filter.mightExist(50L));
+
+        filter.removed(2);
+        assertEquals(2, filter.getRemovedSinceBuild());
+        filter.rebuild();
+        assertTrue(filter.mightExist(50L));
+        assertTrue(filter.mightExist(1L));
+        assertEquals(0, filter.getRemovedSinceBuild());
+    }
+
+    @Test
+    public void testRemovedAfterCommit(){
+        filter.setEnabled(true);
+        filter.afterPropertiesSet();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new StubTransactionManager());
+
+        transactionTemplate.execute(status -> {
+            filter.removed(1);
+            assertEquals(0, filter.getRemovedSinceBuild());
+            return null;
+        });
+        assertEquals(1, filter.getRemovedSinceBuild());
+
+        transactionTemplate.execute(status -> {
+            filter.removed(5);
+            status.setRollbackOnly();
+            return null;
+        });
+        assertEquals(1, filter.getRemovedSinceBuild());
+    }
+
+    private void insertPerson(long personId){
+        database.getJdbcTemplate().update("insert into people (person_id, last_modified, first_name, last_name) " +
+                "values (?, current_timestamp, 'John', 'Smith')", personId);
+    }
+
+}
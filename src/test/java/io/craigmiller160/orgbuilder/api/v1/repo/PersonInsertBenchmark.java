@@ -0,0 +1,118 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import io.craigmiller160.orgbuilder.api.v1.model.Address;
+import io.craigmiller160.orgbuilder.api.v1.model.Email;
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+import io.craigmiller160.orgbuilder.api.v1.model.PersonAddress;
+import io.craigmiller160.orgbuilder.api.v1.model.PersonEmail;
+import io.craigmiller160.orgbuilder.api.v1.model.PersonPhone;
+import io.craigmiller160.orgbuilder.api.v1.model.Phone;
+import io.craigmiller160.orgbuilder.api.v1.model.State;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A manual benchmark comparing inserting people
+ * one at a time, each in its own transaction, against
+ * inserting them with HibPersonRepo.insertAll().
+ *
+ * This is not run as part of the test suite, because
+ * it writes to the database configured in db.properties.
+ * Run it directly, optionally passing the number of people
+ * to insert as the first argument. Each person has one
+ * address, one phone and one email, so every person is
+ * four rows.
+ */
+public class PersonInsertBenchmark {
+
+    private static final int DEFAULT_PEOPLE = 10000;
+
+    public static void main(String[] args){
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PEOPLE;
+
+        try(ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext("data-config.xml")){
+            final HibPersonRepo repo = context.getBean(HibPersonRepo.class);
+            TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+            final List<Person> single = createPeople(count);
+            long start = System.nanoTime();
+            for(final Person person : single){
+                tx.execute(status -> {
+                    repo.insert(person);
+                    return null;
+                });
+            }
+            report("insert() per person", count, System.nanoTime() - start);
+
+            final List<Person> batched = createPeople(count);
+            start = System.nanoTime();
+            tx.execute(status -> {
+                repo.insertAll(batched);
+                return null;
+            });
+            report("insertAll() batch size " + repo.getBatchSize(), count, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Print the throughput of a benchmark run.
+     *
+     * @param name the name of the run.
+     * @param people the number of people inserted.
+     * @param nanos the elapsed time in nanoseconds.
+     */
+    private static void report(String name, int people, long nanos){
+        double seconds = nanos / 1_000_000_000.0;
+        System.out.printf("%-30s %8d people %8.2f s %10.0f rows/s%n",
+                name, people, seconds, (people * 4) / seconds);
+    }
+
+    /**
+     * Create new people to insert, each with
+     * one address, phone and email.
+     *
+     * @param count the number of people to create.
+     * @return the new people.
+     */
+    private static List<Person> createPeople(int count){
+        List<Person> people = new ArrayList<>(count);
+        LocalDateTime now = LocalDateTime.now();
+        for(int i = 0; i < count; i++){
+            Person person = new Person("First" + i, "Last" + i, LocalDate.of(1950 + (i % 50), 1, 1), Person.Gender.OTHER);
+            person.setLastModified(now);
+
+            PersonAddress address = new PersonAddress();
+            address.setAddressType(Address.AddressType.HOME);
+            address.setStreetAddress(i + " Main St");
+            address.setCity("Springfield");
+            address.setState(State.IL);
+            address.setZip("62701");
+            address.setLastModified(now);
+            person.addAddress(address);
+
+            PersonPhone phone = new PersonPhone();
+            phone.setPhoneType(Phone.PhoneType.HOME);
+            phone.setAreaCode("217");
+            phone.setPrefix("555");
+            phone.setLineNumber(String.format("%04d", i % 10000));
+            phone.setLastModified(now);
+            person.addPhone(phone);
+
+            PersonEmail email = new PersonEmail();
+            email.setEmailType(Email.EmailType.PERSONAL);
+            email.setEmailAddress("person" + i + "@example.com");
+            email.setLastModified(now);
+            person.addEmail(email);
+
+            people.add(person);
+        }
+        return people;
+    }
+
+}
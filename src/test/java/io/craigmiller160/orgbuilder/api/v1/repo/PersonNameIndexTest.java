@@ -0,0 +1,104 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import io.craigmiller160.orgbuilder.api.v1.repo.query.PersonField;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.QueryField;
+import io.craigmiller160.orgbuilder.api.v1.testutil.H2TestDatabase;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.craigmiller160.orgbuilder.api.v1.testutil.TestPeople.insertPerson;
+import static io.craigmiller160.orgbuilder.api.v1.testutil.TestPeople.person;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * JUnit test case for the PersonNameIndex
+ * class and its methods.
+ */
+public class PersonNameIndexTest {
+
+    private PersonNameIndex index;
+
+    @Before
+    public void before(){
+        index = new PersonNameIndex();
+        index.setEnabled(true);
+        index.saved(person(1L, "Mary-Jane", null, "O'Brien"));
+        index.saved(person(2L, "Marie", "Anne", "Brennan"));
+        index.saved(person(3L, "Jos\u00e9", null, "Garc\u00eda"));
+    }
+
+    @Test
+    public void testSearch(){
+        assertArrayEquals(new long[]{2, 1}, index.search("Mar", 10));
+        assertArrayEquals(new long[]{2, 1}, index.search("BR", 10));
+        assertArrayEquals(new long[]{1}, index.search("jane", 10));
+        assertArrayEquals(new long[0], index.search("  ", 10));
+    }
+
+    @Test
+    public void testAccents(){
+        assertArrayEquals(new long[]{3}, index.search("jose", 10));
+        assertArrayEquals(new long[]{3}, index.search("Garc\u00ed", 10));
+    }
+
+    @Test
+    public void testSeveralWords(){
+        assertArrayEquals(new long[]{2}, index.search("mar bren", 10));
+        assertArrayEquals(new long[]{1}, index.search("o'brien mary", 10));
+        assertArrayEquals(new long[0], index.search("jose brennan", 10));
+    }
+
+    @Test
+    public void testRenameAndRemove(){
+        index.saved(person(2L, "Marie", null, "Smith"));
+        assertArrayEquals(new long[]{1}, index.search("br", 10));
+        assertArrayEquals(new long[]{2}, index.search("smi", 10));
+
+        Map<QueryField,Object> values = new HashMap<>();
+        values.put(PersonField.LAST_NAME, "Jones");
+        values.put(PersonField.GENDER, null);
+        index.updated(Arrays.asList(1L, 2L), values);
+        assertArrayEquals(new long[]{1, 2}, index.search("jones", 10));
+        assertArrayEquals(new long[]{1}, index.search("mary jo", 10));
+
+        index.removed(Collections.singletonList(1L));
+        assertArrayEquals(new long[]{2}, index.search("jones", 10));
+        assertEquals(2, index.getPersonCount());
+    }
+
+    @Test
+    public void testSeveralWordsWithManyMatches(){
+        //More people with the most selective word than any cap on candidates, and the match has the highest ID
+        for(long personId = 10; personId < 6010; personId++){
+            index.saved(person(personId, "Ann", "Montgomery"));
+        }
+        index.saved(person(7000L, "Bob", "Montgomery"));
+
+        assertArrayEquals(new long[]{7000}, index.search("montgomery bob", 10));
+        assertArrayEquals(new long[]{10, 11}, index.search("montgomery ann", 2));
+        assertArrayEquals(new long[0], index.search("montgomery zed", 10));
+    }
+
+    @Test
+    public void testRebuildSplitsNames() throws Exception{
+        try(H2TestDatabase database = new H2TestDatabase()){
+            insertPerson(database.getJdbcTemplate(), 7, "Ann", "Lee-Smith");
+            insertPerson(database.getJdbcTemplate(), 8, "Zo\u00eb", "Smith");
+            index.setSessionFactory(database.getSessionFactory());
+            index.rebuild();
+
+            assertArrayEquals(new long[]{7, 8}, index.search("smi", 10));
+            assertArrayEquals(new long[]{7}, index.search("lee ann", 10));
+            assertArrayEquals(new long[]{8}, index.search("zoe", 10));
+            assertArrayEquals(new long[0], index.search("mar", 10));
+            assertEquals(2, index.getPersonCount());
+        }
+    }
+
+}
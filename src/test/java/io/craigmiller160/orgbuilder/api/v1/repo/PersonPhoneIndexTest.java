@@ -0,0 +1,84 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+import io.craigmiller160.orgbuilder.api.v1.testutil.H2TestDatabase;
+import io.craigmiller160.orgbuilder.api.v1.testutil.TestPeople;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static io.craigmiller160.orgbuilder.api.v1.testutil.TestPeople.insertPerson;
+import static io.craigmiller160.orgbuilder.api.v1.testutil.TestPeople.insertPhone;
+import static io.craigmiller160.orgbuilder.api.v1.testutil.TestPeople.withPhones;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * JUnit test case for the PersonPhoneIndex
+ * class and its methods.
+ */
+public class PersonPhoneIndexTest {
+
+    private PersonPhoneIndex index;
+
+    @Before
+    public void before(){
+        index = new PersonPhoneIndex();
+        index.setEnabled(true);
+        index.saved(person(1L, 5551234567L, 5559876543L));
+        index.saved(person(2L, 5551234567L));
+        index.saved(person(3L, 5550000000L));
+    }
+
+    @Test
+    public void testLookup(){
+        assertArrayEquals(new long[]{1}, index.lookup("(555) 987-6543"));
+        assertArrayEquals(new long[]{1, 2}, index.lookup("1-555-123-4567"));
+        assertArrayEquals(new long[0], index.lookup("555-1111"));
+        assertArrayEquals(new long[0], index.lookup(5551111111L));
+        assertEquals(3, index.getNumberCount());
+        assertEquals(1, index.getSharedNumberCount());
+    }
+
+    @Test
+    public void testChangeNumbers(){
+        index.saved(person(1L, 5550000000L));
+        assertArrayEquals(new long[]{2}, index.lookup(5551234567L));
+        assertArrayEquals(new long[0], index.lookup(5559876543L));
+        assertArrayEquals(new long[]{1, 3}, index.lookup(5550000000L));
+        assertEquals(1, index.getSharedNumberCount());
+
+        index.removed(Collections.singletonList(3L));
+        assertArrayEquals(new long[]{1}, index.lookup(5550000000L));
+        assertEquals(0, index.getSharedNumberCount());
+    }
+
+    @Test
+    public void testRebuildPacks() throws Exception{
+        try(H2TestDatabase database = new H2TestDatabase()){
+            insertPerson(database.getJdbcTemplate(), 7, "Ann", "Lee");
+            insertPerson(database.getJdbcTemplate(), 8, "Bob", "Lee");
+            insertPhone(database.getJdbcTemplate(), 1, 7, 5553334444L);
+            insertPhone(database.getJdbcTemplate(), 2, 8, 5553334444L);
+            insertPhone(database.getJdbcTemplate(), 3, 8, 5556667777L);
+            insertPhone(database.getJdbcTemplate(), 4, 8, 5558889999L);
+            //Not a valid number, so it can't be packed
+            database.getJdbcTemplate().update("update people_phones set line_number = '99' where phone_id = 4");
+            index.setSessionFactory(database.getSessionFactory());
+            index.rebuild();
+
+            assertArrayEquals(new long[]{7, 8}, index.lookup("555-333-4444"));
+            assertArrayEquals(new long[]{8}, index.lookup(5556667777L));
+            assertArrayEquals(new long[0], index.lookup(5558889999L));
+            assertArrayEquals(new long[0], index.lookup(5551234567L));
+            assertEquals(2, index.getNumberCount());
+            assertEquals(1, index.getSharedNumberCount());
+        }
+    }
+
+    private static Person person(Long personId, long... numbers){
+        return withPhones(TestPeople.person(personId, null, null), numbers);
+    }
+
+}
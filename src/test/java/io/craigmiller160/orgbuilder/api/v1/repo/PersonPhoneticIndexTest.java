@@ -0,0 +1,93 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import io.craigmiller160.orgbuilder.api.v1.repo.query.PersonField;
+import io.craigmiller160.orgbuilder.api.v1.repo.query.QueryField;
+import io.craigmiller160.orgbuilder.api.v1.testutil.H2TestDatabase;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.craigmiller160.orgbuilder.api.v1.testutil.TestPeople.insertPerson;
+import static io.craigmiller160.orgbuilder.api.v1.testutil.TestPeople.person;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * JUnit test case for the PersonPhoneticIndex
+ * class and its methods.
+ */
+public class PersonPhoneticIndexTest {
+
+    private PersonPhoneticIndex index;
+
+    @Before
+    public void before(){
+        index = new PersonPhoneticIndex();
+        index.setEnabled(true);
+        index.saved(person(1L, "Katherine", "Mueller"));
+        index.saved(person(2L, "Catherine", "Miller"));
+        index.saved(person(3L, "John", "Miller"));
+        index.saved(person(4L, "Jon", "Jones"));
+    }
+
+    @Test
+    public void testSearchLastName(){
+        assertArrayEquals(new long[]{2, 3, 1}, index.search(null, "Miller", 10));
+        assertArrayEquals(new long[]{1, 2, 3}, index.search(null, "Mueller", 10));
+        assertArrayEquals(new long[]{2}, index.search(null, "Miller", 1));
+        assertArrayEquals(new long[0], index.search(null, "Smith", 10));
+    }
+
+    @Test
+    public void testSearchBothNames(){
+        assertArrayEquals(new long[]{2, 1}, index.search("Catherine", "Miller", 10));
+        assertArrayEquals(new long[]{3}, index.search("Jon", "Miller", 10));
+        assertArrayEquals(new long[]{3, 4}, index.search("John", null, 10));
+        assertArrayEquals(new long[0], index.search(null, null, 10));
+    }
+
+    @Test
+    public void testRenameAndRemove(){
+        Map<QueryField,Object> values = new HashMap<>();
+        values.put(PersonField.LAST_NAME, "Smith");
+        index.updated(Collections.singletonList(3L), values);
+        assertArrayEquals(new long[]{2, 1}, index.search(null, "Miller", 10));
+        assertArrayEquals(new long[]{3}, index.search("Jon", "Smyth", 10));
+
+        index.removed(Collections.singletonList(2L));
+        assertArrayEquals(new long[]{1}, index.search(null, "Miller", 10));
+    }
+
+    @Test
+    public void testRankAllCandidates(){
+        //More people with the key than any cap on candidates, and the closest spelling has the highest ID
+        for(long personId = 10; personId < 12010; personId++){
+            index.saved(person(personId, "Ann", "Millar"));
+        }
+        index.saved(person(20000L, "Ann", "Miller"));
+
+        assertArrayEquals(new long[]{20000}, index.search("Ann", "Miller", 1));
+        assertArrayEquals(new long[]{20000, 10, 11}, index.search("Ann", "Miller", 3));
+        assertArrayEquals(new long[0], index.search("Ann", "Miller", 0));
+    }
+
+    @Test
+    public void testRebuildEncodesNames() throws Exception{
+        try(H2TestDatabase database = new H2TestDatabase()){
+            insertPerson(database.getJdbcTemplate(), 7, "Kathryn", "Muller");
+            insertPerson(database.getJdbcTemplate(), 8, "John", "Smith");
+            //A stale key, which the rebuild doesn't read
+            database.getJdbcTemplate().update("update people set last_name_key = 'XXX' where person_id = 8");
+            index.setSessionFactory(database.getSessionFactory());
+            index.rebuild();
+
+            assertArrayEquals(new long[]{7}, index.search(null, "Miller", 10));
+            assertArrayEquals(new long[]{8}, index.search("Jon", "Smyth", 10));
+            assertEquals(2, index.getPersonCount());
+        }
+    }
+
+}
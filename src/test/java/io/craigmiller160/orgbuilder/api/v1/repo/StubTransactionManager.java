@@ -0,0 +1,30 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/**
+ * A transaction manager with no resources, which
+ * only tracks the state of each transaction, for
+ * testing classes that run their own transactions.
+ */
+class StubTransactionManager extends AbstractPlatformTransactionManager {
+
+    private static final long serialVersionUID = 3846512098377410652L;
+
+    @Override
+    protected Object doGetTransaction() {
+        return new Object();
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {}
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {}
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {}
+
+}
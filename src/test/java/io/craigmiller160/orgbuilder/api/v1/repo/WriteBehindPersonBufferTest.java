@@ -0,0 +1,240 @@
+package io.craigmiller160.orgbuilder.api.v1.repo;
+
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * JUnit test case for the WriteBehindPersonBuffer,
+ * using a stand-in Repo that records each batch,
+ * and can reject one person as changed since read.
+ */
+public class WriteBehindPersonBufferTest {
+
+    private final List<List<Person>> batches = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean failNext = new AtomicBoolean();
+    private volatile Long staleId;
+    private WriteBehindPersonBuffer buffer;
+
+    @After
+    public void after() throws Exception{
+        buffer.destroy();
+    }
+
+    @Test
+    public void testCoalesce() throws Exception{
+        buffer = createBuffer(true, 100, 50, 60000);
+        for(int i = 0; i < 100; i++){
+            buffer.update(person(1L, "John" + i));
+        }
+        buffer.update(person(2L, "Jane"));
+        buffer.flush();
+
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertEquals("John99", batches.get(0).get(0).getFirstName());
+        assertEquals(99, buffer.getCoalescedCount());
+        assertEquals(0, buffer.getPendingCount());
+    }
+
+    @Test
+    public void testFlushOnBatchSize() throws Exception{
+        buffer = createBuffer(true, 100, 5, 60000);
+        for(long id = 1; id <= 5; id++){
+            buffer.update(person(id, "John"));
+        }
+
+        waitForWritten(5);
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    public void testFlushOnInterval() throws Exception{
+        buffer = createBuffer(true, 100, 50, 50);
+        buffer.update(person(1L, "John"));
+
+        waitForWritten(1);
+    }
+
+    @Test
+    public void testBackPressure() throws Exception{
+        buffer = createBuffer(true, 2, 50, 60000);
+        buffer.setOfferTimeoutMillis(100);
+        buffer.update(person(1L, "John"));
+        buffer.update(person(2L, "Jane"));
+
+        long start = System.currentTimeMillis();
+        try{
+            buffer.update(person(3L, "Bob"));
+            fail("The buffer should be full");
+        }
+        catch(RejectedExecutionException ex){
+            assertTrue(System.currentTimeMillis() - start >= 100);
+        }
+
+        //A person already buffered takes no extra space
+        buffer.update(person(2L, "Janet"));
+        assertEquals(1, buffer.getRejectedCount());
+        assertEquals(2, buffer.getPendingCount());
+    }
+
+    @Test
+    public void testFailedBatchIsRequeued() throws Exception{
+        buffer = createBuffer(true, 100, 50, 60000);
+        CompletableFuture<Void> john = buffer.update(person(1L, "John"));
+        buffer.update(person(2L, "Jane"));
+
+        failNext.set(true);
+        try{
+            buffer.flush();
+            fail("The flush should have failed");
+        }
+        catch(IllegalStateException ex){
+            assertEquals(2, buffer.getPendingCount());
+            assertFalse(john.isDone());
+        }
+
+        buffer.flush();
+        john.get();
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertEquals(1, buffer.getFailedBatchCount());
+    }
+
+    @Test
+    public void testConflictIsReported() throws Exception{
+        List<Person> updated = new ArrayList<>();
+        buffer = createBuffer(true, 100, 50, 60000);
+        buffer.setRepo(stubRepo(updated));
+        staleId = 2L;
+        CompletableFuture<Void> john = buffer.update(person(1L, "John"));
+        CompletableFuture<Void> jane = buffer.update(person(2L, "Jane"));
+        CompletableFuture<Void> janet = buffer.update(person(2L, "Janet"));
+        CompletableFuture<Void> bob = buffer.update(person(3L, "Bob"));
+        assertFalse(jane.isDone());
+        buffer.flush();
+
+        assertEquals(2, updated.size());
+        assertEquals(2, buffer.getWrittenCount());
+        assertEquals(1, buffer.getConflictCount());
+        assertEquals(0, buffer.getFailedBatchCount());
+        assertEquals(0, buffer.getPendingCount());
+
+        john.get();
+        bob.get();
+        assertSame(jane, janet);
+        try{
+            jane.get();
+            fail("The caller should see the conflict");
+        }
+        catch(ExecutionException ex){
+            assertTrue(ex.getCause() instanceof OptimisticLockingFailureException);
+        }
+    }
+
+    @Test
+    public void testDestroyFlushes() throws Exception{
+        buffer = createBuffer(true, 100, 50, 60000);
+        buffer.update(person(1L, "John"));
+        buffer.destroy();
+
+        assertEquals(1, buffer.getWrittenCount());
+        try{
+            buffer.update(person(2L, "Jane"));
+            fail("The buffer should be closed");
+        }
+        catch(RejectedExecutionException ex){
+            //Expected
+        }
+    }
+
+    @Test
+    public void testDisabledWritesThrough() throws Exception{
+        List<Person> updated = new ArrayList<>();
+        buffer = createBuffer(false, 100, 50, 60000);
+        buffer.setRepo(stubRepo(updated));
+        buffer.update(person(1L, "John"));
+
+        assertEquals(1, updated.size());
+        assertEquals(0, buffer.getPendingCount());
+    }
+
+    private void waitForWritten(long count) throws InterruptedException{
+        long deadline = System.currentTimeMillis() + 5000;
+        while(buffer.getWrittenCount() < count && System.currentTimeMillis() < deadline){
+            Thread.sleep(10);
+        }
+        assertEquals(count, buffer.getWrittenCount());
+    }
+
+    private WriteBehindPersonBuffer createBuffer(boolean enabled, int capacity, int batchSize, long flushIntervalMillis){
+        WriteBehindPersonBuffer buffer = new WriteBehindPersonBuffer();
+        buffer.setRepo(stubRepo(null));
+        buffer.setTransactionManager(new StubTransactionManager());
+        buffer.setEnabled(enabled);
+        buffer.setCapacity(capacity);
+        buffer.setBatchSize(batchSize);
+        buffer.setFlushIntervalMillis(flushIntervalMillis);
+        buffer.afterPropertiesSet();
+        return buffer;
+    }
+
+    /**
+     * Create a Repo that records each batch passed to
+     * updateAll(), and each person passed to update().
+     */
+    @SuppressWarnings("unchecked")
+    private Repo<Person> stubRepo(List<Person> updated){
+        return (Repo<Person>) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{Repo.class},
+                (proxy, method, args) -> {
+                    switch(method.getName()){
+                        case "updateAll":
+                            if(failNext.getAndSet(false)){
+                                throw new IllegalStateException("Database is down");
+                            }
+                            for(Person person : (Collection<Person>) args[0]){
+                                checkVersion(person);
+                            }
+                            batches.add(new ArrayList<>((Collection<Person>) args[0]));
+                            return null;
+                        case "update":
+                            checkVersion((Person) args[0]);
+                            updated.add((Person) args[0]);
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private void checkVersion(Person person){
+        if(person.getPersonId().equals(staleId)){
+            throw new OptimisticLockingFailureException("Person " + staleId + " was changed");
+        }
+    }
+
+    private static Person person(Long personId, String firstName){
+        Person person = new Person(firstName, "Smith", null, null);
+        person.setPersonId(personId);
+        return person;
+    }
+
+}
@@ -0,0 +1,108 @@
+package io.craigmiller160.orgbuilder.api.v1.repo.query;
+
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+import io.craigmiller160.orgbuilder.api.v1.model.State;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * JUnit test case for compiling PersonQuery
+ * objects into QueryPlans, and caching those
+ * plans by their shape.
+ */
+public class PersonQueryTest {
+
+    @Test
+    public void testCompileRootPredicates(){
+        QueryPlan plan = new PersonQuery()
+                .where(PersonField.LAST_NAME, Operator.EQUALS, "Smith")
+                .where(PersonField.BIRTH_DATE, Operator.GREATER_THAN, LocalDate.of(1980, 1, 1))
+                .orderBy(PersonField.FIRST_NAME, true)
+                .compile();
+
+        assertEquals("select r from Person r where r.lastName = :p0 and r.birthDate > :p1 " +
+                "order by r.firstName asc", plan.getHql());
+        assertEquals("select r.personId from Person r where r.lastName = :p0 and r.birthDate > :p1 " +
+                "order by r.firstName asc", plan.getIdHql());
+    }
+
+    @Test
+    public void testCompileChildPredicates(){
+        QueryPlan plan = new PersonQuery()
+                .where(PersonField.CITY, Operator.EQUALS, "Denver")
+                .where(PersonField.EMAIL_ADDRESS, Operator.IN, Arrays.asList("a@b.com", "c@d.com"))
+                .where(PersonField.STATE, Operator.EQUALS, State.CO)
+                .compile();
+
+        assertEquals("select r from Person r where " +
+                "exists (from PersonAddress c1 where c1.owner = r and c1.city = :p0 and c1.state = :p2) and " +
+                "exists (from PersonEmail c2 where c2.owner = r and c2.emailAddress in (:p1))",
+                plan.getHql());
+        assertTrue(plan.isListParameter("p1"));
+    }
+
+    @Test
+    public void testParameters(){
+        Map<String,Object> params = new PersonQuery()
+                .where(PersonField.FIRST_NAME, Operator.STARTS_WITH, "Jo_n%")
+                .where(PersonField.MIDDLE_NAME, Operator.IS_NULL)
+                .where(PersonField.GENDER, Operator.NOT_EQUALS, Person.Gender.OTHER)
+                .getParameters();
+
+        assertEquals(2, params.size());
+        assertEquals("Jo!_n!%%", params.get("p0"));
+        assertEquals(Person.Gender.OTHER, params.get("p2"));
+    }
+
+    @Test
+    public void testShapeKey(){
+        Query<?> smith = new PersonQuery().where(PersonField.LAST_NAME, Operator.EQUALS, "Smith");
+        Query<?> jones = new PersonQuery().where(PersonField.LAST_NAME, Operator.EQUALS, "Jones");
+        Query<?> notJones = new PersonQuery().where(PersonField.LAST_NAME, Operator.NOT_EQUALS, "Jones");
+
+        assertEquals(smith.getShapeKey(), jones.getShapeKey());
+        assertNotEquals(smith.getShapeKey(), notJones.getShapeKey());
+    }
+
+    @Test
+    public void testCachingKeepsShape(){
+        Query<?> uncached = new PersonQuery().where(PersonField.LAST_NAME, Operator.EQUALS, "Smith");
+        Query<?> cached = new PersonQuery().where(PersonField.LAST_NAME, Operator.EQUALS, "Smith")
+                .withCaching(true);
+
+        assertFalse(uncached.isCacheable());
+        assertTrue(cached.isCacheable());
+        assertEquals(uncached.getShapeKey(), cached.getShapeKey());
+    }
+
+    @Test
+    public void testPlanCache(){
+        QueryPlanCache cache = new QueryPlanCache();
+        QueryPlan first = cache.getPlan(new PersonQuery().where(PersonField.ZIP, Operator.EQUALS, "80202"));
+        QueryPlan second = cache.getPlan(new PersonQuery().where(PersonField.ZIP, Operator.EQUALS, "10001"));
+
+        assertSame(first, second);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testWrongValueType(){
+        new PersonQuery().where(PersonField.BIRTH_DATE, Operator.EQUALS, "1980-01-01");
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testTextOperatorOnNonTextField(){
+        new PersonQuery().where(PersonField.STATE, Operator.STARTS_WITH, State.CA);
+    }
+
+}
@@ -0,0 +1,88 @@
+package io.craigmiller160.orgbuilder.api.v1.service;
+
+import io.craigmiller160.orgbuilder.api.v1.testutil.H2TestDatabase;
+import io.craigmiller160.orgbuilder.api.v1.util.NameEncoder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static io.craigmiller160.orgbuilder.api.v1.testutil.TestPeople.insertPerson;
+import static io.craigmiller160.orgbuilder.api.v1.testutil.TestPeople.insertPhone;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * JUnit test case for the DerivedKeyBackfill, run
+ * against rows written to an H2 database without
+ * their keys, as they were before the keys existed.
+ */
+public class DerivedKeyBackfillTest {
+
+    private H2TestDatabase database;
+    private DerivedKeyBackfill backfill;
+
+    @Before
+    public void before() throws Exception{
+        database = new H2TestDatabase();
+        backfill = new DerivedKeyBackfill();
+        backfill.setSessionFactory(database.getSessionFactory());
+        backfill.setBatchSize(2);
+    }
+
+    @After
+    public void after(){
+        database.close();
+    }
+
+    @Test
+    public void testBackfillNameKeys(){
+        insertPerson(database.getJdbcTemplate(), 1, "Katherine", "Mueller");
+        insertPerson(database.getJdbcTemplate(), 2, "John", "Smith");
+        insertPerson(database.getJdbcTemplate(), 4, null, "Jones");
+        insertPerson(database.getJdbcTemplate(), 9, "Ann", "Lee");
+        insertPerson(database.getJdbcTemplate(), 10, "Bob", "Miller");
+        database.getJdbcTemplate().update("update people set first_name_key = ?, last_name_key = ? where person_id = 10",
+                NameEncoder.encode("Bob"), NameEncoder.encode("Miller"));
+
+        assertEquals(4, backfill.backfillNameKeys());
+        assertEquals(NameEncoder.encode("Mueller"), lastNameKey(1));
+        assertEquals(NameEncoder.encode("Lee"), lastNameKey(9));
+        assertEquals(0, database.count("people where first_name_key is null and person_id <> 4"));
+        assertEquals(0, database.count("people where version <> 0"));
+
+        assertEquals(0, backfill.backfillNameKeys());
+    }
+
+    @Test
+    public void testBackfillPackedNumbers(){
+        insertPerson(database.getJdbcTemplate(), 1, "Ann", "Lee");
+        insertPhone(database.getJdbcTemplate(), 3, 1, 5551234567L);
+        insertPhone(database.getJdbcTemplate(), 5, 1, 5559876543L);
+        insertPhone(database.getJdbcTemplate(), 6, 1, 5550000000L);
+        //Not a valid number, so it has no packed number
+        database.getJdbcTemplate().update("update people_phones set line_number = '12' where phone_id = 6");
+
+        assertEquals(2, backfill.backfillPackedNumbers());
+        assertEquals(5551234567L, packedNumber(3));
+        assertEquals(5559876543L, packedNumber(5));
+        assertEquals(1, database.count("people_phones where packed_number is null"));
+
+        assertEquals(0, backfill.backfillPackedNumbers());
+    }
+
+    @Test
+    public void testEmptyTable(){
+        assertEquals(0, backfill.backfillNameKeys());
+        assertEquals(0, backfill.backfillPackedNumbers());
+    }
+
+    private long packedNumber(long phoneId){
+        return database.getJdbcTemplate().queryForObject("select packed_number from people_phones where phone_id = ?",
+                Long.class, phoneId);
+    }
+
+    private String lastNameKey(long personId){
+        return database.getJdbcTemplate().queryForObject("select last_name_key from people where person_id = ?",
+                String.class, personId);
+    }
+
+}
@@ -0,0 +1,75 @@
+package io.craigmiller160.orgbuilder.api.v1.service;
+
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * JUnit test case for the DuplicateDetector
+ * class and its methods, run over records built
+ * in memory rather than read from the database.
+ */
+public class DuplicateDetectorTest {
+
+    private static final LocalDate BIRTH_DATE = LocalDate.of(1970, 1, 1);
+
+    private DuplicateDetector detector;
+
+    @Before
+    public void before(){
+        detector = new DuplicateDetector();
+        detector.setParallelism(2);
+    }
+
+    @Test
+    public void testClusters(){
+        List<DedupeRecord> records = new ArrayList<>();
+        records.add(new DedupeRecord(1, "Ann", "Marie", "Lee", BIRTH_DATE, Person.Gender.FEMALE));
+        records.add(new DedupeRecord(2, "ann", null, " LEE", BIRTH_DATE, Person.Gender.FEMALE));
+        records.add(new DedupeRecord(3, "Bob", null, "Stone", BIRTH_DATE, Person.Gender.MALE));
+        records.add(new DedupeRecord(4, "ANN", "M", "Lee", BIRTH_DATE, Person.Gender.FEMALE));
+        records.add(new DedupeRecord(5, "Robert", null, "Stone", BIRTH_DATE, Person.Gender.MALE));
+        records.add(new DedupeRecord(6, "Carl", null, "Fox", BIRTH_DATE, Person.Gender.MALE));
+        records.add(new DedupeRecord(7, "Karl", null, "Fox", BIRTH_DATE, Person.Gender.MALE));
+        records.get(5).addPhone("(555) 123-4567");
+        records.get(6).addPhone("555.123.4567");
+
+        DuplicateReport report = detector.findDuplicates(records);
+        assertEquals(7, report.getPersonCount());
+        assertEquals(2, report.getClusters().size());
+        assertArrayEquals(new long[]{6, 7}, report.getClusters().get(0).getPersonIds());
+        assertArrayEquals(new long[]{1, 2, 4}, report.getClusters().get(1).getPersonIds());
+        assertTrue(report.getClusters().get(1).getMinScore() >= detector.getThreshold());
+    }
+
+    @Test
+    public void testLargeBlocksSkipped(){
+        List<DedupeRecord> records = new ArrayList<>();
+        for(int i = 0; i < 10; i++){
+            records.add(new DedupeRecord(i, "Pat", null, "Doe", BIRTH_DATE, null));
+        }
+        detector.setMaxBlockSize(5);
+
+        DuplicateReport report = detector.findDuplicates(records);
+        assertEquals(0, report.getClusters().size());
+        assertEquals(3, report.getSkippedBlockCount());
+        assertEquals(0, report.getComparisonCount());
+    }
+
+    @Test
+    public void testBlockingKeys(){
+        DedupeRecord record = new DedupeRecord(1, "Ann", null, "Lee", BIRTH_DATE, null);
+        record.addEmail("ann@example.com");
+        record.addPhone("123");
+        assertEquals(4, DuplicateDetector.blockingKeys(record).size());
+    }
+
+}
@@ -0,0 +1,55 @@
+package io.craigmiller160.orgbuilder.api.v1.service;
+
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * JUnit test case for the DuplicateScorer
+ * class and its methods.
+ */
+public class DuplicateScorerTest {
+
+    private static final LocalDate BIRTH_DATE = LocalDate.of(1985, 3, 14);
+
+    private final DuplicateScorer scorer = new DuplicateScorer();
+
+    @Test
+    public void testCaseAndWhitespace(){
+        DedupeRecord first = new DedupeRecord(1, "Mary", "Ann", "O'Brien", BIRTH_DATE, Person.Gender.FEMALE);
+        DedupeRecord second = new DedupeRecord(2, " mary ", "ANN", "o brien", BIRTH_DATE, Person.Gender.FEMALE);
+        assertEquals(0.925, scorer.score(first, second), 0.0001);
+    }
+
+    @Test
+    public void testMissingMiddleName(){
+        DedupeRecord first = new DedupeRecord(1, "John", "Quincy", "Adams", BIRTH_DATE, Person.Gender.MALE);
+        DedupeRecord second = new DedupeRecord(2, "John", null, "Adams", BIRTH_DATE, Person.Gender.MALE);
+        DedupeRecord initial = new DedupeRecord(3, "John", "Q.", "Adams", BIRTH_DATE, Person.Gender.MALE);
+        assertEquals(0.925, scorer.score(first, second), 0.0001);
+        assertEquals(0.925, scorer.score(first, initial), 0.0001);
+    }
+
+    @Test
+    public void testSharedContact(){
+        DedupeRecord first = new DedupeRecord(1, "Jon", null, "Smith", BIRTH_DATE, null);
+        DedupeRecord second = new DedupeRecord(2, "John", null, "Smith", BIRTH_DATE, null);
+        first.addEmail("JSmith@Example.com ");
+        second.addEmail("jsmith@example.com");
+        assertEquals(0.9375, scorer.score(first, second), 0.0001);
+    }
+
+    @Test
+    public void testDifferentPeople(){
+        DedupeRecord first = new DedupeRecord(1, "John", null, "Smith", BIRTH_DATE, Person.Gender.MALE);
+        DedupeRecord otherBirthDate = new DedupeRecord(2, "John", null, "Smith", BIRTH_DATE.plusDays(1), Person.Gender.MALE);
+        DedupeRecord otherGender = new DedupeRecord(3, "John", null, "Smith", BIRTH_DATE, Person.Gender.FEMALE);
+        assertTrue(scorer.score(first, otherBirthDate) < 0.85);
+        assertTrue(scorer.score(first, otherGender) < 0.85);
+    }
+
+}
@@ -0,0 +1,126 @@
+package io.craigmiller160.orgbuilder.api.v1.testutil;
+
+import io.craigmiller160.orgbuilder.api.v1.migration.SchemaMigrator;
+import org.hibernate.SessionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.hibernate4.HibernateTransactionManager;
+import org.springframework.orm.hibernate4.LocalSessionFactoryBean;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An embedded H2 database in MySQL mode, with the
+ * application's migrations applied and a SessionFactory
+ * configured like the one in data-config.xml, for tests
+ * that need a real database.
+ *
+ * Each instance is a new, empty database. It must be
+ * closed at the end of the test, which also empties the
+ * second-level cache, as that is shared by every
+ * SessionFactory in the JVM.
+ */
+public class H2TestDatabase implements AutoCloseable {
+
+    public static final int BATCH_SIZE = 50;
+
+    private static final AtomicInteger DATABASE_COUNT = new AtomicInteger();
+
+    private final DriverManagerDataSource dataSource;
+    private final SessionFactory sessionFactory;
+    private final HibernateTransactionManager transactionManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Create a new database and bring its schema up to date.
+     *
+     * @throws Exception if the migrations fail.
+     */
+    public H2TestDatabase() throws Exception{
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:test" + DATABASE_COUNT.incrementAndGet() +
+                ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        dataSource.setDriverClassName("org.h2.Driver");
+
+        SchemaMigrator migrator = new SchemaMigrator();
+        migrator.setDataSource(dataSource);
+        migrator.migrate();
+
+        Properties properties = new Properties();
+        properties.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.setProperty("hibernate.jdbc.batch_size", String.valueOf(BATCH_SIZE));
+        properties.setProperty("hibernate.order_inserts", "true");
+        properties.setProperty("hibernate.order_updates", "true");
+        properties.setProperty("hibernate.jdbc.batch_versioned_data", "true");
+        properties.setProperty("hibernate.id.new_generator_mappings", "true");
+        properties.setProperty("hibernate.id.optimizer.pooled.prefer_lo", "true");
+        properties.setProperty("hibernate.cache.use_second_level_cache", "true");
+        properties.setProperty("hibernate.cache.region.factory_class", "org.hibernate.cache.ehcache.SingletonEhCacheRegionFactory");
+        properties.setProperty("hibernate.cache.use_query_cache", "true");
+        properties.setProperty("net.sf.ehcache.configurationResourceName", "/ehcache.xml");
+        properties.setProperty("hibernate.generate_statistics", "true");
+        properties.setProperty("hibernate.session.events.log", "false");
+
+        LocalSessionFactoryBean factoryBean = new LocalSessionFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan("io.craigmiller160.orgbuilder.api.v1.model");
+        factoryBean.setHibernateProperties(properties);
+        factoryBean.afterPropertiesSet();
+        sessionFactory = factoryBean.getObject();
+        transactionManager = new HibernateTransactionManager(sessionFactory);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public SessionFactory getSessionFactory(){
+        return sessionFactory;
+    }
+
+    public HibernateTransactionManager getTransactionManager(){
+        return transactionManager;
+    }
+
+    /**
+     * Get a JdbcTemplate for the database, to write
+     * rows the way another application instance would,
+     * or to check what was written.
+     *
+     * @return the JdbcTemplate.
+     */
+    public JdbcTemplate getJdbcTemplate(){
+        return jdbcTemplate;
+    }
+
+    /**
+     * Run a callback in a read-write transaction,
+     * which commits unless the callback throws or
+     * marks it for rollback.
+     *
+     * @param callback the callback.
+     * @param <T> the type of the callback's result.
+     * @return the result of the callback.
+     */
+    public <T> T inTransaction(TransactionCallback<T> callback){
+        return new TransactionTemplate(transactionManager).execute(callback);
+    }
+
+    /**
+     * Count the rows of a table.
+     *
+     * @param table the name of the table.
+     * @return the number of rows.
+     */
+    public int count(String table){
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Integer.class);
+    }
+
+    @Override
+    public void close(){
+        sessionFactory.getCache().evictAllRegions();
+        sessionFactory.close();
+        jdbcTemplate.execute("drop all objects");
+        jdbcTemplate.execute("shutdown");
+    }
+
+}
@@ -1,20 +1,33 @@
 package io.craigmiller160.orgbuilder.api.v1.testutil;
 
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+import io.craigmiller160.orgbuilder.api.v1.model.PersonAddress;
+import io.craigmiller160.orgbuilder.api.v1.model.PersonEmail;
+import io.craigmiller160.orgbuilder.api.v1.model.PersonPhone;
+import io.craigmiller160.orgbuilder.api.v1.model.util.IdGenerators;
 import org.hibernate.HibernateException;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
-import org.hibernate.dialect.Dialect;
-import org.hibernate.dialect.MySQLDialect;
 import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.TableGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
  * A special utility class to allow Hibernate
- * to reset the auto-increment counters in
- * the database. Currently only implemented
- * to work with MySQL, as the command requires
- * database-dialect specific SQL.
+ * to reset the ID counters in the database.
+ *
+ * IDs are leased from the id_sequences table in
+ * blocks, and the SessionFactory hands out the rest
+ * of its current block before it leases another. So
+ * each sequence is reset to the ID after the highest
+ * one in its table, or after the block the SessionFactory
+ * has leased if that is higher, and never restarts
+ * at an ID that could still be handed out.
  *
  * Created by Craig on 1/10/2016.
  */
@@ -34,79 +47,47 @@ public class HibernateTestUtil {
     }
 
     /**
-     * Reset the auto-increment counter on
-     * the database table for the Person class.
+     * Reset the ID counter of the
+     * database table for the Person class.
      *
      * @throws HibernateException if Hibernate is unable to
      *                  execute the query.
-     * @throws UnsupportedOperationException if the database
-     *                  being used is not MySQL.
      */
     public void resetPersonAutoIncrement(){
-        if(isMySQLDialect()){
-            executeResetAutoIncrement("people");
-        }
-        else{
-            throw new UnsupportedOperationException(
-                    "Method is only compatible with MySQL database");
-        }
+        executeResetIdSequence("people", "person_id", Person.class, IdGenerators.PEOPLE_SEQUENCE);
     }
 
     /**
-     * Reset the auto-increment counter on
-     * the database table for the PersonAddress class.
+     * Reset the ID counter of the
+     * database table for the PersonAddress class.
      *
      * @throws HibernateException if Hibernate is unable to
      *                  execute the query.
-     * @throws UnsupportedOperationException if the database
-     *                  being used is not MySQL.
      */
     public void resetPersonAddressAutoIncrement(){
-        if(isMySQLDialect()){
-            executeResetAutoIncrement("people_addresses");
-        }
-        else{
-            throw new UnsupportedOperationException(
-                    "Method is only compatible with MySQL database");
-        }
+        executeResetIdSequence("people_addresses", "address_id", PersonAddress.class, IdGenerators.ADDRESSES_SEQUENCE);
     }
 
     /**
-     * Reset the auto-increment counter on
-     * the database table for the PersonPhone class.
+     * Reset the ID counter of the
+     * database table for the PersonPhone class.
      *
-     * @throws UnsupportedOperationException if the database
-     *                  being used is not MySQL.
      * @throws HibernateException if Hibernate is unable to
      *                  execute the query.
      */
     public void resetPersonPhoneAutoIncrement(){
-        if(isMySQLDialect()){
-            executeResetAutoIncrement("people_phones");
-        }
-        else{
-            throw new UnsupportedOperationException(
-                    "Method is only compatible with MySQL database");
-        }
+        executeResetIdSequence("people_phones", "phone_id", PersonPhone.class, IdGenerators.PHONES_SEQUENCE);
     }
 
     /**
-     * Reset the auto-increment counter on
-     * the database table for the PersonEmail class.
+     * Reset the ID counter of the
+     * database table for the PersonEmail class.
      *
-     * @throws UnsupportedOperationException if the database
-     *                  being used is not MySQL.
      * @throws HibernateException if Hibernate is unable to
      *                  execute the query.
      */
     public void resetPersonEmailAutoIncrement(){
-        if(isMySQLDialect()){
-            executeResetAutoIncrement("people_emails");
-        }
-        else{
-            throw new UnsupportedOperationException(
-                    "Method is only compatible with MySQL database");
-        }
+        executeResetIdSequence("people_emails", "email_id", PersonEmail.class, IdGenerators.EMAILS_SEQUENCE);
     }
 
     /**
@@ -116,8 +97,6 @@ public class HibernateTestUtil {
      *
      * @throws HibernateException if Hibernate is unable to
      *                  execute the query.
-     * @throws HibernateException if Hibernate is unable to
-     *                  execute the query.
      */
     public void resetAllPersonEntityAutoIncrement(){
         resetPersonAutoIncrement();
@@ -127,51 +106,52 @@ public class HibernateTestUtil {
     }
 
     /**
-     * Get the SQL Dialect used by the current
-     * SessionFactory.
-     *
-     * @return the SQL Dialect used by the current
-     * SessionFactory.
-     */
-    private Dialect getDialect(){
-        return ((SessionFactoryImplementor) sessionFactory).getDialect();
-    }
-
-    /**
-     * Test if the SQL Dialect used by the current
-     * SessionFactory is for MySQL.
-     *
-     * @return true if the dialect is for MySQL.
-     */
-    private boolean isMySQLDialect(){
-        return getDialect() instanceof MySQLDialect;
-    }
-
-    /**
-     * Create the SQL Query for resetting the counter
-     * in the specified table.
+     * Set the next ID of a sequence to the first ID that
+     * is neither in the table nor in the block of IDs the
+     * SessionFactory has leased for the entity.
      *
-     * @param tableName the name of the table to reset
-     *                  the counter for.
-     * @return the query to reset the counter of the table.
+     * @param tableName the table of the entity.
+     * @param idColumn the ID column of the table.
+     * @param entityClass the entity class.
+     * @param sequence the name of the entity's ID sequence.
+     * @throws HibernateException if Hibernate is unable to
+     *                  execute the query.
      */
-    private String createQuery(String tableName){
-        return "alter table " + tableName + " auto_increment = 1";
+    private void executeResetIdSequence(String tableName, String idColumn, Class<?> entityClass, String sequence){
+        Session session = sessionFactory.getCurrentSession();
+        long nextId = ((Number) session.createSQLQuery("select coalesce(max(" + idColumn + "), 0) + 1 from " + tableName)
+                .uniqueResult()).longValue();
+        session.createSQLQuery("update " + IdGenerators.TABLE + " set " + IdGenerators.VALUE_COLUMN +
+                        " = :nextId where " + IdGenerators.SEGMENT_COLUMN + " = :sequence")
+                .setParameter("nextId", Math.max(nextId, getFirstUnleasedId(entityClass)))
+                .setParameter("sequence", sequence)
+                .executeUpdate();
     }
 
     /**
-     * Use the SessionFactory to execute a reset operation
-     * on the auto-increment counter of the specified
-     * table.
+     * Get the first ID after the block of IDs that the
+     * SessionFactory has leased for an entity.
      *
-     * @param tableName the table to reset the counter on.
-     * @throws HibernateException if Hibernate is unable to
-     *                  execute the query.
+     * @param entityClass the entity class.
+     * @return the first ID after the leased block, or 1
+     *          if no block has been leased yet.
      */
-    private void executeResetAutoIncrement(String tableName){
-        sessionFactory.getCurrentSession()
-                .createSQLQuery(createQuery(tableName))
-                .executeUpdate();
+    private long getFirstUnleasedId(Class<?> entityClass){
+        IdentifierGenerator generator = ((SessionFactoryImplementor) sessionFactory)
+                .getIdentifierGenerator(entityClass.getName());
+        if(generator instanceof TableGenerator){
+            Optimizer optimizer = ((TableGenerator) generator).getOptimizer();
+            try{
+                IntegralDataTypeHolder lastSourceValue = optimizer.getLastSourceValue();
+                if(lastSourceValue != null){
+                    return lastSourceValue.makeValue().longValue() + optimizer.getIncrementSize();
+                }
+            }
+            catch(IllegalStateException ex){
+                //The optimizer has no state until it leases its first block
+            }
+        }
+        return 1;
     }
 
 }
@@ -0,0 +1,134 @@
+package io.craigmiller160.orgbuilder.api.v1.testutil;
+
+import io.craigmiller160.orgbuilder.api.v1.model.Person;
+import io.craigmiller160.orgbuilder.api.v1.model.PersonEmail;
+import io.craigmiller160.orgbuilder.api.v1.model.PersonPhone;
+import io.craigmiller160.orgbuilder.api.v1.util.EmailAddresses;
+import io.craigmiller160.orgbuilder.api.v1.util.NameEncoder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Factories for the people used by the tests of the
+ * in-memory indexes, both as HibPersonRepo would hand
+ * them to an index, and as rows written straight to
+ * the database.
+ */
+public class TestPeople {
+
+    /**
+     * Create a person with their phonetic
+     * name keys, as HibPersonRepo saves them.
+     *
+     * @param personId the ID of the person.
+     * @param firstName the first name.
+     * @param middleName the middle name.
+     * @param lastName the last name.
+     * @return the person.
+     */
+    public static Person person(Long personId, String firstName, String middleName, String lastName){
+        Person person = new Person();
+        person.setPersonId(personId);
+        person.setFirstName(firstName);
+        person.setMiddleName(middleName);
+        person.setLastName(lastName);
+        person.setFirstNameKey(NameEncoder.encode(firstName));
+        person.setLastNameKey(NameEncoder.encode(lastName));
+        return person;
+    }
+
+    /**
+     * Create a person with no middle name.
+     *
+     * @param personId the ID of the person.
+     * @param firstName the first name.
+     * @param lastName the last name.
+     * @return the person.
+     */
+    public static Person person(Long personId, String firstName, String lastName){
+        return person(personId, firstName, null, lastName);
+    }
+
+    /**
+     * Give a person emails, with their
+     * normalized addresses.
+     *
+     * @param person the person.
+     * @param emailAddresses the email addresses.
+     * @return the person.
+     */
+    public static Person withEmails(Person person, String... emailAddresses){
+        for(String emailAddress : emailAddresses){
+            PersonEmail email = new PersonEmail();
+            email.setEmailAddress(emailAddress);
+            email.setEmailKey(EmailAddresses.normalize(emailAddress));
+            person.addEmail(email);
+        }
+        return person;
+    }
+
+    /**
+     * Give a person phones, with their packed numbers.
+     *
+     * @param person the person.
+     * @param numbers the ten digit phone numbers.
+     * @return the person.
+     */
+    public static Person withPhones(Person person, long... numbers){
+        for(long number : numbers){
+            String digits = String.format("%010d", number);
+            PersonPhone phone = new PersonPhone();
+            phone.setAreaCode(digits.substring(0, 3));
+            phone.setPrefix(digits.substring(3, 6));
+            phone.setLineNumber(digits.substring(6));
+            phone.setPackedNumber(number);
+            person.addPhone(phone);
+        }
+        return person;
+    }
+
+    /**
+     * Insert a person straight into the people table,
+     * as another application instance or an older version
+     * of this one would, so they have no phonetic keys.
+     *
+     * @param jdbcTemplate the JdbcTemplate of the database.
+     * @param personId the ID of the person.
+     * @param firstName the first name.
+     * @param lastName the last name.
+     */
+    public static void insertPerson(JdbcTemplate jdbcTemplate, long personId, String firstName, String lastName){
+        jdbcTemplate.update("insert into people (person_id, last_modified, first_name, last_name) " +
+                "values (?, current_timestamp, ?, ?)", personId, firstName, lastName);
+    }
+
+    /**
+     * Insert an email straight into the emails
+     * table, with no normalized address.
+     *
+     * @param jdbcTemplate the JdbcTemplate of the database.
+     * @param emailId the ID of the email.
+     * @param personId the ID of the person with the email.
+     * @param emailAddress the email address.
+     */
+    public static void insertEmail(JdbcTemplate jdbcTemplate, long emailId, long personId, String emailAddress){
+        jdbcTemplate.update("insert into people_emails (email_id, last_modified, person_id, email_address) " +
+                "values (?, current_timestamp, ?, ?)", emailId, personId, emailAddress);
+    }
+
+    /**
+     * Insert a phone straight into the phones
+     * table, with no packed number.
+     *
+     * @param jdbcTemplate the JdbcTemplate of the database.
+     * @param phoneId the ID of the phone.
+     * @param personId the ID of the person with the phone.
+     * @param number the ten digit phone number.
+     */
+    public static void insertPhone(JdbcTemplate jdbcTemplate, long phoneId, long personId, long number){
+        String digits = String.format("%010d", number);
+        jdbcTemplate.update("insert into people_phones (phone_id, last_modified, person_id, area_code, prefix, line_number) " +
+                "values (?, current_timestamp, ?, ?, ?, ?)",
+                phoneId, personId, digits.substring(0, 3), digits.substring(3, 6), digits.substring(6));
+    }
+
+}
@@ -0,0 +1,89 @@
+package io.craigmiller160.orgbuilder.api.v1.util;
+
+import io.craigmiller160.orgbuilder.api.v1.model.Address;
+import io.craigmiller160.orgbuilder.api.v1.model.PersonAddress;
+import io.craigmiller160.orgbuilder.api.v1.model.State;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * JUnit test case for the AddressParser
+ * class and its methods.
+ */
+public class AddressParserTest {
+
+    @Test
+    public void testParseWithCommas(){
+        assertAddress(AddressParser.parse("123 Main Street Apt 4B, Springfield, IL 62704"),
+                "123 Main St", "4B", null, "Springfield", State.IL, "62704");
+        assertAddress(AddressParser.parse("9 Elm Ave., Suite 200, New York, New York 100011234"),
+                "9 Elm Ave", "200", null, "New York", State.NY, "10001-1234");
+        assertAddress(AddressParser.parse(" 77  Court St #12 ,  St. Louis ,MO 63101-0001 "),
+                "77 Court St", "12", null, "St. Louis", State.MO, "63101-0001");
+    }
+
+    @Test
+    public void testParseWithoutCommas(){
+        assertAddress(AddressParser.parse("123 Park Ave Highland Park IL 60035"),
+                "123 Park Ave", null, null, "Highland Park", State.IL, "60035");
+        assertAddress(AddressParser.parse("500 Broadway Unit 3 Kansas City MO"),
+                "500 Broadway", "3", null, "Kansas City", State.MO, null);
+        assertAddress(AddressParser.parse("500 Broadway"),
+                "500 Broadway", null, null, null, null, null);
+    }
+
+    @Test
+    public void testParsePoBox(){
+        assertAddress(AddressParser.parse("P.O. Box 12, Dover, DE 19901"),
+                null, null, "12", "Dover", State.DE, "19901");
+        assertAddress(AddressParser.parse("Post Office Box 7 Charleston West Virginia 25301"),
+                null, null, "7", "Charleston", State.WV, "25301");
+    }
+
+    @Test
+    public void testParseCityOnly(){
+        assertAddress(AddressParser.parse("Springfield, IL"),
+                null, null, null, "Springfield", State.IL, null);
+        assertAddress(AddressParser.parse("Washington, District of Columbia 20001"),
+                null, null, null, "Washington", State.DC, "20001");
+    }
+
+    @Test
+    public void testParseBlank(){
+        assertNull(AddressParser.parse("  ,  "));
+        assertNull(AddressParser.parse(null));
+    }
+
+    @Test
+    public void testParseAll(){
+        List<String> lines = new ArrayList<>();
+        for(int i = 0; i < 10000; i++){
+            lines.add(i % 100 == 0 ? "" : i + " Main St, Springfield, IL 62704");
+        }
+
+        List<PersonAddress> addresses = AddressParser.parseAll(lines, PersonAddress::new);
+        assertEquals(lines.size(), addresses.size());
+        for(int i = 0; i < lines.size(); i++){
+            if(i % 100 == 0){
+                assertNull(addresses.get(i));
+            }
+            else{
+                assertAddress(addresses.get(i), i + " Main St", null, null, "Springfield", State.IL, "62704");
+            }
+        }
+    }
+
+    private static void assertAddress(Address address, String streetAddress, String unit, String poBox,
+                                      String city, State state, String zip){
+        assertEquals(Arrays.asList(streetAddress, unit, poBox, city, state, zip),
+                Arrays.asList(address.getStreetAddress(), address.getUnit(), address.getPoBox(),
+                        address.getCity(), address.getState(), address.getZip()));
+    }
+
+}
@@ -0,0 +1,31 @@
+package io.craigmiller160.orgbuilder.api.v1.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * JUnit test case for the EmailAddresses
+ * class and its methods.
+ */
+public class EmailAddressesTest {
+
+    @Test
+    public void testNormalize(){
+        assertEquals("bob@example.com", EmailAddresses.normalize("  Bob@Example.COM "));
+        assertEquals("bob@example.com", EmailAddresses.normalize("bob@example.com"));
+        assertNull(EmailAddresses.normalize("   "));
+        assertNull(EmailAddresses.normalize(null));
+    }
+
+    @Test
+    public void testDomainOf(){
+        assertEquals("example.com", EmailAddresses.domainOf("bob@example.com"));
+        assertEquals("example.com", EmailAddresses.domainOf("\"a@b\"@example.com"));
+        assertNull(EmailAddresses.domainOf("bob@"));
+        assertNull(EmailAddresses.domainOf("bob"));
+        assertNull(EmailAddresses.domainOf(null));
+    }
+
+}
@@ -0,0 +1,56 @@
+package io.craigmiller160.orgbuilder.api.v1.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * JUnit test case for the LatencyHistogram
+ * class and its methods.
+ */
+public class LatencyHistogramTest {
+
+    private static final long MILLI = 1000000;
+
+    @Test
+    public void testPercentiles(){
+        LatencyHistogram histogram = new LatencyHistogram();
+        for(int i = 0; i < 99; i++){
+            histogram.record(MILLI);
+        }
+        histogram.record(100 * MILLI);
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(100, histogram.getMaxMillis(), 0);
+
+        // Accurate to within a factor of two
+        double median = histogram.getPercentileMillis(0.5);
+        assertTrue("Median: " + median, median >= 1 && median <= 2.1);
+        double p99 = histogram.getPercentileMillis(0.99);
+        assertTrue("99th: " + p99, p99 >= 1 && p99 <= 2.1);
+        assertEquals(100, histogram.getPercentileMillis(1), 0);
+        assertEquals(1.99, histogram.getMeanMillis(), 0.001);
+    }
+
+    @Test
+    public void testZeroDurations(){
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(0);
+        histogram.record(500);
+
+        assertEquals(0, histogram.getPercentileMillis(0.99), 0);
+    }
+
+    @Test
+    public void testReset(){
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(5 * MILLI);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentileMillis(0.5), 0);
+        assertEquals(0, histogram.getMaxMillis(), 0);
+    }
+
+}
@@ -0,0 +1,69 @@
+package io.craigmiller160.orgbuilder.api.v1.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * JUnit test case for the LongBloomFilter
+ * class and its methods.
+ */
+public class LongBloomFilterTest {
+
+    @Test
+    public void testNoFalseNegatives(){
+        LongBloomFilter filter = new LongBloomFilter(10000, 0.01);
+        for(long i = 1; i <= 10000; i++){
+            filter.put(i);
+        }
+
+        for(long i = 1; i <= 10000; i++){
+            assertTrue(filter.mightContain(i));
+        }
+        assertEquals(10000, filter.getInsertCount());
+    }
+
+    @Test
+    public void testFalsePositiveRate(){
+        LongBloomFilter filter = new LongBloomFilter(10000, 0.01);
+        for(long i = 1; i <= 10000; i++){
+            filter.put(i);
+        }
+
+        int falsePositives = 0;
+        for(long i = 10001; i <= 110000; i++){
+            if(filter.mightContain(i)){
+                falsePositives++;
+            }
+        }
+
+        // Allow some slack above the configured 1%
+        assertTrue("False positives: " + falsePositives, falsePositives < 1500);
+        assertTrue(filter.getEstimatedFalsePositiveRate() < 0.015);
+    }
+
+    @Test
+    public void testEmpty(){
+        LongBloomFilter filter = new LongBloomFilter(100, 0.01);
+        assertFalse(filter.mightContain(1));
+        assertEquals(0, filter.getEstimatedFalsePositiveRate(), 0);
+    }
+
+    @Test
+    public void testSizing(){
+        LongBloomFilter filter = new LongBloomFilter(1000000, 0.01);
+
+        // About 9.6 bits per value and 7 hash functions at 1%
+        assertTrue(filter.getBitCount() >= 9585059);
+        assertTrue(filter.getSizeInBytes() < 1250000);
+        assertEquals(7, filter.getHashCount());
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testInvalidFalsePositiveRate(){
+        new LongBloomFilter(100, 1.5);
+    }
+
+}
@@ -0,0 +1,66 @@
+package io.craigmiller160.orgbuilder.api.v1.util;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * JUnit test case for the LongLongHashMap
+ * class and its methods.
+ */
+public class LongLongHashMapTest {
+
+    @Test
+    public void testPutGetRemove(){
+        LongLongHashMap map = new LongLongHashMap();
+        assertEquals(LongLongHashMap.NO_VALUE, map.put(5551234567L, 1));
+        assertEquals(1, map.put(5551234567L, 2));
+        assertEquals(2, map.get(5551234567L));
+        assertTrue(map.containsKey(5551234567L));
+        assertEquals(LongLongHashMap.NO_VALUE, map.get(1));
+
+        assertEquals(2, map.remove(5551234567L));
+        assertEquals(LongLongHashMap.NO_VALUE, map.remove(5551234567L));
+        assertFalse(map.containsKey(5551234567L));
+        assertTrue(map.isEmpty());
+    }
+
+    /**
+     * Apply the same random operations to the map and a
+     * HashMap, over a small range of keys so that removals
+     * often land in the middle of a run of probes.
+     */
+    @Test
+    public void testAgainstHashMap(){
+        LongLongHashMap map = new LongLongHashMap();
+        Map<Long,Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for(int i = 0; i < 200000; i++){
+            long key = random.nextInt(5000);
+            if(random.nextInt(3) == 0){
+                Long removed = expected.remove(key);
+                assertEquals(removed != null ? removed : LongLongHashMap.NO_VALUE, map.remove(key));
+            }
+            else{
+                Long previous = expected.put(key, (long) i);
+                assertEquals(previous != null ? previous : LongLongHashMap.NO_VALUE, map.put(key, i));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for(long key = 0; key < 5000; key++){
+            Long value = expected.get(key);
+            assertEquals(value != null ? value : LongLongHashMap.NO_VALUE, map.get(key));
+        }
+
+        map.clear();
+        assertEquals(0, map.size());
+    }
+
+}
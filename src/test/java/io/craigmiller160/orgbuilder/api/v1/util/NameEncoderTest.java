@@ -0,0 +1,62 @@
+package io.craigmiller160.orgbuilder.api.v1.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * JUnit test case for the NameEncoder
+ * class and its methods.
+ */
+public class NameEncoderTest {
+
+    @Test
+    public void testEncode(){
+        assertEquals(NameEncoder.encode("Miller"), NameEncoder.encode("Mueller"));
+        assertEquals(NameEncoder.encode("Catherine"), NameEncoder.encode("Kathryn"));
+        assertEquals(NameEncoder.encode("Smith"), NameEncoder.encode("smith"));
+        assertEquals(NameEncoder.encode("O'Brien"), NameEncoder.encode("OBrien"));
+        assertNotEquals(NameEncoder.encode("Miller"), NameEncoder.encode("Jones"));
+    }
+
+    @Test
+    public void testEncodeAlternate(){
+        assertEquals(NameEncoder.encode("Schmidt"), NameEncoder.encodeAlternate("Smith"));
+        assertEquals(NameEncoder.encode("Miller"), NameEncoder.encodeAlternate("Miller"));
+    }
+
+    @Test
+    public void testNoLetters(){
+        assertNull(NameEncoder.encode(null));
+        assertNull(NameEncoder.encode(" - "));
+        assertNull(NameEncoder.encodeAlternate(""));
+    }
+
+    @Test
+    public void testEditDistance(){
+        assertEquals(0, NameEncoder.editDistance("Miller", "miller"));
+        assertEquals(2, NameEncoder.editDistance("Miller", "Mueller"));
+        assertEquals(3, NameEncoder.editDistance("kitten", "sitting"));
+        assertEquals(3, NameEncoder.editDistance("sitting", "kitten"));
+        assertEquals(5, NameEncoder.editDistance("", "Smith"));
+        assertEquals(0, NameEncoder.editDistance("Jos\u00e9", "jose"));
+    }
+
+    @Test
+    public void testFold(){
+        assertEquals("jose garcia", NameEncoder.fold("Jos\u00e9 GARC\u00cdA"));
+        assertEquals("o'brien", NameEncoder.fold("O'Brien"));
+        assertEquals("", NameEncoder.fold(null));
+    }
+
+    @Test
+    public void testClean(){
+        assertEquals("obrien", NameEncoder.clean("O'Brien "));
+        assertEquals("obrien", NameEncoder.clean("o brien"));
+        assertEquals("garcia", NameEncoder.clean("Garc\u00eda"));
+        assertEquals("", NameEncoder.clean(" - "));
+    }
+
+}
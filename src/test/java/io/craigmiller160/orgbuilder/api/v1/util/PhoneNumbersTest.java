@@ -0,0 +1,39 @@
+package io.craigmiller160.orgbuilder.api.v1.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * JUnit test case for the PhoneNumbers
+ * class and its methods.
+ */
+public class PhoneNumbersTest {
+
+    @Test
+    public void testPack(){
+        assertEquals(5551234567L, PhoneNumbers.pack("555", "123", "4567"));
+        assertEquals(12340L, PhoneNumbers.pack("000", "001", "2340"));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.pack("555", "123", null));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.pack("55", "123", "4567"));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.pack("5a5", "123", "4567"));
+    }
+
+    @Test
+    public void testParse(){
+        assertEquals(5551234567L, PhoneNumbers.parse("(555) 123-4567"));
+        assertEquals(5551234567L, PhoneNumbers.parse("+1 555.123.4567"));
+        assertEquals(5551234567L, PhoneNumbers.parse("5551234567"));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.parse("2 555 123 4567"));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.parse("123-4567"));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.parse("1 1 555 123 4567"));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.parse(null));
+    }
+
+    @Test
+    public void testFormat(){
+        assertEquals("(555) 123-4567", PhoneNumbers.format(5551234567L));
+        assertEquals("(000) 001-2340", PhoneNumbers.format(12340L));
+    }
+
+}
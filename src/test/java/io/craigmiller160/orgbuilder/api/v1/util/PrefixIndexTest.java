@@ -0,0 +1,97 @@
+package io.craigmiller160.orgbuilder.api.v1.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * JUnit test case for the PrefixIndex
+ * class and its methods.
+ */
+public class PrefixIndexTest {
+
+    @Test
+    public void testSearch(){
+        PrefixIndex index = new PrefixIndex();
+        index.add("smith", 3);
+        index.add("smith", 1);
+        index.add("smithers", 2);
+        index.add("smyth", 4);
+        index.add("jones", 5);
+
+        assertArrayEquals(new long[]{1, 3, 2}, index.search("smith", 10));
+        assertArrayEquals(new long[]{1, 3, 2, 4}, index.search("sm", 10));
+        assertArrayEquals(new long[]{1, 3}, index.search("sm", 2));
+        assertArrayEquals(new long[0], index.search("x", 10));
+        assertArrayEquals(new long[0], index.search("smith", 0));
+    }
+
+    @Test
+    public void testNoDuplicates(){
+        PrefixIndex index = new PrefixIndex();
+        index.add("ann", 1);
+        index.add("anna", 1);
+        index.add("anna", 1);
+        for(long id = 2; id < 100; id++){
+            index.add("annabel", id);
+        }
+
+        long[] found = index.search("ann", 1000);
+        assertEquals(99, found.length);
+        assertEquals(1, found[0]);
+        assertEquals(3, index.getKeyCount());
+        assertEquals(100, index.getPostingCount());
+    }
+
+    @Test
+    public void testRemove(){
+        PrefixIndex index = new PrefixIndex();
+        index.add("lee", 1);
+        index.add("lee", 2);
+        index.remove("lee", 1);
+        index.remove("lee", 7);
+        index.remove("missing", 1);
+
+        assertArrayEquals(new long[]{2}, index.search("le", 10));
+        index.remove("lee", 2);
+        assertEquals(0, index.getKeyCount());
+        assertEquals(0, index.getPostingCount());
+
+        index.add("lee", 3);
+        index.clear();
+        assertArrayEquals(new long[0], index.search("", 10));
+    }
+
+    @Test
+    public void testSearchAll(){
+        PrefixIndex index = new PrefixIndex();
+        index.add("smith", 3);
+        index.add("smith", 1);
+        index.add("smithers", 2);
+        index.add("smithers", 3);
+        index.add("smyth", 4);
+
+        assertArrayEquals(new long[]{1, 2, 3}, index.searchAll("smi"));
+        assertArrayEquals(new long[]{1, 2, 3, 4}, index.searchAll("s"));
+        assertArrayEquals(new long[]{4}, index.searchAll("smyth"));
+        assertArrayEquals(new long[0], index.searchAll("x"));
+    }
+
+    @Test
+    public void testUnionAndIntersect(){
+        assertArrayEquals(new long[]{1, 2, 3, 5}, PrefixIndex.union(new long[]{1, 3, 5}, new long[]{2, 3}));
+        assertArrayEquals(new long[]{3}, PrefixIndex.intersect(new long[]{1, 3, 5}, new long[]{2, 3}));
+        assertArrayEquals(new long[0], PrefixIndex.intersect(new long[]{1}, new long[0]));
+    }
+
+    @Test
+    public void testWithout(){
+        long[] ids = {1, 3, 5};
+        assertArrayEquals(new long[]{1, 5}, PrefixIndex.without(ids, 3));
+        assertArrayEquals(new long[0], PrefixIndex.without(new long[]{3}, 3));
+        assertSame(ids, PrefixIndex.without(ids, 4));
+    }
+
+}